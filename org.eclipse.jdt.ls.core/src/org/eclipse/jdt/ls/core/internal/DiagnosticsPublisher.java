@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+
+/**
+ * Publishes diagnostics to the client.
+ * <p>
+ * Diagnostics are buffered per uri and sent after a short delay, so only the
+ * latest diagnostics of a resource updated several times in a row, e.g. during
+ * a build, are sent. Buffered diagnostics of open documents are sent first.
+ * Diagnostics identical to the ones last sent for a uri are not sent again.
+ * The diagnostics of a uri are sent in order, by one thread at a time, without
+ * holding a lock other publishers wait on.
+ * </p>
+ */
+public class DiagnosticsPublisher {
+
+	/**
+	 * Delay, in milliseconds, during which diagnostics updates are coalesced
+	 */
+	public static final long DEFAULT_DELAY = 200;
+
+	private final Consumer<PublishDiagnosticsParams> sender;
+	private final long delay;
+	private final Map<String, Update> pending = new LinkedHashMap<>();
+	private final Map<String, Update> lastSent = new HashMap<>();
+	/**
+	 * The updates to send once the updates of the same uri being sent are,
+	 * guarded by {@link #lastSent}.
+	 */
+	private final Map<String, Update> queued = new HashMap<>();
+	/**
+	 * The uris whose updates are being sent, guarded by {@link #lastSent}.
+	 */
+	private final Set<String> sending = new HashSet<>();
+	private final AtomicLong sentCount = new AtomicLong();
+	private final AtomicLong suppressedCount = new AtomicLong();
+	private final Job flushJob;
+	private boolean scheduled;
+	private long sequence;
+
+	public DiagnosticsPublisher(Consumer<PublishDiagnosticsParams> sender) {
+		this(sender, DEFAULT_DELAY);
+	}
+
+	public DiagnosticsPublisher(Consumer<PublishDiagnosticsParams> sender, long delay) {
+		this.sender = sender;
+		this.delay = delay;
+		this.flushJob = new Job("Publish diagnostics") {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				flush();
+				return Status.OK_STATUS;
+			}
+		};
+		this.flushJob.setSystem(true);
+	}
+
+	/**
+	 * Buffers the diagnostics of a uri, replacing any diagnostics of the same
+	 * uri not sent yet.
+	 */
+	public void publish(PublishDiagnosticsParams diagnostics) {
+		synchronized (pending) {
+			if (pending.put(diagnostics.getUri(), new Update(diagnostics, ++sequence)) != null) {
+				suppressedCount.incrementAndGet();
+			}
+			if (scheduled) {
+				return;
+			}
+			scheduled = true;
+		}
+		flushJob.schedule(delay);
+	}
+
+	/**
+	 * Sends the diagnostics of a uri right away, e.g. the diagnostics of the
+	 * document being edited. Buffered diagnostics of that uri are discarded.
+	 */
+	public void publishNow(PublishDiagnosticsParams diagnostics) {
+		Update update;
+		synchronized (pending) {
+			if (pending.remove(diagnostics.getUri()) != null) {
+				suppressedCount.incrementAndGet();
+			}
+			update = new Update(diagnostics, ++sequence);
+		}
+		send(update);
+	}
+
+	/**
+	 * Sends all buffered diagnostics, open documents first.
+	 */
+	public void flush() {
+		List<Update> updates;
+		synchronized (pending) {
+			scheduled = false;
+			if (pending.isEmpty()) {
+				return;
+			}
+			updates = new ArrayList<>(pending.values());
+			pending.clear();
+		}
+		Set<String> openDocuments = getOpenDocuments();
+		updates.sort(Comparator.comparing(u -> !openDocuments.contains(u.params.getUri())));
+		for (Update update : updates) {
+			send(update);
+		}
+	}
+
+	/**
+	 * Forgets the diagnostics last sent for a uri, e.g. when its document is
+	 * closed or its file is deleted.
+	 */
+	public void forget(String uri) {
+		synchronized (lastSent) {
+			lastSent.remove(uri);
+		}
+	}
+
+	/**
+	 * Forgets the diagnostics last sent for the uris of a folder, e.g. when it
+	 * is deleted or its project is closed.
+	 */
+	public void forgetAll(String folderUri) {
+		String prefix = folderUri.endsWith("/") ? folderUri : folderUri + "/";
+		synchronized (lastSent) {
+			lastSent.keySet().removeIf(uri -> uri.startsWith(prefix));
+		}
+	}
+
+	/**
+	 * Discards the buffered diagnostics.
+	 */
+	public void dispose() {
+		flushJob.cancel();
+		synchronized (pending) {
+			pending.clear();
+			scheduled = false;
+		}
+	}
+
+	/**
+	 * @return the number of diagnostics notifications sent to the client
+	 */
+	public long getSentCount() {
+		return sentCount.get();
+	}
+
+	/**
+	 * @return the number of diagnostics notifications not sent because they
+	 *         were superseded or identical to the ones last sent
+	 */
+	public long getSuppressedCount() {
+		return suppressedCount.get();
+	}
+
+	/**
+	 * @return the client uris of the open documents
+	 */
+	protected Set<String> getOpenDocuments() {
+		Set<String> uris = new HashSet<>();
+		for (ICompilationUnit unit : JavaCore.getWorkingCopies(null)) {
+			if (unit.getResource() != null) {
+				uris.add(ResourceUtils.toClientUri(JDTUtils.toURI(unit)));
+			}
+		}
+		return uris;
+	}
+
+	private void send(Update update) {
+		String uri = update.params.getUri();
+		synchronized (lastSent) {
+			Update previous = lastSent.get(uri);
+			if (previous != null && previous.sequence > update.sequence) {
+				// a newer update was sent while this one was being flushed
+				suppressedCount.incrementAndGet();
+				return;
+			}
+			lastSent.put(uri, update);
+			if (previous != null && previous.diagnostics.equals(update.diagnostics)) {
+				suppressedCount.incrementAndGet();
+				return;
+			}
+			if (!sending.add(uri)) {
+				// sent by the thread sending the previous update, once it's done
+				if (queued.put(uri, update) != null) {
+					suppressedCount.incrementAndGet();
+				}
+				return;
+			}
+		}
+		while (update != null) {
+			boolean sent = false;
+			try {
+				sender.accept(update.params);
+				sentCount.incrementAndGet();
+				sent = true;
+			} finally {
+				synchronized (lastSent) {
+					Update next = queued.remove(uri);
+					update = sent ? next : null;
+					if (update == null) {
+						sending.remove(uri);
+					}
+				}
+			}
+		}
+	}
+
+	private static class Update {
+		private final PublishDiagnosticsParams params;
+		private final List<Diagnostic> diagnostics;
+		private final long sequence;
+
+		Update(PublishDiagnosticsParams params, long sequence) {
+			this.params = params;
+			// copied, so later changes to the sent list don't affect the comparison
+			this.diagnostics = params.getDiagnostics() == null ? Collections.emptyList() : new ArrayList<>(params.getDiagnostics());
+			this.sequence = sequence;
+		}
+	}
+}
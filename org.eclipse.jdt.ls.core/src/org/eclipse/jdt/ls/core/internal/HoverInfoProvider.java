@@ -36,6 +36,8 @@ import org.eclipse.jdt.core.search.SearchParticipant;
 import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.SearchRequestor;
 import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache.Format;
 import org.eclipse.jdt.ls.core.internal.javadoc.JavadocContentAccess2;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.lsp4j.MarkedString;
@@ -185,16 +187,21 @@ public class HoverInfoProvider {
 		} else if (element instanceof IMember) {
 			member= (IMember) element;
 		} else if (element instanceof IPackageFragment) {
-			Reader r = JavadocContentAccess2.getMarkdownContentReader(element);
-			if(r == null ) {
-				return null;
-			}
-			return new MarkedString(LANGUAGE_ID, getString(r));
+			return computeMarkdown(element);
 		} else {
 			return null;
 		}
 
-		Reader r = JavadocContentAccess2.getMarkdownContentReader(member);
+		return computeMarkdown(member);
+	}
+
+	private static MarkedString computeMarkdown(IJavaElement element) throws CoreException {
+		JavadocCache cache = JavaLanguageServerPlugin.getJavadocCache();
+		if (cache != null) {
+			String javadoc = cache.getJavadoc(element, Format.MARKDOWN);
+			return javadoc == null ? null : new MarkedString(LANGUAGE_ID, javadoc);
+		}
+		Reader r = JavadocContentAccess2.getMarkdownContentReader(element);
 		if(r == null ) {
 			return null;
 		}
@@ -30,17 +30,21 @@ public class JDTDelegateCommandHandler implements IDelegateCommandHandler {
 			switch (commandId) {
 				case "java.edit.organizeImports":
 					final OrganizeImportsCommand c = new OrganizeImportsCommand();
-					final Object result = c.organizeImports(arguments);
 					final boolean applyNow = JavaLanguageServerPlugin.getPreferencesManager().getClientPreferences().isWorkspaceApplyEditSupported();
 					if (applyNow) {
-						JavaLanguageServerPlugin.getInstance().getClientConnection().applyWorkspaceEdit((WorkspaceEdit) result);
+						final JavaClientConnection connection = JavaLanguageServerPlugin.getInstance().getClientConnection();
+						// the edits of folders and projects are applied as they're computed
+						final WorkspaceEdit result = c.organizeImports(arguments, connection::applyWorkspaceEdit, monitor);
+						if (ChangeUtil.hasChanges(result)) {
+							connection.applyWorkspaceEdit(result);
+						}
 						// return an empty object to avoid errors on client
 						return new Object();
 					} else {
 						// we are returning a workspace edit here in order to accomodate the clients that
 						// did not implement workspace/applyEdit from LSP. This still allows them to implement applying
 						// workspaceEdit on the custom command.
-						return result;
+						return c.organizeImports(arguments, null, monitor);
 					}
 				case "java.project.resolveSourceAttachment":
 					return SourceAttachmentCommand.resolveSourceAttachment(arguments, monitor);
@@ -11,6 +11,9 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal;
 
+import java.util.List;
+import java.util.Map;
+
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 
@@ -19,6 +22,12 @@ import com.google.gson.JsonElement;
  */
 public class JSONUtility {
 
+	/**
+	 * Gson instances are thread-safe, and cache the type adapters of the
+	 * models they convert.
+	 */
+	private static final Gson GSON = new Gson();
+
 	/**
 	 * Converts given JSON objects to given Model objects.
 	 *
@@ -32,16 +41,18 @@ public class JSONUtility {
 			throw new IllegalArgumentException("Class can not be null");
 		}
 		if(object instanceof JsonElement){
-			Gson gson = new Gson();
-			return gson.fromJson((JsonElement) object, clazz);
+			return GSON.fromJson((JsonElement) object, clazz);
 		}
 		if (object instanceof String) {
-			Gson gson = new Gson();
-			return gson.fromJson((String) object, clazz);
+			return GSON.fromJson((String) object, clazz);
 		}
 		if(clazz.isInstance(object)){
 			return clazz.cast(object);
 		}
+		if (object instanceof Map || object instanceof List) {
+			// payloads which didn't go through the wire, e.g. when the server is embedded
+			return GSON.fromJson(GSON.toJsonTree(object), clazz);
+		}
 		return null;
 	}
 
@@ -63,13 +63,22 @@ public class JavaClientConnection {
 		@JsonNotification("language/progressReport")
 		void sendProgressReport(ProgressReport report);
 
+		/**
+		 * The partial result notification is sent from a server to stream the
+		 * results of a long running request to clients supporting it.
+		 */
+		@JsonNotification("language/partialResult")
+		void sendPartialResult(PartialResult result);
+
 	}
 
 	private final LogHandler logHandler;
 	private final JavaLanguageClient client;
+	private final DiagnosticsPublisher diagnosticsPublisher;
 
 	public JavaClientConnection(JavaLanguageClient client) {
 		this.client = client;
+		this.diagnosticsPublisher = new DiagnosticsPublisher(client::publishDiagnostics);
 		logHandler = new LogHandler();
 		logHandler.install(this);
 	}
@@ -147,6 +156,16 @@ public class JavaClientConnection {
 		client.sendProgressReport(progressReport);
 	}
 
+	/**
+	 * Sends a batch of results of a pending request to the client
+	 *
+	 * @param result
+	 *            The partial result to send back to the client
+	 */
+	public void sendPartialResult(PartialResult result) {
+		client.sendPartialResult(result);
+	}
+
 	/**
 	 * Sends a message to the client to be presented to users, with possible
 	 * commands to execute
@@ -163,8 +182,42 @@ public class JavaClientConnection {
 		client.sendActionableNotification(notification);
 	}
 
+	/**
+	 * Sends diagnostics to the client after a short delay, coalesced with
+	 * further updates of the same uri.
+	 *
+	 * @see DiagnosticsPublisher
+	 */
 	public void publishDiagnostics(PublishDiagnosticsParams diagnostics){
-		client.publishDiagnostics(diagnostics);
+		diagnosticsPublisher.publish(diagnostics);
+	}
+
+	/**
+	 * Sends diagnostics of a document being edited to the client right away,
+	 * unless they're identical to the ones last sent.
+	 */
+	public void publishDiagnosticsNow(PublishDiagnosticsParams diagnostics) {
+		diagnosticsPublisher.publishNow(diagnostics);
+	}
+
+	/**
+	 * Forgets the diagnostics last sent for a uri, once its document is closed
+	 * or its file is deleted.
+	 */
+	public void forgetDiagnostics(String uri) {
+		diagnosticsPublisher.forget(uri);
+	}
+
+	/**
+	 * Forgets the diagnostics last sent for the uris of a folder, once it's
+	 * deleted or its project is closed.
+	 */
+	public void forgetFolderDiagnostics(String folderUri) {
+		diagnosticsPublisher.forgetAll(folderUri);
+	}
+
+	public DiagnosticsPublisher getDiagnosticsPublisher() {
+		return diagnosticsPublisher;
 	}
 
 
@@ -207,6 +260,7 @@ public class JavaClientConnection {
 		if (logHandler != null) {
 			logHandler.uninstall();
 		}
+		diagnosticsPublisher.dispose();
 	}
 
 }
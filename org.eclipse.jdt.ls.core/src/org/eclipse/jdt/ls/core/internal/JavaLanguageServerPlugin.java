@@ -50,11 +50,14 @@ import org.eclipse.jdt.core.manipulation.JavaManipulation;
 import org.eclipse.jdt.internal.core.manipulation.JavaManipulationPlugin;
 import org.eclipse.jdt.internal.core.manipulation.MembersOrderPreferenceCacheCommon;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection.JavaLanguageClient;
+import org.eclipse.jdt.ls.core.internal.handlers.CodeLensCache;
 import org.eclipse.jdt.ls.core.internal.handlers.JDTLanguageServer;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache;
 import org.eclipse.jdt.ls.core.internal.managers.ContentProviderManager;
 import org.eclipse.jdt.ls.core.internal.managers.DigestStore;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.jdt.ls.core.internal.search.SymbolIndex;
 import org.eclipse.lsp4j.jsonrpc.Launcher;
 import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
 import org.osgi.framework.Bundle;
@@ -101,6 +104,11 @@ public class JavaLanguageServerPlugin extends Plugin {
 	private LanguageServer languageServer;
 	private ProjectsManager projectsManager;
 	private DigestStore digestStore;
+	private SymbolIndex symbolIndex;
+	private JavadocCache javadocCache;
+	private SharedASTProvider sharedASTProvider;
+	private CodeLensCache codeLensCache;
+	private SourceFolderClassifier sourceFolderClassifier;
 	private ContentProviderManager contentProviderManager;
 
 	private JDTLanguageServer protocol;
@@ -138,6 +146,15 @@ public class JavaLanguageServerPlugin extends Plugin {
 
 		preferenceManager = new PreferenceManager();
 		digestStore = new DigestStore(getStateLocation().toFile());
+		symbolIndex = new SymbolIndex(getStateLocation().toFile(), preferenceManager);
+		javadocCache = new JavadocCache();
+		javadocCache.start();
+		sharedASTProvider = new SharedASTProvider();
+		sharedASTProvider.start();
+		codeLensCache = new CodeLensCache();
+		codeLensCache.start();
+		sourceFolderClassifier = new SourceFolderClassifier();
+		sourceFolderClassifier.start();
 		projectsManager = new ProjectsManager(preferenceManager);
 		try {
 			ResourcesPlugin.getWorkspace().addSaveParticipant(IConstants.PLUGIN_ID, projectsManager);
@@ -319,6 +336,29 @@ public class JavaLanguageServerPlugin extends Plugin {
 		JavaLanguageServerPlugin.pluginInstance = null;
 		JavaLanguageServerPlugin.context = null;
 		ResourcesPlugin.getWorkspace().removeSaveParticipant(IConstants.PLUGIN_ID);
+		if (symbolIndex != null) {
+			symbolIndex.stop();
+			symbolIndex = null;
+		}
+		if (javadocCache != null) {
+			javadocCache.stop();
+			javadocCache = null;
+		}
+		if (sharedASTProvider != null) {
+			sharedASTProvider.stop();
+			sharedASTProvider = null;
+		}
+		if (codeLensCache != null) {
+			codeLensCache.stop();
+			codeLensCache = null;
+		}
+		if (sourceFolderClassifier != null) {
+			sourceFolderClassifier.stop();
+			sourceFolderClassifier = null;
+		}
+		if (digestStore != null) {
+			digestStore.save();
+		}
 		projectsManager = null;
 		contentProviderManager = null;
 		languageServer = null;
@@ -384,6 +424,26 @@ public class JavaLanguageServerPlugin extends Plugin {
 		return pluginInstance.digestStore;
 	}
 
+	public static SymbolIndex getSymbolIndex() {
+		return pluginInstance == null ? null : pluginInstance.symbolIndex;
+	}
+
+	public static JavadocCache getJavadocCache() {
+		return pluginInstance == null ? null : pluginInstance.javadocCache;
+	}
+
+	public static SharedASTProvider getSharedASTProvider() {
+		return pluginInstance == null ? null : pluginInstance.sharedASTProvider;
+	}
+
+	public static CodeLensCache getCodeLensCache() {
+		return pluginInstance == null ? null : pluginInstance.codeLensCache;
+	}
+
+	public static SourceFolderClassifier getSourceFolderClassifier() {
+		return pluginInstance == null ? null : pluginInstance.sourceFolderClassifier;
+	}
+
 	/**
 	 * @return
 	 */
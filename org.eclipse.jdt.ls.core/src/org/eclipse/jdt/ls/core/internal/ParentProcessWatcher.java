@@ -11,10 +11,19 @@
 package org.eclipse.jdt.ls.core.internal;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 import org.eclipse.core.runtime.Platform;
@@ -24,43 +33,148 @@ import com.google.common.io.Closeables;
 
 /**
  * Watches the parent process PID and invokes exit if it is no longer available.
- * This implementation waits for periods of inactivity to start querying the PIDs.
+ * <p>
+ * On Java 9 and later, the exit of the parent process is awaited through its
+ * <code>ProcessHandle</code>. Otherwise its PID is polled: on Linux, by looking
+ * it up in <code>/proc</code>; elsewhere, by running <code>ps</code> or
+ * <code>tasklist</code>, only after periods of inactivity.
+ * </p>
  */
 public final class ParentProcessWatcher implements Runnable, Function<MessageConsumer, MessageConsumer>{
 
 	private static final long INACTIVITY_DELAY_SECS = 30 *1000;
 	private static final boolean isJava1x = System.getProperty("java.version").startsWith("1.");
 	private static final int POLL_DELAY_SECS = 10;
+	private static final Path PROC_FS = Paths.get("/proc");
 	private volatile long lastActivityTime;
 	private final LanguageServer server;
-	private ScheduledFuture<?> task;
+	private final AtomicBoolean exited = new AtomicBoolean();
+	private volatile ScheduledFuture<?> task;
 	private ScheduledExecutorService service;
+	private long watchedPid;
 
 	public ParentProcessWatcher(LanguageServer server ) {
+		this(server, POLL_DELAY_SECS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * @param server
+	 *            the language server to exit
+	 * @param pollDelay
+	 *            the delay between two checks of the parent process
+	 * @param unit
+	 *            the unit of the delay
+	 */
+	public ParentProcessWatcher(LanguageServer server, long pollDelay, TimeUnit unit) {
 		this.server = server;
 		service = Executors.newScheduledThreadPool(1);
-		task =  service.scheduleWithFixedDelay(this, POLL_DELAY_SECS, POLL_DELAY_SECS, TimeUnit.SECONDS);
+		task =  service.scheduleWithFixedDelay(this, pollDelay, pollDelay, unit);
 	}
 
 	@Override
 	public void run() {
-		if (!parentProcessStillRunning()) {
+		// Wait until parent process id is available
+		final long pid = server.getParentProcessId();
+		if (pid == 0) {
+			return;
+		}
+		if (pid != watchedPid) {
+			watchedPid = pid;
+			if (watchExit(pid)) {
+				cancel();
+				return;
+			}
+		}
+		if (!parentProcessStillRunning(pid)) {
+			exit();
+		}
+	}
+
+	private void exit() {
+		if (exited.compareAndSet(false, true)) {
 			JavaLanguageServerPlugin.logInfo("Parent process stopped running, forcing server exit");
-			task.cancel(true);
+			cancel();
 			server.exit();
 		}
 	}
 
+	private void cancel() {
+		ScheduledFuture<?> future = task;
+		if (future != null) {
+			future.cancel(false);
+		}
+	}
+
+	/**
+	 * Awaits the exit of a process through its <code>ProcessHandle</code>,
+	 * which is looked up reflectively as it's only available on Java 9 and
+	 * later.
+	 *
+	 * @return whether the exit of the process is awaited, or the process isn't
+	 *         running
+	 */
+	private boolean watchExit(long pid) {
+		CompletableFuture<?> onExit;
+		try {
+			Class<?> processHandle = Class.forName("java.lang.ProcessHandle");
+			Method of = processHandle.getMethod("of", long.class);
+			Optional<?> handle = (Optional<?>) of.invoke(null, pid);
+			if (!handle.isPresent()) {
+				exit();
+				return true;
+			}
+			onExit = (CompletableFuture<?>) processHandle.getMethod("onExit").invoke(handle.get());
+		} catch (ClassNotFoundException e) {
+			return false;
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			JavaLanguageServerPlugin.logException("Can't watch the parent process " + pid, e);
+			return false;
+		}
+		onExit.thenRun(this::exit);
+		return true;
+	}
+
+	/**
+	 * Looks a process up in the <code>/proc</code> file system. Zombie
+	 * processes aren't considered alive.
+	 *
+	 * @param pid
+	 *            the process id
+	 * @return whether the process is alive, or <code>null</code> if the
+	 *         <code>/proc</code> file system isn't available
+	 */
+	public static Boolean isAliveInProcFs(long pid) {
+		if (!Platform.OS_LINUX.equals(Platform.getOS()) || !Files.isDirectory(PROC_FS.resolve("self"))) {
+			return null;
+		}
+		try {
+			// the state follows the command name, in parentheses
+			String stat = new String(Files.readAllBytes(PROC_FS.resolve(Long.toString(pid)).resolve("stat")), StandardCharsets.US_ASCII);
+			int index = stat.lastIndexOf(')') + 2;
+			if (index <= 1 || index >= stat.length()) {
+				return Boolean.TRUE;
+			}
+			char state = stat.charAt(index);
+			return state != 'Z' && state != 'X';
+		} catch (NoSuchFileException e) {
+			return Boolean.FALSE;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
 	/**
 	 * Checks whether the parent process is still running.
 	 * If not, then we assume it has crashed, and we have to terminate the Java Language Server.
 	 *
 	 * @return true if the parent process is still running
 	 */
-	private boolean parentProcessStillRunning() {
-		// Wait until parent process id is available
-		final long pid = server.getParentProcessId();
-		if (pid == 0 || lastActivityTime > (System.currentTimeMillis() - INACTIVITY_DELAY_SECS)) {
+	private boolean parentProcessStillRunning(long pid) {
+		Boolean alive = isAliveInProcFs(pid);
+		if (alive != null) {
+			return alive;
+		}
+		if (lastActivityTime > (System.currentTimeMillis() - INACTIVITY_DELAY_SECS)) {
 			return true;
 		}
 		String command;
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.List;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * A batch of results of a long running request, sent to clients before the
+ * request completes.
+ */
+public class PartialResult {
+
+	/**
+	 * The method of the request, e.g. <code>textDocument/references</code>
+	 */
+	@SerializedName("method")
+	@Expose
+	private String method;
+
+	/**
+	 * Identifies the request: <code>&lt;uri&gt;:&lt;line&gt;:&lt;character&gt;</code>
+	 * for <code>textDocument/references</code>, the query for
+	 * <code>workspace/symbol</code>
+	 */
+	@SerializedName("id")
+	@Expose
+	private String id;
+
+	@SerializedName("items")
+	@Expose
+	private List<?> items;
+
+	/**
+	 * Whether this is the last batch of the request
+	 */
+	@SerializedName("done")
+	@Expose
+	private boolean done;
+
+	public PartialResult(String method, String id, List<?> items, boolean done) {
+		this.method = method;
+		this.id = id;
+		this.items = items;
+		this.done = done;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public List<?> getItems() {
+		return items;
+	}
+
+	public boolean isDone() {
+		return done;
+	}
+}
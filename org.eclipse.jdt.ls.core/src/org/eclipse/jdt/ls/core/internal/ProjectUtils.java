@@ -22,9 +22,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -298,31 +301,50 @@ public final class ProjectUtils {
 		updateBinaries(javaProject, Collections.singleton(libFolderPath), monitor);
 	}
 
+	/**
+	 * Updates the library entries of a project to match the jars of its library
+	 * folders. The entries of the jars which are still there are kept as is, so
+	 * the classpath isn't set when the jars and their sources haven't changed.
+	 */
 	public static void updateBinaries(IJavaProject javaProject, Set<IPath> libFolderPaths, IProgressMonitor monitor) throws CoreException {
-		Set<Path> binaries = collectBinaries(libFolderPaths, monitor);
+		Set<Path> sources = new HashSet<>();
+		Set<Path> binaries = collectBinaries(libFolderPaths, sources, monitor);
 		if (monitor.isCanceled()) {
 			return;
 		}
-		IClasspathEntry[] rawClasspath = javaProject.getRawClasspath();
-		List<IClasspathEntry> newEntries = Arrays.stream(rawClasspath).filter(cpe -> cpe.getEntryKind() != IClasspathEntry.CPE_LIBRARY).collect(Collectors.toCollection(ArrayList::new));
-
+		Map<IPath, IClasspathEntry> libraries = new LinkedHashMap<>();
 		for (Path file : binaries) {
-			if (monitor.isCanceled()) {
-				return;
-			}
 			IPath newLibPath = new org.eclipse.core.runtime.Path(file.toString());
-			IPath sourcePath = detectSources(file);
-			IClasspathEntry newEntry = JavaCore.newLibraryEntry(newLibPath, sourcePath, null);
-			JavaLanguageServerPlugin.logInfo("Adding " + newLibPath + " to the classpath");
-			newEntries.add(newEntry);
+			libraries.put(newLibPath, JavaCore.newLibraryEntry(newLibPath, detectSources(file, sources), null));
+		}
+
+		IClasspathEntry[] rawClasspath = javaProject.getRawClasspath();
+		List<IClasspathEntry> newEntries = new ArrayList<>(rawClasspath.length + libraries.size());
+		for (IClasspathEntry entry : rawClasspath) {
+			if (entry.getEntryKind() != IClasspathEntry.CPE_LIBRARY) {
+				newEntries.add(entry);
+				continue;
+			}
+			IClasspathEntry library = libraries.remove(entry.getPath());
+			if (library == null) {
+				JavaLanguageServerPlugin.logInfo("Removing " + entry.getPath() + " from the classpath");
+			} else if (Objects.equals(library.getSourceAttachmentPath(), entry.getSourceAttachmentPath())) {
+				newEntries.add(entry);
+			} else {
+				newEntries.add(library);
+			}
+		}
+		for (IClasspathEntry library : libraries.values()) {
+			JavaLanguageServerPlugin.logInfo("Adding " + library.getPath() + " to the classpath");
+			newEntries.add(library);
 		}
 		IClasspathEntry[] newClasspath = newEntries.toArray(new IClasspathEntry[newEntries.size()]);
-		if (!rawClasspath.equals(newClasspath)) {
+		if (!Arrays.equals(rawClasspath, newClasspath)) {
 			javaProject.setRawClasspath(newClasspath, monitor);
 		}
 	}
 
-	private static Set<Path> collectBinaries(Set<IPath> libFolderPaths, IProgressMonitor monitor) throws CoreException {
+	private static Set<Path> collectBinaries(Set<IPath> libFolderPaths, Set<Path> sources, IProgressMonitor monitor) throws CoreException {
 		Set<Path> binaries = new LinkedHashSet<>();
 		FileVisitor<? super Path> jarDetector = new SimpleFileVisitor<Path>() {
 			@Override
@@ -332,6 +354,8 @@ public final class ProjectUtils {
 				}
 				if (isBinary(file)) {
 					binaries.add(file);
+				} else if (file.getFileName().toString().endsWith(SOURCE_JAR_SUFFIX)) {
+					sources.add(file);
 				}
 				return FileVisitResult.CONTINUE;
 			}
@@ -360,12 +384,12 @@ public final class ProjectUtils {
 				&& !fileName.endsWith(SOURCE_JAR_SUFFIX));
 	}
 
-	private static IPath detectSources(Path file) {
+	private static IPath detectSources(Path file, Set<Path> sources) {
 		String filename = file.getFileName().toString();
 		//better approach would be to (also) resolve sources using Maven central, or anything smarter really
 		String sourceName = filename.substring(0, filename.lastIndexOf(JAR_SUFFIX)) + SOURCE_JAR_SUFFIX;
 		Path sourcePath = file.getParent().resolve(sourceName);
-		return Files.isRegularFile(sourcePath) ? new org.eclipse.core.runtime.Path(sourcePath.toString()) : null;
+		return sources.contains(sourcePath) ? new org.eclipse.core.runtime.Path(sourcePath.toString()) : null;
 	}
 
 
@@ -0,0 +1,366 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+
+/**
+ * Cache of the ASTs of the compilation units and class files, shared by the
+ * request handlers.
+ * <p>
+ * Unlike {@link org.eclipse.jdt.core.manipulation.CoreASTProvider}, which only
+ * keeps the AST of the active element, the ASTs of several elements are kept.
+ * An AST is reused as long as the modification stamp of the buffer it was
+ * created from doesn't change. ASTs are evicted least recently used first,
+ * beyond a maximum number of ASTs: the memory an AST with bindings retains
+ * can't be told from its source. All ASTs are discarded
+ * when a structural change or a classpath change may have made their bindings
+ * stale.
+ * </p>
+ * <p>
+ * Cached ASTs are shared, and must not be modified.
+ * </p>
+ */
+public class SharedASTProvider implements IElementChangedListener {
+
+	/**
+	 * Default maximum number of cached ASTs.
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 10;
+
+	private static final long UNKNOWN_STAMP = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+
+	private static final SharedASTProvider UNCACHED = new SharedASTProvider(0);
+
+	private final int maxEntries;
+	private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private volatile boolean started;
+
+	public SharedASTProvider() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * @param maxEntries
+	 *            the maximum number of cached ASTs
+	 */
+	public SharedASTProvider(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * @return the shared AST provider of the language server, or a provider
+	 *         that doesn't cache ASTs if the language server isn't started
+	 */
+	public static SharedASTProvider getInstance() {
+		SharedASTProvider provider = JavaLanguageServerPlugin.getSharedASTProvider();
+		return provider == null ? UNCACHED : provider;
+	}
+
+	/**
+	 * Starts caching ASTs, and discarding the stale ones on Java element
+	 * changes.
+	 */
+	public void start() {
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		started = true;
+	}
+
+	public void stop() {
+		started = false;
+		JavaCore.removeElementChangedListener(this);
+		clear();
+		JavaLanguageServerPlugin.logInfo("Shared AST provider: " + getHitCount() + " hits, " + getMissCount() + " misses");
+	}
+
+	/**
+	 * Returns the AST of a type root, with resolved bindings.
+	 *
+	 * @param input
+	 *            the compilation unit or class file
+	 * @param monitor
+	 *            the progress monitor, may be <code>null</code>
+	 * @return the AST, or <code>null</code> if the type root has no source or
+	 *         the operation was cancelled
+	 */
+	public CompilationUnit getAST(ITypeRoot input, IProgressMonitor monitor) {
+		return getAST(input, true, monitor);
+	}
+
+	/**
+	 * Returns the AST of a type root.
+	 *
+	 * @param input
+	 *            the compilation unit or class file
+	 * @param resolveBindings
+	 *            whether the AST should have resolved bindings
+	 * @param monitor
+	 *            the progress monitor, may be <code>null</code>
+	 * @return the AST, or <code>null</code> if the type root has no source or
+	 *         the operation was cancelled
+	 */
+	public CompilationUnit getAST(ITypeRoot input, boolean resolveBindings, IProgressMonitor monitor) {
+		if (input == null) {
+			return null;
+		}
+		Key key = new Key(input.getHandleIdentifier(), resolveBindings);
+		Object source = getSource(input);
+		long stamp = getModificationStamp(source, input);
+		if (started && stamp != UNKNOWN_STAMP) {
+			synchronized (this) {
+				Entry entry = entries.get(key);
+				if (entry != null && entry.stamp == stamp && Objects.equals(entry.source, source)) {
+					hits.incrementAndGet();
+					return entry.ast;
+				}
+			}
+		}
+		misses.incrementAndGet();
+		CompilationUnit ast = createAST(input, resolveBindings, monitor);
+		// don't cache an AST whose source changed while it was created
+		if (started && ast != null && stamp != UNKNOWN_STAMP && stamp == getModificationStamp(source, input)) {
+			synchronized (this) {
+				put(key, new Entry(ast, source, stamp));
+			}
+		}
+		return ast;
+	}
+
+	/**
+	 * Discards the ASTs of a type root.
+	 */
+	public synchronized void dispose(ITypeRoot input) {
+		String handleIdentifier = input.getHandleIdentifier();
+		for (boolean resolveBindings : new boolean[] { true, false }) {
+			entries.remove(new Key(handleIdentifier, resolveBindings));
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return the number of cached ASTs
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the number of requests answered with a cached AST
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of requests that had to create an AST
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.core.IElementChangedListener#elementChanged(org.eclipse.jdt.core.ElementChangedEvent)
+	 */
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		visit(event.getDelta());
+	}
+
+	/**
+	 * @return whether all ASTs were discarded
+	 */
+	private boolean visit(IJavaElementDelta delta) {
+		IJavaElement element = delta.getElement();
+		int kind = delta.getKind();
+		int flags = delta.getFlags();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+				if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_OPENED)) != 0) {
+					clear();
+					return true;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0) {
+					clear();
+					return true;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (kind != IJavaElementDelta.CHANGED) {
+					clear();
+					return true;
+				}
+				break;
+			case IJavaElement.CLASS_FILE:
+				clear();
+				return true;
+			case IJavaElement.COMPILATION_UNIT:
+				if (kind != IJavaElementDelta.CHANGED || delta.getAffectedChildren().length > 0 || isCoarseContentChange(flags)) {
+					// the bindings of the other ASTs may refer to a changed declaration
+					clear();
+					return true;
+				}
+				if ((flags & IJavaElementDelta.F_PRIMARY_WORKING_COPY) != 0) {
+					dispose((ITypeRoot) element);
+				}
+				return false;
+			default:
+				break;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (visit(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return whether the content of a compilation unit changed, without
+	 *         knowing whether its declarations changed
+	 */
+	private static boolean isCoarseContentChange(int flags) {
+		return (flags & IJavaElementDelta.F_CONTENT) != 0 && (flags & IJavaElementDelta.F_FINE_GRAINED) == 0;
+	}
+
+	private void put(Key key, Entry entry) {
+		entries.put(key, entry);
+		Iterator<Entry> iterator = entries.values().iterator();
+		// keep at least the requested AST
+		while (entries.size() > Math.max(1, maxEntries) && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * @return the buffer contents of a working copy, or the type root itself
+	 */
+	private static Object getSource(ITypeRoot input) {
+		if (input instanceof ICompilationUnit && ((ICompilationUnit) input).isWorkingCopy()) {
+			try {
+				IBuffer buffer = input.getBuffer();
+				if (buffer instanceof DocumentAdapter) {
+					return ((DocumentAdapter) buffer).getDocument();
+				}
+			} catch (JavaModelException e) {
+				// not cached
+			}
+			return null;
+		}
+		return input;
+	}
+
+	private static long getModificationStamp(Object source, ITypeRoot input) {
+		if (source instanceof IDocumentExtension4) {
+			return ((IDocumentExtension4) source).getModificationStamp();
+		}
+		if (source instanceof IDocument || source == null) {
+			return UNKNOWN_STAMP;
+		}
+		if (input instanceof ICompilationUnit) {
+			IResource resource = input.getResource();
+			return resource == null ? UNKNOWN_STAMP : resource.getModificationStamp();
+		}
+		// class files are discarded on classpath changes
+		return 0;
+	}
+
+	private static CompilationUnit createAST(ITypeRoot input, boolean resolveBindings, IProgressMonitor monitor) {
+		try {
+			if (!input.exists() || input.getBuffer() == null) {
+				return null;
+			}
+		} catch (JavaModelException e) {
+			return null;
+		}
+		if (monitor != null && monitor.isCanceled()) {
+			return null;
+		}
+		ASTParser parser = ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+		parser.setResolveBindings(resolveBindings);
+		parser.setStatementsRecovery(true);
+		parser.setBindingsRecovery(resolveBindings);
+		parser.setSource(input);
+		try {
+			return (CompilationUnit) parser.createAST(monitor);
+		} catch (OperationCanceledException e) {
+			return null;
+		} catch (IllegalStateException e) {
+			JavaLanguageServerPlugin.logException("Unable to create AST of " + input.getElementName(), e);
+			return null;
+		}
+	}
+
+	private static final class Key {
+		private final String handleIdentifier;
+		private final boolean resolveBindings;
+
+		Key(String handleIdentifier, boolean resolveBindings) {
+			this.handleIdentifier = handleIdentifier;
+			this.resolveBindings = resolveBindings;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * handleIdentifier.hashCode() + (resolveBindings ? 1 : 0);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return resolveBindings == other.resolveBindings && handleIdentifier.equals(other.handleIdentifier);
+		}
+	}
+
+	private static final class Entry {
+		private final CompilationUnit ast;
+		private final Object source;
+		private final long stamp;
+
+		Entry(CompilationUnit ast, Object source, long stamp) {
+			this.ast = ast;
+			this.source = source;
+			this.stamp = stamp;
+		}
+	}
+}
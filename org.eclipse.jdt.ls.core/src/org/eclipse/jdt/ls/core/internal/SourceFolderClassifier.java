@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathAttribute;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * Classifies the source folders of projects as main, test or generated source
+ * folders.
+ * <p>
+ * The source folders of a project are classified once, from its resolved
+ * classpath, and classified again after its classpath changes. Finding the
+ * source folder of a resource then takes a lookup per segment of its path.
+ * </p>
+ */
+public class SourceFolderClassifier implements IElementChangedListener {
+
+	public enum SourceKind {
+		MAIN, TEST, GENERATED
+	}
+
+	/**
+	 * The attribute m2e-apt sets on the source folders of generated sources.
+	 */
+	private static final String M2E_APT_ATTRIBUTE = "m2e-apt";
+
+	private final Map<IJavaProject, Map<IPath, SourceKind>> sourceFolders = new ConcurrentHashMap<>();
+	private final AtomicLong invalidations = new AtomicLong();
+
+	/**
+	 * Starts classifying source folders again on classpath changes.
+	 */
+	public void start() {
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+	}
+
+	public void stop() {
+		JavaCore.removeElementChangedListener(this);
+		sourceFolders.clear();
+	}
+
+	/**
+	 * Returns the kind of source folder an element is in.
+	 *
+	 * @param element
+	 *            a Java element
+	 * @return the kind of the source folder containing the element, or
+	 *         <code>null</code> if it's not in a source folder
+	 */
+	public SourceKind getKind(IJavaElement element) {
+		IJavaProject project = element == null ? null : element.getJavaProject();
+		IResource resource = element == null ? null : element.getResource();
+		if (project == null || resource == null) {
+			return null;
+		}
+		Map<IPath, SourceKind> kinds = sourceFolders.get(project);
+		if (kinds == null) {
+			// resolving the classpath may report changes, so it's not done in computeIfAbsent
+			long invalidation = invalidations.get();
+			kinds = classify(project);
+			if (invalidation == invalidations.get()) {
+				sourceFolders.putIfAbsent(project, kinds);
+			}
+		}
+		for (IPath path = resource.getFullPath(); path.segmentCount() > 0; path = path.removeLastSegments(1)) {
+			SourceKind kind = kinds.get(path);
+			if (kind != null) {
+				return kind;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the kind of source folder an element is in, using the classifier
+	 * of the plugin when it's running.
+	 *
+	 * @see #getKind(IJavaElement)
+	 */
+	public static SourceKind kindOf(IJavaElement element) {
+		SourceFolderClassifier classifier = JavaLanguageServerPlugin.getSourceFolderClassifier();
+		return classifier == null ? new SourceFolderClassifier().getKind(element) : classifier.getKind(element);
+	}
+
+	private static Map<IPath, SourceKind> classify(IJavaProject project) {
+		try {
+			Map<IPath, SourceKind> kinds = new HashMap<>();
+			for (IClasspathEntry entry : project.getResolvedClasspath(true)) {
+				if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE) {
+					kinds.put(entry.getPath(), getKind(entry));
+				}
+			}
+			return kinds;
+		} catch (JavaModelException e) {
+			return Collections.emptyMap();
+		}
+	}
+
+	private static SourceKind getKind(IClasspathEntry entry) {
+		if (entry.isTest()) {
+			return SourceKind.TEST;
+		}
+		for (IClasspathAttribute attribute : entry.getExtraAttributes()) {
+			if ((IClasspathAttribute.IGNORE_OPTIONAL_PROBLEMS.equals(attribute.getName()) || M2E_APT_ATTRIBUTE.equals(attribute.getName())) && Boolean.parseBoolean(attribute.getValue())) {
+				return SourceKind.GENERATED;
+			}
+		}
+		return SourceKind.MAIN;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.core.IElementChangedListener#elementChanged(org.eclipse.jdt.core.ElementChangedEvent)
+	 */
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		IJavaElementDelta delta = event.getDelta();
+		if ((delta.getFlags() & IJavaElementDelta.F_CLOSED) != 0) {
+			// the workspace is closed
+			invalidations.incrementAndGet();
+			sourceFolders.clear();
+			return;
+		}
+		for (IJavaElementDelta projectDelta : delta.getAffectedChildren()) {
+			IJavaElement element = projectDelta.getElement();
+			if (element.getElementType() != IJavaElement.JAVA_PROJECT) {
+				continue;
+			}
+			int flags = projectDelta.getFlags();
+			if (projectDelta.getKind() != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0) {
+				invalidations.incrementAndGet();
+				sourceFolders.remove(element);
+			}
+		}
+	}
+}
@@ -10,10 +10,19 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.commands;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.resources.IProject;
@@ -22,8 +31,12 @@ import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
@@ -31,8 +44,11 @@ import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.manipulation.OrganizeImportsOperation;
+import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
 import org.eclipse.jdt.ls.core.internal.ChangeUtil;
 import org.eclipse.jdt.ls.core.internal.IConstants;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
@@ -48,9 +64,36 @@ import org.eclipse.lsp4j.WorkspaceEdit;
 import org.eclipse.ltk.core.refactoring.TextChange;
 import org.eclipse.text.edits.TextEdit;
 
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 public class OrganizeImportsCommand {
 
+	/**
+	 * The number of compilation units parsed together, sharing their binding
+	 * environment.
+	 */
+	private static final int BATCH_SIZE = 50;
+
 	public Object organizeImports(List<Object> arguments) throws CoreException {
+		return organizeImports(arguments, null, new NullProgressMonitor());
+	}
+
+	/**
+	 * Organize imports of the file, folder or project of the first argument.
+	 *
+	 * @param arguments
+	 *            the command arguments
+	 * @param editConsumer
+	 *            the consumer the edits of a folder or a project are streamed
+	 *            to, one batch of compilation units at a time, or
+	 *            <code>null</code> to return all the edits at once
+	 * @param monitor
+	 *            the progress monitor
+	 * @return the edit, holding the changes not passed to the consumer
+	 * @throws CoreException
+	 */
+	public WorkspaceEdit organizeImports(List<Object> arguments, Consumer<WorkspaceEdit> editConsumer, IProgressMonitor monitor) throws CoreException {
 		WorkspaceEdit edit = new WorkspaceEdit();
 		if (arguments != null && !arguments.isEmpty() && arguments.get(0) instanceof String) {
 			final String fileUri = (String) arguments.get(0);
@@ -64,17 +107,16 @@ public class OrganizeImportsCommand {
 				resource = wsroot.getContainerForLocation(rootPath);
 			}
 			if (resource != null) {
-				final OrganizeImportsCommand command = new OrganizeImportsCommand();
 				int type = resource.getType();
 				switch (type) {
 					case IResource.PROJECT:
-						edit = command.organizeImportsInProject(resource.getAdapter(IProject.class));
+						edit = organizeImportsInProject(resource.getAdapter(IProject.class), editConsumer, monitor);
 						break;
 					case IResource.FOLDER:
-						edit = command.organizeImportsInDirectory(fileUri, resource.getProject());
+						edit = organizeImportsInDirectory(fileUri, resource.getProject(), editConsumer, monitor);
 						break;
 					case IResource.FILE:
-						edit = command.organizeImportsInFile(fileUri);
+						edit = organizeImportsInFile(fileUri);
 						break;
 					default://This can only be IResource.ROOT. Which is not relevant to jdt.ls
 						// do nothing allow to return the empty WorkspaceEdit.
@@ -93,15 +135,27 @@ public class OrganizeImportsCommand {
 	 * @return
 	 */
 	public WorkspaceEdit organizeImportsInProject(IProject proj) {
+		return organizeImportsInProject(proj, null, new NullProgressMonitor());
+	}
+
+	/**
+	 * Organize imports when select a project.
+	 *
+	 * @param proj
+	 *            the target project
+	 * @param editConsumer
+	 *            the consumer the edits are streamed to, or <code>null</code>
+	 *            to return all the edits at once
+	 * @param monitor
+	 *            the progress monitor
+	 * @return the edit, holding the changes not passed to the consumer
+	 */
+	public WorkspaceEdit organizeImportsInProject(IProject proj, Consumer<WorkspaceEdit> editConsumer, IProgressMonitor monitor) {
 		WorkspaceEdit rootEdit = new WorkspaceEdit();
 		HashSet<IJavaElement> result = new HashSet<>();
 
 		collectCompilationUnits(JavaCore.create(proj), result, null);
-		for (IJavaElement elem : result) {
-			if (elem.getElementType() == IJavaElement.COMPILATION_UNIT) {
-				organizeImportsInCompilationUnit((ICompilationUnit) elem, rootEdit);
-			}
-		}
+		organizeImports(result, rootEdit, editConsumer, monitor);
 		return rootEdit;
 	}
 
@@ -116,6 +170,25 @@ public class OrganizeImportsCommand {
 	 * @throws CoreException
 	 */
 	public WorkspaceEdit organizeImportsInDirectory(String folderUri, IProject proj) throws CoreException {
+		return organizeImportsInDirectory(folderUri, proj, null, new NullProgressMonitor());
+	}
+
+	/**
+	 * Organize imports underlying a directory
+	 *
+	 * @param folderUri
+	 *            Selected folder URI
+	 * @param proj
+	 *            the folder associated project
+	 * @param editConsumer
+	 *            the consumer the edits are streamed to, or <code>null</code>
+	 *            to return all the edits at once
+	 * @param monitor
+	 *            the progress monitor
+	 * @return the edit, holding the changes not passed to the consumer
+	 * @throws CoreException
+	 */
+	public WorkspaceEdit organizeImportsInDirectory(String folderUri, IProject proj, Consumer<WorkspaceEdit> editConsumer, IProgressMonitor monitor) throws CoreException {
 		WorkspaceEdit rootEdit = new WorkspaceEdit();
 		IPackageFragment fragment = null;
 		if (JDTUtils.toURI(folderUri) != null) {
@@ -123,7 +196,9 @@ public class OrganizeImportsCommand {
 		}
 		// Select an individual package
 		if (fragment != null) {
-			organizeImportsInPackageFragment(fragment, rootEdit);
+			HashSet<IJavaElement> result = new HashSet<>();
+			collectCompilationUnits(fragment.getParent(), result, fragment.getElementName());
+			organizeImports(result, rootEdit, editConsumer, monitor);
 		} else if (proj != null) {
 			// Search the packages under the selected folder:
 			IJavaProject javaProject = JavaCore.create(proj);
@@ -138,11 +213,7 @@ public class OrganizeImportsCommand {
 					}
 				}
 			}
-			for (IJavaElement elem : result) {
-				if (elem.getElementType() == IJavaElement.COMPILATION_UNIT) {
-					organizeImportsInCompilationUnit((ICompilationUnit) elem, rootEdit);
-				}
-			}
+			organizeImports(result, rootEdit, editConsumer, monitor);
 		}
 		return rootEdit;
 	}
@@ -163,11 +234,7 @@ public class OrganizeImportsCommand {
 	public void organizeImportsInPackageFragment(IPackageFragment fragment, WorkspaceEdit rootEdit) throws CoreException {
 		HashSet<IJavaElement> result = new HashSet<>();
 		collectCompilationUnits(fragment.getParent(), result, fragment.getElementName());
-		for (IJavaElement elem : result) {
-			if (elem.getElementType() == IJavaElement.COMPILATION_UNIT) {
-				organizeImportsInCompilationUnit((ICompilationUnit) elem, rootEdit);
-			}
-		}
+		organizeImports(result, rootEdit, null, new NullProgressMonitor());
 	}
 
 	public void organizeImportsInCompilationUnit(ICompilationUnit unit, WorkspaceEdit rootEdit) {
@@ -188,6 +255,101 @@ public class OrganizeImportsCommand {
 		}
 	}
 
+	/**
+	 * Organizes the imports of many compilation units. The units are parsed in
+	 * batches sharing their binding environment, on a bounded pool of threads,
+	 * and the edits of each batch are passed on as soon as the batch is done,
+	 * so that neither the ASTs nor, when streamed, the edits of all the units
+	 * are held at once.
+	 */
+	private void organizeImports(Collection<IJavaElement> elements, WorkspaceEdit rootEdit, Consumer<WorkspaceEdit> editConsumer, IProgressMonitor monitor) {
+		Consumer<WorkspaceEdit> consumer = editConsumer != null ? editConsumer : edit -> rootEdit.getChanges().putAll(edit.getChanges());
+		// ASTParser.createASTs resolves the bindings of a single project
+		Map<IJavaProject, List<ICompilationUnit>> units = elements.stream().filter(elem -> elem.getElementType() == IJavaElement.COMPILATION_UNIT).map(ICompilationUnit.class::cast)
+				.collect(Collectors.groupingBy(ICompilationUnit::getJavaProject, LinkedHashMap::new, Collectors.toList()));
+		List<List<ICompilationUnit>> batches = new ArrayList<>();
+		for (List<ICompilationUnit> projectUnits : units.values()) {
+			batches.addAll(Lists.partition(projectUnits, BATCH_SIZE));
+		}
+		SubMonitor subMonitor = SubMonitor.convert(monitor, "Organizing imports", batches.size());
+		if (batches.size() < 2) {
+			for (List<ICompilationUnit> batch : batches) {
+				accept(consumer, organizeImportsInBatch(batch, subMonitor.split(1)));
+			}
+			return;
+		}
+		IProgressMonitor cancelMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return subMonitor.isCanceled();
+			}
+		};
+		int threads = Math.min(batches.size(), Runtime.getRuntime().availableProcessors());
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("Organize imports %d").setDaemon(true).build());
+		try {
+			List<Future<WorkspaceEdit>> futures = new ArrayList<>(batches.size());
+			for (List<ICompilationUnit> batch : batches) {
+				futures.add(executor.submit(() -> organizeImportsInBatch(batch, cancelMonitor)));
+			}
+			for (Future<WorkspaceEdit> future : futures) {
+				WorkspaceEdit edit = future.get();
+				subMonitor.split(1);
+				accept(consumer, edit);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			// the remaining batches are dropped, and the caller reports the failure
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Problem organize imports", cause);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void accept(Consumer<WorkspaceEdit> consumer, WorkspaceEdit edit) {
+		if (ChangeUtil.hasChanges(edit)) {
+			consumer.accept(edit);
+		}
+	}
+
+	/**
+	 * @noreference protected for test purposes only
+	 */
+	protected WorkspaceEdit organizeImportsInBatch(List<ICompilationUnit> units, IProgressMonitor monitor) {
+		WorkspaceEdit edit = new WorkspaceEdit();
+		ASTParser parser = ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+		parser.setProject(units.get(0).getJavaProject());
+		parser.setResolveBindings(true);
+		parser.setStatementsRecovery(true);
+		parser.setBindingsRecovery(true);
+		parser.createASTs(units.toArray(new ICompilationUnit[units.size()]), new String[0], new ASTRequestor() {
+			@Override
+			public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+				if (monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				try {
+					OrganizeImportsOperation op = new OrganizeImportsOperation(source, ast, true, false, true, null);
+					List<org.eclipse.lsp4j.TextEdit> edits = new TextEditConverter(source, op.createTextEdit(null)).convert();
+					if (ChangeUtil.hasChanges(edits)) {
+						edit.getChanges().put(JDTUtils.toURI(source), edits);
+					}
+				} catch (CoreException e) {
+					JavaLanguageServerPlugin.logException("Problem organize imports ", e);
+				}
+			}
+		}, monitor);
+		return edit;
+	}
+
 	private void collectCompilationUnits(Object element, Collection<IJavaElement> result, String packagePrefix) {
 		try {
 			if (element instanceof IJavaElement) {
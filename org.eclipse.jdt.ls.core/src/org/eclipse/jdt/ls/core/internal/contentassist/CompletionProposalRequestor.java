@@ -11,24 +11,24 @@
 package org.eclipse.jdt.ls.core.internal.contentassist;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IPath;
 import org.eclipse.jdt.core.CompletionContext;
 import org.eclipse.jdt.core.CompletionProposal;
 import org.eclipse.jdt.core.CompletionRequestor;
-import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IType;
-import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.SourceFolderClassifier;
+import org.eclipse.jdt.ls.core.internal.SourceFolderClassifier.SourceKind;
 import org.eclipse.jdt.ls.core.internal.handlers.CompletionResolveHandler;
 import org.eclipse.jdt.ls.core.internal.handlers.CompletionResponse;
 import org.eclipse.jdt.ls.core.internal.handlers.CompletionResponses;
@@ -45,6 +45,8 @@ public final class CompletionProposalRequestor extends CompletionRequestor {
 	private CompletionResponse response;
 	private boolean fIsTestCodeExcluded;
 	private CompletionContext context;
+	private final int maxResults;
+	private boolean isIncomplete;
 
 	// Update SUPPORTED_KINDS when mapKind changes
 	// @formatter:off
@@ -60,7 +62,17 @@ public final class CompletionProposalRequestor extends CompletionRequestor {
 	// @formatter:on
 
 	public CompletionProposalRequestor(ICompilationUnit aUnit, int offset) {
+		this(aUnit, offset, 0);
+	}
+
+	/**
+	 * @param maxResults
+	 *            the maximum number of completion items, 0 if there is no
+	 *            limit
+	 */
+	public CompletionProposalRequestor(ICompilationUnit aUnit, int offset, int maxResults) {
 		this.unit = aUnit;
+		this.maxResults = maxResults;
 		response = new CompletionResponse();
 		response.setOffset(offset);
 		fIsTestCodeExcluded = !isTestSource(unit.getJavaProject(), unit);
@@ -71,21 +83,7 @@ public final class CompletionProposalRequestor extends CompletionRequestor {
 		if (project == null) {
 			return true;
 		}
-		try {
-			IClasspathEntry[] resolvedClasspath = project.getResolvedClasspath(true);
-			final IPath resourcePath = cu.getResource().getFullPath();
-			for (IClasspathEntry e : resolvedClasspath) {
-				if (e.getEntryKind() == IClasspathEntry.CPE_SOURCE) {
-					if (e.isTest()) {
-						if (e.getPath().isPrefixOf(resourcePath)) {
-							return true;
-						}
-					}
-				}
-			}
-		} catch (JavaModelException e) {
-		}
-		return false;
+		return SourceFolderClassifier.kindOf(cu) == SourceKind.TEST;
 	}
 
 	@Override
@@ -104,23 +102,48 @@ public final class CompletionProposalRequestor extends CompletionRequestor {
 		}
 	}
 
+	/**
+	 * Returns the completion items of the accepted proposals. When there are
+	 * more proposals than the maximum number of results, only the most relevant
+	 * ones are kept and turned into completion items.
+	 */
 	public List<CompletionItem> getCompletionItems() {
+		if (maxResults > 0 && proposals.size() > maxResults) {
+			// the sort is stable, so proposals of equal relevance keep the order of the engine
+			proposals.sort(Comparator.comparingInt(SortTextHelper::computeRelevance).reversed());
+			proposals = new ArrayList<>(proposals.subList(0, maxResults));
+			isIncomplete = true;
+		}
 		response.setProposals(proposals);
 		CompletionResponses.store(response);
+		// shared by the resolve data of all the items
+		String uri = JDTUtils.toURI(unit);
+		String requestId = String.valueOf(response.getId());
 		List<CompletionItem> completionItems = new ArrayList<>(proposals.size());
 		for (int i = 0; i < proposals.size(); i++) {
-			completionItems.add(toCompletionItem(proposals.get(i), i));
+			completionItems.add(toCompletionItem(proposals.get(i), i, uri, requestId));
 		}
 		return completionItems;
 	}
 
+	/**
+	 * @return whether proposals were left out of the completion items
+	 */
+	public boolean isIncomplete() {
+		return isIncomplete;
+	}
+
 	public CompletionItem toCompletionItem(CompletionProposal proposal, int index) {
+		return toCompletionItem(proposal, index, JDTUtils.toURI(unit), String.valueOf(response.getId()));
+	}
+
+	private CompletionItem toCompletionItem(CompletionProposal proposal, int index, String uri, String requestId) {
 		final CompletionItem $ = new CompletionItem();
 		$.setKind(mapKind(proposal.getKind()));
-		Map<String, String> data = new HashMap<>();
+		Map<String, String> data = new HashMap<>(8);
 		// append data field so that resolve request can use it.
-		data.put(CompletionResolveHandler.DATA_FIELD_URI, JDTUtils.toURI(unit));
-		data.put(CompletionResolveHandler.DATA_FIELD_REQUEST_ID,String.valueOf(response.getId()));
+		data.put(CompletionResolveHandler.DATA_FIELD_URI, uri);
+		data.put(CompletionResolveHandler.DATA_FIELD_REQUEST_ID, requestId);
 		data.put(CompletionResolveHandler.DATA_FIELD_PROPOSAL_ID,String.valueOf(index));
 		$.setData(data);
 		this.descriptionProvider.updateDescription(proposal, $);
@@ -33,8 +33,6 @@ import org.eclipse.jdt.core.Signature;
 import org.eclipse.jdt.internal.corext.template.java.SignatureUtil;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
-import org.eclipse.jdt.ls.core.internal.handlers.CompletionResponse;
-import org.eclipse.jdt.ls.core.internal.handlers.CompletionResponses;
 import org.eclipse.jdt.ls.core.internal.javadoc.JavadocContentAccess;
 import org.eclipse.lsp4j.ParameterInformation;
 import org.eclipse.lsp4j.SignatureHelp;
@@ -49,19 +47,15 @@ public final class SignatureHelpRequestor extends CompletionRequestor {
 	private List<CompletionProposal> proposals = new ArrayList<>();
 	private final ICompilationUnit unit;
 	private CompletionProposalDescriptionProvider descriptionProvider;
-	private CompletionResponse response;
 
-	public SignatureHelpRequestor(ICompilationUnit aUnit, int offset) {
+	public SignatureHelpRequestor(ICompilationUnit aUnit) {
 		this.unit = aUnit;
-		response = new CompletionResponse();
-		response.setOffset(offset);
 		setRequireExtendedContext(true);
 	}
 
 	public SignatureHelp getSignatureHelp(IProgressMonitor monitor) {
+		// signature help is never resolved, so the proposals aren't kept in the completion responses
 		SignatureHelp signatureHelp = new SignatureHelp();
-		response.setProposals(proposals);
-		CompletionResponses.store(response);
 
 		List<SignatureInformation> infos = new ArrayList<>();
 		for (int i = 0; i < proposals.size(); i++) {
@@ -100,7 +94,6 @@ public final class SignatureHelpRequestor extends CompletionRequestor {
 	@Override
 	public void acceptContext(CompletionContext context) {
 		super.acceptContext(context);
-		response.setContext(context);
 		this.descriptionProvider = new CompletionProposalDescriptionProvider(context);
 	}
 
@@ -142,7 +142,11 @@ public class QualifiedNameFinder {
 		TextSearchEngine engine = TextSearchEngine.createDefault();
 		Pattern searchPattern= PatternConstructor.createPattern(pattern, true, false);
 
-		engine.search(createScope(filePatterns, root), collector, searchPattern, monitor);
+		// without wildcards, the pattern is matched literally
+		boolean hasWildcards= pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0 || pattern.indexOf('\\') >= 0;
+		String literal= hasWildcards ? null : pattern;
+
+		engine.search(createScope(filePatterns, root), collector, searchPattern, literal, monitor);
 	}
 
 	private static TextSearchScope createScope(String filePatterns, IProject root) {
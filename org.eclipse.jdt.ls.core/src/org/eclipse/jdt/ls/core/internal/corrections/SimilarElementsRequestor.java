@@ -14,13 +14,10 @@ package org.eclipse.jdt.ls.core.internal.corrections;
 
 import java.util.HashSet;
 
-import org.eclipse.core.runtime.IPath;
 import org.eclipse.jdt.core.CompletionProposal;
 import org.eclipse.jdt.core.CompletionRequestor;
 import org.eclipse.jdt.core.Flags;
-import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.ICompilationUnit;
-import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.Signature;
@@ -31,6 +28,8 @@ import org.eclipse.jdt.core.dom.Name;
 import org.eclipse.jdt.core.dom.QualifiedName;
 import org.eclipse.jdt.internal.corext.dom.ASTNodes;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
+import org.eclipse.jdt.ls.core.internal.SourceFolderClassifier;
+import org.eclipse.jdt.ls.core.internal.SourceFolderClassifier.SourceKind;
 
 public class SimilarElementsRequestor extends CompletionRequestor {
 
@@ -54,26 +53,7 @@ public class SimilarElementsRequestor extends CompletionRequestor {
 	private boolean fExcludeTestCode;
 
 	private static boolean isTestSource(ICompilationUnit cu) {
-		try {
-			IJavaProject javaProject = cu.getJavaProject();
-			if (javaProject == null) {
-				return false;
-			}
-			IClasspathEntry[] resolvedClasspath = javaProject.getResolvedClasspath(true);
-			final IPath resourcePath = cu.getResource().getFullPath();
-			for (IClasspathEntry e : resolvedClasspath) {
-				if (e.getEntryKind() == IClasspathEntry.CPE_SOURCE) {
-					if (e.isTest()) {
-						if (e.getPath().isPrefixOf(resourcePath)) {
-							return true;
-						}
-					}
-				}
-			}
-		} catch (JavaModelException e) {
-			return false;
-		}
-		return false;
+		return SourceFolderClassifier.kindOf(cu) == SourceKind.TEST;
 	}
 
 	public static SimilarElement[] findSimilarElement(ICompilationUnit cu, Name name, int kind) throws JavaModelException {
@@ -0,0 +1,511 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.ResourceUtils;
+import org.eclipse.lsp4j.Location;
+
+/**
+ * Bounded cache of the locations code lenses are resolved to.
+ * <p>
+ * Entries are keyed by element handle identifier and code lens type, and are
+ * evicted least recently used first. When a compilation unit changes, the
+ * entries having locations in it, or whose element name appears in it, or is
+ * the name of a supertype of its types whose supertypes changed, become
+ * stale. Stale entries are still served, while they're computed again. All the
+ * entries become stale when a classpath changes, and are discarded when a
+ * project is added, removed, opened or closed.
+ * </p>
+ * <p>
+ * Locations are cached with the stamp taken before they were computed, see
+ * {@link #getStamp()}. They aren't cached if a unit having some of them, or
+ * mentioning their element name, changed since.
+ * </p>
+ */
+public class CodeLensCache implements IElementChangedListener {
+
+	/**
+	 * Maximum number of code lens results kept.
+	 */
+	public static final int MAX_ENTRIES = 2000;
+
+	private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	/**
+	 * Maximum number of changes remembered to check the locations being
+	 * computed. Locations computed before a forgotten change aren't cached.
+	 */
+	private static final int MAX_CHANGES = 1000;
+
+	/**
+	 * The number of invalidations, guarded by {@link #entries}.
+	 */
+	private long stamp;
+	/**
+	 * The locations computed before this stamp aren't cached, guarded by
+	 * {@link #entries}.
+	 */
+	private long floor;
+	/**
+	 * The last changes of the units, by client URI, guarded by
+	 * {@link #entries}.
+	 */
+	private final Map<String, Change> changes = new LinkedHashMap<>();
+	/**
+	 * The stamps of the last changes of the declarations or of the supertypes
+	 * of elements, by element name, guarded by {@link #entries}.
+	 */
+	private final Map<String, Long> invalidatedNames = new LinkedHashMap<>();
+
+	/**
+	 * Starts invalidating entries on Java element changes.
+	 */
+	public void start() {
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+	}
+
+	public void stop() {
+		JavaCore.removeElementChangedListener(this);
+		clear();
+	}
+
+	/**
+	 * Returns the cached locations of a code lens.
+	 *
+	 * @param element
+	 *            the element of the code lens
+	 * @param type
+	 *            the code lens type
+	 * @return the entry, possibly stale, or <code>null</code> if the code lens
+	 *         isn't cached
+	 */
+	public Entry get(IJavaElement element, String type) {
+		synchronized (entries) {
+			Entry entry = entries.get(getKey(element, type));
+			if (entry == null) {
+				misses.incrementAndGet();
+			} else {
+				hits.incrementAndGet();
+			}
+			return entry;
+		}
+	}
+
+	/**
+	 * Returns the stamp to cache the locations computed from now on with.
+	 *
+	 * @return the current stamp
+	 */
+	public long getStamp() {
+		synchronized (entries) {
+			return stamp;
+		}
+	}
+
+	/**
+	 * Caches the locations of a code lens, unless they may have changed while
+	 * they were computed.
+	 *
+	 * @param element
+	 *            the element of the code lens
+	 * @param type
+	 *            the code lens type
+	 * @param locations
+	 *            the locations the code lens is resolved to
+	 * @param stamp
+	 *            the stamp returned by {@link #getStamp()} before the locations
+	 *            were computed
+	 * @return whether the locations were cached
+	 */
+	public boolean put(IJavaElement element, String type, List<Location> locations, long stamp) {
+		Entry entry = new Entry(element.getElementName(), locations, stamp);
+		String key = getKey(element, type);
+		long checked = stamp;
+		while (true) {
+			List<ICompilationUnit> changedUnits = new ArrayList<>();
+			synchronized (entries) {
+				Entry current = entries.get(key);
+				if (stamp < floor || (current != null && current.stamp > stamp) || invalidatedNames.getOrDefault(entry.name, 0L) > stamp) {
+					return false;
+				}
+				for (Map.Entry<String, Change> change : changes.entrySet()) {
+					if (change.getValue().stamp > checked) {
+						if (entry.uris.contains(change.getKey())) {
+							return false;
+						}
+						changedUnits.add(change.getValue().unit);
+					}
+				}
+				if (changedUnits.isEmpty()) {
+					entries.put(key, entry);
+					Iterator<Entry> iterator = entries.values().iterator();
+					while (entries.size() > MAX_ENTRIES && iterator.hasNext()) {
+						iterator.next();
+						iterator.remove();
+					}
+					return true;
+				}
+				checked = this.stamp;
+			}
+			// the units changed since are read outside of the lock
+			for (ICompilationUnit unit : changedUnits) {
+				if (mentions(unit, entry.name)) {
+					return false;
+				}
+			}
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			floor = ++stamp;
+			changes.clear();
+			invalidatedNames.clear();
+			entries.clear();
+		}
+	}
+
+	/**
+	 * @return the number of cached code lenses
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * @return the number of lookups that found a cached, possibly stale, code
+	 *         lens
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of lookups that found no cached code lens
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.core.IElementChangedListener#elementChanged(org.eclipse.jdt.core.ElementChangedEvent)
+	 */
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		Map<ICompilationUnit, Boolean> units = new LinkedHashMap<>();
+		Set<String> names = new HashSet<>();
+		try {
+			switch (visit(event.getDelta(), units, names)) {
+				case ALL:
+					clear();
+					break;
+				case STALE:
+					invalidateAll();
+					break;
+				default:
+					if (!units.isEmpty()) {
+						invalidate(units, names);
+					}
+					break;
+			}
+		} catch (JavaModelException e) {
+			// the locations may change anywhere
+			invalidateAll();
+		}
+	}
+
+	private enum Staleness {
+		NONE, STALE, ALL
+	}
+
+	/**
+	 * Collects the changed units, mapped to whether their content changed, and
+	 * the names of the changed declarations and of the supertypes of the types
+	 * whose supertypes changed.
+	 */
+	private Staleness visit(IJavaElementDelta delta, Map<ICompilationUnit, Boolean> units, Set<String> names) throws JavaModelException {
+		IJavaElement element = delta.getElement();
+		int flags = delta.getFlags();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0) {
+					return Staleness.ALL;
+				}
+				if ((flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0) {
+					return Staleness.STALE;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0) {
+					return Staleness.STALE;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				// the compilation units of added or removed packages aren't reported
+				if (delta.getKind() != IJavaElementDelta.CHANGED) {
+					return Staleness.STALE;
+				}
+				break;
+			case IJavaElement.CLASS_FILE:
+				return Staleness.STALE;
+			case IJavaElement.COMPILATION_UNIT:
+				if (delta.getKind() == IJavaElementDelta.CHANGED && flags == IJavaElementDelta.F_PRIMARY_WORKING_COPY) {
+					// opened or closed
+					return Staleness.NONE;
+				}
+				ICompilationUnit unit = (ICompilationUnit) element;
+				boolean contentChanged = delta.getKind() == IJavaElementDelta.ADDED || (flags & IJavaElementDelta.F_CONTENT) != 0;
+				units.put(unit, contentChanged);
+				if (delta.getKind() == IJavaElementDelta.ADDED) {
+					for (IType type : unit.getAllTypes()) {
+						collectSupertypeNames(type, names);
+					}
+				} else {
+					collectDeclarationNames(delta.getAffectedChildren(), names);
+				}
+				return Staleness.NONE;
+			default:
+				break;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			Staleness staleness = visit(child, units, names);
+			if (staleness != Staleness.NONE) {
+				return staleness;
+			}
+		}
+		return Staleness.NONE;
+	}
+
+	private static void collectDeclarationNames(IJavaElementDelta[] deltas, Set<String> names) throws JavaModelException {
+		for (IJavaElementDelta delta : deltas) {
+			IJavaElement element = delta.getElement();
+			names.add(element.getElementName());
+			if (element instanceof IType && element.exists() && (delta.getKind() == IJavaElementDelta.ADDED || (delta.getFlags() & IJavaElementDelta.F_SUPER_TYPES) != 0)) {
+				// the implementations of indirect supertypes change too
+				collectSupertypeNames((IType) element, names);
+			}
+			collectDeclarationNames(delta.getAffectedChildren(), names);
+		}
+	}
+
+	private static void collectSupertypeNames(IType type, Set<String> names) throws JavaModelException {
+		names.add(type.getElementName());
+		for (IType superType : type.newSupertypeHierarchy(null).getAllSupertypes(type)) {
+			names.add(superType.getElementName());
+		}
+	}
+
+	/**
+	 * Marks stale the entries having locations in the changed compilation
+	 * units, or which may have new ones: an element can only be referenced, or
+	 * extended, where its name appears.
+	 */
+	private void invalidate(Map<ICompilationUnit, Boolean> units, Set<String> names) throws JavaModelException {
+		Map<String, ICompilationUnit> uris = new LinkedHashMap<>();
+		List<ICompilationUnit> contentChanges = new ArrayList<>();
+		for (Map.Entry<ICompilationUnit, Boolean> unit : units.entrySet()) {
+			uris.put(ResourceUtils.toClientUri(JDTUtils.toURI(unit.getKey())), unit.getKey());
+			if (unit.getValue() && unit.getKey().exists()) {
+				contentChanges.add(unit.getKey());
+			}
+		}
+		Map<Integer, List<String>> cachedNames = new HashMap<>();
+		synchronized (entries) {
+			for (Entry entry : entries.values()) {
+				List<String> sameHash = cachedNames.computeIfAbsent(entry.name.hashCode(), h -> new ArrayList<>(1));
+				if (!sameHash.contains(entry.name)) {
+					sameHash.add(entry.name);
+				}
+			}
+		}
+		// only the names of the cached entries are looked for in the changed sources
+		Set<String> mentioned = new HashSet<>(names);
+		if (!cachedNames.isEmpty()) {
+			for (ICompilationUnit unit : contentChanges) {
+				collectMentionedNames(unit.getSource(), cachedNames, mentioned);
+			}
+		}
+		synchronized (entries) {
+			long invalidation = ++stamp;
+			for (Map.Entry<String, ICompilationUnit> uri : uris.entrySet()) {
+				changes.remove(uri.getKey());
+				changes.put(uri.getKey(), new Change(uri.getValue(), invalidation));
+			}
+			for (String name : names) {
+				invalidatedNames.remove(name);
+				invalidatedNames.put(name, invalidation);
+			}
+			// the locations computed before the forgotten changes aren't cached
+			for (Iterator<Change> iterator = changes.values().iterator(); changes.size() > MAX_CHANGES && iterator.hasNext();) {
+				floor = Math.max(floor, iterator.next().stamp);
+				iterator.remove();
+			}
+			for (Iterator<Long> iterator = invalidatedNames.values().iterator(); invalidatedNames.size() > MAX_CHANGES && iterator.hasNext();) {
+				floor = Math.max(floor, iterator.next());
+				iterator.remove();
+			}
+			for (Entry entry : entries.values()) {
+				if (mentioned.contains(entry.name) || !Collections.disjoint(entry.uris, uris.keySet())) {
+					entry.invalidate(invalidation);
+				}
+			}
+		}
+	}
+
+	private void invalidateAll() {
+		synchronized (entries) {
+			long invalidation = ++stamp;
+			floor = invalidation;
+			changes.clear();
+			invalidatedNames.clear();
+			entries.values().forEach(entry -> entry.invalidate(invalidation));
+		}
+	}
+
+	/**
+	 * Collects the given names appearing as identifiers in the source, without
+	 * copying the identifiers of the source.
+	 *
+	 * @param namesByHash
+	 *            the names looked for, by hash code
+	 */
+	private static void collectMentionedNames(String source, Map<Integer, List<String>> namesByHash, Set<String> mentioned) {
+		if (source == null) {
+			return;
+		}
+		int start = -1;
+		int hash = 0;
+		for (int i = 0; i <= source.length(); i++) {
+			char c = i < source.length() ? source.charAt(i) : ' ';
+			if (start < 0) {
+				if (Character.isJavaIdentifierStart(c)) {
+					start = i;
+					hash = c;
+				}
+			} else if (Character.isJavaIdentifierPart(c)) {
+				// String.hashCode() of the identifier
+				hash = 31 * hash + c;
+			} else {
+				List<String> names = namesByHash.get(hash);
+				if (names != null) {
+					for (String name : names) {
+						if (name.length() == i - start && source.startsWith(name, start)) {
+							mentioned.add(name);
+						}
+					}
+				}
+				start = -1;
+			}
+		}
+	}
+
+	/**
+	 * @return whether the name appears as an identifier in the unit
+	 */
+	private static boolean mentions(ICompilationUnit unit, String name) {
+		String source;
+		try {
+			source = unit.exists() ? unit.getSource() : null;
+		} catch (JavaModelException e) {
+			return true;
+		}
+		if (source == null || name.isEmpty()) {
+			return false;
+		}
+		for (int index = source.indexOf(name); index >= 0; index = source.indexOf(name, index + 1)) {
+			int end = index + name.length();
+			if ((index == 0 || !Character.isJavaIdentifierPart(source.charAt(index - 1))) && (end == source.length() || !Character.isJavaIdentifierPart(source.charAt(end)))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String getKey(IJavaElement element, String type) {
+		return type + ':' + element.getHandleIdentifier();
+	}
+
+	private static class Change {
+		private final ICompilationUnit unit;
+		private final long stamp;
+
+		private Change(ICompilationUnit unit, long stamp) {
+			this.unit = unit;
+			this.stamp = stamp;
+		}
+	}
+
+	/**
+	 * The locations a code lens is resolved to.
+	 */
+	public static class Entry {
+		private final String name;
+		private final List<Location> locations;
+		private final Set<String> uris;
+		/**
+		 * The stamp of the last invalidation, or of the computation of the
+		 * locations, guarded by {@link CodeLensCache#entries}.
+		 */
+		private long stamp;
+		private volatile boolean stale;
+
+		private Entry(String name, List<Location> locations, long stamp) {
+			this.name = name;
+			this.stamp = stamp;
+			this.locations = Collections.unmodifiableList(new ArrayList<>(locations));
+			this.uris = new HashSet<>();
+			for (Location location : locations) {
+				this.uris.add(location.getUri());
+			}
+		}
+
+		private void invalidate(long invalidation) {
+			stamp = invalidation;
+			stale = true;
+		}
+
+		public List<Location> getLocations() {
+			return locations;
+		}
+
+		/**
+		 * @return whether the locations may have changed since they were
+		 *         cached
+		 */
+		public boolean isStale() {
+			return stale;
+		}
+	}
+}
@@ -14,17 +14,32 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.ICoreRunnable;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.ISourceReference;
 import org.eclipse.jdt.core.IType;
@@ -61,6 +76,16 @@ public class CodeLensHandler {
 	public static final String IMPLEMENTATION_TYPE = "implementations";
 	public static final String REFERENCES_TYPE = "references";
 
+	/**
+	 * The reference searches in progress, by type root handle identifier.
+	 */
+	private static final Map<String, CompletableFuture<Map<String, List<Location>>>> pendingSearches = new ConcurrentHashMap<>();
+
+	/**
+	 * The code lenses being refreshed in the background.
+	 */
+	private static final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
 	private final PreferenceManager preferenceManager;
 
 	public CodeLensHandler(PreferenceManager preferenceManager) {
@@ -74,10 +99,11 @@ public class CodeLensHandler {
 		//Note that codelens resolution is honored if the request was emitted
 		//before disabling codelenses in the preferences, else invalid codeLenses
 		//(i.e. having no commands) would be returned.
+		// the data is [uri, position, type], decoded in place rather than as a whole
 		final JsonArray data = (JsonArray) lens.getData();
-		final String type = JSONUtility.toModel(data.get(2), String.class);
+		final String type = data.get(2).getAsString();
 		final Position position = JSONUtility.toModel(data.get(1), Position.class);
-		final String uri = JSONUtility.toModel(data.get(0), String.class);
+		final String uri = data.get(0).getAsString();
 
 		String label = null;
 		String command = null;
@@ -95,7 +121,7 @@ public class CodeLensHandler {
 				IJavaElement element = JDTUtils.findElementAtSelection(typeRoot, position.getLine(), position.getCharacter(), this.preferenceManager, monitor);
 				if (REFERENCES_TYPE.equals(type)) {
 					try {
-						locations = findReferences(element, monitor);
+						locations = getReferences(element, typeRoot, monitor);
 					} catch (CoreException e) {
 						JavaLanguageServerPlugin.logException(e.getMessage(), e);
 					}
@@ -104,7 +130,7 @@ public class CodeLensHandler {
 						try {
 							IDocument document = JsonRpcHelpers.toDocument(typeRoot.getBuffer());
 							int offset = document.getLineOffset(position.getLine()) + position.getCharacter();
-							locations = findImplementations((IType) element, offset, monitor);
+							locations = getImplementations((IType) element, offset, monitor);
 						} catch (CoreException | BadLocationException e) {
 							JavaLanguageServerPlugin.logException(e.getMessage(), e);
 						}
@@ -125,6 +151,99 @@ public class CodeLensHandler {
 		return lens;
 	}
 
+	/**
+	 * Returns the references of an element, from the {@link CodeLensCache} when
+	 * possible. Stale references are returned as they are, and searched again
+	 * in the background.
+	 */
+	private List<Location> getReferences(IJavaElement element, ITypeRoot typeRoot, IProgressMonitor monitor) throws CoreException {
+		CodeLensCache cache = JavaLanguageServerPlugin.getCodeLensCache();
+		if (cache == null || element == null) {
+			return findReferences(element, monitor);
+		}
+		ICoreRunnable search = m -> {
+			long stamp = cache.getStamp();
+			if (!findReferences(typeRoot, m).containsKey(element.getHandleIdentifier())) {
+				List<Location> locations = findReferences(element, m);
+				if (!m.isCanceled()) {
+					cache.put(element, REFERENCES_TYPE, locations, stamp);
+				}
+			}
+		};
+		CodeLensCache.Entry entry = cache.get(element, REFERENCES_TYPE);
+		if (entry != null) {
+			if (entry.isStale()) {
+				refresh(REFERENCES_TYPE + ':' + typeRoot.getHandleIdentifier(), search);
+			}
+			return entry.getLocations();
+		}
+		long stamp = cache.getStamp();
+		List<Location> locations = findReferences(typeRoot, monitor).get(element.getHandleIdentifier());
+		if (locations == null) {
+			locations = findReferences(element, monitor);
+			if (!monitor.isCanceled()) {
+				cache.put(element, REFERENCES_TYPE, locations, stamp);
+			}
+		}
+		return locations;
+	}
+
+	/**
+	 * Returns the implementations of a type, from the {@link CodeLensCache}
+	 * when possible. Stale implementations are returned as they are, and
+	 * searched again in the background.
+	 */
+	private List<Location> getImplementations(IType type, int offset, IProgressMonitor monitor) throws CoreException {
+		CodeLensCache cache = JavaLanguageServerPlugin.getCodeLensCache();
+		if (cache == null) {
+			return findImplementations(type, offset, monitor);
+		}
+		CodeLensCache.Entry entry = cache.get(type, IMPLEMENTATION_TYPE);
+		if (entry != null) {
+			if (entry.isStale()) {
+				refresh(IMPLEMENTATION_TYPE + ':' + type.getHandleIdentifier(), m -> {
+					long stamp = cache.getStamp();
+					List<Location> locations = findImplementations(type, offset, m);
+					if (!m.isCanceled()) {
+						cache.put(type, IMPLEMENTATION_TYPE, locations, stamp);
+					}
+				});
+			}
+			return entry.getLocations();
+		}
+		long stamp = cache.getStamp();
+		List<Location> locations = findImplementations(type, offset, monitor);
+		if (!monitor.isCanceled()) {
+			cache.put(type, IMPLEMENTATION_TYPE, locations, stamp);
+		}
+		return locations;
+	}
+
+	private static void refresh(String key, ICoreRunnable search) {
+		if (!refreshing.add(key)) {
+			return;
+		}
+		Job job = new Job("Refresh code lenses") {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					search.run(monitor);
+				} catch (CoreException e) {
+					JavaLanguageServerPlugin.logException("Problem refreshing code lenses", e);
+				} catch (OperationCanceledException e) {
+					return Status.CANCEL_STATUS;
+				} finally {
+					refreshing.remove(key);
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		job.schedule();
+	}
+
 	private List<Location> findImplementations(IType type, int offset, IProgressMonitor monitor) throws CoreException {
 		//java.lang.Object is a special case. We need to minimize heavy cost of I/O,
 		// by avoiding opening all files from the Object hierarchy
@@ -164,6 +283,123 @@ public class CodeLensHandler {
 		return result;
 	}
 
+	/**
+	 * Searches the references of all the code lens elements of a type root,
+	 * and caches them. Concurrent searches of the same type root are shared.
+	 *
+	 * @return the references, by element handle identifier
+	 */
+	private Map<String, List<Location>> findReferences(ITypeRoot typeRoot, IProgressMonitor monitor) throws CoreException {
+		String key = typeRoot.getHandleIdentifier();
+		CompletableFuture<Map<String, List<Location>>> search = new CompletableFuture<>();
+		CompletableFuture<Map<String, List<Location>>> running = pendingSearches.putIfAbsent(key, search);
+		if (running != null) {
+			try {
+				return running.join();
+			} catch (CompletionException | CancellationException e) {
+				// the elements are searched one by one
+				return Collections.emptyMap();
+			}
+		}
+		try {
+			Map<String, List<Location>> references = searchReferences(typeRoot, monitor);
+			search.complete(references);
+			return references;
+		} catch (CoreException | RuntimeException e) {
+			search.completeExceptionally(e);
+			throw e;
+		} finally {
+			pendingSearches.remove(key, search);
+		}
+	}
+
+	private Map<String, List<Location>> searchReferences(ITypeRoot typeRoot, IProgressMonitor monitor) throws CoreException {
+		CodeLensCache cache = JavaLanguageServerPlugin.getCodeLensCache();
+		long stamp = cache == null ? 0 : cache.getStamp();
+		List<IJavaElement> elements = new ArrayList<>();
+		collectCodeLensElements(typeRoot.getChildren(), elements, monitor);
+		// matches don't tell which pattern they match, so only the elements of distinct names are searched together
+		Map<String, IJavaElement> batch = new HashMap<>();
+		List<IJavaElement> others = new ArrayList<>();
+		Set<String> ambiguousNames = new HashSet<>();
+		for (IJavaElement element : elements) {
+			String name = element.getElementName();
+			if (element instanceof IMethod && ((IMethod) element).isConstructor() || ambiguousNames.contains(name)) {
+				others.add(element);
+			} else if (batch.containsKey(name)) {
+				others.add(batch.remove(name));
+				others.add(element);
+				ambiguousNames.add(name);
+			} else {
+				batch.put(name, element);
+			}
+		}
+		Map<String, List<Location>> references = new HashMap<>();
+		SearchPattern pattern = null;
+		for (IJavaElement element : batch.values()) {
+			SearchPattern elementPattern = SearchPattern.createPattern(element, IJavaSearchConstants.REFERENCES);
+			if (elementPattern != null) {
+				pattern = pattern == null ? elementPattern : SearchPattern.createOrPattern(pattern, elementPattern);
+				references.put(element.getHandleIdentifier(), new ArrayList<>());
+			}
+		}
+		if (pattern != null) {
+			new SearchEngine().search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() }, createSearchScope(), new SearchRequestor() {
+
+				@Override
+				public void acceptSearchMatch(SearchMatch match) throws CoreException {
+					Object o = match.getElement();
+					if (o instanceof IJavaElement) {
+						ICompilationUnit compilationUnit = (ICompilationUnit) ((IJavaElement) o).getAncestor(IJavaElement.COMPILATION_UNIT);
+						if (compilationUnit == null) {
+							return;
+						}
+						IJavaElement element = batch.get(getReferencedName(compilationUnit, match));
+						List<Location> locations = element == null ? null : references.get(element.getHandleIdentifier());
+						if (locations != null) {
+							locations.add(JDTUtils.toLocation(compilationUnit, match.getOffset(), match.getLength()));
+						}
+					}
+				}
+			}, monitor);
+		}
+		for (IJavaElement element : others) {
+			references.put(element.getHandleIdentifier(), findReferences(element, monitor));
+		}
+		if (cache != null && !monitor.isCanceled()) {
+			for (IJavaElement element : elements) {
+				List<Location> locations = references.get(element.getHandleIdentifier());
+				if (locations != null) {
+					cache.put(element, REFERENCES_TYPE, locations, stamp);
+				}
+			}
+		}
+		return references;
+	}
+
+	/**
+	 * @return the simple name a reference match covers, or <code>null</code>
+	 */
+	private static String getReferencedName(ICompilationUnit unit, SearchMatch match) throws JavaModelException {
+		IBuffer buffer = unit.getBuffer();
+		if (buffer == null || match.getOffset() < 0 || match.getOffset() + match.getLength() > buffer.getLength()) {
+			return null;
+		}
+		// the match covers a possibly qualified name, and the arguments of method invocations
+		String text = buffer.getText(match.getOffset(), match.getLength());
+		int start = 0;
+		int end = 0;
+		for (; end < text.length(); end++) {
+			char c = text.charAt(end);
+			if (c == '.' || c == ':' || c == '#' || c == '@') {
+				start = end + 1;
+			} else if (!Character.isJavaIdentifierPart(c) && !Character.isWhitespace(c)) {
+				break;
+			}
+		}
+		return text.substring(start, end).trim();
+	}
+
 	public List<CodeLens> getCodeLensSymbols(String uri, IProgressMonitor monitor) {
 		if (!preferenceManager.getPreferences().isCodeLensEnabled()) {
 			return Collections.emptyList();
@@ -198,25 +434,12 @@ public class CodeLensHandler {
 	private void collectCodeLenses(ITypeRoot typeRoot, IJavaElement[] elements, Collection<CodeLens> lenses,
 			IProgressMonitor monitor)
 			throws JavaModelException {
-		for (IJavaElement element : elements) {
+		List<IJavaElement> codeLensElements = new ArrayList<>();
+		collectCodeLensElements(elements, codeLensElements, monitor);
+		for (IJavaElement element : codeLensElements) {
 			if (monitor.isCanceled()) {
 				return;
 			}
-			if (element.getElementType() == IJavaElement.TYPE) {
-				collectCodeLenses(typeRoot, ((IType) element).getChildren(), lenses, monitor);
-			} else if (element.getElementType() == IJavaElement.METHOD) {
-				if (JDTUtils.isHiddenGeneratedElement(element)) {
-					continue;
-				}
-				//ignore element if method range overlaps the type range, happens for generated bytcode, i.e. with lombok
-				IJavaElement parentType = element.getAncestor(IJavaElement.TYPE);
-				if (parentType != null && overlaps(((ISourceReference) parentType).getNameRange(), ((ISourceReference) element).getNameRange())) {
-					continue;
-				}
-			} else {//neither a type nor a method, we bail
-				continue;
-			}
-
 			if (preferenceManager.getPreferences().isReferencesCodeLensEnabled()) {
 				CodeLens lens = getCodeLens(REFERENCES_TYPE, element, typeRoot);
 				if (lens != null) {
@@ -235,6 +458,31 @@ public class CodeLensHandler {
 		}
 	}
 
+	/**
+	 * Collects the types and methods having code lenses.
+	 */
+	private void collectCodeLensElements(IJavaElement[] elements, List<IJavaElement> result, IProgressMonitor monitor) throws JavaModelException {
+		for (IJavaElement element : elements) {
+			if (monitor.isCanceled()) {
+				return;
+			}
+			if (element.getElementType() == IJavaElement.TYPE) {
+				collectCodeLensElements(((IType) element).getChildren(), result, monitor);
+				result.add(element);
+			} else if (element.getElementType() == IJavaElement.METHOD) {
+				if (JDTUtils.isHiddenGeneratedElement(element)) {
+					continue;
+				}
+				//ignore element if method range overlaps the type range, happens for generated bytcode, i.e. with lombok
+				IJavaElement parentType = element.getAncestor(IJavaElement.TYPE);
+				if (parentType != null && overlaps(((ISourceReference) parentType).getNameRange(), ((ISourceReference) element).getNameRange())) {
+					continue;
+				}
+				result.add(element);
+			}
+		}
+	}
+
 	private boolean overlaps(ISourceRange typeRange, ISourceRange methodRange) {
 		if (typeRange == null || methodRange == null) {
 			return false;
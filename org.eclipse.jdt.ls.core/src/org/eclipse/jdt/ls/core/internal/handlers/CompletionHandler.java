@@ -13,20 +13,29 @@ package org.eclipse.jdt.ls.core.internal.handlers;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.ProgressMonitorWrapper;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.CompletionProposal;
 import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JSONUtility;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.contentassist.CompletionProposalRequestor;
 import org.eclipse.jdt.ls.core.internal.contentassist.JavadocCompletionProposal;
 import org.eclipse.jdt.ls.core.internal.contentassist.SnippetCompletionProposal;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache.Format;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.CompletionList;
@@ -38,14 +47,24 @@ public class CompletionHandler{
 
 	public final static CompletionOptions DEFAULT_COMPLETION_OPTIONS = new CompletionOptions(Boolean.TRUE, Arrays.asList(".", "@", "#", "*"));
 
+	/**
+	 * Number of top-ranked completion items whose documentation is rendered in
+	 * the background, before being resolved.
+	 */
+	private static final int PREFETCHED_DOCUMENTATION = 10;
+
+	private static final Object PREFETCH_FAMILY = new Object();
+
 	Either<List<CompletionItem>, CompletionList> completion(CompletionParams position,
 			IProgressMonitor monitor) {
+		cancelPrefetches();
 		List<CompletionItem> completionItems = null;
+		CompletionList $ = new CompletionList();
 		try {
 			ICompilationUnit unit = JDTUtils.resolveCompilationUnit(position.getTextDocument().getUri());
 			completionItems = this.computeContentAssist(unit,
 					position.getPosition().getLine(),
-					position.getPosition().getCharacter(), monitor);
+					position.getPosition().getCharacter(), $, monitor);
 		} catch (OperationCanceledException ignorable) {
 			// No need to pollute logs when query is cancelled
 			monitor.setCanceled(true);
@@ -53,7 +72,6 @@ public class CompletionHandler{
 			JavaLanguageServerPlugin.logException("Problem with codeComplete for " +  position.getTextDocument().getUri(), e);
 			monitor.setCanceled(true);
 		}
-		CompletionList $ = new CompletionList();
 		if (monitor.isCanceled()) {
 			$.setIsIncomplete(true);
 			completionItems = null;
@@ -62,18 +80,91 @@ public class CompletionHandler{
 			JavaLanguageServerPlugin.logInfo("Completion request completed");
 		}
 		$.setItems(completionItems == null ? Collections.emptyList() : completionItems);
+		if (completionItems != null && !completionItems.isEmpty()) {
+			prefetchDocumentation(position.getTextDocument().getUri(), completionItems);
+		}
 		return Either.forRight($);
 	}
 
-	private List<CompletionItem> computeContentAssist(ICompilationUnit unit, int line, int column, IProgressMonitor monitor) throws JavaModelException {
-		CompletionResponses.clear();
+	/**
+	 * Cancels the documentation prefetches of previous completion requests, so
+	 * they don't delay resolving the items of this one.
+	 */
+	private void cancelPrefetches() {
+		Job.getJobManager().cancel(PREFETCH_FAMILY);
+		JavadocCache cache = JavaLanguageServerPlugin.getJavadocCache();
+		if (cache != null) {
+			cache.cancelPrefetches();
+		}
+	}
+
+	/**
+	 * Renders the documentation of the top-ranked completion items in the
+	 * background, so resolving them is served from the {@link JavadocCache}.
+	 */
+	private void prefetchDocumentation(String uri, List<CompletionItem> completionItems) {
+		JavadocCache cache = JavaLanguageServerPlugin.getJavadocCache();
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		if (cache == null || preferenceManager == null || preferenceManager.getClientPreferences() == null) {
+			return;
+		}
+		Format format = preferenceManager.getClientPreferences().isSupportsCompletionDocumentationMarkdown() ? Format.MARKDOWN : Format.PLAIN_TEXT;
+		List<CompletionItemData> topRanked = new ArrayList<>(PREFETCHED_DOCUMENTATION);
+		completionItems.stream()
+			.filter(item -> item.getData() instanceof Map && item.getSortText() != null)
+			.sorted(Comparator.comparing(CompletionItem::getSortText))
+			.limit(PREFETCHED_DOCUMENTATION)
+			.forEach(item -> {
+				CompletionItemData data = JSONUtility.toModel(item.getData(), CompletionItemData.class);
+				if (data != null && data.getDeclarationSignature() != null) {
+					topRanked.add(data);
+				}
+			});
+		if (topRanked.isEmpty()) {
+			return;
+		}
+		Job job = new Job("Prefetch completion documentation") {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				ICompilationUnit unit = JDTUtils.resolveCompilationUnit(uri);
+				if (unit == null || unit.getJavaProject() == null) {
+					return Status.OK_STATUS;
+				}
+				for (CompletionItemData data : topRanked) {
+					if (monitor.isCanceled()) {
+						return Status.CANCEL_STATUS;
+					}
+					try {
+						IMember member = CompletionResolveHandler.resolveMember(unit.getJavaProject(), data);
+						if (member != null && member.exists()) {
+							cache.prefetch(member, format);
+						}
+					} catch (JavaModelException e) {
+						// the documentation will be rendered on resolve
+					}
+				}
+				return Status.OK_STATUS;
+			}
+
+			@Override
+			public boolean belongsTo(Object family) {
+				return PREFETCH_FAMILY == family;
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		job.schedule();
+	}
+
+	private List<CompletionItem> computeContentAssist(ICompilationUnit unit, int line, int column, CompletionList completionList, IProgressMonitor monitor) throws JavaModelException {
 		if (unit == null) {
 			return Collections.emptyList();
 		}
 		List<CompletionItem> proposals = new ArrayList<>();
 
 		final int offset = JsonRpcHelpers.toOffset(unit.getBuffer(), line, column);
-		CompletionProposalRequestor collector = new CompletionProposalRequestor(unit, offset);
+		CompletionProposalRequestor collector = new CompletionProposalRequestor(unit, offset, getMaxResults());
 		// Allow completions for unresolved types - since 3.3
 		collector.setAllowsRequiredProposals(CompletionProposal.FIELD_REF, CompletionProposal.TYPE_REF, true);
 		collector.setAllowsRequiredProposals(CompletionProposal.FIELD_REF, CompletionProposal.TYPE_IMPORT, true);
@@ -111,10 +202,19 @@ public class CompletionHandler{
 
 				};
 				try {
+					long start = System.currentTimeMillis();
 					unit.codeComplete(offset, collector, subMonitor);
+					long codeCompleteTime = System.currentTimeMillis() - start;
+					start = System.currentTimeMillis();
 					proposals.addAll(collector.getCompletionItems());
+					completionList.setIsIncomplete(collector.isIncomplete());
+					long completionItemsTime = System.currentTimeMillis() - start;
+					int completionItemCount = proposals.size();
+					start = System.currentTimeMillis();
 					proposals.addAll(SnippetCompletionProposal.getSnippets(unit, collector.getContext(), subMonitor));
 					proposals.addAll(new JavadocCompletionProposal().getProposals(unit, offset, collector, subMonitor));
+					JavaLanguageServerPlugin.logInfo("Completion: code assist took " + codeCompleteTime + " ms, " + completionItemCount + (collector.isIncomplete() ? " ranked" : "") + " items took " + completionItemsTime + " ms, snippets took "
+							+ (System.currentTimeMillis() - start) + " ms");
 				} catch (OperationCanceledException e) {
 					monitor.setCanceled(true);
 				}
@@ -123,6 +223,14 @@ public class CompletionHandler{
 		return proposals;
 	}
 
+	private int getMaxResults() {
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		if (preferenceManager != null) {
+			return preferenceManager.getPreferences().getCompletionMaxResults();
+		}
+		return 0;
+	}
+
 	private String[] getFavoriteStaticMembers() {
 		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
 		if (preferenceManager != null) {
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * The data of a completion item, as sent back by the client to resolve the
+ * item. Completion items are sent with their data as a map of strings, see the
+ * <code>DATA_FIELD_*</code> constants of {@link CompletionResolveHandler}.
+ */
+public class CompletionItemData {
+
+	@SerializedName(CompletionResolveHandler.DATA_FIELD_URI)
+	private String uri;
+
+	@SerializedName(CompletionResolveHandler.DATA_FIELD_REQUEST_ID)
+	private Long requestId;
+
+	@SerializedName(CompletionResolveHandler.DATA_FIELD_PROPOSAL_ID)
+	private Integer proposalId;
+
+	@SerializedName(CompletionResolveHandler.DATA_FIELD_DECLARATION_SIGNATURE)
+	private String declarationSignature;
+
+	@SerializedName(CompletionResolveHandler.DATA_FIELD_SIGNATURE)
+	private String signature;
+
+	@SerializedName(CompletionResolveHandler.DATA_FIELD_NAME)
+	private String name;
+
+	public String getUri() {
+		return uri;
+	}
+
+	/**
+	 * @return the id of the completion response, or <code>null</code>
+	 */
+	public Long getRequestId() {
+		return requestId;
+	}
+
+	/**
+	 * @return the index of the proposal in the completion response, or
+	 *         <code>null</code>
+	 */
+	public Integer getProposalId() {
+		return proposalId;
+	}
+
+	/**
+	 * @return the signature of the type declaring the member, or
+	 *         <code>null</code>
+	 */
+	public String getDeclarationSignature() {
+		return declarationSignature;
+	}
+
+	/**
+	 * @return the signature of the method, or <code>null</code>
+	 */
+	public String getSignature() {
+		return signature;
+	}
+
+	/**
+	 * @return the name of the member, or <code>null</code>
+	 */
+	public String getName() {
+		return name;
+	}
+}
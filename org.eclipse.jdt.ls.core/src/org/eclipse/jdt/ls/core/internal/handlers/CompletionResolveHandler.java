@@ -15,12 +15,13 @@ import static org.eclipse.jdt.internal.corext.template.java.SignatureUtil.getLow
 import static org.eclipse.jdt.internal.corext.template.java.SignatureUtil.stripSignatureToFQN;
 
 import java.io.Reader;
-import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
@@ -32,6 +33,8 @@ import org.eclipse.jdt.ls.core.internal.JSONUtility;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.contentassist.CompletionProposalReplacementProvider;
 import org.eclipse.jdt.ls.core.internal.contentassist.CompletionProposalRequestor;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache.Format;
 import org.eclipse.jdt.ls.core.internal.javadoc.JavadocContentAccess;
 import org.eclipse.jdt.ls.core.internal.javadoc.JavadocContentAccess2;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
@@ -67,22 +70,27 @@ public class CompletionResolveHandler {
 	public static final String DATA_FIELD_REQUEST_ID = "rid";
 	public static final String DATA_FIELD_PROPOSAL_ID = "pid";
 
+	/**
+	 * Maximum time to wait for the documentation of a completion item, in
+	 * milliseconds.
+	 */
+	private static final long DOCUMENTATION_TIMEOUT = 500;
+
 	public CompletionItem resolve(CompletionItem param, IProgressMonitor monitor) {
 
-		@SuppressWarnings("unchecked")
-		Map<String, String> data = JSONUtility.toModel(param.getData(),Map.class);
+		CompletionItemData data = JSONUtility.toModel(param.getData(), CompletionItemData.class);
 		// clean resolve data
 		param.setData(null);
-		if (!CompletionProposalRequestor.SUPPORTED_KINDS.contains(param.getKind()) || data == null || !data.containsKey(DATA_FIELD_URI) || !data.containsKey(DATA_FIELD_REQUEST_ID) || !data.containsKey(DATA_FIELD_PROPOSAL_ID)) {
+		if (!CompletionProposalRequestor.SUPPORTED_KINDS.contains(param.getKind()) || data == null || data.getUri() == null || data.getRequestId() == null || data.getProposalId() == null) {
 			return param;
 		}
-		int proposalId = Integer.parseInt(data.get(DATA_FIELD_PROPOSAL_ID));
-		long requestId = Long.parseLong(data.get(DATA_FIELD_REQUEST_ID));
+		int proposalId = data.getProposalId();
+		long requestId = data.getRequestId();
 		CompletionResponse completionResponse = CompletionResponses.get(requestId);
 		if (completionResponse == null || completionResponse.getProposals().size() <= proposalId) {
 			throw new IllegalStateException("Invalid completion proposal");
 		}
-		String uri = data.get(DATA_FIELD_URI);
+		String uri = data.getUri();
 		ICompilationUnit unit = JDTUtils.resolveCompilationUnit(uri);
 		if (unit == null) {
 			throw new IllegalStateException(NLS.bind("Unable to match Compilation Unit from {0} ", uri));
@@ -96,62 +104,24 @@ public class CompletionResolveHandler {
 			param.setData(null);
 			return param;
 		}
-		if (data.containsKey(DATA_FIELD_DECLARATION_SIGNATURE)) {
-			String typeName = stripSignatureToFQN(String.valueOf(data.get(DATA_FIELD_DECLARATION_SIGNATURE)));
+		if (data.getDeclarationSignature() != null) {
 			try {
-				IMember member = null;
-				IType type = unit.getJavaProject().findType(typeName);
-
-				if (type!=null && data.containsKey(DATA_FIELD_NAME)) {
-					String name = data.get(DATA_FIELD_NAME);
-					String[] paramSigs = CharOperation.NO_STRINGS;
-					if(data.containsKey( DATA_FIELD_SIGNATURE)){
-						String[] parameters= Signature.getParameterTypes(String.valueOf(fix83600(data.get(DATA_FIELD_SIGNATURE).toCharArray())));
-						for (int i= 0; i < parameters.length; i++) {
-							parameters[i]= getLowerBound(parameters[i]);
-						}
-						paramSigs = parameters;
-					}
-					IMethod method = type.getMethod(name, paramSigs);
-					IMethod[] methods = type.findMethods(method);
-					if (methods != null && methods.length > 0) {
-						method = methods[0];
-					}
-					if (method.exists()) {
-						member = method;
-					} else {
-						IField field = type.getField(name);
-						if (field.exists()) {
-							member = field;
-						}
-					}
-				} else {
-					member = type;
-				}
-
+				IMember member = resolveMember(unit.getJavaProject(), data);
 				if (member != null && member.exists() && !monitor.isCanceled()) {
 					String javadoc = null;
+					boolean markdown = manager.getClientPreferences().isSupportsCompletionDocumentationMarkdown();
 					try {
-						final IMember curMember = member;
-						javadoc = new SimpleTimeLimiter().callWithTimeout(() -> {
-							Reader reader;
-							if (manager.getClientPreferences().isSupportsCompletionDocumentationMarkdown()) {
-								reader = JavadocContentAccess2.getMarkdownContentReader(curMember);
-							} else {
-								reader = JavadocContentAccess.getPlainTextContentReader(curMember);
-							}
-							return reader == null? null:CharStreams.toString(reader);
-						}, 500, TimeUnit.MILLISECONDS, true);
-					} catch (UncheckedTimeoutException tooSlow) {
+						javadoc = getJavadoc(member, markdown);
+					} catch (TimeoutException | UncheckedTimeoutException tooSlow) {
 						//Ignore error for now as it's spamming clients on content assist.
-						//TODO cache javadoc resolution results?
+						//The documentation keeps being rendered in the background, and is cached for the next resolve.
 						//JavaLanguageServerPlugin.logError("Unable to get documentation under 500ms");
 						monitor.setCanceled(true);
 					} catch (Exception e) {
 						JavaLanguageServerPlugin.logException("Unable to read documentation", e);
 						monitor.setCanceled(true);
 					}
-					if (manager.getClientPreferences().isSupportsCompletionDocumentationMarkdown()) {
+					if (markdown) {
 						MarkupContent markupContent = new MarkupContent();
 						markupContent.setKind(MarkupKind.MARKDOWN);
 						markupContent.setValue(javadoc);
@@ -170,4 +140,67 @@ public class CompletionResolveHandler {
 		}
 		return param;
 	}
+
+	private static String getJavadoc(IMember member, boolean markdown) throws Exception {
+		JavadocCache cache = JavaLanguageServerPlugin.getJavadocCache();
+		if (cache != null) {
+			return cache.getJavadoc(member, markdown ? Format.MARKDOWN : Format.PLAIN_TEXT, DOCUMENTATION_TIMEOUT);
+		}
+		return new SimpleTimeLimiter().callWithTimeout(() -> {
+			Reader reader;
+			if (markdown) {
+				reader = JavadocContentAccess2.getMarkdownContentReader(member);
+			} else {
+				reader = JavadocContentAccess.getPlainTextContentReader(member);
+			}
+			return reader == null? null:CharStreams.toString(reader);
+		}, DOCUMENTATION_TIMEOUT, TimeUnit.MILLISECONDS, true);
+	}
+
+	/**
+	 * Finds the member a completion item refers to.
+	 *
+	 * @param project
+	 *            the project the completion was requested in
+	 * @param data
+	 *            the data of the completion item
+	 * @return the member, or <code>null</code> if it can't be found
+	 * @throws JavaModelException
+	 */
+	public static IMember resolveMember(IJavaProject project, CompletionItemData data) throws JavaModelException {
+		if (data.getDeclarationSignature() == null) {
+			return null;
+		}
+		String typeName = stripSignatureToFQN(data.getDeclarationSignature());
+		IMember member = null;
+		IType type = project.findType(typeName);
+
+		if (type!=null && data.getName() != null) {
+			String name = data.getName();
+			String[] paramSigs = CharOperation.NO_STRINGS;
+			if (data.getSignature() != null) {
+				String[] parameters= Signature.getParameterTypes(String.valueOf(fix83600(data.getSignature().toCharArray())));
+				for (int i= 0; i < parameters.length; i++) {
+					parameters[i]= getLowerBound(parameters[i]);
+				}
+				paramSigs = parameters;
+			}
+			IMethod method = type.getMethod(name, paramSigs);
+			IMethod[] methods = type.findMethods(method);
+			if (methods != null && methods.length > 0) {
+				method = methods[0];
+			}
+			if (method.exists()) {
+				member = method;
+			} else {
+				IField field = type.getField(name);
+				if (field.exists()) {
+					member = field;
+				}
+			}
+		} else {
+			member = type;
+		}
+		return member;
+	}
 }
@@ -10,11 +10,21 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Cache of {@link CompletionResponse}s.
+ * Bounded cache of {@link CompletionResponse}s.
+ * <p>
+ * The last {@link #MAX_RESPONSES} responses are kept, so a resolve request for
+ * a previous completion list still succeeds while a newer completion request
+ * is being computed. Responses are evicted, least recently used first, when
+ * there are too many of them, when they hold too many proposals overall, or
+ * when they are older than {@link #MAX_AGE}.
+ * </p>
  *
  * @author Fred Bricon
  */
@@ -24,25 +34,141 @@ public final class CompletionResponses {
 		//Don't instantiate
 	}
 
-	private static final Map<Long, CompletionResponse> COMPLETIONS = new ConcurrentHashMap<>();
+	/**
+	 * Maximum number of responses kept.
+	 */
+	public static final int MAX_RESPONSES = 5;
+
+	/**
+	 * Maximum number of proposals held by all the kept responses. The most
+	 * recent response is always kept, regardless of its size.
+	 */
+	public static final int MAX_PROPOSALS = 10000;
+
+	/**
+	 * Maximum age of a response, in milliseconds.
+	 */
+	public static final long MAX_AGE = TimeUnit.MINUTES.toMillis(5);
+
+	private static final Map<Long, Entry> COMPLETIONS = new LinkedHashMap<>(16, 0.75f, true);
+
+	private static int proposalCount = 0;
+
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+	private static final AtomicLong evictions = new AtomicLong();
 
 	public static CompletionResponse get(Long id) {
-		return COMPLETIONS.get(id);
+		synchronized (COMPLETIONS) {
+			Entry entry = COMPLETIONS.get(id);
+			if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+				remove(id);
+				evictions.incrementAndGet();
+				entry = null;
+			}
+			if (entry == null) {
+				misses.incrementAndGet();
+				return null;
+			}
+			hits.incrementAndGet();
+			return entry.response;
+		}
 	}
 
 	public static void store(CompletionResponse response) {
 		if (response != null) {
-			COMPLETIONS.put(response.getId(), response);
+			synchronized (COMPLETIONS) {
+				remove(response.getId());
+				Entry entry = new Entry(response);
+				COMPLETIONS.put(response.getId(), entry);
+				proposalCount += entry.size;
+				evict(response.getId());
+			}
 		}
 	}
 
 	public static void delete(CompletionResponse response) {
 		if (response != null) {
-			COMPLETIONS.remove(response.getId());
+			synchronized (COMPLETIONS) {
+				remove(response.getId());
+			}
 		}
 	}
 
 	public static void clear() {
-		COMPLETIONS.clear();
+		synchronized (COMPLETIONS) {
+			COMPLETIONS.clear();
+			proposalCount = 0;
+		}
+	}
+
+	/**
+	 * @return the number of responses currently kept
+	 */
+	public static int size() {
+		synchronized (COMPLETIONS) {
+			return COMPLETIONS.size();
+		}
+	}
+
+	/**
+	 * @return the number of lookups that found their response
+	 */
+	public static long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of lookups that did not find their response
+	 */
+	public static long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * @return the number of responses evicted by size or age
+	 */
+	public static long getEvictionCount() {
+		return evictions.get();
+	}
+
+	private static void remove(Long id) {
+		Entry entry = COMPLETIONS.remove(id);
+		if (entry != null) {
+			proposalCount -= entry.size;
+		}
+	}
+
+	private static void evict(Long latest) {
+		long now = System.currentTimeMillis();
+		Iterator<Map.Entry<Long, Entry>> iterator = COMPLETIONS.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Long, Entry> next = iterator.next();
+			if (next.getKey().equals(latest)) {
+				continue;
+			}
+			Entry entry = next.getValue();
+			if (COMPLETIONS.size() > MAX_RESPONSES || proposalCount > MAX_PROPOSALS || entry.isExpired(now)) {
+				iterator.remove();
+				proposalCount -= entry.size;
+				evictions.incrementAndGet();
+			}
+		}
+	}
+
+	private static class Entry {
+		private final CompletionResponse response;
+		private final int size;
+		private final long timestamp;
+
+		Entry(CompletionResponse response) {
+			this.response = response;
+			this.size = response.getProposals() == null ? 0 : response.getProposals().size();
+			this.timestamp = System.currentTimeMillis();
+		}
+
+		boolean isExpired(long now) {
+			return now - timestamp > MAX_AGE;
+		}
 	}
 }
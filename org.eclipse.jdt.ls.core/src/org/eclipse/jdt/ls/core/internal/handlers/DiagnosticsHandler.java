@@ -117,7 +117,7 @@ public class DiagnosticsHandler implements IProblemRequestor {
 	public void endReporting() {
 		JavaLanguageServerPlugin.logInfo(problems.size() + " problems reported for " + this.uri.substring(this.uri.lastIndexOf('/')));
 		PublishDiagnosticsParams $ = new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), toDiagnosticsArray(this.cu, problems));
-		this.connection.publishDiagnostics($);
+		this.connection.publishDiagnosticsNow($);
 	}
 
 	@Override
@@ -177,7 +177,7 @@ public class DiagnosticsHandler implements IProblemRequestor {
 		JavaLanguageServerPlugin.logInfo("Clearing problems for " + this.uri.substring(this.uri.lastIndexOf('/')));
 		problems.clear();
 		PublishDiagnosticsParams $ = new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), Collections.emptyList());
-		this.connection.publishDiagnostics($);
+		this.connection.publishDiagnosticsNow($);
 	}
 
 	/**
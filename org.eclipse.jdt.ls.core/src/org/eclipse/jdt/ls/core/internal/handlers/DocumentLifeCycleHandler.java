@@ -16,8 +16,11 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -32,25 +35,32 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IProblemRequestor;
+import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.manipulation.CoreASTProvider;
-import org.eclipse.jdt.internal.ui.javaeditor.HighlightedPositionCore;
 import org.eclipse.jdt.ls.core.internal.ActionableNotification;
 import org.eclipse.jdt.ls.core.internal.DocumentAdapter;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.ResourceUtils;
+import org.eclipse.jdt.ls.core.internal.SharedASTProvider;
 import org.eclipse.jdt.ls.core.internal.highlighting.SemanticHighlightingService;
 import org.eclipse.jdt.ls.core.internal.highlighting.SemanticHighlightingService.HighlightedPositionDiffContext;
+import org.eclipse.jdt.ls.core.internal.highlighting.SemanticTokens;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager.CHANGE_TYPE;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
@@ -68,6 +78,7 @@ import org.eclipse.lsp4j.DidOpenTextDocumentParams;
 import org.eclipse.lsp4j.DidSaveTextDocumentParams;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentItem;
 import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
 import org.eclipse.text.edits.DeleteEdit;
 import org.eclipse.text.edits.InsertEdit;
@@ -84,17 +95,23 @@ public class DocumentLifeCycleHandler {
 	private PreferenceManager preferenceManager;
 	private ProjectsManager projectsManager;
 
-	private CoreASTProvider sharedASTProvider;
+	private CoreASTProvider coreASTProvider;
 	private WorkspaceJob validationTimer;
+	private WorkspaceJob dependentsValidationTimer;
 	private Set<ICompilationUnit> toReconcile = new HashSet<>();
+	private Set<ICompilationUnit> dependentsToValidate = new HashSet<>();
+	private Map<ICompilationUnit, String> publicSignatures = new ConcurrentHashMap<>();
+	private Map<ICompilationUnit, Set<String>> publicTypeNames = new ConcurrentHashMap<>();
+	private volatile int lastReconciledCount;
+	private volatile int lastSkippedCount;
 	private SemanticHighlightingService semanticHighlightingService;
 
 	public DocumentLifeCycleHandler(JavaClientConnection connection, PreferenceManager preferenceManager, ProjectsManager projectsManager, boolean delayValidation) {
 		this.connection = connection;
 		this.preferenceManager = preferenceManager;
 		this.projectsManager = projectsManager;
-		this.sharedASTProvider = CoreASTProvider.getInstance();
-		this.semanticHighlightingService = new SemanticHighlightingService(this.connection, this.sharedASTProvider, this.preferenceManager);
+		this.coreASTProvider = CoreASTProvider.getInstance();
+		this.semanticHighlightingService = new SemanticHighlightingService(this.connection, SharedASTProvider::getInstance, this.preferenceManager);
 		if (delayValidation) {
 			this.validationTimer = new WorkspaceJob("Validate documents") {
 				@Override
@@ -111,6 +128,21 @@ public class DocumentLifeCycleHandler {
 				}
 			};
 			this.validationTimer.setRule(ResourcesPlugin.getWorkspace().getRoot());
+			this.dependentsValidationTimer = new WorkspaceJob("Validate dependent documents") {
+				@Override
+				public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
+					return performDependentsValidation(monitor);
+				}
+
+				/* (non-Javadoc)
+				 * @see org.eclipse.core.runtime.jobs.Job#belongsTo(java.lang.Object)
+				 */
+				@Override
+				public boolean belongsTo(Object family) {
+					return DOCUMENT_LIFE_CYCLE_JOBS.equals(family);
+				}
+			};
+			this.dependentsValidationTimer.setRule(ResourcesPlugin.getWorkspace().getRoot());
 		}
 	}
 
@@ -121,9 +153,11 @@ public class DocumentLifeCycleHandler {
 	private void triggerValidation(ICompilationUnit cu, long delay) throws JavaModelException {
 		synchronized (toReconcile) {
 			toReconcile.add(cu);
-			sharedASTProvider.setActiveJavaElement(cu);
+			coreASTProvider.setActiveJavaElement(cu);
 		}
 		if (validationTimer != null) {
+			// a newer edit supersedes any pending revalidation of dependent units
+			dependentsValidationTimer.cancel();
 			validationTimer.cancel();
 			validationTimer.schedule(delay);
 		} else {
@@ -143,26 +177,203 @@ public class DocumentLifeCycleHandler {
 			return Status.OK_STATUS;
 		}
 		// first reconcile all units with content changes
-		SubMonitor progress = SubMonitor.convert(monitor, cusToReconcile.size() + 1);
+		SubMonitor progress = SubMonitor.convert(monitor, cusToReconcile.size() * 2);
+		Map<ICompilationUnit, Set<String>> changedSignatures = new LinkedHashMap<>();
 		for (ICompilationUnit cu : cusToReconcile) {
 			cu.reconcile(ICompilationUnit.NO_AST, true, null, progress.newChild(1));
+			Set<String> typeNames = updatePublicSignature(cu);
+			if (typeNames != null) {
+				changedSignatures.put(cu, typeNames);
+			}
 		}
-		this.sharedASTProvider.disposeAST();
-		List<ICompilationUnit> toValidate = Arrays.asList(JavaCore.getWorkingCopies(null));
-		List<CompilationUnit> astRoots = new ArrayList<>();
-		for (ICompilationUnit rootToValidate : toValidate) {
-			CompilationUnit astRoot = this.sharedASTProvider.getAST(rootToValidate, CoreASTProvider.WAIT_YES, monitor);
-			astRoots.add(astRoot);
+		this.coreASTProvider.disposeAST();
+		IJavaElement activeElement = this.coreASTProvider.getActiveJavaElement();
+		if (activeElement instanceof ICompilationUnit && cusToReconcile.contains(activeElement)) {
+			// the refactorings and quick fixes of jdt.core.manipulation read the AST of the active element
+			this.coreASTProvider.getAST((ICompilationUnit) activeElement, CoreASTProvider.WAIT_YES, monitor);
 		}
-		for (CompilationUnit astRoot : astRoots) {
+		for (ICompilationUnit unit : cusToReconcile) {
 			// report errors, even if there are no problems in the file: The client need to know that they got fixed.
-			ICompilationUnit unit = (ICompilationUnit) astRoot.getTypeRoot();
 			publishDiagnostics(unit, progress.newChild(1));
 		}
-		JavaLanguageServerPlugin.logInfo("Reconciled " + toReconcile.size() + ", validated: " + toValidate.size() + ". Took " + (System.currentTimeMillis() - start) + " ms");
+		// other open units only need to be revalidated when they may see a changed public signature
+		ICompilationUnit[] workingCopies = JavaCore.getWorkingCopies(null);
+		List<ICompilationUnit> changedDependents = new ArrayList<>();
+		if (!changedSignatures.isEmpty()) {
+			for (ICompilationUnit workingCopy : workingCopies) {
+				if (!cusToReconcile.contains(workingCopy) && dependsOn(workingCopy, changedSignatures, monitor)) {
+					changedDependents.add(workingCopy);
+				}
+			}
+		}
+		int dependents = 0;
+		synchronized (dependentsToValidate) {
+			dependentsToValidate.removeAll(cusToReconcile);
+			dependentsToValidate.addAll(changedDependents);
+			dependents = dependentsToValidate.size();
+		}
+		lastReconciledCount = cusToReconcile.size();
+		lastSkippedCount = Math.max(0, workingCopies.length - cusToReconcile.size() - dependents);
+		JavaLanguageServerPlugin.logInfo("Reconciled " + lastReconciledCount + ", dependents to validate: " + dependents + ", skipped: " + lastSkippedCount + ". Took " + (System.currentTimeMillis() - start) + " ms");
+		if (dependents > 0) {
+			if (dependentsValidationTimer != null) {
+				dependentsValidationTimer.schedule(400);
+			} else {
+				performDependentsValidation(monitor);
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
+	private IStatus performDependentsValidation(IProgressMonitor monitor) throws JavaModelException {
+		long start = System.currentTimeMillis();
+		List<ICompilationUnit> units;
+		synchronized (dependentsToValidate) {
+			units = new ArrayList<>(dependentsToValidate);
+			dependentsToValidate.clear();
+		}
+		if (units.isEmpty()) {
+			return Status.OK_STATUS;
+		}
+		SubMonitor progress = SubMonitor.convert(monitor, units.size());
+		for (int i = 0; i < units.size(); i++) {
+			if (progress.isCanceled()) {
+				// hand the remaining units back, the next validation cycle reschedules them
+				synchronized (dependentsToValidate) {
+					dependentsToValidate.addAll(units.subList(i, units.size()));
+				}
+				return Status.CANCEL_STATUS;
+			}
+			ICompilationUnit unit = units.get(i);
+			if (unit.isWorkingCopy()) {
+				publishDiagnostics(unit, progress.newChild(1));
+			}
+		}
+		JavaLanguageServerPlugin.logInfo("Validated " + units.size() + " dependent units. Took " + (System.currentTimeMillis() - start) + " ms");
 		return Status.OK_STATUS;
 	}
 
+	/**
+	 * Records the public signature of the given (reconciled) unit.
+	 *
+	 * @return the names of the top level types of the unit, before and after
+	 *         the change, if the signature differs from the previously recorded
+	 *         one; <code>null</code> otherwise, or if none was recorded yet
+	 */
+	private Set<String> updatePublicSignature(ICompilationUnit unit) throws JavaModelException {
+		String signature = computePublicSignature(unit);
+		Set<String> typeNames = new HashSet<>();
+		for (IType type : unit.getTypes()) {
+			typeNames.add(type.getElementName());
+		}
+		String previous = publicSignatures.put(unit, signature);
+		Set<String> previousTypeNames = publicTypeNames.put(unit, typeNames);
+		if (previous == null || previousTypeNames == null || signature.equals(previous)) {
+			return null;
+		}
+		// units still referencing renamed or removed types must see their errors
+		Set<String> allTypeNames = new HashSet<>(previousTypeNames);
+		allTypeNames.addAll(typeNames);
+		return allTypeNames;
+	}
+
+	private static String computePublicSignature(ICompilationUnit unit) throws JavaModelException {
+		StringBuilder builder = new StringBuilder();
+		for (IType type : unit.getTypes()) {
+			appendSignature(type, builder);
+		}
+		return builder.toString();
+	}
+
+	private static void appendSignature(IType type, StringBuilder builder) throws JavaModelException {
+		if (Flags.isPrivate(type.getFlags())) {
+			return;
+		}
+		builder.append(type.getFlags()).append(' ').append(type.getElementName()).append(' ').append(type.getSuperclassTypeSignature());
+		for (String signature : type.getSuperInterfaceTypeSignatures()) {
+			builder.append(',').append(signature);
+		}
+		for (String signature : type.getTypeParameterSignatures()) {
+			builder.append(',').append(signature);
+		}
+		builder.append('{');
+		for (IField field : type.getFields()) {
+			if (!Flags.isPrivate(field.getFlags())) {
+				builder.append(field.getFlags()).append(' ').append(field.getElementName()).append(' ').append(field.getTypeSignature()).append(';');
+			}
+		}
+		for (IMethod method : type.getMethods()) {
+			if (!Flags.isPrivate(method.getFlags())) {
+				builder.append(method.getFlags()).append(' ').append(method.getElementName()).append(method.getSignature());
+				for (String exception : method.getExceptionTypes()) {
+					builder.append(',').append(exception);
+				}
+				builder.append(';');
+			}
+		}
+		for (IType member : type.getTypes()) {
+			appendSignature(member, builder);
+		}
+		builder.append('}');
+	}
+
+	/**
+	 * Dependency check: the unit must be able to see the changed units on its
+	 * classpath, and must either mention one of their current or previous top
+	 * level types, or declare a type inheriting, even indirectly, from one of
+	 * their types.
+	 */
+	private static boolean dependsOn(ICompilationUnit unit, Map<ICompilationUnit, Set<String>> changedUnits, IProgressMonitor monitor) throws JavaModelException {
+		IJavaProject javaProject = unit.getJavaProject();
+		if (javaProject == null) {
+			return false;
+		}
+		Set<ICompilationUnit> visibleUnits = new HashSet<>();
+		String source = unit.getSource();
+		for (Map.Entry<ICompilationUnit, Set<String>> entry : changedUnits.entrySet()) {
+			ICompilationUnit changed = entry.getKey();
+			if (!(javaProject.equals(changed.getJavaProject()) || javaProject.isOnClasspath(changed))) {
+				continue;
+			}
+			if (source != null) {
+				for (String typeName : entry.getValue()) {
+					if (source.contains(typeName)) {
+						return true;
+					}
+				}
+			}
+			visibleUnits.add(changed);
+		}
+		if (visibleUnits.isEmpty()) {
+			return false;
+		}
+		// inherited members aren't mentioned by the subtypes
+		for (IType type : unit.getAllTypes()) {
+			for (IType superType : type.newSupertypeHierarchy(monitor).getAllSupertypes(type)) {
+				ICompilationUnit superUnit = superType.getCompilationUnit();
+				if (superUnit != null && visibleUnits.contains(superUnit)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the number of units reconciled by the last validation cycle
+	 */
+	public int getLastReconciledCount() {
+		return lastReconciledCount;
+	}
+
+	/**
+	 * @return the number of open units left untouched by the last validation
+	 *         cycle
+	 */
+	public int getLastSkippedCount() {
+		return lastSkippedCount;
+	}
+
 	private void publishDiagnostics(ICompilationUnit unit, IProgressMonitor monitor) throws JavaModelException {
 		final DiagnosticsHandler handler = new DiagnosticsHandler(connection, unit);
 		WorkingCopyOwner wcOwner = new WorkingCopyOwner() {
@@ -245,10 +456,70 @@ public class DocumentLifeCycleHandler {
 	}
 
 	public void handleOpen(DidOpenTextDocumentParams params) {
+		String uri = params.getTextDocument().getUri();
+		boolean loading = projectsManager != null && projectsManager.needsLoading(uri);
+		ICompilationUnit unit = open(params, loading);
+		if (loading) {
+			scheduleLoad(params, unit);
+		}
+	}
+
+	/**
+	 * Imports the projects of an opened document in the background, then
+	 * reopens the document in its project or revalidates it.
+	 */
+	private void scheduleLoad(DidOpenTextDocumentParams params, ICompilationUnit opened) {
+		String uri = params.getTextDocument().getUri();
+		WorkspaceJob job = new WorkspaceJob("Load projects of " + uri) {
+			@Override
+			public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
+				try {
+					projectsManager.loadProjects(uri, monitor);
+				} catch (CoreException e) {
+					JavaLanguageServerPlugin.logException("Failed to load the projects of " + uri, e);
+				}
+				// only the reopening is serialized with the changes of the document
+				ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+					@Override
+					public void run(IProgressMonitor monitor) throws CoreException {
+						reopen(params, opened);
+					}
+				}, monitor);
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.schedule();
+	}
+
+	private void reopen(DidOpenTextDocumentParams params, ICompilationUnit opened) throws CoreException {
+		if (opened == null || !opened.isWorkingCopy()) {
+			// the document was closed meanwhile
+			return;
+		}
+		String uri = params.getTextDocument().getUri();
+		ICompilationUnit unit = JDTUtils.resolveCompilationUnit(uri);
+		if (opened.equals(unit)) {
+			triggerValidation(unit);
+		} else if (unit != null) {
+			TextDocumentItem document = params.getTextDocument();
+			String contents = opened.getBuffer().getContents();
+			close(uri, opened);
+			open(new DidOpenTextDocumentParams(new TextDocumentItem(uri, document.getLanguageId(), document.getVersion(), contents)), false);
+		}
+	}
+
+	/**
+	 * @param loading
+	 *            whether the projects of the document are being imported, so
+	 *            that its classpath is incomplete until they are
+	 * @return the opened unit, or <code>null</code>
+	 */
+	private ICompilationUnit open(DidOpenTextDocumentParams params, boolean loading) {
 		String uri = params.getTextDocument().getUri();
 		ICompilationUnit unit = JDTUtils.resolveCompilationUnit(uri);
 		if (unit == null || unit.getResource() == null || unit.getResource().isDerived()) {
-			return;
+			return null;
 		}
 		try {
 			// The open event can happen before the workspace element added event when a new file is added.
@@ -279,7 +550,7 @@ public class DocumentLifeCycleHandler {
 					msg = unit.getElementName() + " isn't on the classpath. Only syntax errors will be reported";
 				}
 				JavaLanguageServerPlugin.logInfo(msg +" for "+uri);
-				if (severity.compareTo(Preferences.Severity.ignore) > 0){
+				if (!loading && severity.compareTo(Preferences.Severity.ignore) > 0){
 					ActionableNotification ignoreIncompleteClasspath = new ActionableNotification()
 							.withSeverity(severity.toMessageType())
 							.withMessage(msg)
@@ -293,6 +564,8 @@ public class DocumentLifeCycleHandler {
 
 			//			DiagnosticsHandler problemRequestor = new DiagnosticsHandler(connection, unit.getResource(), reportOnlySyntaxErrors);
 			unit.becomeWorkingCopy(new NullProgressMonitor());
+			// the first reconcile compares the public signature with the saved one
+			updatePublicSignature(unit);
 			IBuffer buffer = unit.getBuffer();
 			String newContent = params.getTextDocument().getText();
 			if (buffer != null && !buffer.getContents().equals(newContent)) {
@@ -301,10 +574,11 @@ public class DocumentLifeCycleHandler {
 			triggerValidation(unit);
 			installSemanticHighlightings(unit);
 			// see https://github.com/redhat-developer/vscode-java/issues/274
-			checkPackageDeclaration(uri, unit);
-		} catch (JavaModelException | BadPositionCategoryException e) {
+			return checkPackageDeclaration(uri, unit);
+		} catch (JavaModelException | BadPositionCategoryException | BadLocationException e) {
 			JavaLanguageServerPlugin.logException("Error while opening document. URI: " + uri, e);
 		}
+		return unit;
 	}
 
 	public void handleChanged(DidChangeTextDocumentParams params) {
@@ -316,8 +590,8 @@ public class DocumentLifeCycleHandler {
 		}
 
 		try {
-			if (unit.equals(sharedASTProvider.getActiveJavaElement())) {
-				sharedASTProvider.disposeAST();
+			if (unit.equals(coreASTProvider.getActiveJavaElement())) {
+				coreASTProvider.disposeAST();
 			}
 			List<TextDocumentContentChangeEvent> contentChanges = params.getContentChanges();
 			List<HighlightedPositionDiffContext> diffContexts = newArrayList();
@@ -351,17 +625,17 @@ public class DocumentLifeCycleHandler {
 					IDocument oldState = new Document(unit.getBuffer().getContents());
 					IDocument newState = JsonRpcHelpers.toDocument(unit.getBuffer());
 					//@formatter:off
-					List<HighlightedPositionCore> oldPositions = diffContexts.isEmpty()
-						? semanticHighlightingService.getHighlightedPositions(uri)
-						: Iterables.getLast(diffContexts).newPositions;
+					SemanticTokens oldTokens = diffContexts.isEmpty()
+						? semanticHighlightingService.getSemanticTokens(uri)
+						: Iterables.getLast(diffContexts).newTokens;
 					//@formatter:on
 					edit.apply(newState, TextEdit.NONE);
 					// This is a must. Make the document immutable.
 					// Otherwise, any consecutive `newStates` get out-of-sync due to the shared buffer from the compilation unit.
 					newState = new Document(newState.get());
-					List<HighlightedPositionCore> newPositions = semanticHighlightingService.calculateHighlightedPositions(unit, true);
+					SemanticTokens newTokens = semanticHighlightingService.calculateSemanticTokens(unit, true);
 					DocumentEvent event = new DocumentEvent(newState, startOffset, length, text);
-					diffContexts.add(new HighlightedPositionDiffContext(oldState, event, oldPositions, newPositions));
+					diffContexts.add(new HighlightedPositionDiffContext(oldState, event, oldTokens, newTokens));
 				} else {
 					IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
 					edit.apply(document, TextEdit.NONE);
@@ -381,10 +655,19 @@ public class DocumentLifeCycleHandler {
 		if (unit == null) {
 			return;
 		}
+		close(uri, unit);
+	}
+
+	private void close(String uri, ICompilationUnit unit) {
 		try {
 			synchronized (toReconcile) {
 				toReconcile.remove(unit);
 			}
+			synchronized (dependentsToValidate) {
+				dependentsToValidate.remove(unit);
+			}
+			publicSignatures.remove(unit);
+			publicTypeNames.remove(unit);
 			if (JDTUtils.isDefaultProject(unit) || !JDTUtils.isOnClassPath(unit) || unit.getResource().isDerived()) {
 				new DiagnosticsHandler(connection, unit).clearDiagnostics();
 			} else if (unit.hasUnsavedChanges()) {
@@ -392,8 +675,8 @@ public class DocumentLifeCycleHandler {
 				unit.becomeWorkingCopy(new NullProgressMonitor());
 				publishDiagnostics(unit, new NullProgressMonitor());
 			}
-			if (unit.equals(sharedASTProvider.getActiveJavaElement())) {
-				sharedASTProvider.disposeAST();
+			if (unit.equals(coreASTProvider.getActiveJavaElement())) {
+				coreASTProvider.disposeAST();
 			}
 			unit.discardWorkingCopy();
 			if (JDTUtils.isDefaultProject(unit)) {
@@ -403,6 +686,7 @@ public class DocumentLifeCycleHandler {
 				}
 			}
 			uninstallSemanticHighlightings(uri);
+			connection.forgetDiagnostics(ResourceUtils.toClientUri(uri));
 		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("Error while handling document close. URI: " + uri, e);
 		}
@@ -431,7 +715,7 @@ public class DocumentLifeCycleHandler {
 	private ICompilationUnit checkPackageDeclaration(String uri, ICompilationUnit unit) {
 		if (unit.getResource() != null && unit.getJavaProject() != null && unit.getJavaProject().getProject().getName().equals(ProjectsManager.DEFAULT_PROJECT_NAME)) {
 			try {
-				CompilationUnit astRoot = CoreASTProvider.getInstance().getAST(unit, CoreASTProvider.WAIT_YES, new NullProgressMonitor());
+				CompilationUnit astRoot = SharedASTProvider.getInstance().getAST(unit, new NullProgressMonitor());
 				IProblem[] problems = astRoot.getProblems();
 				for (IProblem problem : problems) {
 					if (problem.getID() == IProblem.PackageIsNotExpectedPackage) {
@@ -453,8 +737,8 @@ public class DocumentLifeCycleHandler {
 						}
 						if (toRemove) {
 							file.delete(true, new NullProgressMonitor());
-							if (unit.equals(sharedASTProvider.getActiveJavaElement())) {
-								sharedASTProvider.disposeAST();
+							if (unit.equals(coreASTProvider.getActiveJavaElement())) {
+								coreASTProvider.disposeAST();
 							}
 							unit.discardWorkingCopy();
 							unit = JDTUtils.resolveCompilationUnit(uri);
@@ -472,7 +756,7 @@ public class DocumentLifeCycleHandler {
 		return unit;
 	}
 
-	protected void installSemanticHighlightings(ICompilationUnit unit) throws JavaModelException, BadPositionCategoryException {
+	protected void installSemanticHighlightings(ICompilationUnit unit) throws JavaModelException, BadPositionCategoryException, BadLocationException {
 		this.semanticHighlightingService.install(unit);
 	}
 
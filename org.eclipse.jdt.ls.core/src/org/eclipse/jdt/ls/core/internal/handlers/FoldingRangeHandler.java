@@ -11,13 +11,20 @@
 
 package org.eclipse.jdt.ls.core.internal.handlers;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IImportContainer;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IMethod;
@@ -29,22 +36,37 @@ import org.eclipse.jdt.core.ToolFactory;
 import org.eclipse.jdt.core.compiler.IScanner;
 import org.eclipse.jdt.core.compiler.ITerminalSymbols;
 import org.eclipse.jdt.core.compiler.InvalidInputException;
+import org.eclipse.jdt.ls.core.internal.DocumentAdapter;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.lsp4j.FoldingRange;
 import org.eclipse.lsp4j.FoldingRangeKind;
 import org.eclipse.lsp4j.FoldingRangeRequestParams;
 
 public class FoldingRangeHandler {
 
-	private static IScanner fScanner;
+	private static final int CACHE_SIZE = 20;
 
-	private static IScanner getScanner() {
-		if (fScanner == null) {
-			fScanner = ToolFactory.createScanner(true, false, false, true);
+	/**
+	 * Folding requests run concurrently, and a scanner holds the state of a
+	 * single scan.
+	 */
+	private static final ThreadLocal<IScanner> scanners = ThreadLocal.withInitial(() -> ToolFactory.createScanner(true, false, false, true));
+
+	/**
+	 * The folding ranges of the recently folded working copies, by handle
+	 * identifier.
+	 */
+	private static final Map<String, CachedRanges> cache = Collections.synchronizedMap(new LinkedHashMap<String, CachedRanges>(CACHE_SIZE, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedRanges> eldest) {
+			return size() > CACHE_SIZE;
 		}
-		return fScanner;
-	}
+	});
 
 	public List<FoldingRange> foldingRange(FoldingRangeRequestParams params, IProgressMonitor monitor) {
 		List<FoldingRange> $ = new ArrayList<>();
@@ -52,10 +74,42 @@ public class FoldingRangeHandler {
 		if (unit == null) {
 			return $;
 		}
+		IDocument document = getDocument(unit);
+		long stamp = document == null ? IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP : ((IDocumentExtension4) document).getModificationStamp();
+		if (document != null) {
+			CachedRanges cached = cache.get(unit.getHandleIdentifier());
+			if (cached != null && cached.stamp == stamp && cached.document.get() == document) {
+				$.addAll(cached.ranges);
+				return $;
+			}
+		}
 		computeFoldingRanges($, unit, monitor);
+		if (document != null && !monitor.isCanceled() && stamp == ((IDocumentExtension4) document).getModificationStamp()) {
+			cache.put(unit.getHandleIdentifier(), new CachedRanges(document, stamp, $));
+		}
 		return $;
 	}
 
+	/**
+	 * @return the document of a working copy whose structure is up to date, or
+	 *         <code>null</code> if its folding ranges can't be cached
+	 */
+	private static IDocument getDocument(ITypeRoot unit) {
+		if (!(unit instanceof ICompilationUnit) || !((ICompilationUnit) unit).isWorkingCopy()) {
+			return null;
+		}
+		try {
+			IBuffer buffer = unit.getBuffer();
+			if (buffer instanceof DocumentAdapter && unit.isConsistent()) {
+				IDocument document = ((DocumentAdapter) buffer).getDocument();
+				return document instanceof IDocumentExtension4 ? document : null;
+			}
+		} catch (CoreException e) {
+			// not cached
+		}
+		return null;
+	}
+
 	private void computeFoldingRanges(List<FoldingRange> foldingRanges, ITypeRoot unit, IProgressMonitor monitor) {
 		try {
 			ISourceRange range = unit.getSourceRange();
@@ -69,37 +123,50 @@ public class FoldingRangeHandler {
 			}
 
 			final int shift = range.getOffset();
-			IScanner scanner = getScanner();
-			scanner.setSource(contents.toCharArray());
-			scanner.resetTo(shift, shift + range.getLength());
-
-			int start = shift;
-			int token = scanner.getNextToken();
-			while (token != ITerminalSymbols.TokenNameEOF) {
-				start = scanner.getCurrentTokenStartPosition();
-				switch (token) {
-					case ITerminalSymbols.TokenNameCOMMENT_JAVADOC:
-					case ITerminalSymbols.TokenNameCOMMENT_BLOCK: {
-						int end = scanner.getCurrentTokenEndPosition();
-						FoldingRange commentFoldingRange = new FoldingRange(scanner.getLineNumber(start) - 1, scanner.getLineNumber(end) - 1);
-						commentFoldingRange.setKind(FoldingRangeKind.Comment);
-						foldingRanges.add(commentFoldingRange);
-						break;
+			IScanner scanner = scanners.get();
+			try {
+				scanner.setSource(contents.toCharArray());
+				scanner.resetTo(shift, shift + range.getLength());
+
+				// a single scan finds the comments, records the line ends, and the braces the methods are folded on
+				Braces braces = new Braces();
+				int start = shift;
+				int token = scanner.getNextToken();
+				while (token != ITerminalSymbols.TokenNameEOF) {
+					start = scanner.getCurrentTokenStartPosition();
+					switch (token) {
+						case ITerminalSymbols.TokenNameCOMMENT_JAVADOC:
+						case ITerminalSymbols.TokenNameCOMMENT_BLOCK: {
+							int end = scanner.getCurrentTokenEndPosition();
+							FoldingRange commentFoldingRange = new FoldingRange(scanner.getLineNumber(start) - 1, scanner.getLineNumber(end) - 1);
+							commentFoldingRange.setKind(FoldingRangeKind.Comment);
+							foldingRanges.add(commentFoldingRange);
+							break;
+						}
+						case ITerminalSymbols.TokenNameLBRACE:
+							braces.add(start, true);
+							break;
+						case ITerminalSymbols.TokenNameRBRACE:
+							braces.add(scanner.getCurrentTokenEndPosition(), false);
+							break;
+						default:
+							break;
 					}
-					default:
-						break;
+					token = scanner.getNextToken();
 				}
-				token = scanner.getNextToken();
-			}
 
-			computeTypeRootRanges(foldingRanges, unit, scanner);
+				computeTypeRootRanges(foldingRanges, unit, scanner, braces);
+			} finally {
+				// don't keep the contents alive with the thread
+				scanner.setSource(null);
+			}
 		} catch (CoreException | InvalidInputException e) {
 			JavaLanguageServerPlugin.logException("Problem with folding range for " + unit.getPath().toPortableString(), e);
 			monitor.setCanceled(true);
 		}
 	}
 
-	private void computeTypeRootRanges(List<FoldingRange> foldingRanges, ITypeRoot unit, IScanner scanner) throws CoreException, InvalidInputException {
+	private void computeTypeRootRanges(List<FoldingRange> foldingRanges, ITypeRoot unit, IScanner scanner, Braces braces) throws CoreException {
 		if (unit.hasChildren()) {
 			for (IJavaElement child : unit.getChildren()) {
 				if (child instanceof IImportContainer) {
@@ -108,57 +175,104 @@ public class FoldingRangeHandler {
 					importFoldingRange.setKind(FoldingRangeKind.Imports);
 					foldingRanges.add(importFoldingRange);
 				} else if (child instanceof IType) {
-					computeTypeRanges(foldingRanges, (IType) child, scanner);
+					computeTypeRanges(foldingRanges, (IType) child, scanner, braces);
 				}
 			}
 		}
 	}
 
-	private void computeTypeRanges(List<FoldingRange> foldingRanges, IType unit, IScanner scanner) throws CoreException, InvalidInputException {
+	private void computeTypeRanges(List<FoldingRange> foldingRanges, IType unit, IScanner scanner, Braces braces) throws CoreException {
 		ISourceRange typeRange = unit.getSourceRange();
 		foldingRanges.add(new FoldingRange(scanner.getLineNumber(unit.getNameRange().getOffset()) - 1, scanner.getLineNumber(typeRange.getOffset() + typeRange.getLength()) - 1));
 		IJavaElement[] children = unit.getChildren();
 		for (IJavaElement c : children) {
 			if (c instanceof IMethod) {
-				computeMethodRanges(foldingRanges, (IMethod) c, scanner);
+				computeMethodRanges(foldingRanges, (IMethod) c, scanner, braces);
 			} else if (c instanceof IType) {
-				computeTypeRanges(foldingRanges, (IType) c, scanner);
+				computeTypeRanges(foldingRanges, (IType) c, scanner, braces);
 			}
 		}
 	}
 
-	private void computeMethodRanges(List<FoldingRange> foldingRanges, IMethod method, IScanner scanner) throws CoreException, InvalidInputException {
+	private void computeMethodRanges(List<FoldingRange> foldingRanges, IMethod method, IScanner scanner, Braces braces) throws CoreException {
 		ISourceRange sourceRange = method.getSourceRange();
 		final int shift = sourceRange.getOffset();
-		scanner.resetTo(shift, shift + sourceRange.getLength());
+		final int limit = shift + sourceRange.getLength();
 
-		foldingRanges.add(new FoldingRange(scanner.getLineNumber(method.getNameRange().getOffset()) - 1, scanner.getLineNumber(shift + sourceRange.getLength()) - 1));
+		foldingRanges.add(new FoldingRange(scanner.getLineNumber(method.getNameRange().getOffset()) - 1, scanner.getLineNumber(limit) - 1));
 
-		int start = shift;
-		int token = scanner.getNextToken();
 		Stack<Integer> lparens = null;
-		while (token != ITerminalSymbols.TokenNameEOF) {
-			start = scanner.getCurrentTokenStartPosition();
-			switch (token) {
-				case ITerminalSymbols.TokenNameLBRACE:
-					if (lparens == null) {
-						// Start of method body
-						lparens = new Stack<>();
-					} else {
-						lparens.push(start);
-					}
-					break;
-				case ITerminalSymbols.TokenNameRBRACE:
-					int end = scanner.getCurrentTokenEndPosition();
-					if (lparens != null && lparens.size() > 0) {
-						int startPos = lparens.pop();
-						foldingRanges.add(new FoldingRange(scanner.getLineNumber(startPos) - 1, scanner.getLineNumber(end) - 1));
-					}
-					break;
-				default:
-					break;
+		for (int i = braces.indexOf(shift); i < braces.size() && braces.getPosition(i) <= limit; i++) {
+			if (braces.isLeft(i)) {
+				if (lparens == null) {
+					// Start of method body
+					lparens = new Stack<>();
+				} else {
+					lparens.push(braces.getPosition(i));
+				}
+			} else if (lparens != null && lparens.size() > 0) {
+				int startPos = lparens.pop();
+				foldingRanges.add(new FoldingRange(scanner.getLineNumber(startPos) - 1, scanner.getLineNumber(braces.getPosition(i)) - 1));
 			}
-			token = scanner.getNextToken();
+		}
+	}
+
+	/**
+	 * The braces of a source, in order. The position of a left brace is its
+	 * start, the position of a right brace is its end.
+	 */
+	private static class Braces {
+		private int[] positions = new int[64];
+		private int size;
+
+		void add(int position, boolean left) {
+			if (size == positions.length) {
+				positions = Arrays.copyOf(positions, size * 2);
+			}
+			// left braces are stored as negative values, positions are sorted by absolute value
+			positions[size++] = left ? -position - 1 : position;
+		}
+
+		int size() {
+			return size;
+		}
+
+		boolean isLeft(int index) {
+			return positions[index] < 0;
+		}
+
+		int getPosition(int index) {
+			int position = positions[index];
+			return position < 0 ? -position - 1 : position;
+		}
+
+		/**
+		 * @return the index of the first brace at or after the offset
+		 */
+		int indexOf(int offset) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (getPosition(mid) < offset) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+	}
+
+	private static class CachedRanges {
+		private final WeakReference<IDocument> document;
+		private final long stamp;
+		private final List<FoldingRange> ranges;
+
+		CachedRanges(IDocument document, long stamp, List<FoldingRange> ranges) {
+			this.document = new WeakReference<>(document);
+			this.stamp = stamp;
+			this.ranges = new ArrayList<>(ranges);
 		}
 	}
 }
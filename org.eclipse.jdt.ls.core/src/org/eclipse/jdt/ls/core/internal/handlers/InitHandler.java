@@ -40,6 +40,7 @@ import org.eclipse.jdt.ls.core.internal.highlighting.SemanticHighlightingService
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
+import org.eclipse.jdt.ls.core.internal.search.SymbolIndex;
 import org.eclipse.lsp4j.ClientCapabilities;
 import org.eclipse.lsp4j.CodeLensOptions;
 import org.eclipse.lsp4j.DocumentOnTypeFormattingOptions;
@@ -244,6 +245,10 @@ final public class InitHandler {
 					projectsManager.setAutoBuilding(false);
 					projectsManager.initializeProjects(roots, subMonitor);
 					projectsManager.setAutoBuilding(preferenceManager.getPreferences().isAutobuildEnabled());
+					SymbolIndex symbolIndex = JavaLanguageServerPlugin.getSymbolIndex();
+					if (symbolIndex != null) {
+						symbolIndex.start();
+					}
 					JavaLanguageServerPlugin.logInfo("Workspace initialized in " + (System.currentTimeMillis() - start) + "ms");
 					connection.sendStatus(ServiceStatus.Started, "Ready");
 				} catch (OperationCanceledException e) {
@@ -56,6 +56,7 @@ import org.eclipse.jdt.ls.core.internal.handlers.HashCodeEqualsHandler.CheckHash
 import org.eclipse.jdt.ls.core.internal.handlers.HashCodeEqualsHandler.GenerateHashCodeEqualsParams;
 import org.eclipse.jdt.ls.core.internal.handlers.OverrideMethodsHandler.AddOverridableMethodParams;
 import org.eclipse.jdt.ls.core.internal.handlers.OverrideMethodsHandler.OverridableMethodsResponse;
+import org.eclipse.jdt.ls.core.internal.handlers.RequestScheduler.LatencyClass;
 import org.eclipse.jdt.ls.core.internal.lsp.JavaProtocolExtensions;
 import org.eclipse.jdt.ls.core.internal.managers.ContentProviderManager;
 import org.eclipse.jdt.ls.core.internal.managers.FormatterManager;
@@ -113,7 +114,6 @@ import org.eclipse.lsp4j.WillSaveTextDocumentParams;
 import org.eclipse.lsp4j.WorkspaceEdit;
 import org.eclipse.lsp4j.WorkspaceSymbolParams;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
-import org.eclipse.lsp4j.jsonrpc.CompletableFutures;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.jsonrpc.services.JsonDelegate;
 import org.eclipse.lsp4j.services.LanguageServer;
@@ -142,6 +142,8 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 
 	private ProgressReporterManager progressReporterManager;
 
+	private RequestScheduler scheduler = new RequestScheduler();
+
 	public LanguageServerWorkingCopyOwner getWorkingCopyOwner() {
 		return workingCopyOwner;
 	}
@@ -228,7 +230,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		workspaceDiagnosticsHandler = new WorkspaceDiagnosticsHandler(this.client, pm);
 		workspaceDiagnosticsHandler.addResourceChangeListener();
 
-		computeAsync((monitor) -> {
+		computeAsync(LatencyClass.BACKGROUND, (monitor) -> {
 			try {
 				workspaceDiagnosticsHandler.publishDiagnostics(monitor);
 			} catch (CoreException e) {
@@ -294,7 +296,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<Object> shutdown() {
 		logInfo(">> shutdown");
-		return computeAsync((monitor) -> {
+		return computeAsync(LatencyClass.INTERACTIVE, (monitor) -> {
 			try {
 				if (workspaceDiagnosticsHandler != null) {
 					workspaceDiagnosticsHandler.removeResourceChangeListener();
@@ -314,6 +316,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public void exit() {
 		logInfo(">> exit");
+		scheduler.shutdown();
 		JavaLanguageServerPlugin.getLanguageServer().exit();
 		Executors.newSingleThreadScheduledExecutor().schedule(() -> {
 			logInfo("Forcing exit after 1 min.");
@@ -348,8 +351,8 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<List<? extends SymbolInformation>> symbol(WorkspaceSymbolParams params) {
 		logInfo(">> workspace/symbol");
-		WorkspaceSymbolHandler handler = new WorkspaceSymbolHandler(preferenceManager);
-		return computeAsync((monitor) -> {
+		WorkspaceSymbolHandler handler = new WorkspaceSymbolHandler(preferenceManager, JavaLanguageServerPlugin.getSymbolIndex(), client);
+		return computeAsync(LatencyClass.NAVIGATION, (monitor) -> {
 			return handler.search(params.getQuery(), monitor);
 		});
 	}
@@ -459,7 +462,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<Object> executeCommand(ExecuteCommandParams params) {
 		logInfo(">> workspace/executeCommand " + (params == null ? null : params.getCommand()));
 		WorkspaceExecuteCommandHandler handler = new WorkspaceExecuteCommandHandler();
-		return computeAsync((monitor) -> {
+		return computeAsync(LatencyClass.BACKGROUND, (monitor) -> {
 			return handler.executeCommand(params, monitor);
 		});
 	}
@@ -472,7 +475,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		logInfo(">> document/completion");
 		CompletionHandler handler = new CompletionHandler();
 		final IProgressMonitor[] monitors = new IProgressMonitor[1];
-		CompletableFuture<Either<List<CompletionItem>, CompletionList>> result = computeAsync((monitor) -> {
+		CompletableFuture<Either<List<CompletionItem>, CompletionList>> result = computeAsync(LatencyClass.INTERACTIVE, (monitor) -> {
 			monitors[0] = monitor;
 			if (Boolean.getBoolean(JAVA_LSP_JOIN_ON_COMPLETION)) {
 				waitForLifecycleJobs(monitor);
@@ -494,7 +497,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		logInfo(">> document/resolveCompletionItem");
 		CompletionResolveHandler handler = new CompletionResolveHandler(preferenceManager);
 		final IProgressMonitor[] monitors = new IProgressMonitor[1];
-		CompletableFuture<CompletionItem> result = computeAsync((monitor) -> {
+		CompletableFuture<CompletionItem> result = computeAsync(LatencyClass.INTERACTIVE, (monitor) -> {
 			monitors[0] = monitor;
 			if ((Boolean.getBoolean(JAVA_LSP_JOIN_ON_COMPLETION))) {
 				waitForLifecycleJobs(monitor);
@@ -515,7 +518,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<Hover> hover(TextDocumentPositionParams position) {
 		logInfo(">> document/hover");
 		HoverHandler handler = new HoverHandler(this.preferenceManager);
-		return computeAsync((monitor) -> handler.hover(position, monitor));
+		return computeAsync(LatencyClass.INTERACTIVE, "hover:" + position.getTextDocument().getUri(), (monitor) -> handler.hover(position, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -525,7 +528,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<SignatureHelp> signatureHelp(TextDocumentPositionParams position) {
 		logInfo(">> document/signatureHelp");
 		SignatureHelpHandler handler = new SignatureHelpHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.signatureHelp(position, monitor));
+		return computeAsync(LatencyClass.INTERACTIVE, "signatureHelp:" + position.getTextDocument().getUri(), (monitor) -> handler.signatureHelp(position, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -535,7 +538,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends Location>> definition(TextDocumentPositionParams position) {
 		logInfo(">> document/definition");
 		NavigateToDefinitionHandler handler = new NavigateToDefinitionHandler(this.preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync(LatencyClass.NAVIGATION, (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.definition(position, monitor);
 		});
@@ -548,7 +551,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends Location>> typeDefinition(TextDocumentPositionParams position) {
 		logInfo(">> document/typeDefinition");
 		NavigateToTypeDefinitionHandler handler = new NavigateToTypeDefinitionHandler();
-		return computeAsync((monitor) -> {
+		return computeAsync(LatencyClass.NAVIGATION, (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.typeDefinition(position, monitor);
 		});
@@ -560,8 +563,8 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<List<? extends Location>> references(ReferenceParams params) {
 		logInfo(">> document/references");
-		ReferencesHandler handler = new ReferencesHandler(this.preferenceManager);
-		return computeAsync((monitor) -> handler.findReferences(params, monitor));
+		ReferencesHandler handler = new ReferencesHandler(this.preferenceManager, client);
+		return computeAsync(LatencyClass.NAVIGATION, (monitor) -> handler.findReferences(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -571,7 +574,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends DocumentHighlight>> documentHighlight(TextDocumentPositionParams position) {
 		logInfo(">> document/documentHighlight");
 		DocumentHighlightHandler handler = new DocumentHighlightHandler();
-		return computeAsync((monitor) -> handler.documentHighlight(position, monitor));
+		return computeAsync(LatencyClass.INTERACTIVE, "documentHighlight:" + position.getTextDocument().getUri(), (monitor) -> handler.documentHighlight(position, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -582,7 +585,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		logInfo(">> document/documentSymbol");
 		boolean hierarchicalDocumentSymbolSupported = preferenceManager.getClientPreferences().isHierarchicalDocumentSymbolSupported();
 		DocumentSymbolHandler handler = new DocumentSymbolHandler(hierarchicalDocumentSymbolSupported);
-		return computeAsync((monitor) -> {
+		return computeAsync(LatencyClass.NAVIGATION, "documentSymbol:" + params.getTextDocument().getUri(), (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.documentSymbol(params, monitor);
 		});
@@ -595,7 +598,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<Either<Command, CodeAction>>> codeAction(CodeActionParams params) {
 		logInfo(">> document/codeAction");
 		CodeActionHandler handler = new CodeActionHandler(this.preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync(LatencyClass.INTERACTIVE, (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.getCodeActionCommands(params, monitor);
 		});
@@ -608,7 +611,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends CodeLens>> codeLens(CodeLensParams params) {
 		logInfo(">> document/codeLens");
 		CodeLensHandler handler = new CodeLensHandler(preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync(LatencyClass.BACKGROUND, "codeLens:" + params.getTextDocument().getUri(), (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.getCodeLensSymbols(params.getTextDocument().getUri(), monitor);
 		});
@@ -621,7 +624,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<CodeLens> resolveCodeLens(CodeLens unresolved) {
 		logInfo(">> codeLens/resolve");
 		CodeLensHandler handler = new CodeLensHandler(preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync(LatencyClass.BACKGROUND, (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.resolve(unresolved, monitor);
 		});
@@ -634,7 +637,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends TextEdit>> formatting(DocumentFormattingParams params) {
 		logInfo(">> document/formatting");
 		FormatterHandler handler = new FormatterHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.formatting(params, monitor));
+		return computeAsync(LatencyClass.INTERACTIVE, (monitor) -> handler.formatting(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -644,7 +647,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends TextEdit>> rangeFormatting(DocumentRangeFormattingParams params) {
 		logInfo(">> document/rangeFormatting");
 		FormatterHandler handler = new FormatterHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.rangeFormatting(params, monitor));
+		return computeAsync(LatencyClass.INTERACTIVE, (monitor) -> handler.rangeFormatting(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -654,7 +657,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends TextEdit>> onTypeFormatting(DocumentOnTypeFormattingParams params) {
 		logInfo(">> document/onTypeFormatting");
 		FormatterHandler handler = new FormatterHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.onTypeFormatting(params, monitor));
+		return computeAsync(LatencyClass.INTERACTIVE, (monitor) -> handler.onTypeFormatting(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -665,7 +668,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		logInfo(">> document/prepareRename");
 
 		PrepareRenameHandler handler = new PrepareRenameHandler();
-		return computeAsync((monitor) -> handler.prepareRename(params, monitor));
+		return computeAsync(LatencyClass.INTERACTIVE, (monitor) -> handler.prepareRename(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -675,7 +678,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<WorkspaceEdit> rename(RenameParams params) {
 		logInfo(">> document/rename");
 		RenameHandler handler = new RenameHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.rename(params, monitor));
+		return computeAsync(LatencyClass.NAVIGATION, (monitor) -> handler.rename(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -712,7 +715,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<TextEdit>> willSaveWaitUntil(WillSaveTextDocumentParams params) {
 		logInfo(">> document/willSaveWaitUntil");
 		SaveActionHandler handler = new SaveActionHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.willSaveWaitUntil(params, monitor));
+		return computeAsync(LatencyClass.INTERACTIVE, (monitor) -> handler.willSaveWaitUntil(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -732,7 +735,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		logInfo(">> java/classFileContents");
 		ContentProviderManager handler = JavaLanguageServerPlugin.getContentProviderManager();
 		URI uri = JDTUtils.toURI(param.getUri());
-		return computeAsync((monitor) -> handler.getContent(uri, monitor));
+		return computeAsync(LatencyClass.NAVIGATION, (monitor) -> handler.getContent(uri, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -752,7 +755,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<BuildWorkspaceStatus> buildWorkspace(boolean forceReBuild) {
 		logInfo(">> java/buildWorkspace (" + (forceReBuild ? "full)" : "incremental)"));
 		BuildWorkspaceHandler handler = new BuildWorkspaceHandler(client, pm);
-		return computeAsync((monitor) -> handler.buildWorkspace(forceReBuild, monitor));
+		return computeAsync(LatencyClass.BACKGROUND, (monitor) -> handler.buildWorkspace(forceReBuild, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -768,7 +771,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<List<? extends Location>> implementation(TextDocumentPositionParams position) {
 		logInfo(">> document/implementation");
-		return computeAsyncWithClientProgress((monitor) -> new ImplementationsHandler(preferenceManager).findImplementations(position, monitor));
+		return computeAsyncWithClientProgress(LatencyClass.NAVIGATION, (monitor) -> new ImplementationsHandler(preferenceManager).findImplementations(position, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -777,31 +780,31 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<List<FoldingRange>> foldingRange(FoldingRangeRequestParams params) {
 		logInfo(">> document/foldingRange");
-		return computeAsyncWithClientProgress((monitor) -> new FoldingRangeHandler().foldingRange(params, monitor));
+		return computeAsyncWithClientProgress(LatencyClass.BACKGROUND, "foldingRange:" + params.getTextDocument().getUri(), (monitor) -> new FoldingRangeHandler().foldingRange(params, monitor));
 	}
 
 	@Override
 	public CompletableFuture<OverridableMethodsResponse> listOverridableMethods(CodeActionParams params) {
 		logInfo(">> java/listOverridableMethods");
-		return computeAsync((monitor) -> OverrideMethodsHandler.listOverridableMethods(params));
+		return computeAsync(LatencyClass.INTERACTIVE, (monitor) -> OverrideMethodsHandler.listOverridableMethods(params));
 	}
 
 	@Override
 	public CompletableFuture<WorkspaceEdit> addOverridableMethods(AddOverridableMethodParams params) {
 		logInfo(">> java/addOverridableMethods");
-		return computeAsync((monitor) -> OverrideMethodsHandler.addOverridableMethods(params));
+		return computeAsync(LatencyClass.INTERACTIVE, (monitor) -> OverrideMethodsHandler.addOverridableMethods(params));
 	}
 
 	@Override
 	public CompletableFuture<CheckHashCodeEqualsResponse> checkHashCodeEqualsStatus(CodeActionParams params) {
 		logInfo(">> java/checkHashCodeEqualsStatus");
-		return computeAsync((monitor) -> HashCodeEqualsHandler.checkHashCodeEqualsStatus(params));
+		return computeAsync(LatencyClass.INTERACTIVE, (monitor) -> HashCodeEqualsHandler.checkHashCodeEqualsStatus(params));
 	}
 
 	@Override
 	public CompletableFuture<WorkspaceEdit> generateHashCodeEquals(GenerateHashCodeEqualsParams params) {
 		logInfo(">> java/generateHashCodeEquals");
-		return computeAsync((monitor) -> HashCodeEqualsHandler.generateHashCodeEquals(params));
+		return computeAsync(LatencyClass.INTERACTIVE, (monitor) -> HashCodeEqualsHandler.generateHashCodeEquals(params));
 	}
 
 	public void sendStatus(ServiceStatus serverStatus, String status) {
@@ -834,12 +837,24 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		return client;
 	}
 
-	private <R> CompletableFuture<R> computeAsync(Function<IProgressMonitor, R> code) {
-		return CompletableFutures.computeAsync(cc -> code.apply(toMonitor(cc)));
+	public RequestScheduler getRequestScheduler() {
+		return scheduler;
+	}
+
+	private <R> CompletableFuture<R> computeAsync(LatencyClass latencyClass, Function<IProgressMonitor, R> code) {
+		return computeAsync(latencyClass, null, code);
+	}
+
+	private <R> CompletableFuture<R> computeAsync(LatencyClass latencyClass, String key, Function<IProgressMonitor, R> code) {
+		return scheduler.computeAsync(latencyClass, key, cc -> code.apply(toMonitor(cc)));
+	}
+
+	private <R> CompletableFuture<R> computeAsyncWithClientProgress(LatencyClass latencyClass, Function<IProgressMonitor, R> code) {
+		return computeAsyncWithClientProgress(latencyClass, null, code);
 	}
 
-	private <R> CompletableFuture<R> computeAsyncWithClientProgress(Function<IProgressMonitor, R> code) {
-		return CompletableFutures.computeAsync((cc) -> {
+	private <R> CompletableFuture<R> computeAsyncWithClientProgress(LatencyClass latencyClass, String key, Function<IProgressMonitor, R> code) {
+		return scheduler.computeAsync(latencyClass, key, (cc) -> {
 			IProgressMonitor monitor = progressReporterManager.getProgressReporter(cc);
 			return code.apply(monitor);
 		});
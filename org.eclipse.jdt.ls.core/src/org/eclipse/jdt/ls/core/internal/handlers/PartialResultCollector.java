@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
+import org.eclipse.jdt.ls.core.internal.PartialResult;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+
+/**
+ * Collects the results of a search request.
+ * <p>
+ * When the client supports partial results, the results are sent to the client
+ * in batches of {@link #BATCH_SIZE} as soon as they are found, and the request
+ * itself completes with an empty list once the last batch is sent. Otherwise,
+ * the results are returned all at once.
+ * </p>
+ * <p>
+ * {@link #add(Object)} throws an {@link OperationCanceledException} to stop
+ * the search once the request is cancelled or the
+ * <code>java.search.maxResults</code> limit is reached.
+ * </p>
+ */
+public class PartialResultCollector<T> {
+
+	public static final int BATCH_SIZE = 100;
+
+	private final String method;
+	private final String id;
+	private final JavaClientConnection connection;
+	private final IProgressMonitor monitor;
+	private final int maxResults;
+	private List<T> results = new ArrayList<>();
+	private int count;
+
+	/**
+	 * @param method
+	 *            the method of the request
+	 * @param id
+	 *            identifies the request for the client
+	 * @param preferenceManager
+	 *            the preference manager, can be <code>null</code>
+	 * @param connection
+	 *            the client connection, results are only streamed if not
+	 *            <code>null</code> and the client supports partial results
+	 * @param monitor
+	 *            the progress monitor of the request
+	 */
+	public PartialResultCollector(String method, String id, PreferenceManager preferenceManager, JavaClientConnection connection, IProgressMonitor monitor) {
+		this.method = method;
+		this.id = id;
+		boolean streaming = connection != null && preferenceManager != null && preferenceManager.isClientSupportsPartialResult();
+		this.connection = streaming ? connection : null;
+		this.monitor = monitor;
+		this.maxResults = preferenceManager != null && preferenceManager.getPreferences() != null ? preferenceManager.getPreferences().getSearchMaxResults() : 0;
+	}
+
+	/**
+	 * Adds a result, sending the current batch to the client when it's full.
+	 *
+	 * @throws OperationCanceledException
+	 *             if the request is cancelled or no more results are accepted
+	 */
+	public void add(T result) {
+		if (isFull()) {
+			throw new OperationCanceledException();
+		}
+		results.add(result);
+		count++;
+		if (connection != null && results.size() >= BATCH_SIZE) {
+			send(false);
+			// only check between batches, the search engine checks the monitor anyway
+			if (monitor != null && monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+		}
+		if (isFull()) {
+			throw new OperationCanceledException();
+		}
+	}
+
+	/**
+	 * @return whether the maximum number of results is reached
+	 */
+	public boolean isFull() {
+		return maxResults > 0 && count >= maxResults;
+	}
+
+	/**
+	 * @return the number of collected results
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Completes the collection: sends the last batch to the client if results
+	 * are streamed.
+	 *
+	 * @return the results to return to the client, empty if they were streamed
+	 */
+	public List<T> complete() {
+		if (connection == null) {
+			return results;
+		}
+		send(true);
+		return Collections.emptyList();
+	}
+
+	private void send(boolean done) {
+		connection.sendPartialResult(new PartialResult(method, id, results, done));
+		results = new ArrayList<>();
+	}
+}
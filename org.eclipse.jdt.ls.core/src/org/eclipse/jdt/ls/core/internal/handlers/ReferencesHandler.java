@@ -10,12 +10,12 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
@@ -30,7 +30,9 @@ import org.eclipse.jdt.core.search.SearchParticipant;
 import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.SearchRequestor;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.ReferenceParams;
@@ -38,9 +40,20 @@ import org.eclipse.lsp4j.ReferenceParams;
 public final class ReferencesHandler {
 
 	private final PreferenceManager preferenceManager;
+	private final JavaClientConnection connection;
 
 	public ReferencesHandler(PreferenceManager preferenceManager) {
+		this(preferenceManager, null);
+	}
+
+	/**
+	 * @param connection
+	 *            the client connection used to stream the references to
+	 *            clients supporting partial results, can be <code>null</code>
+	 */
+	public ReferencesHandler(PreferenceManager preferenceManager, JavaClientConnection connection) {
 		this.preferenceManager = preferenceManager;
+		this.connection = connection;
 	}
 
 	private IJavaSearchScope createSearchScope() throws JavaModelException {
@@ -54,12 +67,24 @@ public final class ReferencesHandler {
 
 	public List<Location> findReferences(ReferenceParams param, IProgressMonitor monitor) {
 
-		final List<Location> locations = new ArrayList<>();
+		String id = param.getTextDocument().getUri() + ":" + param.getPosition().getLine() + ":" + param.getPosition().getCharacter();
+		final PartialResultCollector<Location> locations = new PartialResultCollector<>("textDocument/references", id, preferenceManager, connection, monitor);
 		try {
 			IJavaElement elementToSearch = JDTUtils.findElementAtSelection(JDTUtils.resolveTypeRoot(param.getTextDocument().getUri()), param.getPosition().getLine(), param.getPosition().getCharacter(), this.preferenceManager, monitor);
 
 			if (elementToSearch == null) {
-				return locations;
+				return locations.complete();
+			}
+
+			ProjectsManager projectsManager = JavaLanguageServerPlugin.getProjectsManager();
+			IJavaProject project = elementToSearch.getJavaProject();
+			if (projectsManager != null && project != null) {
+				// the projects which may reference the element are imported on demand
+				try {
+					projectsManager.loadDependentProjects(project.getProject(), monitor);
+				} catch (CoreException e) {
+					JavaLanguageServerPlugin.logException("Failed to load the projects depending on " + project.getElementName(), e);
+				}
 			}
 
 			boolean includeClassFiles = preferenceManager.isClientSupportsClassFileContent();
@@ -90,10 +115,12 @@ public final class ReferencesHandler {
 				}
 			}, monitor);
 
+		} catch (OperationCanceledException e) {
+			// cancelled or too many references, return what was found so far
 		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("Find references failure ", e);
 		}
-		return locations;
+		return locations.complete();
 	}
 
 }
\ No newline at end of file
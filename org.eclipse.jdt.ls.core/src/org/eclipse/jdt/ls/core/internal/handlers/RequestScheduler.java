@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+/**
+ * Runs language server requests on bounded thread pools, one per
+ * {@link LatencyClass}, so long running searches can't starve interactive
+ * requests.
+ * <p>
+ * Pool and queue sizes can be configured with the
+ * <code>java.lsp.scheduler.&lt;class&gt;.threads</code> and
+ * <code>java.lsp.scheduler.&lt;class&gt;.queue</code> system properties, e.g.
+ * <code>-Djava.lsp.scheduler.interactive.threads=4</code>.
+ * </p>
+ */
+public class RequestScheduler {
+
+	public enum LatencyClass {
+		/**
+		 * Requests the user is actively waiting on while typing: completion,
+		 * hover, signature help...
+		 */
+		INTERACTIVE("interactive", Math.max(2, Runtime.getRuntime().availableProcessors() / 2), 100),
+		/**
+		 * Navigation requests: definition, references, symbols...
+		 */
+		NAVIGATION("navigation", 2, 100),
+		/**
+		 * Requests whose latency doesn't matter much: code lens, builds,
+		 * commands...
+		 */
+		BACKGROUND("background", 2, 1000);
+
+		private final String id;
+		private final int threads;
+		private final int queueSize;
+
+		private LatencyClass(String id, int threads, int queueSize) {
+			this.id = id;
+			this.threads = threads;
+			this.queueSize = queueSize;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public int getThreads() {
+			return Math.max(1, Integer.getInteger("java.lsp.scheduler." + id + ".threads", threads));
+		}
+
+		public int getQueueSize() {
+			return Math.max(1, Integer.getInteger("java.lsp.scheduler." + id + ".queue", queueSize));
+		}
+	}
+
+	private final Map<LatencyClass, ThreadPoolExecutor> executors = new EnumMap<>(LatencyClass.class);
+	private final Map<LatencyClass, Statistics> statistics = new EnumMap<>(LatencyClass.class);
+	private final Map<String, CompletableFuture<?>> pendingRequests = new ConcurrentHashMap<>();
+
+	public RequestScheduler() {
+		for (LatencyClass latencyClass : LatencyClass.values()) {
+			int threads = latencyClass.getThreads();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(latencyClass.getQueueSize()), new SchedulerThreadFactory(latencyClass));
+			executor.allowCoreThreadTimeOut(true);
+			executors.put(latencyClass, executor);
+			statistics.put(latencyClass, new Statistics());
+		}
+	}
+
+	/**
+	 * Schedules the given code on the pool of the given latency class.
+	 *
+	 * @param latencyClass
+	 *            the latency class of the request
+	 * @param code
+	 *            the code to run
+	 * @return a future, cancelling it cancels the {@link CancelChecker} given
+	 *         to the code
+	 */
+	public <R> CompletableFuture<R> computeAsync(LatencyClass latencyClass, Function<CancelChecker, R> code) {
+		return computeAsync(latencyClass, null, code);
+	}
+
+	/**
+	 * Schedules the given code on the pool of the given latency class. A
+	 * pending request with the same key is cancelled: if it is still queued, it
+	 * is dropped without being run.
+	 *
+	 * @param latencyClass
+	 *            the latency class of the request
+	 * @param key
+	 *            identifies the request, typically its method and document
+	 *            uri. Can be <code>null</code>
+	 * @param code
+	 *            the code to run
+	 * @return a future, cancelling it cancels the {@link CancelChecker} given
+	 *         to the code
+	 */
+	public <R> CompletableFuture<R> computeAsync(LatencyClass latencyClass, String key, Function<CancelChecker, R> code) {
+		CompletableFuture<R> result = new CompletableFuture<>();
+		CancelChecker checker = () -> {
+			if (result.isCancelled()) {
+				throw new CancellationException();
+			}
+		};
+		if (key != null) {
+			CompletableFuture<?> stale = pendingRequests.put(key, result);
+			if (stale != null) {
+				stale.cancel(true);
+			}
+			result.whenComplete((r, e) -> pendingRequests.remove(key, result));
+		}
+		Statistics stats = statistics.get(latencyClass);
+		long queued = System.nanoTime();
+		try {
+			executors.get(latencyClass).execute(() -> {
+				stats.waited(System.nanoTime() - queued);
+				if (result.isDone()) {
+					// cancelled while waiting in the queue
+					stats.dropped.incrementAndGet();
+					return;
+				}
+				try {
+					result.complete(code.apply(checker));
+				} catch (Throwable e) {
+					result.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			stats.rejected.incrementAndGet();
+			JavaLanguageServerPlugin.logError("Too many pending " + latencyClass.getId() + " requests, rejecting request");
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of requests waiting in the queue of the given latency
+	 *         class
+	 */
+	public int getQueueDepth(LatencyClass latencyClass) {
+		return executors.get(latencyClass).getQueue().size();
+	}
+
+	/**
+	 * @return the average time, in milliseconds, requests of the given latency
+	 *         class waited before being run
+	 */
+	public long getAverageWaitTime(LatencyClass latencyClass) {
+		Statistics stats = statistics.get(latencyClass);
+		long count = stats.count.get();
+		return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(stats.totalWait.get() / count);
+	}
+
+	/**
+	 * @return the longest time, in milliseconds, a request of the given latency
+	 *         class waited before being run
+	 */
+	public long getMaxWaitTime(LatencyClass latencyClass) {
+		return TimeUnit.NANOSECONDS.toMillis(statistics.get(latencyClass).maxWait.get());
+	}
+
+	/**
+	 * @return the number of stale requests of the given latency class dropped
+	 *         before being run
+	 */
+	public long getDroppedCount(LatencyClass latencyClass) {
+		return statistics.get(latencyClass).dropped.get();
+	}
+
+	/**
+	 * @return the number of requests of the given latency class rejected
+	 *         because the queue was full
+	 */
+	public long getRejectedCount(LatencyClass latencyClass) {
+		return statistics.get(latencyClass).rejected.get();
+	}
+
+	public void shutdown() {
+		for (ThreadPoolExecutor executor : executors.values()) {
+			executor.shutdownNow();
+		}
+	}
+
+	private static class Statistics {
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong totalWait = new AtomicLong();
+		private final AtomicLong maxWait = new AtomicLong();
+		private final AtomicLong dropped = new AtomicLong();
+		private final AtomicLong rejected = new AtomicLong();
+
+		void waited(long nanos) {
+			count.incrementAndGet();
+			totalWait.addAndGet(nanos);
+			maxWait.accumulateAndGet(nanos, Math::max);
+		}
+	}
+
+	private static class SchedulerThreadFactory implements ThreadFactory {
+		private final LatencyClass latencyClass;
+		private final AtomicInteger count = new AtomicInteger();
+
+		SchedulerThreadFactory(LatencyClass latencyClass) {
+			this.latencyClass = latencyClass;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "jdt.ls-" + latencyClass.getId() + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
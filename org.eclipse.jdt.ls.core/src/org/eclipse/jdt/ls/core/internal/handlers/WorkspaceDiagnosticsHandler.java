@@ -10,12 +10,23 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -61,6 +72,10 @@ import org.eclipse.m2e.core.internal.Messages;
 public final class WorkspaceDiagnosticsHandler implements IResourceChangeListener, IResourceDeltaVisitor {
 
 	public static final String PROJECT_CONFIGURATION_IS_NOT_UP_TO_DATE_WITH_POM_XML = "Project configuration is not up-to-date with pom.xml, requires an update.";
+	/**
+	 * Maximum number of projects whose markers are collected in parallel
+	 */
+	private static final int MAX_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
 	private final JavaClientConnection connection;
 	private final ProjectsManager projectsManager;
 
@@ -101,7 +116,20 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 		// Check if resource is accessible.
 		// We do not deal with the markers for deleted files here
 		// WorkspaceEventsHandler removes the diagnostics for deleted resources.
-		if (resource == null || !resource.isAccessible()) {
+		if (resource == null) {
+			return false;
+		}
+		if (!resource.isAccessible()) {
+			// the diagnostics last sent for deleted resources, or for the resources of closed projects, are forgotten
+			URI location = resource.getRawLocationURI() == null ? resource.getLocationURI() : resource.getRawLocationURI();
+			if (location != null) {
+				String uri = ResourceUtils.toClientUri(ResourceUtils.fixURI(location));
+				if (resource.getType() == IResource.FILE) {
+					this.connection.forgetDiagnostics(uri);
+				} else {
+					this.connection.forgetFolderDiagnostics(uri);
+				}
+			}
 			return false;
 		}
 		if (resource.getType() == IResource.FOLDER || resource.getType() == IResource.ROOT) {
@@ -123,8 +151,7 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 			return false;
 		}
 		IFile file = (IFile) resource;
-		IDocument document = null;
-		IMarker[] markers = null;
+		List<Diagnostic> diagnostics = null;
 		// Check if it is a Java ...
 		if (JavaCore.isJavaLikeFileName(file.getName())) {
 			ICompilationUnit cu = (ICompilationUnit) JavaCore.create(file);
@@ -137,18 +164,21 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 
 			IMarker[] javaMarkers = resource.findMarkers(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, false, IResource.DEPTH_ONE);
 			IMarker[] taskMarkers = resource.findMarkers(IJavaModelMarker.TASK_MARKER, false, IResource.DEPTH_ONE);
-			markers = Arrays.copyOf(javaMarkers, javaMarkers.length + taskMarkers.length);
+			IMarker[] markers = Arrays.copyOf(javaMarkers, javaMarkers.length + taskMarkers.length);
 			System.arraycopy(taskMarkers, 0, markers, javaMarkers.length, taskMarkers.length);
-			document = JsonRpcHelpers.toDocument(cu.getBuffer());
+			diagnostics = toDiagnosticsArray(file, markers);
 		} // or a build file
 		else if (projectsManager.isBuildFile(file)) {
 			//all errors on that build file should be relevant
-			markers = file.findMarkers(null, true, 1);
-			document = JsonRpcHelpers.toDocument(file);
+			IMarker[] markers = file.findMarkers(null, true, 1);
+			IDocument document = JsonRpcHelpers.toDocument(file);
+			if (document != null) {
+				diagnostics = toDiagnosticsArray(document, markers);
+			}
 		}
-		if (document != null) {
+		if (diagnostics != null) {
 			String uri = JDTUtils.getFileURI(resource);
-			this.connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), toDiagnosticsArray(document, markers)));
+			this.connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), diagnostics));
 		}
 		return false;
 	}
@@ -183,43 +213,103 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 		}
 	}
 
+	/**
+	 * Publishes the diagnostics of all the projects of the workspace. Markers
+	 * are collected in parallel, one task per project, and the diagnostics of
+	 * each file are published as soon as they're ready.
+	 *
+	 * @return the problem markers of the workspace
+	 */
 	public List<IMarker> publishDiagnostics(IProgressMonitor monitor) throws CoreException {
-		List<IMarker> problemMarkers = getProblemMarkers(monitor);
-		publishDiagnostics(problemMarkers);
-		return problemMarkers;
+		List<IProject> projects = new ArrayList<>();
+		for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+			// ignore problems caused by standalone files (problems in the default project)
+			if (!JavaLanguageServerPlugin.getProjectsManager().getDefaultProject().equals(project)) {
+				projects.add(project);
+			}
+		}
+		if (projects.isEmpty()) {
+			return Collections.emptyList();
+		}
+		int threads = Math.min(projects.size(), MAX_THREADS);
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "Workspace diagnostics");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			List<Future<List<IMarker>>> results = new ArrayList<>(projects.size());
+			for (IProject project : projects) {
+				results.add(executor.submit(() -> {
+					List<IMarker> markers = getProblemMarkers(project, monitor);
+					publishDiagnostics(markers, monitor);
+					return markers;
+				}));
+			}
+			List<IMarker> markers = new ArrayList<>();
+			for (Future<List<IMarker>> result : results) {
+				markers.addAll(waitFor(result, monitor));
+			}
+			return markers;
+		} finally {
+			executor.shutdownNow();
+		}
 	}
 
-	private List<IMarker> getProblemMarkers(IProgressMonitor monitor) throws CoreException {
-		IProject[] projects = ResourcesPlugin.getWorkspace().getRoot().getProjects();
-		List<IMarker> markers = new ArrayList<>();
-		for (IProject project : projects) {
+	private static List<IMarker> waitFor(Future<List<IMarker>> result, IProgressMonitor monitor) throws CoreException {
+		while (true) {
 			if (monitor != null && monitor.isCanceled()) {
 				throw new OperationCanceledException();
 			}
-			if (JavaLanguageServerPlugin.getProjectsManager().getDefaultProject().equals(project)) {
-				continue;
-			}
-			IMarker[] allMarkers = project.findMarkers(null, true, IResource.DEPTH_INFINITE);
-			for (IMarker marker : allMarkers) {
-				if (!marker.exists() || CheckMissingNaturesListener.MARKER_TYPE.equals(marker.getType())) {
-					continue;
-				}
-				if (IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER.equals(marker.getType()) || IJavaModelMarker.TASK_MARKER.equals(marker.getType())) {
-					markers.add(marker);
-					continue;
+			try {
+				return result.get(100, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// check the monitor again
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof CoreException) {
+					throw (CoreException) cause;
 				}
-				IResource resource = marker.getResource();
-				if (project.equals(resource) || projectsManager.isBuildFile(resource)) {
-					markers.add(marker);
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
 				}
+				JavaLanguageServerPlugin.logException(cause.getMessage(), cause);
+				return Collections.emptyList();
+			}
+		}
+	}
+
+	private List<IMarker> getProblemMarkers(IProject project, IProgressMonitor monitor) throws CoreException {
+		if (monitor != null && monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+		List<IMarker> markers = new ArrayList<>();
+		IMarker[] allMarkers = project.findMarkers(null, true, IResource.DEPTH_INFINITE);
+		for (IMarker marker : allMarkers) {
+			if (!marker.exists() || CheckMissingNaturesListener.MARKER_TYPE.equals(marker.getType())) {
+				continue;
+			}
+			if (IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER.equals(marker.getType()) || IJavaModelMarker.TASK_MARKER.equals(marker.getType())) {
+				markers.add(marker);
+				continue;
+			}
+			IResource resource = marker.getResource();
+			if (project.equals(resource) || projectsManager.isBuildFile(resource)) {
+				markers.add(marker);
 			}
 		}
 		return markers;
 	}
 
-	private void publishDiagnostics(List<IMarker> markers) {
+	private void publishDiagnostics(List<IMarker> markers, IProgressMonitor monitor) {
 		Map<IResource, List<IMarker>> map = markers.stream().collect(Collectors.groupingBy(IMarker::getResource));
 		for (Map.Entry<IResource, List<IMarker>> entry : map.entrySet()) {
+			if (monitor != null && monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
 			IResource resource = entry.getKey();
 			if (resource instanceof IProject) {
 				try {
@@ -234,30 +324,26 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 			if (file == null) {
 				continue;
 			}
-			IDocument document = null;
+			List<Diagnostic> diagnostics = null;
 			String uri = JDTUtils.getFileURI(file);
 			if (JavaCore.isJavaLikeFileName(file.getName())) {
 				ICompilationUnit cu = JDTUtils.resolveCompilationUnit(uri);
 				//ignoring working copies, they're handled in the DocumentLifecycleHandler
 				if (!cu.isWorkingCopy()) {
-					try {
-						document = JsonRpcHelpers.toDocument(cu.getBuffer());
-					} catch (JavaModelException e) {
-						JavaLanguageServerPlugin.logException("Failed to publish diagnostics for " + uri, e);
-					}
+					diagnostics = toDiagnosticsArray(file, entry.getValue().toArray(new IMarker[0]));
 				}
 			} else if (projectsManager.isBuildFile(file)) {
-				document = JsonRpcHelpers.toDocument(file);
+				IDocument document = JsonRpcHelpers.toDocument(file);
+				if (document != null) {
+					diagnostics = WorkspaceDiagnosticsHandler.toDiagnosticsArray(document, entry.getValue().toArray(new IMarker[0]));
+				}
 			}
-			if (document != null) {
-				List<Diagnostic> diagnostics = WorkspaceDiagnosticsHandler.toDiagnosticsArray(document, entry.getValue().toArray(new IMarker[0]));
+			if (diagnostics != null) {
 				connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), diagnostics));
 			}
 		}
 	}
 
-
-
 	/**
 	 * Transforms {@link IMarker}s into a list of {@link Diagnostic}s
 	 *
@@ -303,7 +389,29 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 		return diagnostics;
 	}
 
+	/**
+	 * Transforms {@link IMarker}s of a {@link IFile} into a list of
+	 * {@link Diagnostic}s. Lines are read from the markers, the file content is
+	 * only read to compute the columns of markers having a character range.
+	 *
+	 * @param file
+	 * @param markers
+	 * @return a list of {@link Diagnostic}s
+	 */
+	public static List<Diagnostic> toDiagnosticsArray(IFile file, IMarker[] markers) {
+		LineOffsets lineOffsets = new FileLineOffsets(file);
+		List<Diagnostic> diagnostics = Stream.of(markers)
+				.map(m -> toDiagnostic(lineOffsets, m))
+				.filter(d -> d != null)
+				.collect(Collectors.toList());
+		return diagnostics;
+	}
+
 	private static Diagnostic toDiagnostic(IDocument document, IMarker marker) {
+		return toDiagnostic(line -> document.getLineOffset(line), marker);
+	}
+
+	private static Diagnostic toDiagnostic(LineOffsets lineOffsets, IMarker marker) {
 		if (marker == null || !marker.exists()) {
 			return null;
 		}
@@ -312,7 +420,7 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 		d.setMessage(marker.getAttribute(IMarker.MESSAGE, ""));
 		d.setCode(String.valueOf(marker.getAttribute(IJavaModelMarker.ID, 0)));
 		d.setSeverity(convertSeverity(marker.getAttribute(IMarker.SEVERITY, -1)));
-		d.setRange(convertRange(document, marker));
+		d.setRange(convertRange(lineOffsets, marker));
 		return d;
 	}
 
@@ -320,7 +428,7 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 	 * @param marker
 	 * @return
 	 */
-	private static Range convertRange(IDocument document, IMarker marker) {
+	private static Range convertRange(LineOffsets lineOffsets, IMarker marker) {
 		int line = marker.getAttribute(IMarker.LINE_NUMBER, -1) - 1;
 		int cStart = 0;
 		int cEnd = 0;
@@ -329,10 +437,13 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 			if (marker.isSubtypeOf(IMavenConstants.MARKER_ID)) {
 				cStart = marker.getAttribute(IMavenConstants.MARKER_COLUMN_START, -1);
 				cEnd = marker.getAttribute(IMavenConstants.MARKER_COLUMN_END, -1);
+			} else if (line >= 0 && marker.getAttribute(IMarker.CHAR_START, -1) < 0 && marker.getAttribute(IMarker.CHAR_END, -1) < 0) {
+				// no character range, the line is enough
+				return new Range(new Position(line, 0), new Position(line, 0));
 			} else {
 				int lineOffset = 0;
 				try {
-					lineOffset = document.getLineOffset(line);
+					lineOffset = lineOffsets.getLineOffset(line);
 				} catch (BadLocationException unlikelyException) {
 					JavaLanguageServerPlugin.logException(unlikelyException.getMessage(), unlikelyException);
 					return new Range(new Position(line, 0), new Position(line, 0));
@@ -362,4 +473,64 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 		}
 		return DiagnosticSeverity.Information;
 	}
+
+	@FunctionalInterface
+	private interface LineOffsets {
+		int getLineOffset(int line) throws BadLocationException;
+	}
+
+	/**
+	 * Computes the line offsets of a file from its content on disk, only when
+	 * first needed, without opening a document or a compilation unit.
+	 */
+	private static final class FileLineOffsets implements LineOffsets {
+
+		private final IFile file;
+		private int[] offsets;
+		private int lines;
+
+		FileLineOffsets(IFile file) {
+			this.file = file;
+		}
+
+		@Override
+		public int getLineOffset(int line) throws BadLocationException {
+			if (offsets == null) {
+				computeOffsets();
+			}
+			if (line < 0 || line >= lines) {
+				throw new BadLocationException("Invalid line " + line + " in " + file.getFullPath());
+			}
+			return offsets[line];
+		}
+
+		private void computeOffsets() throws BadLocationException {
+			offsets = new int[64];
+			lines = 1;
+			try (Reader reader = new BufferedReader(new InputStreamReader(file.getContents(true), file.getCharset()))) {
+				int offset = 0;
+				int previous = -1;
+				int c;
+				while ((c = reader.read()) != -1) {
+					offset++;
+					if (c == '\n' && previous == '\r') {
+						// \r\n is a single delimiter
+						offsets[lines - 1] = offset;
+					} else if (c == '\n' || c == '\r') {
+						addLine(offset);
+					}
+					previous = c;
+				}
+			} catch (CoreException | IOException e) {
+				throw new BadLocationException(e.getMessage());
+			}
+		}
+
+		private void addLine(int offset) {
+			if (lines == offsets.length) {
+				offsets = Arrays.copyOf(offsets, lines * 2);
+			}
+			offsets[lines++] = offset;
+		}
+	}
 }
@@ -11,7 +11,10 @@
 package org.eclipse.jdt.ls.core.internal.handlers;
 
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRunnable;
@@ -48,7 +51,7 @@ public class WorkspaceEventsHandler {
 		this.handler = handler;
 	}
 
-	private CHANGE_TYPE toChangeType(FileChangeType vtype){
+	private static CHANGE_TYPE toChangeType(FileChangeType vtype){
 		switch (vtype) {
 		case Created:
 			return CHANGE_TYPE.CREATED;
@@ -62,41 +65,88 @@ public class WorkspaceEventsHandler {
 	}
 
 	void didChangeWatchedFiles(DidChangeWatchedFilesParams param){
-		List<FileEvent> changes = param.getChanges();
-		for (FileEvent fileEvent : changes) {
-			CHANGE_TYPE changeType = toChangeType(fileEvent.getType());
+		Map<String, CHANGE_TYPE> changes = collapse(param.getChanges());
+		Map<ICompilationUnit, String> createdUnits = new LinkedHashMap<>();
+		boolean disposeAST = false;
+		IJavaElement activeElement = CoreASTProvider.getInstance().getActiveJavaElement();
+		for (Iterator<Map.Entry<String, CHANGE_TYPE>> iterator = changes.entrySet().iterator(); iterator.hasNext();) {
+			Map.Entry<String, CHANGE_TYPE> change = iterator.next();
+			String uri = change.getKey();
+			CHANGE_TYPE changeType = change.getValue();
 			if(changeType==CHANGE_TYPE.DELETED){
-				cleanUpDiagnostics(fileEvent.getUri());
-				handler.didClose(new DidCloseTextDocumentParams(new TextDocumentIdentifier(fileEvent.getUri())));
+				cleanUpDiagnostics(uri);
+				handler.didClose(new DidCloseTextDocumentParams(new TextDocumentIdentifier(uri)));
 			}
-			ICompilationUnit unit = JDTUtils.resolveCompilationUnit(fileEvent.getUri());
+			ICompilationUnit unit = JDTUtils.resolveCompilationUnit(uri);
 			if (unit != null && changeType == CHANGE_TYPE.CREATED && !unit.exists()) {
-				final ICompilationUnit[] units = new ICompilationUnit[1];
-				units[0] = unit;
-				try {
-					ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
-						@Override
-						public void run(IProgressMonitor monitor) throws CoreException {
-							units[0] = createCompilationUnit(units[0]);
-						}
-					}, new NullProgressMonitor());
-				} catch (CoreException e) {
-					JavaLanguageServerPlugin.logException(e.getMessage(), e);
-				}
-				unit = units[0];
+				createdUnits.put(unit, uri);
+				continue;
 			}
 			if (unit != null) {
 				if (unit.isWorkingCopy()) {
+					iterator.remove();
 					continue;
 				}
 				if (changeType == CHANGE_TYPE.DELETED || changeType == CHANGE_TYPE.CHANGED) {
-					if (unit.equals(CoreASTProvider.getInstance().getActiveJavaElement())) {
-						CoreASTProvider.getInstance().disposeAST();
+					disposeAST |= unit.equals(activeElement);
+				}
+			}
+		}
+		if (disposeAST) {
+			CoreASTProvider.getInstance().disposeAST();
+		}
+		if (!createdUnits.isEmpty()) {
+			try {
+				ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+					@Override
+					public void run(IProgressMonitor monitor) throws CoreException {
+						for (ICompilationUnit unit : createdUnits.keySet()) {
+							if (createCompilationUnit(unit).isWorkingCopy()) {
+								changes.remove(createdUnits.get(unit));
+							}
+						}
 					}
+				}, new NullProgressMonitor());
+			} catch (CoreException e) {
+				JavaLanguageServerPlugin.logException(e.getMessage(), e);
+			}
+		}
+		pm.filesChanged(changes);
+	}
+
+	/**
+	 * Collapses the events of each file into their net effect: a file created
+	 * then changed is created, a file deleted then created is changed, and a
+	 * file deleted last is deleted.
+	 *
+	 * @param events
+	 *            the file events, in the order they occurred
+	 * @return the uris of the changed files, in the order of their first event,
+	 *         with the type of their net change
+	 */
+	public static Map<String, CHANGE_TYPE> collapse(List<FileEvent> events) {
+		Map<String, CHANGE_TYPE> changes = new LinkedHashMap<>();
+		for (FileEvent event : events) {
+			if (event.getUri() == null) {
+				continue;
+			}
+			CHANGE_TYPE changeType = toChangeType(event.getType());
+			CHANGE_TYPE previous = changes.get(event.getUri());
+			if (previous != null) {
+				switch (changeType) {
+					case CREATED:
+						changeType = previous == CHANGE_TYPE.DELETED ? CHANGE_TYPE.CHANGED : previous;
+						break;
+					case CHANGED:
+						changeType = previous == CHANGE_TYPE.CREATED ? CHANGE_TYPE.CREATED : CHANGE_TYPE.CHANGED;
+						break;
+					default:
+						break;
 				}
 			}
-			pm.fileChanged(fileEvent.getUri(), changeType);
+			changes.put(event.getUri(), changeType);
 		}
+		return changes;
 	}
 
 	private ICompilationUnit createCompilationUnit(ICompilationUnit unit) {
@@ -116,7 +166,9 @@ public class WorkspaceEventsHandler {
 	}
 
 	private void cleanUpDiagnostics(String uri){
-		this.connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), Collections.emptyList()));
+		String clientUri = ResourceUtils.toClientUri(uri);
+		this.connection.publishDiagnosticsNow(new PublishDiagnosticsParams(clientUri, Collections.emptyList()));
+		this.connection.forgetDiagnostics(clientUri);
 	}
 
 }
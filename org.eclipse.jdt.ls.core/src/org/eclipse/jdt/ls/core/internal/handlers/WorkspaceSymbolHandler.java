@@ -10,12 +10,14 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.jdt.core.Flags;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
@@ -24,27 +26,55 @@ import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.TypeNameMatch;
 import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.jdt.ls.core.internal.search.SymbolIndex;
+import org.eclipse.jdt.ls.core.internal.search.SymbolIndex.Symbol;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.SymbolInformation;
-import org.eclipse.lsp4j.SymbolKind;
 
 public class WorkspaceSymbolHandler{
 
+	/**
+	 * Maximum number of symbols returned from the symbol index.
+	 */
+	public static final int MAX_INDEXED_RESULTS = 100;
+
 	private PreferenceManager preferenceManager;
+	private SymbolIndex symbolIndex;
+	private JavaClientConnection connection;
 
 	public WorkspaceSymbolHandler(PreferenceManager preferenceManager) {
+		this(preferenceManager, null);
+	}
+
+	public WorkspaceSymbolHandler(PreferenceManager preferenceManager, SymbolIndex symbolIndex) {
+		this(preferenceManager, symbolIndex, null);
+	}
+
+	/**
+	 * @param connection
+	 *            the client connection used to stream the symbols to clients
+	 *            supporting partial results, can be <code>null</code>
+	 */
+	public WorkspaceSymbolHandler(PreferenceManager preferenceManager, SymbolIndex symbolIndex, JavaClientConnection connection) {
 		this.preferenceManager = preferenceManager;
+		this.symbolIndex = symbolIndex;
+		this.connection = connection;
 	}
 
 	public List<SymbolInformation> search(String query, IProgressMonitor monitor) {
 		if (query == null || query.trim().isEmpty()) {
 			return Collections.emptyList();
 		}
+		PartialResultCollector<SymbolInformation> symbols = new PartialResultCollector<>("workspace/symbol", query, preferenceManager, connection, monitor);
+		// the index doesn't support wildcard patterns
+		if (symbolIndex != null && symbolIndex.isReady() && query.indexOf('*') < 0 && query.indexOf('?') < 0) {
+			return searchIndex(query.trim(), symbols, monitor);
+		}
 
 		try {
-			ArrayList<SymbolInformation> symbols = new ArrayList<>();
 			new SearchEngine().searchAllTypeNames(null,SearchPattern.R_PATTERN_MATCH, query.toCharArray(), SearchPattern.R_CAMELCASE_MATCH, IJavaSearchConstants.TYPE, createSearchScope(),new TypeNameMatchRequestor() {
 
 				@Override
@@ -52,7 +82,7 @@ public class WorkspaceSymbolHandler{
 					SymbolInformation symbolInformation = new SymbolInformation();
 					symbolInformation.setContainerName(match.getTypeContainerName());
 					symbolInformation.setName(match.getSimpleTypeName());
-					symbolInformation.setKind(mapKind(match));
+					symbolInformation.setKind(SymbolIndex.mapKind(match.getModifiers()));
 					Location location;
 					try {
 						if (match.getType().isBinary()) {
@@ -67,26 +97,54 @@ public class WorkspaceSymbolHandler{
 					symbolInformation.setLocation(location);
 					symbols.add(symbolInformation);
 				}
-
-				private SymbolKind mapKind(TypeNameMatch match) {
-					int flags= match.getModifiers();
-					if (Flags.isInterface(flags)) {
-						return SymbolKind.Interface;
-					}
-					if (Flags.isAnnotation(flags)) {
-						return SymbolKind.Property;
-					}
-					if (Flags.isEnum(flags)) {
-						return SymbolKind.Enum;
-					}
-					return SymbolKind.Class;
-				}
 			}, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
-			return symbols;
+		} catch (OperationCanceledException e) {
+			// cancelled or too many symbols, return what was found so far
 		} catch (Exception e) {
 			JavaLanguageServerPlugin.logException("Problem getting search for" +  query, e);
 		}
-		return Collections.emptyList();
+		return symbols.complete();
+	}
+
+	private List<SymbolInformation> searchIndex(String query, PartialResultCollector<SymbolInformation> symbols, IProgressMonitor monitor) {
+		boolean includeBinaries = preferenceManager == null || preferenceManager.isClientSupportsClassFileContent();
+		List<Symbol> matches = symbolIndex.search(query, MAX_INDEXED_RESULTS, includeBinaries, monitor);
+		for (Symbol match : matches) {
+			if (monitor.isCanceled() || symbols.isFull()) {
+				break;
+			}
+			// locations are only computed for the returned symbols
+			// the element may have been removed since the index was updated
+			IJavaElement element = JavaCore.create(match.getHandleIdentifier());
+			if (element == null || !element.exists()) {
+				continue;
+			}
+			Location location;
+			try {
+				if (element instanceof IType && ((IType) element).isBinary()) {
+					location = JDTUtils.toLocation(((IType) element).getClassFile());
+				} else {
+					location = JDTUtils.toLocation(element);
+				}
+			} catch (Exception e) {
+				JavaLanguageServerPlugin.logException("Unable to determine location for " + match.getName(), e);
+				continue;
+			}
+			if (location == null) {
+				continue;
+			}
+			SymbolInformation symbolInformation = new SymbolInformation();
+			symbolInformation.setContainerName(match.getContainerName());
+			symbolInformation.setName(match.getName());
+			symbolInformation.setKind(match.getKind());
+			symbolInformation.setLocation(location);
+			try {
+				symbols.add(symbolInformation);
+			} catch (OperationCanceledException e) {
+				break;
+			}
+		}
+		return symbols.complete();
 	}
 
 	private IJavaSearchScope createSearchScope() throws JavaModelException {
@@ -10,40 +10,41 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.highlighting;
 
-import static com.google.common.collect.Lists.newArrayList;
-
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.TreeMap;
 
-import org.eclipse.core.runtime.Assert;
-import org.eclipse.jdt.internal.ui.javaeditor.HighlightedPositionCore;
-import org.eclipse.jdt.ls.core.internal.handlers.JsonRpcHelpers;
 import org.eclipse.jdt.ls.core.internal.highlighting.SemanticHighlightingService.HighlightedPositionDiffContext;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.Position;
 import org.eclipse.lsp4j.SemanticHighlightingInformation;
 import org.eclipse.lsp4j.util.SemanticHighlightingTokens;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ComparisonChain;
-import com.google.common.collect.FluentIterable;
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
 
+/**
+ * Computes the lines whose semantic highlighting changed after a document
+ * change.
+ * <p>
+ * An old token is considered unchanged when a new token has the same line
+ * (shifted by the lines inserted or removed by the change), character, scope
+ * and text. Lines with a new or changed token are sent with all their tokens,
+ * lines with a removed token are cleared. Tokens are looked up in an open
+ * addressing table of token indices, so no object is allocated per token.
+ * </p>
+ */
 public class SemanticHighlightingDiffCalculator {
 
+	private static final int NO_TOKEN = -1;
+
 	public List<SemanticHighlightingInformation> getDiffInfos(HighlightedPositionDiffContext context) throws BadLocationException {
 
 		IDocument newState = context.newState;
 		IDocument oldState = context.oldState;
+		SemanticTokens newTokens = context.newTokens;
+		SemanticTokens oldTokens = context.oldTokens;
 
 		// Can be negative or zero too.
 		int lineShiftCount = this.getLineShift(oldState, context.event);
@@ -52,81 +53,76 @@ public class SemanticHighlightingDiffCalculator {
 		int eventOldLength = context.event.getLength();
 		int eventEnd = eventOffset + eventOldLength;
 
-		Map<Integer, SemanticHighlightingInformation> infosPerLine = Maps.newHashMap();
-		Multimap<Integer, SemanticHighlightingTokens.Token> tokensPerLine = HashMultimap.create();
-		Multimap<Integer, HighlightedPositionCore> pendingPositions = HashMultimap.create();
-		Map<LookupKey, HighlightedPositionCore> newPositions = Maps.newHashMap();
-		for (HighlightedPositionCore newPosition : context.newPositions) {
-			LookupKey key = createKey(newState, newPosition);
-			newPositions.put(key, newPosition);
-			pendingPositions.put(key.line, newPosition);
+		int[] table = createTable(newTokens.size());
+		for (int i = 0; i < newTokens.size(); i++) {
+			int hash = hash(newTokens.getLine(i), newTokens.getCharacter(i), newTokens.getScope(i), newState, newTokens.getOffset(i), newTokens.getLength(i));
+			int slot = hash & (table.length - 1);
+			while (table[slot] != NO_TOKEN) {
+				slot = (slot + 1) & (table.length - 1);
+			}
+			table[slot] = i;
 		}
 
-		for (HighlightedPositionCore oldPosition : context.oldPositions) {
-			int[] oldLineAndColumn = getLineAndColumn(oldState, oldPosition);
-			int originalOldLine = oldLineAndColumn[0];
-			int oldColumn = oldLineAndColumn[1];
-			int oldOffset = oldPosition.getOffset();
-			int oldLength = oldPosition.getLength();
-			int oldEnd = oldOffset + oldLength;
+		TreeMap<Integer, SemanticHighlightingInformation> infosPerLine = new TreeMap<>();
+		boolean[] matched = new boolean[newTokens.size()];
+		for (int i = 0; i < oldTokens.size(); i++) {
+			int originalOldLine = oldTokens.getLine(i);
+			int oldColumn = oldTokens.getCharacter(i);
+			int oldScope = oldTokens.getScope(i);
+			int oldOffset = oldTokens.getOffset(i);
+			int oldLength = oldTokens.getLength(i);
 			// If the position is before the change (event), no need to shift the line. Otherwise we consider the line shift.
-			int adjustedOldLine = oldEnd < eventEnd ? originalOldLine : originalOldLine + lineShiftCount;
-
-			@SuppressWarnings("unchecked")
-			int scope = SemanticHighlightingService.getIndex((List<String>) oldPosition.getHighlighting());
-			LookupKey key = createKey(adjustedOldLine, oldColumn, getTextAt(oldState, oldPosition), scope);
-			HighlightedPositionCore newPosition = newPositions.remove(key);
-			if (newPosition == null && !infosPerLine.containsKey(originalOldLine)) {
+			int adjustedOldLine = oldTokens.getEnd(i) < eventEnd ? originalOldLine : originalOldLine + lineShiftCount;
+
+			int hash = hash(adjustedOldLine, oldColumn, oldScope, oldState, oldOffset, oldLength);
+			int match = NO_TOKEN;
+			for (int slot = hash & (table.length - 1); table[slot] != NO_TOKEN; slot = (slot + 1) & (table.length - 1)) {
+				int candidate = table[slot];
+				//@formatter:off
+				if (!matched[candidate]
+						&& newTokens.getLine(candidate) == adjustedOldLine
+						&& newTokens.getCharacter(candidate) == oldColumn
+						&& newTokens.getScope(candidate) == oldScope
+						&& newTokens.getLength(candidate) == oldLength
+						&& sameText(oldState, oldOffset, newState, newTokens.getOffset(candidate), oldLength)) {
+				//@formatter:on
+					match = candidate;
+					break;
+				}
+			}
+			if (match != NO_TOKEN) {
+				matched[match] = true;
+			} else if (!infosPerLine.containsKey(originalOldLine)) {
 				infosPerLine.put(originalOldLine, new SemanticHighlightingInformation(originalOldLine, null));
 			}
 		}
 
-		for (Entry<LookupKey, HighlightedPositionCore> entries : newPositions.entrySet()) {
-			LookupKey lookupKey = entries.getKey();
-			int line = lookupKey.line;
-			int length = lookupKey.text.length();
-			int character = lookupKey.column;
-			int scope = lookupKey.scope;
-			SemanticHighlightingInformation info = infosPerLine.get(line);
-			if (info == null) {
-				info = new SemanticHighlightingInformation(line, null);
-				infosPerLine.put(line, info);
+		// If a line contains at least one change, we need to invalidate the entire line by sending all its tokens.
+		int lineStart = 0;
+		while (lineStart < newTokens.size()) {
+			int line = newTokens.getLine(lineStart);
+			int lineEnd = lineStart;
+			boolean changed = false;
+			while (lineEnd < newTokens.size() && newTokens.getLine(lineEnd) == line) {
+				changed |= !matched[lineEnd];
+				lineEnd++;
 			}
-			tokensPerLine.put(line, new SemanticHighlightingTokens.Token(character, length, scope));
-			// If a line contains at least one change, we need to invalidate the entire line by consuming all pending positions.
-			Collection<HighlightedPositionCore> pendings = pendingPositions.removeAll(line);
-			if (pendings != null) {
-				for (HighlightedPositionCore pendingPosition : pendings) {
-					if (pendingPosition != entries.getValue()) {
-						int[] lineAndColumn = getLineAndColumn(newState, pendingPosition);
-						int pendingCharacter = lineAndColumn[1];
-						int pendingLength = pendingPosition.length;
-						@SuppressWarnings("unchecked")
-						int pendingScope = SemanticHighlightingService.getIndex((List<String>) pendingPosition.getHighlighting());
-						tokensPerLine.put(line, new SemanticHighlightingTokens.Token(pendingCharacter, pendingLength, pendingScope));
-					}
+			if (changed) {
+				List<SemanticHighlightingTokens.Token> tokens = new ArrayList<>(lineEnd - lineStart);
+				for (int i = lineStart; i < lineEnd; i++) {
+					tokens.add(new SemanticHighlightingTokens.Token(newTokens.getCharacter(i), newTokens.getLength(i), newTokens.getScope(i)));
+				}
+				SemanticHighlightingInformation info = infosPerLine.get(line);
+				if (info == null) {
+					info = new SemanticHighlightingInformation(line, null);
+					infosPerLine.put(line, info);
 				}
+				info.setTokens(SemanticHighlightingTokens.encode(tokens));
 			}
+			lineStart = lineEnd;
 		}
 
-		for (Entry<Integer, Collection<SemanticHighlightingTokens.Token>> entry : tokensPerLine.asMap().entrySet()) {
-			List<SemanticHighlightingTokens.Token> tokens = newArrayList(entry.getValue());
-			Collections.sort(tokens);
-			infosPerLine.get(entry.getKey()).setTokens(SemanticHighlightingTokens.encode(tokens));
-		}
-
-		return FluentIterable.from(infosPerLine.values()).toSortedList(HighlightingInformationComparator.INSTANCE);
-	}
-
-	protected int[] getLineAndColumn(IDocument document, HighlightedPositionCore position) {
-		//@formatter:off
-		int[] lineAndColumn = JsonRpcHelpers.toLine(document, position.offset);
-		Assert.isNotNull(
-				lineAndColumn,
-				"Cannot retrieve the line and column information for document. Position was: " + position + " Document was:>" + document.get() + "<."
-				);
-		return lineAndColumn;
-		//@formatter:off
+		return new ArrayList<>(infosPerLine.values());
 	}
 
 	protected int getLineShift(IDocument oldState, DocumentEvent event) throws BadLocationException {
@@ -147,105 +143,32 @@ public class SemanticHighlightingDiffCalculator {
 		}
 	}
 
-	protected String getTextAt(IDocument document, Position position) throws BadLocationException {
-		return document.get(position.offset, position.length);
-	}
-
-	protected LookupKey createKey(IDocument document, HighlightedPositionCore position) throws BadLocationException {
-		int[] lineAndColumn = getLineAndColumn(document, position);
-		@SuppressWarnings("unchecked")
-		int scope = SemanticHighlightingService.getIndex((List<String>) position.getHighlighting());
-		return createKey(lineAndColumn[0], lineAndColumn[1], getTextAt(document, position), scope);
-	}
-
-	protected LookupKey createKey(int line, int column, String text, int scope) {
-		return new LookupKey(line, column, text, scope);
+	/**
+	 * @return an empty table, with at least twice as many slots as tokens
+	 */
+	private static int[] createTable(int size) {
+		int capacity = Integer.highestOneBit(Math.max(size, 1)) << 2;
+		int[] table = new int[capacity];
+		Arrays.fill(table, NO_TOKEN);
+		return table;
 	}
 
-	protected static class HighlightingInformationComparator implements Comparator<SemanticHighlightingInformation> {
-
-		protected static final Comparator<SemanticHighlightingInformation> INSTANCE = new HighlightingInformationComparator();
-
-		@Override
-		public int compare(SemanticHighlightingInformation left, SemanticHighlightingInformation right) {
-			//@formatter:off
-			return ComparisonChain.start()
-				.compare(left.getLine(), right.getLine())
-				.result();
-			//@formatter:on
+	private static int hash(int line, int character, int scope, IDocument document, int offset, int length) throws BadLocationException {
+		int hash = 31 * (31 * (31 + line) + character) + scope;
+		for (int i = 0; i < length; i++) {
+			hash = 31 * hash + document.getChar(offset + i);
 		}
+		// spread the bits, as lookups mask the lower ones
+		return hash ^ (hash >>> 16);
 	}
 
-	private static final class LookupKey {
-
-		private final int line;
-		private final int column;
-		private final String text;
-		private final int scope;
-
-		private LookupKey(int line, int column, String text, int scope) {
-			this.line = line;
-			this.column = column;
-			this.text = text;
-			this.scope = scope;
-		}
-
-		@Override
-		public int hashCode() {
-			final int prime = 31;
-			int result = 1;
-			result = prime * result + column;
-			result = prime * result + line;
-			result = prime * result + scope;
-			result = prime * result + ((text == null) ? 0 : text.hashCode());
-			return result;
-		}
-
-		@Override
-		public boolean equals(Object obj) {
-			if (this == obj) {
-				return true;
-			}
-			if (obj == null) {
+	private static boolean sameText(IDocument document, int offset, IDocument otherDocument, int otherOffset, int length) throws BadLocationException {
+		for (int i = 0; i < length; i++) {
+			if (document.getChar(offset + i) != otherDocument.getChar(otherOffset + i)) {
 				return false;
 			}
-			if (getClass() != obj.getClass()) {
-				return false;
-			}
-			LookupKey other = (LookupKey) obj;
-			if (column != other.column) {
-				return false;
-			}
-			if (line != other.line) {
-				return false;
-			}
-			if (scope != other.scope) {
-				return false;
-			}
-			if (text == null) {
-				if (other.text != null) {
-					return false;
-				}
-			} else if (!text.equals(other.text)) {
-				return false;
-			}
-			return true;
-		}
-
-		@Override
-		public String toString() {
-			StringBuilder sb = new StringBuilder();
-			sb.append("Line: ");
-			sb.append(line);
-			sb.append("\nColumn: ");
-			sb.append(column);
-			sb.append("\nText: ");
-			sb.append(text);
-			sb.append("\nScopes: ");
-			sb.append(Iterables.toString(SemanticHighlightingService.getScopes(scope)));
-			return sb.toString();
 		}
-
+		return true;
 	}
 
 }
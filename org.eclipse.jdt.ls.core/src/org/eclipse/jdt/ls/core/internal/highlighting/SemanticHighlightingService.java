@@ -12,13 +12,13 @@ package org.eclipse.jdt.ls.core.internal.highlighting;
 
 import static com.google.common.base.Suppliers.memoize;
 import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Maps.newHashMap;
 import static java.util.Collections.emptyList;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.Assert;
@@ -26,11 +26,10 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.ASTNode;
-import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.internal.ui.javaeditor.HighlightedPositionCore;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
-import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.SharedASTProvider;
 import org.eclipse.jdt.ls.core.internal.handlers.JsonRpcHelpers;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.jface.text.BadLocationException;
@@ -45,12 +44,10 @@ import org.eclipse.lsp4j.util.SemanticHighlightingTokens;
 
 import com.google.common.base.Supplier;
 import com.google.common.collect.BiMap;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableBiMap.Builder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Multimap;
 
 /**
  * A stateful service for installing, un-installing, and updating semantic
@@ -115,20 +112,20 @@ public class SemanticHighlightingService {
 		public final IDocument oldState;
 		public final IDocument newState;
 		public final DocumentEvent event;
-		public final List<HighlightedPositionCore> oldPositions;
-		public final List<HighlightedPositionCore> newPositions;
+		public final SemanticTokens oldTokens;
+		public final SemanticTokens newTokens;
 
 		public HighlightedPositionDiffContext(
 				IDocument oldState,
 				DocumentEvent event,
-				Iterable<? extends HighlightedPositionCore> oldPositions,
-				Iterable<? extends HighlightedPositionCore> newPositions) {
+				SemanticTokens oldTokens,
+				SemanticTokens newTokens) {
 
 			this.oldState = oldState;
 			this.newState = event.fDocument;
 			this.event = event;
-			this.oldPositions = ImmutableList.copyOf(oldPositions);
-			this.newPositions = ImmutableList.copyOf(newPositions);
+			this.oldTokens = oldTokens;
+			this.newTokens = newTokens;
 		}
 		//@formatter:on
 
@@ -136,19 +133,23 @@ public class SemanticHighlightingService {
 
 	private final Supplier<Boolean> enabled;
 	private final JavaClientConnection connection;
-	private final Map<String, List<HighlightedPositionCore>> cache;
-	private CoreASTProvider astProvider;
+	private final Map<String, SemanticTokens> cache;
+	/**
+	 * Looked up lazily, since the service is created before the plug-in
+	 * starts the shared AST provider.
+	 */
+	private Supplier<SharedASTProvider> astProvider;
 	private SemanticHighlightingDiffCalculator diffCalculator;
 
-	public SemanticHighlightingService(JavaClientConnection connection, CoreASTProvider astProvider, PreferenceManager preferenceManager) {
+	public SemanticHighlightingService(JavaClientConnection connection, Supplier<SharedASTProvider> astProvider, PreferenceManager preferenceManager) {
 		this(connection, astProvider, memoize(() -> preferenceManager.getClientPreferences().isSemanticHighlightingSupported()));
 	}
 
-	public SemanticHighlightingService(JavaClientConnection connection, CoreASTProvider astProvider, Supplier<Boolean> enabled) {
+	public SemanticHighlightingService(JavaClientConnection connection, Supplier<SharedASTProvider> astProvider, Supplier<Boolean> enabled) {
 		this.connection = connection;
 		this.astProvider = astProvider;
 		this.enabled = enabled; // XXX: move this out and have a factory instead, that creates a NOOP service instance.
-		this.cache = newHashMap();
+		this.cache = new ConcurrentHashMap<>();
 		this.diffCalculator = new SemanticHighlightingDiffCalculator();
 	}
 
@@ -162,14 +163,15 @@ public class SemanticHighlightingService {
 		}
 	}
 
-	public List<Position> install(ICompilationUnit unit) throws JavaModelException, BadPositionCategoryException {
+	public List<Position> install(ICompilationUnit unit) throws JavaModelException, BadPositionCategoryException, BadLocationException {
 		if (enabled.get()) {
-			List<HighlightedPositionCore> positions = calculateHighlightedPositions(unit, false);
+			IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
+			List<HighlightedPositionCore> positions = calculateHighlightedPositions(document, getASTNode(unit));
+			SemanticTokens tokens = SemanticTokens.of(document, positions);
 			String uri = JDTUtils.getFileURI(unit.getResource());
-			this.cache.put(uri, positions);
-			if (!positions.isEmpty()) {
-				IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
-				List<SemanticHighlightingInformation> infos = toInfos(document, positions);
+			this.cache.put(uri, tokens);
+			if (!tokens.isEmpty()) {
+				List<SemanticHighlightingInformation> infos = toInfos(tokens);
 				VersionedTextDocumentIdentifier textDocument = new VersionedTextDocumentIdentifier(uri, 1);
 				notifyClient(textDocument, infos);
 			}
@@ -178,22 +180,35 @@ public class SemanticHighlightingService {
 		return emptyList();
 	}
 
-	public List<HighlightedPositionCore> calculateHighlightedPositions(ICompilationUnit unit, boolean cache) throws JavaModelException, BadPositionCategoryException {
+	/**
+	 * Computes the semantic tokens of the current state of a compilation unit.
+	 *
+	 * @param unit
+	 *            the compilation unit
+	 * @param cache
+	 *            whether the tokens should be kept as the latest tokens of the
+	 *            compilation unit
+	 * @return the tokens
+	 */
+	public SemanticTokens calculateSemanticTokens(ICompilationUnit unit, boolean cache) throws JavaModelException, BadPositionCategoryException, BadLocationException {
 		if (enabled.get()) {
 			IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
 			ASTNode ast = getASTNode(unit);
-			List<HighlightedPositionCore> positions = calculateHighlightedPositions(document, ast);
+			SemanticTokens tokens = SemanticTokens.of(document, calculateHighlightedPositions(document, ast));
 			if (cache) {
 				String uri = JDTUtils.getFileURI(unit.getResource());
-				this.cache.put(uri, positions);
+				this.cache.put(uri, tokens);
 			}
-			return ImmutableList.copyOf(positions);
+			return tokens;
 		}
-		return emptyList();
+		return SemanticTokens.EMPTY;
 	}
 
-	public List<HighlightedPositionCore> getHighlightedPositions(String uri) {
-		return ImmutableList.copyOf(cache.getOrDefault(uri, emptyList()));
+	/**
+	 * @return the latest tokens of a document
+	 */
+	public SemanticTokens getSemanticTokens(String uri) {
+		return cache.getOrDefault(uri, SemanticTokens.EMPTY);
 	}
 
 	public void update(VersionedTextDocumentIdentifier textDocument, List<HighlightedPositionDiffContext> diffContexts) throws BadLocationException, BadPositionCategoryException, JavaModelException {
@@ -213,32 +228,21 @@ public class SemanticHighlightingService {
 	}
 
 	protected ASTNode getASTNode(ICompilationUnit unit) {
-		// TODO: This seems odd here.
-		// I had problems when opened the second compilation unit in the editor.
-		// It was still using the previous AST.
-		this.astProvider.disposeAST();
-		return this.astProvider.getAST(unit, CoreASTProvider.WAIT_YES, new NullProgressMonitor());
-	}
-
-	protected List<SemanticHighlightingInformation> toInfos(IDocument document, List<HighlightedPositionCore> positions) {
-		Multimap<Integer, SemanticHighlightingTokens.Token> infos = HashMultimap.create();
-		for (HighlightedPositionCore position : positions) {
-			int[] lineAndColumn = JsonRpcHelpers.toLine(document, position.offset);
-			if (lineAndColumn == null) {
-				JavaLanguageServerPlugin.logError("Cannot locate line and column information for the semantic highlighting position: " + position + ". Skipping it.");
-				continue;
+		return this.astProvider.get().getAST(unit, new NullProgressMonitor());
+	}
+
+	protected List<SemanticHighlightingInformation> toInfos(SemanticTokens tokens) {
+		List<SemanticHighlightingInformation> infos = new ArrayList<>();
+		List<SemanticHighlightingTokens.Token> lineTokens = new ArrayList<>();
+		for (int i = 0; i < tokens.size(); i++) {
+			lineTokens.add(new SemanticHighlightingTokens.Token(tokens.getCharacter(i), tokens.getLength(i), tokens.getScope(i)));
+			// tokens are sorted by offset, hence by line
+			if (i == tokens.size() - 1 || tokens.getLine(i + 1) != tokens.getLine(i)) {
+				infos.add(new SemanticHighlightingInformation(tokens.getLine(i), SemanticHighlightingTokens.encode(lineTokens)));
+				lineTokens.clear();
 			}
-			int line = lineAndColumn[0];
-			int character = lineAndColumn[1];
-			int length = position.length;
-			int scope = LOOKUP_TABLE.inverse().get(position.getHighlighting());
-			infos.put(line, new SemanticHighlightingTokens.Token(character, length, scope));
 		}
-		//@formatter:off
-		return infos.asMap().entrySet().stream()
-			.map(entry -> new SemanticHighlightingInformation(entry.getKey(), SemanticHighlightingTokens.encode(entry.getValue())))
-			.collect(Collectors.toList());
-		//@formatter:on
+		return infos;
 	}
 
 	protected void notifyClient(VersionedTextDocumentIdentifier textDocument, List<SemanticHighlightingInformation> infos) {
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.highlighting;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.jdt.internal.ui.javaeditor.HighlightedPositionCore;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+
+/**
+ * The semantic highlighting tokens of a document state, sorted by offset.
+ * <p>
+ * Tokens are packed in a single <code>int</code> array, holding the offset,
+ * length, line, character and scope index of each token. Instances are
+ * immutable, and can be shared between threads.
+ * </p>
+ */
+public final class SemanticTokens {
+
+	public static final SemanticTokens EMPTY = new SemanticTokens(new int[0]);
+
+	private static final int OFFSET = 0;
+	private static final int LENGTH = 1;
+	private static final int LINE = 2;
+	private static final int CHARACTER = 3;
+	private static final int SCOPE = 4;
+	private static final int TOKEN_SIZE = 5;
+
+	private final int[] data;
+
+	private SemanticTokens(int[] data) {
+		this.data = data;
+	}
+
+	/**
+	 * Packs highlighted positions.
+	 *
+	 * @param document
+	 *            the document the positions were computed for
+	 * @param positions
+	 *            the highlighted positions
+	 * @return the tokens of the positions
+	 * @throws BadLocationException
+	 *             if a position is outside of the document
+	 */
+	@SuppressWarnings("unchecked")
+	public static SemanticTokens of(IDocument document, List<HighlightedPositionCore> positions) throws BadLocationException {
+		if (positions.isEmpty()) {
+			return EMPTY;
+		}
+		List<HighlightedPositionCore> sorted = positions;
+		for (int i = 1; i < positions.size(); i++) {
+			if (positions.get(i - 1).getOffset() > positions.get(i).getOffset()) {
+				sorted = new ArrayList<>(positions);
+				sorted.sort(Comparator.comparingInt(HighlightedPositionCore::getOffset));
+				break;
+			}
+		}
+		int[] data = new int[sorted.size() * TOKEN_SIZE];
+		int i = 0;
+		for (HighlightedPositionCore position : sorted) {
+			int offset = position.getOffset();
+			int line = document.getLineOfOffset(offset);
+			data[i + OFFSET] = offset;
+			data[i + LENGTH] = position.getLength();
+			data[i + LINE] = line;
+			data[i + CHARACTER] = offset - document.getLineOffset(line);
+			data[i + SCOPE] = SemanticHighlightingService.getIndex((List<String>) position.getHighlighting());
+			i += TOKEN_SIZE;
+		}
+		return new SemanticTokens(data);
+	}
+
+	/**
+	 * @return the number of tokens
+	 */
+	public int size() {
+		return data.length / TOKEN_SIZE;
+	}
+
+	public boolean isEmpty() {
+		return data.length == 0;
+	}
+
+	public int getOffset(int token) {
+		return data[token * TOKEN_SIZE + OFFSET];
+	}
+
+	public int getLength(int token) {
+		return data[token * TOKEN_SIZE + LENGTH];
+	}
+
+	public int getEnd(int token) {
+		return getOffset(token) + getLength(token);
+	}
+
+	/**
+	 * @return the zero-based line of the token
+	 */
+	public int getLine(int token) {
+		return data[token * TOKEN_SIZE + LINE];
+	}
+
+	/**
+	 * @return the zero-based character of the token in its line
+	 */
+	public int getCharacter(int token) {
+		return data[token * TOKEN_SIZE + CHARACTER];
+	}
+
+	/**
+	 * @return the index of the token scopes, see
+	 *         {@link SemanticHighlightingService#getScopes(int)}
+	 */
+	public int getScope(int token) {
+		return data[token * TOKEN_SIZE + SCOPE];
+	}
+
+}
@@ -0,0 +1,413 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.javadoc;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.StatusFactory;
+
+import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Bounded cache of the Javadoc rendered for Java elements, shared by hover and
+ * completion resolve.
+ * <p>
+ * Entries are keyed by element handle identifier and output format, and are
+ * evicted least recently used first. Entries of source elements are discarded
+ * when a compilation unit changes, all entries are discarded when a classpath
+ * changes.
+ * </p>
+ * <p>
+ * Javadocs are rendered in the background by two executors: one for the
+ * lookups a client is waiting for, and a single, low priority, thread for
+ * prefetches. A lookup of a Javadoc whose prefetch hasn't started yet renders
+ * it right away rather than waiting behind other prefetches.
+ * </p>
+ */
+public class JavadocCache implements IElementChangedListener {
+
+	/**
+	 * Maximum number of rendered Javadocs kept.
+	 */
+	public static final int MAX_ENTRIES = 500;
+
+	public enum Format {
+		MARKDOWN, PLAIN_TEXT
+	}
+
+	private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final ExecutorService executor;
+	private final ThreadPoolExecutor prefetchExecutor;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public JavadocCache() {
+		this.executor = Executors.newFixedThreadPool(2, new ThreadFactoryBuilder().setNameFormat("Javadoc renderer %d").setDaemon(true).build());
+		this.prefetchExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+				new ThreadFactoryBuilder().setNameFormat("Javadoc prefetcher %d").setDaemon(true).setPriority(Thread.MIN_PRIORITY).build());
+	}
+
+	/**
+	 * Starts discarding stale entries on Java element changes.
+	 */
+	public void start() {
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+	}
+
+	public void stop() {
+		JavaCore.removeElementChangedListener(this);
+		executor.shutdownNow();
+		prefetchExecutor.shutdownNow();
+		clear();
+	}
+
+	/**
+	 * Returns the Javadoc of an element, rendering it in the current thread if
+	 * it isn't cached.
+	 *
+	 * @param element
+	 *            the element
+	 * @param format
+	 *            the output format
+	 * @return the rendered Javadoc, or <code>null</code> if the element has none
+	 * @throws CoreException
+	 *             if the Javadoc can't be rendered
+	 */
+	public String getJavadoc(IJavaElement element, Format format) throws CoreException {
+		CompletableFuture<String> future = lookup(element, format, Mode.SYNC);
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CoreException(StatusFactory.newErrorStatus("Interrupted while rendering Javadoc of " + element.getElementName(), e));
+		} catch (ExecutionException e) {
+			throw toCoreException(element, e.getCause());
+		}
+	}
+
+	/**
+	 * Returns the Javadoc of an element, waiting at most the given time for it
+	 * to be rendered. When the time runs out, the Javadoc is still rendered in
+	 * the background and cached for the next lookups.
+	 *
+	 * @param element
+	 *            the element
+	 * @param format
+	 *            the output format
+	 * @param timeout
+	 *            the maximum time to wait, in milliseconds
+	 * @return the rendered Javadoc, or <code>null</code> if the element has none
+	 * @throws CoreException
+	 *             if the Javadoc can't be rendered
+	 * @throws TimeoutException
+	 *             if the Javadoc isn't rendered in time
+	 */
+	public String getJavadoc(IJavaElement element, Format format, long timeout) throws CoreException, TimeoutException {
+		CompletableFuture<String> future = lookup(element, format, Mode.ASYNC);
+		try {
+			return future.get(timeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CoreException(StatusFactory.newErrorStatus("Interrupted while rendering Javadoc of " + element.getElementName(), e));
+		} catch (ExecutionException e) {
+			throw toCoreException(element, e.getCause());
+		}
+	}
+
+	/**
+	 * Renders the Javadoc of an element in the background, after the other
+	 * prefetches, unless it's already cached.
+	 *
+	 * @param element
+	 *            the element
+	 * @param format
+	 *            the output format
+	 */
+	public void prefetch(IJavaElement element, Format format) {
+		lookup(element, format, Mode.PREFETCH);
+	}
+
+	/**
+	 * Cancels the prefetches not started yet, e.g. the prefetches of a previous
+	 * completion request.
+	 */
+	public void cancelPrefetches() {
+		List<Runnable> tasks = new ArrayList<>();
+		prefetchExecutor.getQueue().drainTo(tasks);
+		synchronized (entries) {
+			for (Runnable task : tasks) {
+				((RenderTask) task).cancel();
+			}
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/**
+	 * @return the number of cached Javadocs
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * @return the number of lookups that found a cached, or being rendered,
+	 *         Javadoc
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of lookups that had to render the Javadoc
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.core.IElementChangedListener#elementChanged(org.eclipse.jdt.core.ElementChangedEvent)
+	 */
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		switch (visit(event.getDelta())) {
+			case ALL:
+				clear();
+				break;
+			case SOURCES:
+				synchronized (entries) {
+					Iterator<Entry> iterator = entries.values().iterator();
+					while (iterator.hasNext()) {
+						if (!iterator.next().binary) {
+							iterator.remove();
+						}
+					}
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	private enum Staleness {
+		NONE, SOURCES, ALL
+	}
+
+	private Staleness visit(IJavaElementDelta delta) {
+		IJavaElement element = delta.getElement();
+		int flags = delta.getFlags();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_CLOSED)) != 0) {
+					return Staleness.ALL;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0) {
+					return Staleness.ALL;
+				}
+				break;
+			case IJavaElement.CLASS_FILE:
+				return Staleness.ALL;
+			case IJavaElement.COMPILATION_UNIT:
+				// Javadoc may be inherited from another compilation unit
+				return Staleness.SOURCES;
+			default:
+				break;
+		}
+		Staleness staleness = Staleness.NONE;
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			Staleness childStaleness = visit(child);
+			if (childStaleness == Staleness.ALL) {
+				return childStaleness;
+			}
+			if (childStaleness == Staleness.SOURCES) {
+				staleness = childStaleness;
+			}
+		}
+		return staleness;
+	}
+
+	private enum Mode {
+		SYNC, ASYNC, PREFETCH
+	}
+
+	private CompletableFuture<String> lookup(IJavaElement element, Format format, Mode mode) {
+		String key = format.name() + ':' + element.getHandleIdentifier();
+		Entry entry;
+		boolean created = false;
+		synchronized (entries) {
+			entry = entries.get(key);
+			if (entry != null) {
+				hits.incrementAndGet();
+			} else {
+				misses.incrementAndGet();
+				entry = new Entry(key, isBinary(element));
+				entries.put(key, entry);
+				created = true;
+				Iterator<Entry> iterator = entries.values().iterator();
+				while (entries.size() > MAX_ENTRIES && iterator.hasNext()) {
+					iterator.next();
+					iterator.remove();
+				}
+			}
+			if (mode != Mode.PREFETCH) {
+				entry.wanted = true;
+			}
+		}
+		RenderTask task = new RenderTask(entry, element, format);
+		if (mode == Mode.PREFETCH) {
+			if (created) {
+				execute(prefetchExecutor, task);
+			}
+		} else if (!entry.started.get()) {
+			// not rendered yet, or its prefetch is still queued
+			if (mode == Mode.ASYNC) {
+				execute(executor, task);
+			} else {
+				task.run();
+			}
+		}
+		return entry.future;
+	}
+
+	private static void execute(ExecutorService executor, Runnable task) {
+		if (executor.isShutdown()) {
+			task.run();
+		} else {
+			executor.execute(task);
+		}
+	}
+
+	/**
+	 * Renders the Javadoc of an element.
+	 *
+	 * @noreference protected for test purposes only
+	 */
+	protected String render(IJavaElement element, Format format) throws CoreException, IOException {
+		Reader reader;
+		if (format == Format.MARKDOWN) {
+			reader = JavadocContentAccess2.getMarkdownContentReader(element);
+		} else if (element instanceof IMember) {
+			reader = JavadocContentAccess.getPlainTextContentReader((IMember) element);
+		} else {
+			reader = null;
+		}
+		return reader == null ? null : CharStreams.toString(reader);
+	}
+
+	private static boolean isBinary(IJavaElement element) {
+		if (element.getAncestor(IJavaElement.CLASS_FILE) != null) {
+			return true;
+		}
+		IPackageFragmentRoot root = (IPackageFragmentRoot) element.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+		return root != null && root.isArchive();
+	}
+
+	private static CoreException toCoreException(IJavaElement element, Throwable e) {
+		if (e instanceof CoreException) {
+			return (CoreException) e;
+		}
+		if (e instanceof CancellationException) {
+			return new CoreException(StatusFactory.newErrorStatus("Rendering Javadoc of " + element.getElementName() + " was cancelled", e));
+		}
+		return new CoreException(StatusFactory.newErrorStatus("Unable to render Javadoc of " + element.getElementName(), e));
+	}
+
+	private static class Entry {
+		private final CompletableFuture<String> future = new CompletableFuture<>();
+		private final AtomicBoolean started = new AtomicBoolean();
+		private final String key;
+		private final boolean binary;
+		/**
+		 * Whether a lookup other than a prefetch waits for the Javadoc, guarded
+		 * by the entries.
+		 */
+		private boolean wanted;
+
+		Entry(String key, boolean binary) {
+			this.key = key;
+			this.binary = binary;
+		}
+	}
+
+	private class RenderTask implements Runnable {
+		private final Entry entry;
+		private final IJavaElement element;
+		private final Format format;
+
+		RenderTask(Entry entry, IJavaElement element, Format format) {
+			this.entry = entry;
+			this.element = element;
+			this.format = format;
+		}
+
+		@Override
+		public void run() {
+			if (!entry.started.compareAndSet(false, true)) {
+				// already rendered by another task
+				return;
+			}
+			try {
+				entry.future.complete(render(element, format));
+			} catch (Throwable e) {
+				// don't cache failures
+				synchronized (entries) {
+					entries.remove(entry.key, entry);
+				}
+				entry.future.completeExceptionally(e);
+			}
+		}
+
+		/**
+		 * Cancels the rendering, unless it started or a lookup waits for it.
+		 * Called while holding the entries.
+		 */
+		void cancel() {
+			if (!entry.wanted && entry.started.compareAndSet(false, true)) {
+				entries.remove(entry.key, entry);
+				entry.future.cancel(false);
+			}
+		}
+	}
+}
@@ -85,13 +85,13 @@ import org.eclipse.jdt.core.dom.PackageDeclaration;
 import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.TagElement;
 import org.eclipse.jdt.core.dom.TextElement;
-import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.internal.corext.dom.ASTNodes;
 import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 import org.eclipse.jdt.internal.corext.util.JdtFlags;
 import org.eclipse.jdt.internal.corext.util.MethodOverrideTester;
 import org.eclipse.jdt.internal.corext.util.SuperTypeHierarchyCache;
+import org.eclipse.jdt.ls.core.internal.SharedASTProvider;
 import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
 
 /**
@@ -1608,7 +1608,7 @@ public class JavadocContentAccess2 {
 
 		ISourceRange nameRange = field.getNameRange();
 		if (SourceRange.isAvailable(nameRange)) {
-			CompilationUnit cuNode = CoreASTProvider.getInstance().getAST(field.getTypeRoot(), CoreASTProvider.WAIT_YES, new NullProgressMonitor());
+			CompilationUnit cuNode = SharedASTProvider.getInstance().getAST(field.getTypeRoot(), new NullProgressMonitor());
 			if (cuNode != null) {
 				ASTNode nameNode = NodeFinder.perform(cuNode, nameRange);
 				if (nameNode instanceof SimpleName) {
@@ -10,30 +10,28 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.managers;
 
-import static java.nio.file.FileVisitResult.CONTINUE;
-import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
-import static java.nio.file.FileVisitResult.TERMINATE;
-
 import java.io.IOException;
-import java.nio.file.FileSystemLoopException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystems;
-import java.nio.file.FileVisitOption;
-import java.nio.file.FileVisitResult;
-import java.nio.file.FileVisitor;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
-import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.EnumSet;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
@@ -44,17 +42,38 @@ import org.eclipse.jdt.ls.core.internal.StatusFactory;
 
 /**
  * Searches recursively for all the directories containing a given filename.
+ * <p>
+ * Directories are walked in parallel, and excluded directories are pruned
+ * before being listed. Detectors of a root directory shared with
+ * {@link #shareScan(Path, String...)} are served from a single walk of that
+ * directory, instead of walking it once per detector.
+ * </p>
  *
  * @author Fred Bricon
  */
 public class BasicFileDetector {
 
 	private static final String METADATA_FOLDER = "**/.metadata";
-	private static final Set<FileVisitOption> FOLLOW_LINKS_OPTION = EnumSet.of(FileVisitOption.FOLLOW_LINKS);
+	private static final int DEFAULT_MAX_DEPTH = 5;
+	private static final Comparator<Path> DEPTH_FIRST = Comparator.comparingInt(Path::getNameCount).thenComparing(Path::toString);
+	private static final Map<Path, SharedScan> sharedScans = new ConcurrentHashMap<>();
+	private static final int MAX_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+	/**
+	 * The directory walks block on I/O, so they run in their own bounded pool
+	 * rather than starving the users of the common pool. Idle workers are
+	 * released by the pool.
+	 */
+	private static final ForkJoinPool SCAN_POOL = new ForkJoinPool(MAX_THREADS, pool -> {
+		ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+		thread.setName("Project scanner " + thread.getPoolIndex());
+		thread.setDaemon(true);
+		return thread;
+	}, null, false);
+
 	private List<Path> directories;
 	private Path rootDir;
-	private String fileName;
-	private int maxDepth = 5;
+	private Set<String> fileNames;
+	private int maxDepth = DEFAULT_MAX_DEPTH;
 	private boolean includeNested = true;
 	private Set<String> exclusions = new HashSet<>(1);
 
@@ -63,11 +82,11 @@ public class BasicFileDetector {
 	 * By default, the search depth is limited to 5. Sub-directories of a found directory will be walked through.
 	 * The ".metadata" folder is excluded.
 	 * @param rootDir the root directory to search for files
-	 * @param fileName the name of the file to search
+	 * @param fileNames the name(s) of the file to search
 	 */
-	public BasicFileDetector(Path rootDir, String fileName) {
+	public BasicFileDetector(Path rootDir, String... fileNames) {
 		this.rootDir = rootDir;
-		this.fileName = fileName;
+		this.fileNames = new LinkedHashSet<>(Arrays.asList(fileNames));
 		directories = new ArrayList<>();
 		addExclusions(METADATA_FOLDER);
 		List<String> javaImportExclusions = JavaLanguageServerPlugin.getPreferencesManager().getPreferences().getJavaImportExclusions();
@@ -78,6 +97,27 @@ public class BasicFileDetector {
 		}
 	}
 
+	/**
+	 * Lets the detectors of the given root directory, searching for some of the
+	 * given file names with the default search depth, share a single scan until
+	 * {@link #releaseSharedScan(Path)} is called.
+	 *
+	 * @param rootDir the root directory to scan
+	 * @param fileNames the names of all the files searched by the detectors
+	 */
+	public static void shareScan(Path rootDir, String... fileNames) {
+		sharedScans.put(rootDir, new SharedScan(new BasicFileDetector(rootDir, fileNames)));
+	}
+
+	/**
+	 * Discards the shared scan of the given root directory.
+	 *
+	 * @param rootDir the root directory of the shared scan
+	 */
+	public static void releaseSharedScan(Path rootDir) {
+		sharedScans.remove(rootDir);
+	}
+
 	/**
 	 * Adds the names of directories to exclude from the search. All its sub-directories will be skipped.
 	 *
@@ -128,52 +168,96 @@ public class BasicFileDetector {
 	 * @throws CoreException if an error is encountered during the scan
 	 */
 	public Collection<Path> scan(IProgressMonitor monitor) throws CoreException {
+		if (monitor == null) {
+			monitor = new NullProgressMonitor();
+		}
+		List<PathMatcher> matchers = getMatchers();
+		SharedScan sharedScan = sharedScans.get(rootDir);
+		Map<Path, Set<String>> found;
+		if (sharedScan != null && sharedScan.covers(this)) {
+			found = sharedScan.get(monitor);
+		} else {
+			found = scanDir(matchers, includeNested, monitor);
+		}
+		directories = filter(found, matchers);
+		return getDirectories();
+	}
+
+	private Map<Path, Set<String>> scanDir(List<PathMatcher> matchers, boolean nested, IProgressMonitor monitor) throws CoreException {
+		Map<Path, Set<String>> found = new ConcurrentHashMap<>();
 		try {
-			scanDir(rootDir, (monitor == null? new NullProgressMonitor(): monitor));
+			BasicFileAttributes attributes = Files.readAttributes(rootDir, BasicFileAttributes.class);
+			if (attributes.isDirectory()) {
+				ScanTask task = new ScanTask(rootDir, 0, Collections.singletonList(getKey(rootDir, attributes)), matchers, nested, found, monitor);
+				SCAN_POOL.invoke(task);
+			}
 		} catch (IOException e) {
-			throw new CoreException(StatusFactory.newErrorStatus("Failed to scan "+rootDir, e));
+			throw new CoreException(StatusFactory.newErrorStatus("Failed to scan " + rootDir, e));
+		} catch (UncheckedIOException e) {
+			throw new CoreException(StatusFactory.newErrorStatus("Failed to scan " + rootDir, e.getCause()));
 		}
-		return getDirectories();
+		return found;
 	}
 
-	private void scanDir(Path dir, final IProgressMonitor monitor) throws IOException {
-		FileVisitor<Path> visitor = new SimpleFileVisitor<Path>() {
-			@Override
-			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-				if (monitor.isCanceled()) {
-					return TERMINATE;
-				}
-				Objects.requireNonNull(dir);
-				if (isExcluded(dir)) {
-					return SKIP_SUBTREE;
-				}
-				if (hasTargetFile(dir)) {
-					directories.add(dir);
-					return includeNested?CONTINUE:SKIP_SUBTREE;
-				}
-				return CONTINUE;
+	/**
+	 * Keeps the directories containing one of the sought-after files, neither
+	 * excluded nor, unless nested directories are included, nested in another
+	 * kept directory.
+	 */
+	private List<Path> filter(Map<Path, Set<String>> found, List<PathMatcher> matchers) {
+		List<Path> candidates = new ArrayList<>(found.size());
+		for (Map.Entry<Path, Set<String>> entry : found.entrySet()) {
+			if (!Collections.disjoint(entry.getValue(), fileNames)) {
+				candidates.add(entry.getKey());
 			}
+		}
+		candidates.sort(DEPTH_FIRST);
+		List<Path> result = new ArrayList<>(candidates.size());
+		Set<Path> kept = new HashSet<>();
+		for (Path dir : candidates) {
+			if (isExcludedFromRoot(dir, matchers) || (!includeNested && hasAncestor(dir, kept))) {
+				continue;
+			}
+			kept.add(dir);
+			result.add(dir);
+		}
+		return result;
+	}
 
-			@Override
-			public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
-				Objects.requireNonNull(file);
-    			if (exc instanceof FileSystemLoopException) {
-        			return CONTINUE;
-    			} else {
-        			throw exc;
-    			}
+	private boolean isExcludedFromRoot(Path dir, List<PathMatcher> matchers) {
+		for (Path path = dir; path != null && path.startsWith(rootDir); path = path.getParent()) {
+			if (isExcluded(path, matchers)) {
+				return true;
+			}
+			if (path.equals(rootDir)) {
+				break;
 			}
+		}
+		return false;
+	}
 
-		};
-		Files.walkFileTree(dir, FOLLOW_LINKS_OPTION, maxDepth, visitor);
+	private boolean hasAncestor(Path dir, Set<Path> ancestors) {
+		for (Path path = dir.getParent(); path != null && path.startsWith(rootDir); path = path.getParent()) {
+			if (ancestors.contains(path)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private List<PathMatcher> getMatchers() {
+		List<PathMatcher> matchers = new ArrayList<>(exclusions.size());
+		for (String pattern : exclusions) {
+			matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+		}
+		return matchers;
 	}
 
-	private boolean isExcluded(Path dir) {
+	private static boolean isExcluded(Path dir, List<PathMatcher> matchers) {
 		if (dir.getFileName() == null) {
 			return true;
 		}
-		for (String pattern : exclusions) {
-			PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+		for (PathMatcher matcher : matchers) {
 			if (matcher.matches(dir)) {
 				return true;
 			}
@@ -181,8 +265,125 @@ public class BasicFileDetector {
 		return false;
 	}
 
-	private boolean hasTargetFile(Path dir) {
-		return Files.isRegularFile(dir.resolve(fileName));
+	/**
+	 * @return the key identifying a directory, used to detect symbolic link
+	 *         cycles
+	 */
+	private static Object getKey(Path dir, BasicFileAttributes attributes) throws IOException {
+		Object key = attributes.fileKey();
+		return key == null ? dir.toRealPath() : key;
+	}
+
+	/**
+	 * Lists a directory, records the sought-after files it contains and forks
+	 * the scan of its sub-directories.
+	 */
+	private class ScanTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Path dir;
+		private final int depth;
+		private final List<Object> ancestors;
+		private final List<PathMatcher> matchers;
+		private final boolean nested;
+		private final Map<Path, Set<String>> found;
+		private final IProgressMonitor monitor;
+
+		ScanTask(Path dir, int depth, List<Object> ancestors, List<PathMatcher> matchers, boolean nested, Map<Path, Set<String>> found, IProgressMonitor monitor) {
+			this.dir = dir;
+			this.depth = depth;
+			this.ancestors = ancestors;
+			this.matchers = matchers;
+			this.nested = nested;
+			this.found = found;
+			this.monitor = monitor;
+		}
+
+		@Override
+		protected void compute() {
+			if (monitor.isCanceled() || isExcluded(dir, matchers)) {
+				return;
+			}
+			Set<String> files = new HashSet<>(1);
+			List<Path> subDirs = new ArrayList<>();
+			List<Object> subDirKeys = new ArrayList<>();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+				for (Path child : stream) {
+					BasicFileAttributes attributes;
+					try {
+						attributes = Files.readAttributes(child, BasicFileAttributes.class);
+					} catch (IOException e) {
+						// broken symbolic link
+						continue;
+					}
+					if (attributes.isRegularFile()) {
+						String name = child.getFileName().toString();
+						if (fileNames.contains(name)) {
+							files.add(name);
+						}
+					} else if (attributes.isDirectory() && depth + 1 < maxDepth) {
+						Object key = getKey(child, attributes);
+						// skip symbolic link cycles
+						if (!ancestors.contains(key)) {
+							subDirs.add(child);
+							subDirKeys.add(key);
+						}
+					}
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			if (!files.isEmpty()) {
+				found.put(dir, files);
+				if (!nested) {
+					return;
+				}
+			}
+			List<ScanTask> tasks = new ArrayList<>(subDirs.size());
+			for (int i = 0; i < subDirs.size(); i++) {
+				List<Object> subDirAncestors = new ArrayList<>(ancestors.size() + 1);
+				subDirAncestors.addAll(ancestors);
+				subDirAncestors.add(subDirKeys.get(i));
+				tasks.add(new ScanTask(subDirs.get(i), depth + 1, subDirAncestors, matchers, nested, found, monitor));
+			}
+			invokeAll(tasks);
+		}
+	}
+
+	/**
+	 * A scan of a root directory, performed once and shared by all the
+	 * detectors it covers.
+	 */
+	private static class SharedScan {
+
+		private final BasicFileDetector detector;
+		private Map<Path, Set<String>> found;
+
+		SharedScan(BasicFileDetector detector) {
+			this.detector = detector;
+		}
+
+		/**
+		 * @return whether the given detector can be served from this scan. The
+		 *         scan includes nested directories, and only applies the common
+		 *         exclusions: the detector applies its own afterwards.
+		 */
+		boolean covers(BasicFileDetector other) {
+			return other.maxDepth == detector.maxDepth && detector.fileNames.containsAll(other.fileNames) && other.exclusions.containsAll(detector.exclusions);
+		}
+
+		synchronized Map<Path, Set<String>> get(IProgressMonitor monitor) throws CoreException {
+			if (found == null) {
+				Map<Path, Set<String>> result = detector.scanDir(detector.getMatchers(), true, monitor);
+				if (monitor.isCanceled()) {
+					// partial result
+					return result;
+				}
+				found = result;
+			}
+			return found;
+		}
 	}
 
 }
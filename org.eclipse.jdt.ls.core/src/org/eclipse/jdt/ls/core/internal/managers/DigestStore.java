@@ -10,21 +10,35 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.managers;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.StatusFactory;
 
@@ -34,20 +48,39 @@ import org.eclipse.jdt.ls.core.internal.StatusFactory;
  *         This class handles digests for build files. It serves to prevent
  *         unnecessary updating of maven/gradle, etc. info on workspace
  *         projects.
+ *
+ *         Files whose modification time and size didn't change since the last
+ *         update aren't hashed again. Digests are appended to the state file
+ *         in batches, shortly after being updated; the file is compacted when
+ *         it contains too many stale records.
  */
 public class DigestStore {
-	private Map<String, String> fileDigests;
-	private File stateFile;
+	private final Map<String, FileDigest> fileDigests = new ConcurrentHashMap<>();
+	private final Set<String> unsaved = ConcurrentHashMap.newKeySet();
+	private final File stateFile;
+	private final Job saveJob;
+	private int records;
 
 	private static final String SERIALIZATION_FILE_NAME = ".file-digests";
+	private static final int MAGIC = 0x4A444753; // JDGS
+	private static final int VERSION = 1;
+	private static final long SAVE_DELAY = 1000;
+	private static final int COMPACTION_THRESHOLD = 1000;
 
 	public DigestStore(File stateLocation) {
 		this.stateFile = new File(stateLocation, SERIALIZATION_FILE_NAME);
 		if (stateFile.isFile()) {
-			fileDigests = deserializeFileDigests();
-		} else {
-			fileDigests = new HashMap<>();
+			deserializeFileDigests();
 		}
+		this.saveJob = new Job("Save file digests") {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				save();
+				return Status.OK_STATUS;
+			}
+		};
+		this.saveJob.setSystem(true);
 	}
 
 	/**
@@ -62,44 +95,171 @@ public class DigestStore {
 	 */
 	public boolean updateDigest(Path p) throws CoreException {
 		try {
-			String digest = computeDigest(p);
-			synchronized (fileDigests) {
-				if (!digest.equals(fileDigests.get(p.toString()))) {
-					fileDigests.put(p.toString(), digest);
-					serializeFileDigests();
-					return true;
-				} else {
-					return false;
-				}
+			String key = p.toString();
+			BasicFileAttributes attributes = Files.readAttributes(p, BasicFileAttributes.class);
+			long modified = attributes.lastModifiedTime().toMillis();
+			long size = attributes.size();
+			FileDigest current = fileDigests.get(key);
+			if (current != null && current.modified == modified && current.size == size) {
+				return false;
 			}
+			FileDigest updated = new FileDigest(modified, size, computeDigest(p));
+			FileDigest previous = fileDigests.put(key, updated);
+			// also save unchanged digests, to skip hashing the file next time
+			unsaved.add(key);
+			saveJob.schedule(SAVE_DELAY);
+			return previous == null || !previous.digest.equals(updated.digest);
 		} catch (NoSuchAlgorithmException | IOException e) {
 			throw new CoreException(StatusFactory.newErrorStatus("Exception updating digest for " + p, e));
 		}
 
 	}
 
-	private void serializeFileDigests() {
-		try (ObjectOutputStream outStream = new ObjectOutputStream(new FileOutputStream(stateFile))) {
-			outStream.writeObject(fileDigests);
+	/**
+	 * Writes the digests updated since the last save to the state file.
+	 */
+	public void save() {
+		synchronized (stateFile) {
+			if (unsaved.isEmpty()) {
+				return;
+			}
+			List<String> keys = new ArrayList<>(unsaved);
+			unsaved.removeAll(keys);
+			if (records + keys.size() > COMPACTION_THRESHOLD && records + keys.size() > 2 * fileDigests.size()) {
+				compactFileDigests();
+				return;
+			}
+			boolean append = records > 0 && stateFile.isFile();
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(stateFile, append)))) {
+				if (!append) {
+					writeHeader(out);
+					records = 0;
+				}
+				for (String key : keys) {
+					FileDigest digest = fileDigests.get(key);
+					if (digest != null) {
+						writeRecord(out, key, digest);
+						records++;
+					}
+				}
+			} catch (IOException e) {
+				unsaved.addAll(keys);
+				JavaLanguageServerPlugin.logException("Exception occured while serialization of file digests", e);
+			}
+		}
+	}
+
+	/**
+	 * Rewrites the state file with the current digests only.
+	 */
+	private void compactFileDigests() {
+		File tempFile = new File(stateFile.getParentFile(), SERIALIZATION_FILE_NAME + ".tmp");
+		int written = 0;
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+				writeHeader(out);
+				for (Map.Entry<String, FileDigest> entry : fileDigests.entrySet()) {
+					writeRecord(out, entry.getKey(), entry.getValue());
+					written++;
+				}
+			}
+			Files.move(tempFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			records = written;
 		} catch (IOException e) {
 			JavaLanguageServerPlugin.logException("Exception occured while serialization of file digests", e);
+			tempFile.delete();
+			// write everything again on next save
+			unsaved.addAll(fileDigests.keySet());
+			records = 0;
 		}
 	}
 
+	private static void writeHeader(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+	}
+
+	private static void writeRecord(DataOutputStream out, String key, FileDigest digest) throws IOException {
+		out.writeUTF(key);
+		out.writeLong(digest.modified);
+		out.writeLong(digest.size);
+		out.writeUTF(digest.digest);
+	}
+
+	private void deserializeFileDigests() {
+		boolean legacy = false;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)))) {
+			legacy = in.readInt() != MAGIC || in.readInt() != VERSION;
+			if (legacy) {
+				return;
+			}
+			while (in.available() > 0) {
+				String key;
+				FileDigest digest;
+				try {
+					key = in.readUTF();
+					digest = new FileDigest(in.readLong(), in.readLong(), in.readUTF());
+				} catch (EOFException e) {
+					// a record partially written when the server stopped, rewrite the file on next save
+					unsaved.addAll(fileDigests.keySet());
+					records = 0;
+					break;
+				}
+				// later records override earlier ones
+				fileDigests.put(key, digest);
+				records++;
+			}
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Exception occured while deserialization of file digests", e);
+		} finally {
+			if (legacy) {
+				deserializeLegacyFileDigests();
+			}
+		}
+	}
+
+	/**
+	 * Reads digests stored as a serialized map by previous versions, and
+	 * rewrites them in the current format. Their modification time is unknown,
+	 * so the files are hashed again on their next update.
+	 */
 	@SuppressWarnings("unchecked")
-	private Map<String, String> deserializeFileDigests() {
+	private void deserializeLegacyFileDigests() {
 		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(stateFile))) {
-			return (Map<String, String>) ois.readObject();
-		} catch (IOException | ClassNotFoundException e) {
+			Map<String, String> digests = (Map<String, String>) ois.readObject();
+			for (Map.Entry<String, String> entry : digests.entrySet()) {
+				fileDigests.put(entry.getKey(), new FileDigest(-1, -1, entry.getValue()));
+			}
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
 			JavaLanguageServerPlugin.logException("Exception occured while deserialization of file digests", e);
-			return new HashMap<>();
 		}
+		unsaved.addAll(fileDigests.keySet());
+		records = 0;
+		save();
 	}
 
 	private String computeDigest(Path path) throws IOException, NoSuchAlgorithmException {
-		byte[] fileBytes = Files.readAllBytes(path);
-		byte[] digest = MessageDigest.getInstance("MD5").digest(fileBytes);
-		return Arrays.toString(digest);
+		MessageDigest md = MessageDigest.getInstance("MD5");
+		byte[] buffer = new byte[8192];
+		try (InputStream in = Files.newInputStream(path)) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				md.update(buffer, 0, read);
+			}
+		}
+		return Arrays.toString(md.digest());
+	}
+
+	private static final class FileDigest {
+		private final long modified;
+		private final long size;
+		private final String digest;
+
+		FileDigest(long modified, long size, String digest) {
+			this.modified = modified;
+			this.size = size;
+			this.digest = digest;
+		}
 	}
 
 }
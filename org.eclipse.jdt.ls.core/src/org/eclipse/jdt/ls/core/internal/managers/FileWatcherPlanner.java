@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Plans the glob patterns of the files watched by the client.
+ * <p>
+ * Folders nested in other watched folders aren't watched on their own, and the
+ * folders of a group, typically the source folders of a project, are watched
+ * with a single pattern, such as <code>/project/src/{main/java,test/java}/**</code>.
+ * Plans are equal when they watch the same folders and files, so a plan equal
+ * to the previous one doesn't need to be registered again.
+ * </p>
+ */
+public class FileWatcherPlanner {
+
+	private static final String GLOB_CHARACTERS = "{},*?[]";
+
+	private final Map<String, Set<IPath>> folders = new LinkedHashMap<>();
+	private final Set<String> files = new TreeSet<>();
+
+	/**
+	 * Watches a folder and its content.
+	 *
+	 * @param group
+	 *            the group of the folder, e.g. the name of its project
+	 * @param location
+	 *            the location of the folder
+	 */
+	public void addFolder(String group, IPath location) {
+		folders.computeIfAbsent(group, g -> new TreeSet<>(Comparator.comparing(IPath::toString))).add(location);
+	}
+
+	/**
+	 * Watches a file.
+	 *
+	 * @param path
+	 *            the absolute path of the file
+	 */
+	public void addFile(String path) {
+		files.add(path);
+	}
+
+	/**
+	 * @return the sorted glob patterns covering the watched folders and files
+	 */
+	public List<String> getPatterns() {
+		Set<IPath> roots = getRoots();
+		Set<String> patterns = new TreeSet<>(files);
+		for (Set<IPath> group : folders.values()) {
+			List<IPath> groupRoots = new ArrayList<>();
+			for (IPath folder : group) {
+				if (roots.contains(folder)) {
+					groupRoots.add(folder);
+				}
+			}
+			addPatterns(groupRoots, patterns);
+		}
+		return new ArrayList<>(patterns);
+	}
+
+	/**
+	 * Returns the watched folders not nested in other watched folders.
+	 */
+	private Set<IPath> getRoots() {
+		List<IPath> locations = new ArrayList<>();
+		folders.values().forEach(locations::addAll);
+		locations.sort(Comparator.comparingInt(IPath::segmentCount));
+		Set<IPath> roots = new HashSet<>();
+		for (IPath location : locations) {
+			boolean nested = false;
+			for (IPath parent = location.removeLastSegments(1); !nested && parent.segmentCount() > 0; parent = parent.removeLastSegments(1)) {
+				nested = roots.contains(parent);
+			}
+			if (!nested) {
+				roots.add(location);
+			}
+		}
+		return roots;
+	}
+
+	private static void addPatterns(List<IPath> folders, Set<String> patterns) {
+		if (folders.isEmpty()) {
+			return;
+		}
+		IPath root = folders.get(0).removeLastSegments(1);
+		for (IPath folder : folders) {
+			if (!Objects.equals(root.getDevice(), folder.getDevice())) {
+				folders.forEach(f -> patterns.add(f.toString() + "/**"));
+				return;
+			}
+			root = root.removeLastSegments(root.segmentCount() - root.matchingFirstSegments(folder));
+		}
+		List<String> relativePaths = new ArrayList<>(folders.size());
+		for (IPath folder : folders) {
+			String relativePath = folder.removeFirstSegments(root.segmentCount()).setDevice(null).makeRelative().toString();
+			if (relativePath.chars().anyMatch(c -> GLOB_CHARACTERS.indexOf(c) >= 0)) {
+				patterns.add(folder.toString() + "/**");
+			} else {
+				relativePaths.add(relativePath);
+			}
+		}
+		if (relativePaths.size() == 1 || (!relativePaths.isEmpty() && root.segmentCount() == 0)) {
+			for (String relativePath : relativePaths) {
+				patterns.add(root.append(relativePath).toString() + "/**");
+			}
+		} else if (!relativePaths.isEmpty()) {
+			patterns.add(root.toString() + "/{" + String.join(",", relativePaths) + "}/**");
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(folders, files);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		FileWatcherPlanner other = (FileWatcherPlanner) obj;
+		return Objects.equals(folders, other.folders) && Objects.equals(files, other.files);
+	}
+}
@@ -42,7 +42,7 @@ public class GradleProjectImporter extends AbstractProjectImporter {
 
 	public static final String GRADLE_HOME = "GRADLE_HOME";
 
-	private static final String BUILD_GRADLE_DESCRIPTOR = "build.gradle";
+	static final String BUILD_GRADLE_DESCRIPTOR = "build.gradle";
 
 	protected static final GradleDistribution DEFAULT_DISTRIBUTION = GradleDistribution.fromBuild();
 
@@ -10,6 +10,11 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.managers;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
@@ -64,6 +69,38 @@ public interface IBuildSupport {
 		return false;
 	}
 
+	/**
+	 * Handle the changes of a batch of resources, all in the same project. Each
+	 * change is handed to {@link #fileChanged(IResource, CHANGE_TYPE, IProgressMonitor)}
+	 * by default, parent folders first. Resources inside a folder already
+	 * refreshed in the batch are not refreshed again.
+	 *
+	 * @param changes
+	 * 				- the resources that changed, with the net type of their changes
+	 * @param monitor
+	 * 				- a progress monitor
+	 * @return <code>true</code> if a project configuration update is recommended next
+	 *
+	 * @throws CoreException
+	 */
+	default boolean filesChanged(Map<IResource, CHANGE_TYPE> changes, IProgressMonitor monitor) throws CoreException {
+		List<Map.Entry<IResource, CHANGE_TYPE>> sorted = new ArrayList<>(changes.entrySet());
+		// deleted resources refresh their parent folder
+		sorted.sort(Comparator.comparingInt((Map.Entry<IResource, CHANGE_TYPE> change) -> change.getKey().getFullPath().segmentCount() - (change.getValue() == CHANGE_TYPE.DELETED ? 1 : 0)));
+		boolean started = RefreshBatch.begin();
+		try {
+			boolean requireConfigurationUpdate = false;
+			for (Map.Entry<IResource, CHANGE_TYPE> change : sorted) {
+				requireConfigurationUpdate |= fileChanged(change.getKey(), change.getValue(), monitor);
+			}
+			return requireConfigurationUpdate;
+		} finally {
+			if (started) {
+				RefreshBatch.end();
+			}
+		}
+	}
+
 	default void refresh(IResource resource, CHANGE_TYPE changeType, IProgressMonitor monitor) throws CoreException {
 		if (resource == null) {
 			return;
@@ -71,8 +108,9 @@ public interface IBuildSupport {
 		if (changeType == CHANGE_TYPE.DELETED) {
 			resource = resource.getParent();
 		}
-		if (resource != null) {
+		if (resource != null && !RefreshBatch.isRefreshed(resource)) {
 			resource.refreshLocal(IResource.DEPTH_INFINITE, monitor);
+			RefreshBatch.setRefreshed(resource);
 		}
 	}
 
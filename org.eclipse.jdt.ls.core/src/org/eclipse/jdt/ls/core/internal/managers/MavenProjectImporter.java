@@ -117,13 +117,22 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 
 	@Override
 	public void importToWorkspace(IProgressMonitor monitor) throws CoreException, OperationCanceledException {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, 105);
+		Set<MavenProjectInfo> files = getMavenProjectInfo(subMonitor.split(5));
+		importToWorkspace(files, subMonitor.split(100));
+	}
+
+	/**
+	 * Imports some of the Maven projects of the root folder, or updates them if
+	 * they're already imported.
+	 */
+	void importToWorkspace(Collection<MavenProjectInfo> files, IProgressMonitor monitor) throws CoreException, OperationCanceledException {
 		JavaLanguageServerPlugin.logInfo(IMPORTING_MAVEN_PROJECTS);
 		MavenConfigurationImpl configurationImpl = (MavenConfigurationImpl)MavenPlugin.getMavenConfiguration();
 		configurationImpl.setDownloadSources(true);
 		configurationImpl.setNotCoveredMojoExecutionSeverity(ProblemSeverity.ignore.toString());
-		SubMonitor subMonitor = SubMonitor.convert(monitor, 105);
+		SubMonitor subMonitor = SubMonitor.convert(monitor, 100);
 		subMonitor.setTaskName(IMPORTING_MAVEN_PROJECTS);
-		Set<MavenProjectInfo> files = getMavenProjectInfo(subMonitor.split(5));
 		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
 		Collection<IProject> projects = new LinkedHashSet<>();
 		Collection<MavenProjectInfo> toImport = new LinkedHashSet<>();
@@ -0,0 +1,528 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.IProjectImporter;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.m2e.core.project.MavenProjectInfo;
+
+/**
+ * Imports the projects of the root folders only when one of their files is
+ * opened, for workspaces too large to be imported at startup.
+ * <p>
+ * At startup, only the build files of the root folders are discovered.
+ * Opening a file imports the Maven module containing it, along with the
+ * modules it depends on, or the whole root folder for the other build tools.
+ * Searching the references of a Maven module imports the modules depending on
+ * it. Workspace symbol searches don't import projects, since they would
+ * import all of them, and only find the symbols of the projects already
+ * loaded. Maven projects imported on demand which weren't used for the idle
+ * timeout are closed, and opened again when needed.
+ * </p>
+ */
+public class OnDemandProjectLoader {
+
+	private static final long UNLOAD_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+	private final PreferenceManager preferenceManager;
+	private final List<BuildRoot> roots = new CopyOnWriteArrayList<>();
+	private final Map<IProject, Long> lastAccess = new ConcurrentHashMap<>();
+	private final Map<IProject, Collection<IProject>> closures = new ConcurrentHashMap<>();
+	private final WorkspaceJob unloadJob;
+
+	public OnDemandProjectLoader(PreferenceManager preferenceManager) {
+		this.preferenceManager = preferenceManager;
+		this.unloadJob = new WorkspaceJob("Unload idle projects") {
+
+			@Override
+			public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
+				unloadIdleProjects(monitor);
+				if (!lastAccess.isEmpty()) {
+					schedule(UNLOAD_INTERVAL);
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		this.unloadJob.setSystem(true);
+		this.unloadJob.setRule(ResourcesPlugin.getWorkspace().getRoot());
+	}
+
+	/**
+	 * Registers a root folder whose projects are imported on demand.
+	 *
+	 * @param rootFolder
+	 *            the root folder
+	 * @param importer
+	 *            the importer which applies to the root folder
+	 * @param monitor
+	 *            the progress monitor
+	 */
+	public void discover(File rootFolder, IProjectImporter importer, IProgressMonitor monitor) throws CoreException {
+		roots.removeIf(root -> root.folder.equals(rootFolder));
+		if (importer instanceof MavenProjectImporter) {
+			Set<MavenProjectInfo> modules = ((MavenProjectImporter) importer).getMavenProjectInfo(monitor);
+			roots.add(new MavenRoot(rootFolder, (MavenProjectImporter) importer, modules));
+		} else {
+			roots.add(new BuildRoot(rootFolder, importer));
+		}
+	}
+
+	/**
+	 * Forgets the root folders contained in the given paths.
+	 */
+	public void remove(Collection<IPath> rootPaths) {
+		roots.removeIf(root -> rootPaths.stream().anyMatch(path -> root.folder.toPath().startsWith(path.toFile().toPath())));
+	}
+
+	/**
+	 * Imports, or opens, the projects needed to work on a file.
+	 *
+	 * @param file
+	 *            the file
+	 * @param monitor
+	 *            the progress monitor
+	 * @return whether projects were imported or opened
+	 */
+	public boolean load(Path file, IProgressMonitor monitor) throws CoreException {
+		BuildRoot root = getRoot(file);
+		if (root == null) {
+			return false;
+		}
+		boolean[] loaded = new boolean[1];
+		// flush the Java model changes as soon as the projects are ready,
+		// without locking the workspace for the whole import
+		JavaCore.run(m -> {
+			long start = System.currentTimeMillis();
+			loaded[0] = root.load(file, m);
+			if (loaded[0]) {
+				JavaLanguageServerPlugin.logInfo("Loaded projects of " + file + " in " + (System.currentTimeMillis() - start) + "ms");
+			}
+		}, null, monitor);
+		used(root, root.getProject(file));
+		return loaded[0];
+	}
+
+	/**
+	 * Returns whether projects must be imported, or opened, to work on a file.
+	 * Unlike {@link #load(Path, IProgressMonitor)}, this doesn't wait for the
+	 * projects being loaded.
+	 *
+	 * @param file
+	 *            the file
+	 * @return whether the projects needed to work on the file aren't all
+	 *         imported and open
+	 */
+	public boolean needsLoading(Path file) {
+		BuildRoot root = getRoot(file);
+		return root != null && !root.isLoaded(file);
+	}
+
+	/**
+	 * Imports, or opens, the projects which may reference the elements of a
+	 * project, that is the Maven modules of the same root folder depending on
+	 * it, transitively.
+	 *
+	 * @param project
+	 *            the project
+	 * @param monitor
+	 *            the progress monitor
+	 * @return whether projects were imported or opened
+	 */
+	public boolean loadDependents(IProject project, IProgressMonitor monitor) throws CoreException {
+		IPath location = project == null ? null : project.getLocation();
+		if (location == null) {
+			return false;
+		}
+		Path folder = location.toFile().toPath();
+		for (BuildRoot root : roots) {
+			if (root instanceof MavenRoot && ((MavenRoot) root).modules.containsKey(folder)) {
+				MavenRoot mavenRoot = (MavenRoot) root;
+				boolean[] loaded = new boolean[1];
+				Collection<IProject> dependents = new ArrayList<>();
+				JavaCore.run(m -> {
+					long start = System.currentTimeMillis();
+					loaded[0] = mavenRoot.loadDependents(folder, dependents, m);
+					if (loaded[0]) {
+						JavaLanguageServerPlugin.logInfo("Loaded projects depending on " + project.getName() + " in " + (System.currentTimeMillis() - start) + "ms");
+					}
+				}, null, monitor);
+				for (IProject dependent : dependents) {
+					used(root, dependent);
+				}
+				return loaded[0];
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the root folder with the most specific build descriptor folder
+	 *         containing the file, or <code>null</code>
+	 */
+	private BuildRoot getRoot(Path file) {
+		BuildRoot target = null;
+		int depth = -1;
+		for (BuildRoot root : roots) {
+			int rootDepth = root.getDepth(file);
+			if (rootDepth > depth) {
+				target = root;
+				depth = rootDepth;
+			}
+		}
+		return target;
+	}
+
+	/**
+	 * Keeps a project loaded, along with the projects it needs, until it's idle.
+	 */
+	private void used(BuildRoot root, IProject project) {
+		if (root.closures != null && project != null) {
+			closures.put(project, root.closures.getOrDefault(project, Collections.singleton(project)));
+			touch(project);
+			if (preferenceManager.getPreferences().getImportOnDemandIdleTimeout() > 0 && unloadJob.getState() == Job.NONE) {
+				unloadJob.schedule(UNLOAD_INTERVAL);
+			}
+		}
+	}
+
+	/**
+	 * Closes the projects imported on demand which weren't used for the idle
+	 * timeout.
+	 */
+	void unloadIdleProjects(IProgressMonitor monitor) throws CoreException {
+		long timeout = TimeUnit.MINUTES.toMillis(preferenceManager.getPreferences().getImportOnDemandIdleTimeout());
+		if (timeout <= 0) {
+			return;
+		}
+		// projects used by the open files are still used
+		for (ICompilationUnit workingCopy : JavaCore.getWorkingCopies(null)) {
+			IProject project = workingCopy.getJavaProject().getProject();
+			if (lastAccess.containsKey(project)) {
+				touch(project);
+			}
+		}
+		long idleSince = System.currentTimeMillis() - timeout;
+		SubMonitor subMonitor = SubMonitor.convert(monitor, lastAccess.size());
+		for (Map.Entry<IProject, Long> entry : lastAccess.entrySet()) {
+			IProject project = entry.getKey();
+			if (entry.getValue() < idleSince) {
+				lastAccess.remove(project);
+				closures.remove(project);
+				if (project.isOpen()) {
+					JavaLanguageServerPlugin.logInfo("Closing idle project " + project.getName());
+					project.close(subMonitor.split(1));
+				}
+			}
+		}
+	}
+
+	private void touch(IProject project) {
+		long now = System.currentTimeMillis();
+		for (IProject used : closures.getOrDefault(project, Collections.singleton(project))) {
+			lastAccess.put(used, now);
+		}
+	}
+
+	/**
+	 * A root folder, whose projects are all imported at once.
+	 */
+	private static class BuildRoot {
+		protected final File folder;
+		protected final IProjectImporter importer;
+		/**
+		 * The projects each project needs, or <code>null</code> if the projects
+		 * aren't unloaded when idle.
+		 */
+		protected Map<IProject, Collection<IProject>> closures;
+		private volatile boolean imported;
+
+		BuildRoot(File folder, IProjectImporter importer) {
+			this.folder = folder;
+			this.importer = importer;
+		}
+
+		/**
+		 * @return the depth of the most specific build descriptor folder
+		 *         containing the file, or -1 if the file isn't in this root
+		 */
+		int getDepth(Path file) {
+			Path path = folder.toPath();
+			return file.startsWith(path) ? path.getNameCount() : -1;
+		}
+
+		boolean isLoaded(Path file) {
+			return imported;
+		}
+
+		/**
+		 * @return the project containing the file, or <code>null</code>
+		 */
+		IProject getProject(Path file) {
+			IContainer container = ResourcesPlugin.getWorkspace().getRoot().getContainerForLocation(new org.eclipse.core.runtime.Path(file.getParent().toString()));
+			return container == null ? null : container.getProject();
+		}
+
+		synchronized boolean load(Path file, IProgressMonitor monitor) throws CoreException {
+			if (imported) {
+				return false;
+			}
+			importer.importToWorkspace(monitor);
+			imported = true;
+			return true;
+		}
+	}
+
+	/**
+	 * A Maven root folder, whose modules are imported along with the modules
+	 * they depend on.
+	 */
+	private static class MavenRoot extends BuildRoot {
+		private final Map<Path, MavenProjectInfo> modules = new LinkedHashMap<>();
+		private final Map<String, MavenProjectInfo> coordinates = new HashMap<>();
+
+		MavenRoot(File folder, MavenProjectImporter importer, Collection<MavenProjectInfo> infos) {
+			super(folder, importer);
+			this.closures = new ConcurrentHashMap<>();
+			for (MavenProjectInfo info : infos) {
+				if (info.getPomFile() == null || info.getModel() == null) {
+					continue;
+				}
+				modules.put(info.getPomFile().getParentFile().toPath(), info);
+				Model model = info.getModel();
+				coordinates.put(getGroupId(model) + ':' + model.getArtifactId(), info);
+			}
+		}
+
+		@Override
+		int getDepth(Path file) {
+			MavenProjectInfo module = getModule(file);
+			return module == null ? -1 : module.getPomFile().getParentFile().toPath().getNameCount();
+		}
+
+		@Override
+		boolean isLoaded(Path file) {
+			MavenProjectInfo module = getModule(file);
+			if (module == null) {
+				return true;
+			}
+			for (MavenProjectInfo info : getClosure(module)) {
+				IProject project = getProject(info);
+				if (project == null || !project.isOpen()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		synchronized boolean load(Path file, IProgressMonitor monitor) throws CoreException {
+			MavenProjectInfo module = getModule(file);
+			if (module == null) {
+				return false;
+			}
+			return load(Collections.singleton(module), monitor);
+		}
+
+		/**
+		 * Loads the modules depending on the module of a folder.
+		 *
+		 * @param dependents
+		 *            the collection the projects of the dependent modules are
+		 *            added to
+		 */
+		synchronized boolean loadDependents(Path folder, Collection<IProject> dependents, IProgressMonitor monitor) throws CoreException {
+			MavenProjectInfo module = modules.get(folder);
+			if (module == null) {
+				return false;
+			}
+			Collection<MavenProjectInfo> infos = getDependents(module);
+			boolean loaded = load(infos, monitor);
+			for (MavenProjectInfo info : infos) {
+				IProject project = getProject(info);
+				if (project != null) {
+					dependents.add(project);
+				}
+			}
+			return loaded;
+		}
+
+		/**
+		 * Imports, or opens, the projects of modules and of the modules they
+		 * need.
+		 */
+		private boolean load(Collection<MavenProjectInfo> infos, IProgressMonitor monitor) throws CoreException {
+			Map<MavenProjectInfo, Collection<MavenProjectInfo>> moduleClosures = new LinkedHashMap<>();
+			Set<MavenProjectInfo> needed = new LinkedHashSet<>();
+			for (MavenProjectInfo info : infos) {
+				Collection<MavenProjectInfo> closure = getClosure(info);
+				moduleClosures.put(info, closure);
+				needed.addAll(closure);
+			}
+			SubMonitor subMonitor = SubMonitor.convert(monitor, needed.size() + 1);
+			List<MavenProjectInfo> toImport = new ArrayList<>();
+			boolean loaded = false;
+			for (MavenProjectInfo info : needed) {
+				IProject project = getProject(info);
+				if (project == null || !project.exists()) {
+					toImport.add(info);
+				} else if (!project.isOpen()) {
+					project.open(subMonitor.split(1));
+					loaded = true;
+				}
+			}
+			subMonitor.setWorkRemaining(1);
+			if (!toImport.isEmpty()) {
+				((MavenProjectImporter) importer).importToWorkspace(toImport, subMonitor.split(1));
+				loaded = true;
+			}
+			for (Map.Entry<MavenProjectInfo, Collection<MavenProjectInfo>> moduleClosure : moduleClosures.entrySet()) {
+				IProject project = getProject(moduleClosure.getKey());
+				if (project == null) {
+					continue;
+				}
+				Collection<IProject> projects = new ArrayList<>(moduleClosure.getValue().size());
+				for (MavenProjectInfo info : moduleClosure.getValue()) {
+					IProject needs = getProject(info);
+					if (needs != null) {
+						projects.add(needs);
+					}
+				}
+				closures.put(project, projects);
+			}
+			return loaded;
+		}
+
+		@Override
+		IProject getProject(Path file) {
+			MavenProjectInfo module = getModule(file);
+			return module == null ? null : getProject(module);
+		}
+
+		/**
+		 * @return the project located in the folder of a module, or
+		 *         <code>null</code> if it isn't imported. The project
+		 *         containing the folder may be the project of a parent module.
+		 */
+		private static IProject getProject(MavenProjectInfo info) {
+			IPath location = new org.eclipse.core.runtime.Path(info.getPomFile().getParentFile().getAbsolutePath());
+			for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+				if (location.equals(project.getLocation())) {
+					return project;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * @return the most specific module containing the file
+		 */
+		private MavenProjectInfo getModule(Path file) {
+			for (Path dir = file.getParent(); dir != null; dir = dir.getParent()) {
+				MavenProjectInfo module = modules.get(dir);
+				if (module != null) {
+					return module;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * @return the module, and the modules of this root folder it inherits
+		 *         from or depends on, transitively
+		 */
+		private Collection<MavenProjectInfo> getClosure(MavenProjectInfo module) {
+			Set<MavenProjectInfo> closure = new LinkedHashSet<>();
+			Deque<MavenProjectInfo> queue = new ArrayDeque<>();
+			queue.add(module);
+			while (!queue.isEmpty()) {
+				MavenProjectInfo info = queue.poll();
+				if (!closure.add(info)) {
+					continue;
+				}
+				Model model = info.getModel();
+				Parent parent = model.getParent();
+				if (parent != null) {
+					addModule(queue, parent.getGroupId(), parent.getArtifactId(), model);
+				}
+				for (Dependency dependency : model.getDependencies()) {
+					addModule(queue, dependency.getGroupId(), dependency.getArtifactId(), model);
+				}
+			}
+			return closure;
+		}
+
+		/**
+		 * @return the modules of this root folder depending on the module, or
+		 *         inheriting from it, transitively
+		 */
+		private Collection<MavenProjectInfo> getDependents(MavenProjectInfo module) {
+			Set<MavenProjectInfo> dependents = new LinkedHashSet<>();
+			for (MavenProjectInfo info : modules.values()) {
+				if (info != module && getClosure(info).contains(module)) {
+					dependents.add(info);
+				}
+			}
+			return dependents;
+		}
+
+		private void addModule(Deque<MavenProjectInfo> queue, String groupId, String artifactId, Model model) {
+			if (groupId != null && groupId.startsWith("${")) {
+				// usually ${project.groupId}, the raw models aren't interpolated
+				groupId = getGroupId(model);
+			}
+			MavenProjectInfo module = coordinates.get(groupId + ':' + artifactId);
+			if (module != null) {
+				queue.add(module);
+			}
+		}
+
+		private static String getGroupId(Model model) {
+			if (model.getGroupId() == null && model.getParent() != null) {
+				return model.getParent().getGroupId();
+			}
+			return model.getGroupId();
+		}
+	}
+}
@@ -19,16 +19,25 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -86,11 +95,15 @@ import org.eclipse.lsp4j.FileSystemWatcher;
 import org.eclipse.lsp4j.MessageType;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 public class ProjectsManager implements ISaveParticipant {
 
 	public static final String DEFAULT_PROJECT_NAME = "jdt.ls-java-project";
-	private static final Set<String> watchers = new HashSet<>();
+	private static final Set<String> watchers = new LinkedHashSet<>();
+	private static FileWatcherPlanner watcherPlanner;
 	private PreferenceManager preferenceManager;
+	private OnDemandProjectLoader onDemandLoader;
 	private JavaLanguageClient client;
 
 	public enum CHANGE_TYPE {
@@ -110,33 +123,176 @@ public class ProjectsManager implements ISaveParticipant {
 
 	public ProjectsManager(PreferenceManager preferenceManager) {
 		this.preferenceManager = preferenceManager;
+		this.onDemandLoader = new OnDemandProjectLoader(preferenceManager);
 	}
 
 	public void initializeProjects(final Collection<IPath> rootPaths, IProgressMonitor monitor) throws CoreException, OperationCanceledException {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, 100);
 		// Run as a Java runnable to trigger any build while importing
 		JavaCore.run(new IWorkspaceRunnable() {
 			@Override
 			public void run(IProgressMonitor monitor) throws CoreException {
-				SubMonitor subMonitor = SubMonitor.convert(monitor, 100);
+				SubMonitor subMonitor = SubMonitor.convert(monitor, 30);
 				deleteInvalidProjects(rootPaths, subMonitor.split(10));
 				GradleBuildSupport.cleanGradleModels(subMonitor.split(10));
 				createJavaProject(getDefaultProject(), subMonitor.split(10));
 				cleanupResources(getDefaultProject());
-				importProjects(rootPaths, subMonitor.split(70));
 				subMonitor.done();
 			}
-		}, monitor);
+		}, subMonitor.split(30));
+		importProjects(rootPaths, subMonitor.split(70));
+		subMonitor.done();
 	}
 
+	/**
+	 * Imports the projects of build roots. The importers of the roots are
+	 * detected concurrently, then each root is imported in its own Java
+	 * runnable, so that its projects are available as soon as they're imported
+	 * rather than after all the roots are. When projects are imported on
+	 * demand, the roots are only registered to the on demand loader.
+	 */
 	private void importProjects(Collection<IPath> rootPaths, IProgressMonitor monitor) throws CoreException {
 		SubMonitor subMonitor = SubMonitor.convert(monitor, rootPaths.size() * 100);
-		for (IPath rootPath : rootPaths) {
-			File rootFolder = rootPath.toFile();
-			IProjectImporter importer = getImporter(rootFolder, subMonitor.split(30));
-			if (importer != null) {
-				importer.importToWorkspace(subMonitor.split(70));
+		List<File> rootFolders = rootPaths.stream().map(IPath::toFile).collect(Collectors.toList());
+		List<IProjectImporter> importers = getImporters(rootFolders, subMonitor);
+		for (int i = 0; i < rootFolders.size(); i++) {
+			File rootFolder = rootFolders.get(i);
+			IProjectImporter importer = importers.get(i);
+			SubMonitor rootMonitor = subMonitor.split(70);
+			// an earlier root may have imported the projects of this one
+			if (importer == null || !importer.applies(rootMonitor.split(1))) {
+				continue;
+			}
+			if (isImportOnDemand()) {
+				onDemandLoader.discover(rootFolder, importer, rootMonitor.split(69));
+				continue;
+			}
+			long start = System.currentTimeMillis();
+			rootMonitor.subTask("Importing " + rootFolder.getName());
+			JavaCore.run(importer::importToWorkspace, rootMonitor.split(69));
+			long elapsed = System.currentTimeMillis() - start;
+			rootMonitor.subTask("Imported " + rootFolder.getName() + " in " + elapsed + "ms");
+			logInfo("Imported " + rootFolder + " in " + elapsed + "ms");
+		}
+	}
+
+	/**
+	 * @return the importer of each root folder, or <code>null</code> if none
+	 *         applies
+	 */
+	private List<IProjectImporter> getImporters(List<File> rootFolders, SubMonitor monitor) throws CoreException {
+		List<IProjectImporter> importers = new ArrayList<>(rootFolders.size());
+		if (rootFolders.size() < 2) {
+			for (File rootFolder : rootFolders) {
+				importers.add(getImporter(rootFolder, monitor.split(30)));
+			}
+			return importers;
+		}
+		// build roots are independent, scanning them is mostly waiting on the file system
+		IProgressMonitor cancelMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return monitor.isCanceled();
+			}
+		};
+		int threads = Math.min(rootFolders.size(), Runtime.getRuntime().availableProcessors());
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("Build root scanner %d").setDaemon(true).build());
+		try {
+			List<Future<IProjectImporter>> futures = new ArrayList<>(rootFolders.size());
+			for (File rootFolder : rootFolders) {
+				futures.add(executor.submit(() -> getImporter(rootFolder, cancelMonitor)));
+			}
+			for (Future<IProjectImporter> future : futures) {
+				importers.add(future.get());
+				monitor.worked(30);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof CoreException) {
+				throw (CoreException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
 			}
+			throw new CoreException(StatusFactory.newErrorStatus("Unable to detect the projects to import", cause));
+		} finally {
+			executor.shutdownNow();
+		}
+		return importers;
+	}
+
+	private boolean isImportOnDemand() {
+		return preferenceManager != null && preferenceManager.getPreferences() != null && preferenceManager.getPreferences().isImportOnDemandEnabled();
+	}
+
+	/**
+	 * Imports the projects needed to work on a file, when projects are imported
+	 * on demand.
+	 *
+	 * @param uri
+	 *            the file URI
+	 * @param monitor
+	 *            the progress monitor
+	 * @return whether projects were imported
+	 */
+	public boolean loadProjects(String uri, IProgressMonitor monitor) throws CoreException {
+		if (!isImportOnDemand()) {
+			return false;
+		}
+		URI fileURI = JDTUtils.toURI(uri);
+		if (fileURI == null || !"file".equals(fileURI.getScheme())) {
+			return false;
+		}
+		boolean loaded = onDemandLoader.load(Paths.get(fileURI), monitor);
+		if (loaded) {
+			registerWatcherJob.schedule();
+		}
+		return loaded;
+	}
+
+	/**
+	 * Returns whether projects must be imported to work on a file, when
+	 * projects are imported on demand. Doesn't wait for the projects being
+	 * imported.
+	 *
+	 * @param uri
+	 *            the file URI
+	 * @return whether {@link #loadProjects(String, IProgressMonitor)} would
+	 *         import or open projects
+	 */
+	public boolean needsLoading(String uri) {
+		if (!isImportOnDemand()) {
+			return false;
+		}
+		URI fileURI = JDTUtils.toURI(uri);
+		if (fileURI == null || !"file".equals(fileURI.getScheme())) {
+			return false;
 		}
+		return onDemandLoader.needsLoading(Paths.get(fileURI));
+	}
+
+	/**
+	 * Imports the projects which may reference the elements of a project, when
+	 * projects are imported on demand.
+	 *
+	 * @param project
+	 *            the project whose elements are searched
+	 * @param monitor
+	 *            the progress monitor
+	 * @return whether projects were imported
+	 */
+	public boolean loadDependentProjects(IProject project, IProgressMonitor monitor) throws CoreException {
+		if (!isImportOnDemand()) {
+			return false;
+		}
+		boolean loaded = onDemandLoader.loadDependents(project, monitor);
+		if (loaded) {
+			registerWatcherJob.schedule();
+		}
+		return loaded;
 	}
 
 	public Job updateWorkspaceFolders(Collection<IPath> addedRootPaths, Collection<IPath> removedRootPaths) {
@@ -154,6 +310,7 @@ public class ProjectsManager implements ISaveParticipant {
 				SubMonitor subMonitor = SubMonitor.convert(monitor, addedRootPaths.size() + removedRootPaths.size());
 				try {
 					long start = System.currentTimeMillis();
+					onDemandLoader.remove(removedRootPaths);
 					IProject[] projects = getWorkspaceRoot().getProjects();
 					for (IProject project : projects) {
 						if (ResourceUtils.isContainedIn(project.getLocation(), removedRootPaths)) {
@@ -251,55 +408,90 @@ public class ProjectsManager implements ISaveParticipant {
 		if (uriString == null) {
 			return;
 		}
-		IResource resource = JDTUtils.isFolder(uriString) ? JDTUtils.findFolder(uriString) : JDTUtils.findFile(uriString);
-		if (resource == null) {
-			return;
-		}
+		filesChanged(Collections.singletonMap(uriString, changeType));
+	}
+
+	/**
+	 * Handles a batch of file changes. The changed resources are refreshed with
+	 * one workspace operation per project, and handed to the build support of
+	 * their project at once.
+	 *
+	 * @param changes
+	 *            the uris of the changed files, with the net type of their
+	 *            changes
+	 */
+	public void filesChanged(Map<String, CHANGE_TYPE> changes) {
+		URI formatterUri = null;
 		String formatterUrl = preferenceManager.getPreferences().getFormatterUrl();
-		if (formatterUrl != null) {
+		if (formatterUrl != null && JavaLanguageServerPlugin.getInstance().getProtocol() != null) {
 			try {
 				URL url = getUrl(formatterUrl);
-				URI formatterUri = url.toURI();
-				URI uri = JDTUtils.toURI(uriString);
-				if (uri != null && uri.equals(formatterUri) && JavaLanguageServerPlugin.getInstance().getProtocol() != null) {
-					if (changeType == CHANGE_TYPE.DELETED || changeType == CHANGE_TYPE.CREATED) {
-						registerWatchers();
-					}
-					FormatterManager.configureFormatter(preferenceManager, this);
-				}
+				formatterUri = url == null ? null : url.toURI();
 			} catch (URISyntaxException e) {
 				// ignore
 			}
 		}
+		boolean formatterChanged = false;
+		boolean formatterCreatedOrDeleted = false;
+		Map<IProject, Map<IResource, CHANGE_TYPE>> changesByProject = new LinkedHashMap<>();
+		Map<IResource, String> uris = new HashMap<>();
+		for (Map.Entry<String, CHANGE_TYPE> change : changes.entrySet()) {
+			String uriString = change.getKey();
+			CHANGE_TYPE changeType = change.getValue();
+			IResource resource = JDTUtils.isFolder(uriString) ? JDTUtils.findFolder(uriString) : JDTUtils.findFile(uriString);
+			if (resource == null) {
+				continue;
+			}
+			if (formatterUri != null && formatterUri.equals(JDTUtils.toURI(uriString))) {
+				formatterChanged = true;
+				formatterCreatedOrDeleted |= changeType == CHANGE_TYPE.DELETED || changeType == CHANGE_TYPE.CREATED;
+			}
+			IProject project = resource.getProject();
+			changesByProject.computeIfAbsent(project, p -> new LinkedHashMap<>()).put(resource, changeType);
+			uris.put(resource, uriString);
+		}
+		if (formatterChanged) {
+			if (formatterCreatedOrDeleted) {
+				registerWatchers();
+			}
+			FormatterManager.configureFormatter(preferenceManager, this);
+		}
 
-		try {
-			Optional<IBuildSupport> bs = getBuildSupport(resource.getProject());
-			if (bs.isPresent()) {
-				IBuildSupport buildSupport = bs.get();
-				boolean requireConfigurationUpdate = buildSupport.fileChanged(resource, changeType, new NullProgressMonitor());
-				if (requireConfigurationUpdate) {
-					FeatureStatus status = preferenceManager.getPreferences().getUpdateBuildConfigurationStatus();
-					switch (status) {
-						case automatic:
-							// do not force the build, because it's not started by user and should be done only if build file has changed
-							updateProject(resource.getProject(), false);
-							break;
-						case disabled:
-							break;
-						default:
-							if (client != null) {
-								String cmd = "java.projectConfiguration.status";
-								TextDocumentIdentifier uri = new TextDocumentIdentifier(uriString);
-								ActionableNotification updateProjectConfigurationNotification = new ActionableNotification().withSeverity(MessageType.Info)
-										.withMessage("A build file was modified. Do you want to synchronize the Java classpath/configuration?").withCommands(asList(new Command("Never", cmd, asList(uri, FeatureStatus.disabled)),
-												new Command("Now", cmd, asList(uri, FeatureStatus.interactive)), new Command("Always", cmd, asList(uri, FeatureStatus.automatic))));
-								client.sendActionableNotification(updateProjectConfigurationNotification);
-							}
+		for (Map.Entry<IProject, Map<IResource, CHANGE_TYPE>> projectChanges : changesByProject.entrySet()) {
+			IProject project = projectChanges.getKey();
+			try {
+				Optional<IBuildSupport> bs = getBuildSupport(project);
+				if (bs.isPresent()) {
+					IBuildSupport buildSupport = bs.get();
+					boolean[] requireConfigurationUpdate = new boolean[1];
+					ResourcesPlugin.getWorkspace().run((IWorkspaceRunnable) monitor -> {
+						requireConfigurationUpdate[0] = buildSupport.filesChanged(projectChanges.getValue(), monitor);
+					}, new NullProgressMonitor());
+					if (requireConfigurationUpdate[0]) {
+						FeatureStatus status = preferenceManager.getPreferences().getUpdateBuildConfigurationStatus();
+						switch (status) {
+							case automatic:
+								// do not force the build, because it's not started by user and should be done only if build file has changed
+								updateProject(project, false);
+								break;
+							case disabled:
+								break;
+							default:
+								if (client != null) {
+									String cmd = "java.projectConfiguration.status";
+									IResource buildFile = projectChanges.getValue().keySet().stream().filter(buildSupport::isBuildFile).findFirst().orElse(projectChanges.getValue().keySet().iterator().next());
+									TextDocumentIdentifier uri = new TextDocumentIdentifier(uris.get(buildFile));
+									ActionableNotification updateProjectConfigurationNotification = new ActionableNotification().withSeverity(MessageType.Info)
+											.withMessage("A build file was modified. Do you want to synchronize the Java classpath/configuration?").withCommands(asList(new Command("Never", cmd, asList(uri, FeatureStatus.disabled)),
+													new Command("Now", cmd, asList(uri, FeatureStatus.interactive)), new Command("Always", cmd, asList(uri, FeatureStatus.automatic))));
+									client.sendActionableNotification(updateProjectConfigurationNotification);
+								}
+						}
 					}
 				}
+			} catch (CoreException e) {
+				JavaLanguageServerPlugin.logException("Problem refreshing workspace", e);
 			}
-		} catch (CoreException e) {
-			JavaLanguageServerPlugin.logException("Problem refreshing workspace", e);
 		}
 	}
 
@@ -327,11 +519,18 @@ public class ProjectsManager implements ISaveParticipant {
 	private IProjectImporter getImporter(File rootFolder, IProgressMonitor monitor) throws OperationCanceledException, CoreException {
 		Collection<IProjectImporter> importers = importers();
 		SubMonitor subMonitor = SubMonitor.convert(monitor, importers.size());
-		for (IProjectImporter importer : importers) {
-			importer.initialize(rootFolder);
-			if (importer.applies(subMonitor.split(1))) {
-				return importer;
+		// Gradle and Eclipse importers look for their descriptors in a single walk of the root folder
+		Path rootPath = rootFolder.toPath();
+		BasicFileDetector.shareScan(rootPath, GradleProjectImporter.BUILD_GRADLE_DESCRIPTOR, IProjectDescription.DESCRIPTION_FILE_NAME);
+		try {
+			for (IProjectImporter importer : importers) {
+				importer.initialize(rootFolder);
+				if (importer.applies(subMonitor.split(1))) {
+					return importer;
+				}
 			}
+		} finally {
+			BasicFileDetector.releaseSharedScan(rootPath);
 		}
 		return null;
 	}
@@ -554,7 +753,7 @@ public class ProjectsManager implements ISaveParticipant {
 	public List<FileSystemWatcher> registerWatchers() {
 		logInfo(">> registerFeature 'workspace/didChangeWatchedFiles'");
 		if (preferenceManager.getClientPreferences().isWorkspaceChangeWatchedFilesDynamicRegistered()) {
-			Set<String> sources = new HashSet<>();
+			FileWatcherPlanner planner = new FileWatcherPlanner();
 			try {
 				IProject[] projects = ResourcesPlugin.getWorkspace().getRoot().getProjects();
 				for (IProject project : projects) {
@@ -572,7 +771,7 @@ public class ProjectsManager implements ISaveParticipant {
 									if (folder.exists() && !folder.isDerived()) {
 										IPath location = folder.getLocation();
 										if (location != null) {
-											sources.add(location.toString() + "/**");
+											planner.addFolder(project.getName(), location);
 										}
 									}
 
@@ -584,7 +783,7 @@ public class ProjectsManager implements ISaveParticipant {
 							IPath realFolderPath = project.getFolder(ProjectUtils.WORKSPACE_LINK).getLocation();
 							if (realFolderPath != null) {
 								IPath libFolderPath = realFolderPath.append(InvisibleProjectBuildSupport.LIB_FOLDER);
-								sources.add(libFolderPath.toString() + "/**");
+								planner.addFolder(project.getName(), libFolderPath);
 							}
 						}
 					}
@@ -592,7 +791,6 @@ public class ProjectsManager implements ISaveParticipant {
 			} catch (JavaModelException e) {
 				JavaLanguageServerPlugin.logException(e.getMessage(), e);
 			}
-			List<FileSystemWatcher> fileWatchers = new ArrayList<>();
 			String formatterUrl = preferenceManager.getPreferences().getFormatterUrl();
 			if (formatterUrl != null) {
 				File file = new File(formatterUrl);
@@ -600,26 +798,39 @@ public class ProjectsManager implements ISaveParticipant {
 					file = findFile(formatterUrl);
 				}
 				if (file != null && file.isFile()) {
-					sources.add(file.getAbsolutePath());
+					planner.addFile(file.getAbsolutePath());
 				}
 			}
-			for (String pattern : sources) {
-				FileSystemWatcher watcher = new FileSystemWatcher(pattern);
-				fileWatchers.add(watcher);
-			}
-			if (!sources.equals(watchers)) {
-				logInfo(">> registerFeature 'workspace/didChangeWatchedFiles'");
-				DidChangeWatchedFilesRegistrationOptions didChangeWatchedFilesRegistrationOptions = new DidChangeWatchedFilesRegistrationOptions(fileWatchers);
-				JavaLanguageServerPlugin.getInstance().unregisterCapability(Preferences.WORKSPACE_WATCHED_FILES_ID, Preferences.WORKSPACE_WATCHED_FILES);
-				JavaLanguageServerPlugin.getInstance().registerCapability(Preferences.WORKSPACE_WATCHED_FILES_ID, Preferences.WORKSPACE_WATCHED_FILES, didChangeWatchedFilesRegistrationOptions);
-				watchers.clear();
-				watchers.addAll(sources);
+			synchronized (watchers) {
+				// the same folders and files are already watched
+				if (planner.equals(watcherPlanner)) {
+					return toFileSystemWatchers(watchers);
+				}
+				List<String> patterns = planner.getPatterns();
+				List<FileSystemWatcher> fileWatchers = toFileSystemWatchers(patterns);
+				if (!new HashSet<>(patterns).equals(watchers)) {
+					logInfo(">> registerFeature 'workspace/didChangeWatchedFiles'");
+					DidChangeWatchedFilesRegistrationOptions didChangeWatchedFilesRegistrationOptions = new DidChangeWatchedFilesRegistrationOptions(fileWatchers);
+					JavaLanguageServerPlugin.getInstance().unregisterCapability(Preferences.WORKSPACE_WATCHED_FILES_ID, Preferences.WORKSPACE_WATCHED_FILES);
+					JavaLanguageServerPlugin.getInstance().registerCapability(Preferences.WORKSPACE_WATCHED_FILES_ID, Preferences.WORKSPACE_WATCHED_FILES, didChangeWatchedFilesRegistrationOptions);
+					watchers.clear();
+					watchers.addAll(patterns);
+				}
+				watcherPlanner = planner;
+				return fileWatchers;
 			}
-			return fileWatchers;
 		}
 		return Collections.emptyList();
 	}
 
+	private static List<FileSystemWatcher> toFileSystemWatchers(Collection<String> patterns) {
+		List<FileSystemWatcher> fileWatchers = new ArrayList<>(patterns.size());
+		for (String pattern : patterns) {
+			fileWatchers.add(new FileSystemWatcher(pattern));
+		}
+		return fileWatchers;
+	}
+
 	public File findFile(String formatterUrl) {
 		File file = new File(formatterUrl);
 		if (file.exists()) {
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Records the resources refreshed while the current thread handles a batch of
+ * file changes, see {@link IBuildSupport#filesChanged(java.util.Map, org.eclipse.core.runtime.IProgressMonitor)}.
+ * Refreshes are recursive, so a resource inside a refreshed folder doesn't
+ * need to be refreshed again in the same batch.
+ */
+final class RefreshBatch {
+
+	private static final ThreadLocal<Set<IPath>> refreshed = new ThreadLocal<>();
+
+	private RefreshBatch() {
+	}
+
+	/**
+	 * Starts a batch on the current thread, unless one is already started.
+	 *
+	 * @return whether a batch was started, and must be ended by the caller
+	 */
+	static boolean begin() {
+		if (refreshed.get() != null) {
+			return false;
+		}
+		refreshed.set(new HashSet<>());
+		return true;
+	}
+
+	static void end() {
+		refreshed.remove();
+	}
+
+	/**
+	 * @return whether the given resource or one of its parents was refreshed in
+	 *         the current batch
+	 */
+	static boolean isRefreshed(IResource resource) {
+		Set<IPath> paths = refreshed.get();
+		if (paths == null || paths.isEmpty()) {
+			return false;
+		}
+		for (IPath path = resource.getFullPath(); path.segmentCount() > 0; path = path.removeLastSegments(1)) {
+			if (paths.contains(path)) {
+				return true;
+			}
+		}
+		return paths.contains(resource.getWorkspace().getRoot().getFullPath());
+	}
+
+	static void setRefreshed(IResource resource) {
+		Set<IPath> paths = refreshed.get();
+		if (paths != null) {
+			paths.add(resource.getFullPath());
+		}
+	}
+}
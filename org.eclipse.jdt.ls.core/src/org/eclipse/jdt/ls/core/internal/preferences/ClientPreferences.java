@@ -165,6 +165,10 @@ public class ClientPreferences {
 		return Boolean.parseBoolean(extendedClientCapabilities.getOrDefault("progressReportProvider", "false").toString());
 	}
 
+	public boolean isPartialResultSupported() {
+		return Boolean.parseBoolean(extendedClientCapabilities.getOrDefault("partialResultProvider", "false").toString());
+	}
+
 	public boolean isClassFileContentSupported() {
 		return Boolean.parseBoolean(extendedClientCapabilities.getOrDefault("classFileContentsSupport", "false").toString());
 	}
@@ -316,6 +316,13 @@ public class PreferenceManager {
 		return getClientPreferences() != null && getClientPreferences().isClassFileContentSupported();
 	}
 
+	/**
+	 * Checks whether the client supports partial search results
+	 */
+	public boolean isClientSupportsPartialResult() {
+		return getClientPreferences() != null && getClientPreferences().isPartialResultSupported();
+	}
+
 	/**
 	 * Checks whether the client supports markdown in completion
 	 */
@@ -64,6 +64,16 @@ public class Preferences {
 	 * Preference key to enable/disable maven importer.
 	 */
 	public static final String IMPORT_MAVEN_ENABLED = "java.import.maven.enabled";
+	/**
+	 * Preference key to import projects only when one of their files is opened.
+	 */
+	public static final String IMPORT_ON_DEMAND_ENABLED = "java.import.onDemand.enabled";
+	/**
+	 * Preference key for the number of minutes after which projects imported on
+	 * demand, and no longer used, are closed. 0 keeps them open.
+	 */
+	public static final String IMPORT_ON_DEMAND_IDLE_TIMEOUT = "java.import.onDemand.idleTimeout";
+	public static final int IMPORT_ON_DEMAND_IDLE_TIMEOUT_DEFAULT = 30;
 	/**
 	 * Preference key to enable/disable reference code lenses.
 	 */
@@ -114,6 +124,12 @@ public class Preferences {
 	 */
 	public static final String JAVA_MAX_CONCURRENT_BUILDS = "java.maxConcurrentBuilds";
 
+	/**
+	 * Preference key to set the maximum number of references or workspace
+	 * symbols returned by a search. 0 means no limit.
+	 */
+	public static final String JAVA_SEARCH_MAX_RESULTS = "java.search.maxResults";
+
 	/**
 	 * Preference key to exclude directories when importing projects.
 	 */
@@ -172,6 +188,13 @@ public class Preferences {
 	 */
 	public static final String JAVA_COMPLETION_GUESS_METHOD_ARGUMENTS_KEY = "java.completion.guessMethodArguments";
 
+	/**
+	 * Preference key to set the maximum number of completion items returned by
+	 * a completion request. The most relevant items are returned, and the list
+	 * is marked as incomplete when others are left out. 0 means no limit.
+	 */
+	public static final String JAVA_COMPLETION_MAX_RESULTS_KEY = "java.completion.maxResults";
+
 	/**
 	 * A named preference that defines how member elements are ordered by code
 	 * actions.
@@ -265,6 +288,8 @@ public class Preferences {
 	private boolean referencesCodeLensEnabled;
 	private boolean importGradleEnabled;
 	private boolean importMavenEnabled;
+	private boolean importOnDemandEnabled;
+	private int importOnDemandIdleTimeout;
 	private boolean implementationsCodeLensEnabled;
 	private boolean javaFormatEnabled;
 	private boolean javaFormatOnTypeEnabled;
@@ -297,6 +322,8 @@ public class Preferences {
 	private Collection<IPath> triggerFiles;
 
 	private int parallelBuildsCount;
+	private int searchMaxResults;
+	private int completionMaxResults;
 
 	static {
 		JAVA_IMPORT_EXCLUSIONS_DEFAULT = new ArrayList<>();
@@ -366,6 +393,8 @@ public class Preferences {
 		updateBuildConfigurationStatus = FeatureStatus.interactive;
 		importGradleEnabled = true;
 		importMavenEnabled = true;
+		importOnDemandEnabled = false;
+		importOnDemandIdleTimeout = IMPORT_ON_DEMAND_IDLE_TIMEOUT_DEFAULT;
 		referencesCodeLensEnabled = true;
 		implementationsCodeLensEnabled = false;
 		javaFormatEnabled = true;
@@ -392,6 +421,8 @@ public class Preferences {
 		formatterProfileName = null;
 		importOrder = JAVA_IMPORT_ORDER_DEFAULT;
 		parallelBuildsCount = PreferenceInitializer.PREF_MAX_CONCURRENT_BUILDS_DEFAULT;
+		searchMaxResults = 0;
+		completionMaxResults = 0;
 	}
 
 	/**
@@ -415,6 +446,10 @@ public class Preferences {
 		prefs.setImportGradleEnabled(importGradleEnabled);
 		boolean importMavenEnabled = getBoolean(configuration, IMPORT_MAVEN_ENABLED, true);
 		prefs.setImportMavenEnabled(importMavenEnabled);
+		boolean importOnDemandEnabled = getBoolean(configuration, IMPORT_ON_DEMAND_ENABLED, false);
+		prefs.setImportOnDemandEnabled(importOnDemandEnabled);
+		int importOnDemandIdleTimeout = getInt(configuration, IMPORT_ON_DEMAND_IDLE_TIMEOUT, IMPORT_ON_DEMAND_IDLE_TIMEOUT_DEFAULT);
+		prefs.setImportOnDemandIdleTimeout(importOnDemandIdleTimeout);
 		boolean referenceCodelensEnabled = getBoolean(configuration, REFERENCES_CODE_LENS_ENABLED_KEY, true);
 		prefs.setReferencesCodelensEnabled(referenceCodelensEnabled);
 		boolean implementationCodeLensEnabled = getBoolean(configuration, IMPLEMENTATIONS_CODE_LENS_ENABLED_KEY, false);
@@ -495,6 +530,12 @@ public class Preferences {
 		maxConcurrentBuilds = maxConcurrentBuilds >= 1 ? maxConcurrentBuilds : 1;
 		prefs.setMaxBuildCount(maxConcurrentBuilds);
 
+		int searchMaxResults = getInt(configuration, JAVA_SEARCH_MAX_RESULTS, 0);
+		prefs.setSearchMaxResults(searchMaxResults);
+
+		int completionMaxResults = getInt(configuration, JAVA_COMPLETION_MAX_RESULTS_KEY, 0);
+		prefs.setCompletionMaxResults(completionMaxResults);
+
 		return prefs;
 	}
 
@@ -560,6 +601,16 @@ public class Preferences {
 		return this;
 	}
 
+	public Preferences setImportOnDemandEnabled(boolean enabled) {
+		this.importOnDemandEnabled = enabled;
+		return this;
+	}
+
+	public Preferences setImportOnDemandIdleTimeout(int minutes) {
+		this.importOnDemandIdleTimeout = Math.max(minutes, 0);
+		return this;
+	}
+
 	private Preferences setSignatureHelpEnabled(boolean enabled) {
 		this.signatureHelpEnabled = enabled;
 		return this;
@@ -657,6 +708,16 @@ public class Preferences {
 		return this;
 	}
 
+	public Preferences setSearchMaxResults(int searchMaxResults) {
+		this.searchMaxResults = searchMaxResults > 0 ? searchMaxResults : 0;
+		return this;
+	}
+
+	public Preferences setCompletionMaxResults(int completionMaxResults) {
+		this.completionMaxResults = completionMaxResults > 0 ? completionMaxResults : 0;
+		return this;
+	}
+
 	public Severity getIncompleteClasspathSeverity() {
 		return incompleteClasspathSeverity;
 	}
@@ -701,6 +762,14 @@ public class Preferences {
 		return importMavenEnabled;
 	}
 
+	public boolean isImportOnDemandEnabled() {
+		return importOnDemandEnabled;
+	}
+
+	public int getImportOnDemandIdleTimeout() {
+		return importOnDemandIdleTimeout;
+	}
+
 	public boolean isImplementationsCodeLensEnabled() {
 		return implementationsCodeLensEnabled;
 	}
@@ -782,6 +851,20 @@ public class Preferences {
 		return parallelBuildsCount;
 	}
 
+	/**
+	 * @return the maximum number of search results, 0 if there is no limit
+	 */
+	public int getSearchMaxResults() {
+		return searchMaxResults;
+	}
+
+	/**
+	 * @return the maximum number of completion items, 0 if there is no limit
+	 */
+	public int getCompletionMaxResults() {
+		return completionMaxResults;
+	}
+
 	public Map<String, Object> asMap() {
 		if (configuration == null) {
 			return null;
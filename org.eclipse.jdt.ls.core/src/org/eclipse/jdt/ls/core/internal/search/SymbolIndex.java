@@ -0,0 +1,642 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.ProjectUtils;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.lsp4j.SymbolKind;
+
+/**
+ * In-memory index of the workspace symbols, persisted in the plugin state
+ * location.
+ * <p>
+ * Types, methods and fields declared in source compilation units are indexed
+ * per compilation unit, and kept up to date from Java element deltas. Types
+ * declared in libraries are indexed per package fragment root, and only
+ * re-indexed when the library file changes. The index only stores names and
+ * handle identifiers: locations are computed by the caller, for the returned
+ * symbols only. Reconciled working copies are indexed with their unsaved
+ * contents.
+ * </p>
+ */
+public class SymbolIndex implements IElementChangedListener {
+
+	private static final String SERIALIZATION_FILE_NAME = ".symbol-index";
+	private static final int VERSION = 1;
+
+	private final File stateFile;
+	private final PreferenceManager preferenceManager;
+	private final Map<String, IndexedContainer> containers = new ConcurrentHashMap<>();
+	private final Set<String> pendingElements = ConcurrentHashMap.newKeySet();
+	private final Job updateJob;
+	private volatile boolean fullSyncNeeded = true;
+	private volatile boolean binariesDirty = true;
+	private volatile boolean ready;
+	private boolean started;
+
+	public SymbolIndex(File stateLocation, PreferenceManager preferenceManager) {
+		this.stateFile = new File(stateLocation, SERIALIZATION_FILE_NAME);
+		this.preferenceManager = preferenceManager;
+		this.updateJob = new Job("Update symbol index") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				return update(monitor);
+			}
+
+			@Override
+			public boolean belongsTo(Object family) {
+				return family == SymbolIndex.this;
+			}
+		};
+		this.updateJob.setPriority(Job.DECORATE);
+		this.updateJob.setSystem(true);
+	}
+
+	/**
+	 * Loads the persisted index, starts listening to Java element changes and
+	 * schedules the synchronization of the index with the workspace. The index
+	 * is ready once it has been synchronized.
+	 */
+	public synchronized void start() {
+		if (started) {
+			return;
+		}
+		started = true;
+		load();
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		fullSyncNeeded = true;
+		updateJob.schedule();
+	}
+
+	public synchronized void stop() {
+		if (!started) {
+			return;
+		}
+		started = false;
+		JavaCore.removeElementChangedListener(this);
+		updateJob.cancel();
+		save();
+	}
+
+	/**
+	 * @return whether the index can answer queries, i.e. whether it has been
+	 *         synchronized with the workspace at least once. Entries loaded
+	 *         from disk are only served once they have been validated.
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+	/**
+	 * @return the number of indexed symbols
+	 */
+	public int size() {
+		int size = 0;
+		for (IndexedContainer container : containers.values()) {
+			size += container.symbols.length;
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the best matching symbols, best first.
+	 *
+	 * @param query
+	 *            the query, see {@link SymbolMatcher}
+	 * @param maxResults
+	 *            the maximum number of symbols to return
+	 * @param includeBinaries
+	 *            whether symbols declared in libraries should be returned
+	 * @param monitor
+	 *            the progress monitor, the partial result is returned when
+	 *            cancelled
+	 */
+	public List<Symbol> search(String query, int maxResults, boolean includeBinaries, IProgressMonitor monitor) {
+		if (query == null || query.isEmpty() || maxResults <= 0) {
+			return Collections.emptyList();
+		}
+		Comparator<ScoredSymbol> comparator = ScoredSymbol.COMPARATOR;
+		PriorityQueue<ScoredSymbol> best = new PriorityQueue<>(maxResults + 1, comparator);
+		for (IndexedContainer container : containers.values()) {
+			if (container.binary && !includeBinaries) {
+				continue;
+			}
+			if (monitor != null && monitor.isCanceled()) {
+				break;
+			}
+			for (Symbol symbol : container.symbols) {
+				int score = SymbolMatcher.score(query, symbol.name);
+				if (score == SymbolMatcher.NO_MATCH) {
+					continue;
+				}
+				ScoredSymbol scored = new ScoredSymbol(symbol, score);
+				if (best.size() < maxResults) {
+					best.add(scored);
+				} else if (comparator.compare(scored, best.peek()) > 0) {
+					best.poll();
+					best.add(scored);
+				}
+			}
+		}
+		List<ScoredSymbol> sorted = new ArrayList<>(best);
+		Collections.sort(sorted, Collections.reverseOrder(comparator));
+		List<Symbol> result = new ArrayList<>(sorted.size());
+		for (ScoredSymbol scored : sorted) {
+			result.add(scored.symbol);
+		}
+		return result;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.core.IElementChangedListener#elementChanged(org.eclipse.jdt.core.ElementChangedEvent)
+	 */
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		if (visit(event.getDelta())) {
+			updateJob.schedule(500);
+		}
+	}
+
+	private boolean visit(IJavaElementDelta delta) {
+		IJavaElement element = delta.getElement();
+		int flags = delta.getFlags();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0) {
+					pendingElements.add(element.getHandleIdentifier());
+					binariesDirty = true;
+					return true;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (((IPackageFragmentRoot) element).isArchive() || (flags & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0) {
+					binariesDirty = true;
+				}
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0) {
+					pendingElements.add(element.getHandleIdentifier());
+					return true;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED) {
+					pendingElements.add(element.getHandleIdentifier());
+					return true;
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				ICompilationUnit unit = (ICompilationUnit) element;
+				// only the primary working copies are visible to the clients
+				if (unit.getPrimary() != unit) {
+					return false;
+				}
+				pendingElements.add(element.getHandleIdentifier());
+				return true;
+			case IJavaElement.CLASS_FILE:
+				binariesDirty = true;
+				return true;
+			default:
+				break;
+		}
+		boolean changed = false;
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			changed |= visit(child);
+		}
+		return changed;
+	}
+
+	private IStatus update(IProgressMonitor monitor) {
+		long start = System.currentTimeMillis();
+		try {
+			if (fullSyncNeeded) {
+				fullSyncNeeded = false;
+				pendingElements.clear();
+				try {
+					syncSources(JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()), monitor);
+					syncBinaries(monitor);
+				} catch (OperationCanceledException e) {
+					fullSyncNeeded = true;
+					return Status.CANCEL_STATUS;
+				}
+				ready = true;
+				save();
+				JavaLanguageServerPlugin.logInfo("Indexed " + size() + " symbols. Took " + (System.currentTimeMillis() - start) + " ms");
+				return Status.OK_STATUS;
+			}
+			List<String> handles = new ArrayList<>(pendingElements);
+			pendingElements.removeAll(handles);
+			for (String handle : handles) {
+				try {
+					syncSources(JavaCore.create(handle), monitor);
+				} catch (OperationCanceledException e) {
+					pendingElements.add(handle);
+					return Status.CANCEL_STATUS;
+				}
+			}
+			if (binariesDirty) {
+				binariesDirty = false;
+				syncBinaries(monitor);
+			}
+		} catch (OperationCanceledException e) {
+			binariesDirty = true;
+			return Status.CANCEL_STATUS;
+		} catch (JavaModelException e) {
+			JavaLanguageServerPlugin.logException("Problem updating the symbol index", e);
+		}
+		return Status.OK_STATUS;
+	}
+
+	/**
+	 * Re-indexes the modified compilation units located under the given
+	 * element, and removes the ones that don't exist anymore.
+	 */
+	private void syncSources(IJavaElement scope, IProgressMonitor monitor) throws JavaModelException {
+		if (scope == null) {
+			return;
+		}
+		String prefix = scope.getElementType() == IJavaElement.JAVA_MODEL ? null : scope.getHandleIdentifier();
+		Set<String> seen = new HashSet<>();
+		if (scope.exists()) {
+			collectSources(scope, seen, monitor);
+		}
+		for (Iterator<Map.Entry<String, IndexedContainer>> iterator = containers.entrySet().iterator(); iterator.hasNext();) {
+			Map.Entry<String, IndexedContainer> entry = iterator.next();
+			if (!entry.getValue().binary && !seen.contains(entry.getKey()) && isInside(entry.getKey(), prefix)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	private void collectSources(IJavaElement element, Set<String> seen, IProgressMonitor monitor) throws JavaModelException {
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				for (IJavaProject project : ProjectUtils.getJavaProjects()) {
+					collectSources(project, seen, monitor);
+				}
+				break;
+			case IJavaElement.JAVA_PROJECT:
+				if (!((IJavaProject) element).getProject().isOpen()) {
+					break;
+				}
+				for (IPackageFragmentRoot root : ((IJavaProject) element).getPackageFragmentRoots()) {
+					if (root.getKind() == IPackageFragmentRoot.K_SOURCE && element.equals(root.getJavaProject())) {
+						collectSources(root, seen, monitor);
+					}
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (((IPackageFragmentRoot) element).getKind() == IPackageFragmentRoot.K_SOURCE) {
+					for (IJavaElement child : ((IPackageFragmentRoot) element).getChildren()) {
+						collectSources(child, seen, monitor);
+					}
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				for (ICompilationUnit unit : ((IPackageFragment) element).getCompilationUnits()) {
+					collectSources(unit, seen, monitor);
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				ICompilationUnit unit = (ICompilationUnit) element;
+				String key = unit.getHandleIdentifier();
+				seen.add(key);
+				// working copies are always re-indexed, and stamped so that the
+				// saved contents are re-indexed once they are discarded
+				long stamp = unit.isWorkingCopy() ? IResource.NULL_STAMP : getStamp(unit);
+				IndexedContainer existing = containers.get(key);
+				if (existing == null || existing.stamp != stamp || stamp == IResource.NULL_STAMP) {
+					containers.put(key, new IndexedContainer(false, stamp, indexSource(unit)));
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	private static Symbol[] indexSource(ICompilationUnit unit) throws JavaModelException {
+		List<Symbol> symbols = new ArrayList<>();
+		for (IType type : unit.getTypes()) {
+			collectSymbols(type, symbols);
+		}
+		return symbols.toArray(new Symbol[symbols.size()]);
+	}
+
+	private static void collectSymbols(IType type, List<Symbol> symbols) throws JavaModelException {
+		IType declaringType = type.getDeclaringType();
+		String container = declaringType == null ? type.getPackageFragment().getElementName() : declaringType.getFullyQualifiedName('.');
+		symbols.add(new Symbol(type.getElementName(), container, mapKind(type.getFlags()), type.getHandleIdentifier()));
+		String typeName = type.getFullyQualifiedName('.');
+		for (IField field : type.getFields()) {
+			SymbolKind kind;
+			if (field.isEnumConstant()) {
+				kind = SymbolKind.EnumMember;
+			} else if (Flags.isStatic(field.getFlags()) && Flags.isFinal(field.getFlags())) {
+				kind = SymbolKind.Constant;
+			} else {
+				kind = SymbolKind.Field;
+			}
+			symbols.add(new Symbol(field.getElementName(), typeName, kind, field.getHandleIdentifier()));
+		}
+		for (IMethod method : type.getMethods()) {
+			if (!method.isConstructor()) {
+				symbols.add(new Symbol(method.getElementName(), typeName, SymbolKind.Method, method.getHandleIdentifier()));
+			}
+		}
+		for (IType memberType : type.getTypes()) {
+			collectSymbols(memberType, symbols);
+		}
+	}
+
+	/**
+	 * Re-indexes the types of the libraries whose file changed since they were
+	 * last indexed.
+	 */
+	private void syncBinaries(IProgressMonitor monitor) throws JavaModelException {
+		Map<String, IPackageFragmentRoot> roots = new LinkedHashMap<>();
+		if (preferenceManager == null || preferenceManager.isClientSupportsClassFileContent()) {
+			for (IJavaProject project : ProjectUtils.getJavaProjects()) {
+				if (!project.getProject().isOpen()) {
+					continue;
+				}
+				for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+					if (root.getKind() == IPackageFragmentRoot.K_BINARY) {
+						roots.putIfAbsent(root.getPath().toString(), root);
+					}
+				}
+			}
+		}
+		containers.entrySet().removeIf(e -> e.getValue().binary && !roots.containsKey(e.getKey()));
+		Map<String, Long> stamps = new HashMap<>();
+		List<IJavaElement> changed = new ArrayList<>();
+		for (Map.Entry<String, IPackageFragmentRoot> entry : roots.entrySet()) {
+			long stamp = getStamp(entry.getValue());
+			IndexedContainer existing = containers.get(entry.getKey());
+			if (existing == null || existing.stamp != stamp) {
+				stamps.put(entry.getKey(), stamp);
+				changed.add(entry.getValue());
+			}
+		}
+		if (changed.isEmpty()) {
+			return;
+		}
+		Map<String, List<Symbol>> symbols = new HashMap<>();
+		new SearchEngine().searchAllTypeNames(null, SearchPattern.R_PREFIX_MATCH, null, SearchPattern.R_PREFIX_MATCH, IJavaSearchConstants.TYPE, SearchEngine.createJavaSearchScope(changed.toArray(new IJavaElement[changed.size()])), new TypeNameMatchRequestor() {
+
+			@Override
+			public void acceptTypeNameMatch(TypeNameMatch match) {
+				IPackageFragmentRoot root = match.getPackageFragmentRoot();
+				if (root == null || match.getSimpleTypeName().isEmpty()) {
+					return;
+				}
+				List<Symbol> list = symbols.computeIfAbsent(root.getPath().toString(), k -> new ArrayList<>());
+				list.add(new Symbol(match.getSimpleTypeName(), match.getTypeContainerName(), mapKind(match.getModifiers()), match.getType().getHandleIdentifier()));
+			}
+		}, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+		for (Map.Entry<String, Long> entry : stamps.entrySet()) {
+			List<Symbol> list = symbols.getOrDefault(entry.getKey(), Collections.emptyList());
+			containers.put(entry.getKey(), new IndexedContainer(true, entry.getValue(), list.toArray(new Symbol[list.size()])));
+		}
+	}
+
+	private static boolean isInside(String handle, String prefix) {
+		if (prefix == null || handle.equals(prefix)) {
+			return true;
+		}
+		if (!handle.startsWith(prefix) || handle.length() == prefix.length()) {
+			return false;
+		}
+		// children handles continue with a project, root or package delimiter
+		char next = handle.charAt(prefix.length());
+		return next == '/' || next == '<' || next == '{';
+	}
+
+	private static long getStamp(ICompilationUnit unit) {
+		IResource resource = unit.getResource();
+		return resource == null ? IResource.NULL_STAMP : resource.getLocalTimeStamp();
+	}
+
+	private static long getStamp(IPackageFragmentRoot root) {
+		IResource resource = root.getResource();
+		File file;
+		if (resource != null && resource.getLocation() != null) {
+			file = resource.getLocation().toFile();
+		} else {
+			file = root.getPath().toFile();
+		}
+		return file.lastModified() * 31 + file.length();
+	}
+
+	/**
+	 * Maps the modifiers of a type to its symbol kind.
+	 *
+	 * @param flags
+	 *            the type modifiers, see {@link Flags}
+	 */
+	public static SymbolKind mapKind(int flags) {
+		if (Flags.isInterface(flags)) {
+			return SymbolKind.Interface;
+		}
+		if (Flags.isAnnotation(flags)) {
+			return SymbolKind.Property;
+		}
+		if (Flags.isEnum(flags)) {
+			return SymbolKind.Enum;
+		}
+		return SymbolKind.Class;
+	}
+
+	private void load() {
+		if (!stateFile.isFile()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)))) {
+			if (in.readInt() != VERSION) {
+				return;
+			}
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				String key = in.readUTF();
+				boolean binary = in.readBoolean();
+				long stamp = in.readLong();
+				Symbol[] symbols = new Symbol[in.readInt()];
+				for (int j = 0; j < symbols.length; j++) {
+					symbols[j] = new Symbol(in.readUTF(), in.readUTF(), SymbolKind.forValue(in.readByte()), in.readUTF());
+				}
+				containers.put(key, new IndexedContainer(binary, stamp, symbols));
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			containers.clear();
+			JavaLanguageServerPlugin.logException("Exception occured while loading the symbol index", e);
+		}
+	}
+
+	private synchronized void save() {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(stateFile)))) {
+			List<Map.Entry<String, IndexedContainer>> entries = new ArrayList<>(containers.entrySet());
+			out.writeInt(VERSION);
+			out.writeInt(entries.size());
+			for (Map.Entry<String, IndexedContainer> entry : entries) {
+				IndexedContainer container = entry.getValue();
+				out.writeUTF(entry.getKey());
+				out.writeBoolean(container.binary);
+				out.writeLong(container.stamp);
+				out.writeInt(container.symbols.length);
+				for (Symbol symbol : container.symbols) {
+					out.writeUTF(symbol.name);
+					out.writeUTF(symbol.containerName);
+					out.writeByte(symbol.kind.getValue());
+					out.writeUTF(symbol.handleIdentifier);
+				}
+			}
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Exception occured while saving the symbol index", e);
+		}
+	}
+
+	/**
+	 * An indexed symbol.
+	 */
+	public static final class Symbol {
+		private final String name;
+		private final String containerName;
+		private final SymbolKind kind;
+		private final String handleIdentifier;
+
+		Symbol(String name, String containerName, SymbolKind kind, String handleIdentifier) {
+			this.name = name;
+			this.containerName = containerName;
+			this.kind = kind;
+			this.handleIdentifier = handleIdentifier;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getContainerName() {
+			return containerName;
+		}
+
+		public SymbolKind getKind() {
+			return kind;
+		}
+
+		/**
+		 * @return the handle identifier of the symbol's Java element, see
+		 *         {@link JavaCore#create(String)}
+		 */
+		public String getHandleIdentifier() {
+			return handleIdentifier;
+		}
+	}
+
+	private static final class IndexedContainer {
+		private final boolean binary;
+		private final long stamp;
+		private final Symbol[] symbols;
+
+		IndexedContainer(boolean binary, long stamp, Symbol[] symbols) {
+			this.binary = binary;
+			this.stamp = stamp;
+			this.symbols = symbols;
+		}
+	}
+
+	private static final class ScoredSymbol {
+		/**
+		 * Orders worst match first: lower score, then longer name, then
+		 * members after types.
+		 */
+		static final Comparator<ScoredSymbol> COMPARATOR = (a, b) -> {
+			int result = Integer.compare(a.score, b.score);
+			if (result == 0) {
+				result = Integer.compare(b.symbol.name.length(), a.symbol.name.length());
+			}
+			if (result == 0) {
+				result = Boolean.compare(isType(a.symbol), isType(b.symbol));
+			}
+			if (result == 0) {
+				result = b.symbol.name.compareTo(a.symbol.name);
+			}
+			return result;
+		};
+
+		private final Symbol symbol;
+		private final int score;
+
+		ScoredSymbol(Symbol symbol, int score) {
+			this.symbol = symbol;
+			this.score = score;
+		}
+
+		private static boolean isType(Symbol symbol) {
+			switch (symbol.kind) {
+				case Class:
+				case Interface:
+				case Enum:
+				case Property:
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.search;
+
+import org.eclipse.jdt.core.search.SearchPattern;
+
+/**
+ * Scores symbol names against a workspace symbol query. Exact matches rank
+ * first, then prefix matches, camel case matches (<code>NPE</code> matches
+ * <code>NullPointerException</code>) and finally fuzzy matches, where the
+ * query characters appear in order in the name.
+ */
+public final class SymbolMatcher {
+
+	public static final int NO_MATCH = -1;
+
+	private static final int EXACT = 1000;
+	private static final int EXACT_IGNORE_CASE = 900;
+	private static final int PREFIX = 800;
+	private static final int PREFIX_IGNORE_CASE = 700;
+	private static final int CAMEL_CASE = 600;
+	private static final int FUZZY = 300;
+
+	private SymbolMatcher() {
+		//Don't instantiate
+	}
+
+	/**
+	 * @param query
+	 *            the query, not empty
+	 * @param name
+	 *            the symbol name
+	 * @return the score of the name, higher is better, or {@link #NO_MATCH}
+	 */
+	public static int score(String query, String name) {
+		int queryLength = query.length();
+		int nameLength = name.length();
+		if (queryLength == 0 || nameLength < queryLength) {
+			return NO_MATCH;
+		}
+		// all matches must start with the same character
+		if (Character.toLowerCase(query.charAt(0)) != Character.toLowerCase(name.charAt(0))) {
+			return NO_MATCH;
+		}
+		int extra = Math.min(nameLength - queryLength, 99);
+		if (name.startsWith(query)) {
+			return extra == 0 ? EXACT : PREFIX - extra;
+		}
+		if (name.regionMatches(true, 0, query, 0, queryLength)) {
+			return extra == 0 ? EXACT_IGNORE_CASE : PREFIX_IGNORE_CASE - extra;
+		}
+		if (SearchPattern.camelCaseMatch(query, name)) {
+			return CAMEL_CASE - extra;
+		}
+		int gaps = fuzzyGaps(query, name);
+		if (gaps < 0) {
+			return NO_MATCH;
+		}
+		return FUZZY - Math.min(gaps, 99) - extra / 10;
+	}
+
+	/**
+	 * @return the number of skipped name characters between matching query
+	 *         characters, or -1 if the query characters can't be found in order
+	 */
+	private static int fuzzyGaps(String query, String name) {
+		int gaps = 0;
+		int j = 0;
+		for (int i = 0; i < query.length(); i++) {
+			char c = Character.toLowerCase(query.charAt(i));
+			int start = j;
+			while (j < name.length() && Character.toLowerCase(name.charAt(j)) != c) {
+				j++;
+			}
+			if (j == name.length()) {
+				return -1;
+			}
+			if (i > 0) {
+				gaps += j - start;
+			}
+			j++;
+		}
+		return gaps;
+	}
+}
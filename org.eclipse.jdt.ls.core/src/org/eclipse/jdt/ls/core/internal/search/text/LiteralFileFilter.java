@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.search.text;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Tells whether a file may contain a literal by searching its raw bytes,
+ * without decoding them. Only ASCII literals, in files whose encoding
+ * represents ASCII characters as themselves, can be searched. Large files are
+ * memory-mapped, smaller ones are read in a reused buffer, so a filter must not
+ * be shared between threads.
+ */
+public class LiteralFileFilter {
+
+	public static int MAP_THRESHOLD= 1 << 20; // public for testing
+
+	private static final int INITIAL_BUFFER_SIZE= 1 << 16;
+
+	private final byte[] fLiteral;
+	private final int[] fShifts;
+	private final Map<String, Boolean> fSupportedCharsets= new HashMap<>();
+	private ByteBuffer fBuffer;
+
+	/**
+	 * @param literal
+	 *            the literal, see {@link #isSupported(String)}
+	 */
+	public LiteralFileFilter(String literal) {
+		fLiteral= literal.getBytes(StandardCharsets.US_ASCII);
+		fShifts= new int[256];
+		Arrays.fill(fShifts, fLiteral.length);
+		for (int i= 0; i < fLiteral.length - 1; i++) {
+			fShifts[fLiteral[i] & 0xFF]= fLiteral.length - 1 - i;
+		}
+	}
+
+	/**
+	 * @param literal
+	 *            the literal to search
+	 * @return whether the literal can be searched in the bytes of files, that is
+	 *         if it's a non-empty ASCII string
+	 */
+	public static boolean isSupported(String literal) {
+		return literal != null && !literal.isEmpty() && StandardCharsets.US_ASCII.newEncoder().canEncode(literal);
+	}
+
+	/**
+	 * @param file
+	 *            the file to search
+	 * @return <code>false</code> if the file doesn't contain the literal,
+	 *         <code>true</code> if it does, or if it can't be told without
+	 *         decoding the file
+	 */
+	public boolean mayContain(IFile file) {
+		IPath location= file.getLocation();
+		if (location == null) {
+			return true;
+		}
+		try {
+			if (!isSupportedCharset(file.getCharset())) {
+				return true;
+			}
+		} catch (CoreException e) {
+			return true;
+		}
+		try (FileChannel channel= FileChannel.open(location.toFile().toPath(), StandardOpenOption.READ)) {
+			long size= channel.size();
+			if (size > Integer.MAX_VALUE) {
+				return true;
+			}
+			ByteBuffer content;
+			if (size >= MAP_THRESHOLD) {
+				content= channel.map(MapMode.READ_ONLY, 0, size);
+			} else {
+				content= read(channel, (int) size);
+			}
+			return indexOf(content) >= 0;
+		} catch (IOException e) {
+			// reading the file as characters reports the problem
+			return true;
+		}
+	}
+
+	private ByteBuffer read(FileChannel channel, int size) throws IOException {
+		if (fBuffer == null || fBuffer.capacity() < size) {
+			fBuffer= ByteBuffer.allocate(Math.max(size, INITIAL_BUFFER_SIZE));
+		}
+		fBuffer.clear();
+		fBuffer.limit(size);
+		while (fBuffer.hasRemaining() && channel.read(fBuffer) >= 0) {
+			// read until the end of the file
+		}
+		fBuffer.flip();
+		return fBuffer;
+	}
+
+	/**
+	 * Searches the literal with the Boyer-Moore-Horspool algorithm.
+	 */
+	private int indexOf(ByteBuffer content) {
+		int last= fLiteral.length - 1;
+		int limit= content.limit();
+		int i= 0;
+		while (i + last < limit) {
+			int j= last;
+			while (content.get(i + j) == fLiteral[j]) {
+				if (j == 0) {
+					return i;
+				}
+				j--;
+			}
+			i+= fShifts[content.get(i + last) & 0xFF];
+		}
+		return -1;
+	}
+
+	/**
+	 * Tells whether the characters of the literal are encoded as themselves,
+	 * and can't be part of the encoding of other characters.
+	 */
+	private boolean isSupportedCharset(String charsetName) {
+		if (charsetName == null) {
+			return false;
+		}
+		return fSupportedCharsets.computeIfAbsent(charsetName, name -> {
+			try {
+				Charset charset= Charset.forName(name);
+				if (StandardCharsets.UTF_8.equals(charset)) {
+					return Boolean.TRUE;
+				}
+				if (!charset.canEncode()) {
+					return Boolean.FALSE;
+				}
+				// single byte encodings are stateless
+				CharsetEncoder encoder= charset.newEncoder();
+				if (encoder.maxBytesPerChar() != 1.0f) {
+					return Boolean.FALSE;
+				}
+				ByteBuffer encoded= encoder.encode(CharBuffer.wrap(new String(fLiteral, StandardCharsets.US_ASCII)));
+				return Boolean.valueOf(encoded.equals(ByteBuffer.wrap(fLiteral)));
+			} catch (IllegalCharsetNameException | UnsupportedCharsetException | CharacterCodingException e) {
+				return Boolean.FALSE;
+			}
+		}).booleanValue();
+	}
+}
@@ -54,6 +54,11 @@ public abstract class TextSearchEngine {
 				return new TextSearchVisitor(requestor, searchPattern).search(scope, monitor);
 			}
 
+			@Override
+			public IStatus search(TextSearchScope scope, TextSearchRequestor requestor, Pattern searchPattern, String literal, IProgressMonitor monitor) {
+				return new TextSearchVisitor(requestor, searchPattern, literal).search(scope, monitor);
+			}
+
 			@Override
 			public IStatus search(IFile[] scope, TextSearchRequestor requestor, Pattern searchPattern, IProgressMonitor monitor) {
 				 return new TextSearchVisitor(requestor, searchPattern).search(scope, monitor);
@@ -73,6 +78,21 @@ public abstract class TextSearchEngine {
 	 */
 	public abstract IStatus search(TextSearchScope scope, TextSearchRequestor requestor, Pattern searchPattern, IProgressMonitor monitor);
 
+	/**
+	 * Uses a given search pattern to find matches in the content of workspace file resources, skipping
+	 * the files which don't contain a given literal. By default, the literal is ignored.
+
+	 * @param requestor the search requestor that gets the search results
+	 * @param scope the scope defining the resources to search in
+	 * 	@param searchPattern The search pattern used to find matches in the file contents.
+	 * @param literal a string all the matches of the search pattern contain, or <code>null</code>
+	 * @param monitor the progress monitor to use
+	 * @return the status containing information about problems in resources searched.
+	 */
+	public IStatus search(TextSearchScope scope, TextSearchRequestor requestor, Pattern searchPattern, String literal, IProgressMonitor monitor) {
+		return search(scope, requestor, searchPattern, monitor);
+	}
+
 	/**
 	 * Uses a given search pattern to find matches in the content of workspace file resources. If a file is open in an editor, the
 	 * editor buffer is searched.
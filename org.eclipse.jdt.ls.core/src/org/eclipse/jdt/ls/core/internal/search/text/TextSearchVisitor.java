@@ -133,6 +133,7 @@ public class TextSearchVisitor {
 		private final int fEnd;
 		private final Map<IFile, IDocument> fDocumentsInEditors;
 		private FileCharSequenceProvider fileCharSequenceProvider;
+		private LiteralFileFilter literalFileFilter;
 
 		private IPath previousLocationFromFile;
 		// occurences need to be passed to FileSearchResultCollector with growing offset
@@ -163,6 +164,7 @@ public class TextSearchVisitor {
 					new MultiStatus(IConstants.PLUGIN_ID, IStatus.OK, "Problems encountered during text search.", null);
 			SubMonitor subMonitor= SubMonitor.convert(inner, fEnd - fBegin);
 			this.fileCharSequenceProvider= new FileCharSequenceProvider();
+			this.literalFileFilter= fLiteral == null ? null : new LiteralFileFilter(fLiteral);
 			for (int i= fBegin; i < fEnd && !fFatalError; i++) {
 				IStatus status= processFile(fFiles[i], subMonitor.split(1));
 				// Only accumulate interesting status
@@ -183,6 +185,7 @@ public class TextSearchVisitor {
 				}
 			}
 			fileCharSequenceProvider= null;
+			literalFileFilter= null;
 			previousLocationFromFile= null;
 			occurencesForPreviousLocation= null;
 			return multiStatus;
@@ -222,6 +225,11 @@ public class TextSearchVisitor {
 							JavaLanguageServerPlugin.logException(e.getMessage(), e);
 						}
 					}
+					if (literalFileFilter != null && !literalFileFilter.mayContain(file)) {
+						// all the matches contain the literal
+						occurencesForPreviousLocation= Collections.emptyList();
+						return Status.OK_STATUS;
+					}
 					try {
 						charsequenceForPreviousLocation= fileCharSequenceProvider.newCharSequence(file);
 						if (hasBinaryContent(charsequenceForPreviousLocation, file) && !fCollector.reportBinaryFile(file)) {
@@ -275,6 +283,7 @@ public class TextSearchVisitor {
 
 	private final TextSearchRequestor fCollector;
 	private final Pattern fSearchPattern;
+	private final String fLiteral;
 
 	private IProgressMonitor fProgressMonitor;
 
@@ -289,7 +298,18 @@ public class TextSearchVisitor {
 	private boolean fIsLightweightAutoRefresh;
 
 	public TextSearchVisitor(TextSearchRequestor collector, Pattern searchPattern) {
+		this(collector, searchPattern, null);
+	}
+
+	/**
+	 * @param collector the search requestor that gets the search results
+	 * @param searchPattern the search pattern
+	 * @param literal a string all the matches of the search pattern contain, used to skip
+	 * 	the files not containing it before decoding them, or <code>null</code>
+	 */
+	public TextSearchVisitor(TextSearchRequestor collector, Pattern searchPattern, String literal) {
 		fCollector= collector;
+		fLiteral= LiteralFileFilter.isSupported(literal) ? literal : null;
 		fStatus = new MultiStatus(IConstants.PLUGIN_ID, IStatus.OK, "Problems encountered during text search.", null);
 
 		fSearchPattern= searchPattern;
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.Range;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DiagnosticsPublisherTest {
+
+	private static final String OPEN_URI = "file:///Open.java";
+	private static final String OTHER_URI = "file:///Other.java";
+
+	private List<PublishDiagnosticsParams> sent = new ArrayList<>();
+	private DiagnosticsPublisher publisher;
+
+	@Before
+	public void setUp() {
+		// long delay so the test controls when diagnostics are flushed
+		publisher = new DiagnosticsPublisher(sent::add, 60000) {
+			@Override
+			protected Set<String> getOpenDocuments() {
+				return Collections.singleton(OPEN_URI);
+			}
+		};
+	}
+
+	@After
+	public void tearDown() {
+		publisher.dispose();
+	}
+
+	@Test
+	public void testCoalesce() {
+		publisher.publish(newParams(OTHER_URI, 1));
+		PublishDiagnosticsParams latest = newParams(OTHER_URI, 2);
+		publisher.publish(latest);
+		assertEquals(0, sent.size());
+		publisher.flush();
+		assertEquals(1, sent.size());
+		assertSame(latest, sent.get(0));
+		assertEquals(1, publisher.getSentCount());
+		assertEquals(1, publisher.getSuppressedCount());
+	}
+
+	@Test
+	public void testSkipUnchanged() {
+		publisher.publishNow(newParams(OPEN_URI, 1));
+		publisher.publishNow(newParams(OPEN_URI, 1));
+		assertEquals(1, sent.size());
+		publisher.publishNow(newParams(OPEN_URI, 2));
+		assertEquals(2, sent.size());
+		publisher.publish(newParams(OPEN_URI, 2));
+		publisher.flush();
+		assertEquals(2, sent.size());
+		assertEquals(2, publisher.getSentCount());
+		assertEquals(2, publisher.getSuppressedCount());
+	}
+
+	@Test
+	public void testOpenDocumentsFirst() {
+		publisher.publish(newParams(OTHER_URI, 1));
+		publisher.publish(newParams(OPEN_URI, 1));
+		publisher.flush();
+		assertEquals(2, sent.size());
+		assertEquals(OPEN_URI, sent.get(0).getUri());
+		assertEquals(OTHER_URI, sent.get(1).getUri());
+	}
+
+	@Test
+	public void testPublishNowDiscardsPending() {
+		publisher.publish(newParams(OPEN_URI, 1));
+		PublishDiagnosticsParams latest = newParams(OPEN_URI, 2);
+		publisher.publishNow(latest);
+		publisher.flush();
+		assertEquals(1, sent.size());
+		assertSame(latest, sent.get(0));
+	}
+
+	@Test
+	public void testHashCollision() {
+		PublishDiagnosticsParams first = newParams(OPEN_URI, "Aa");
+		PublishDiagnosticsParams second = newParams(OPEN_URI, "BB");
+		assertEquals(first.getDiagnostics().hashCode(), second.getDiagnostics().hashCode());
+		publisher.publishNow(first);
+		publisher.publishNow(second);
+		assertEquals(2, sent.size());
+		assertSame(second, sent.get(1));
+	}
+
+	@Test
+	public void testFlushAfterNewerPublishNow() {
+		List<PublishDiagnosticsParams> received = new ArrayList<>();
+		PublishDiagnosticsParams latest = newParams(OTHER_URI, 2);
+		publisher = new DiagnosticsPublisher(params -> {
+			received.add(params);
+			if (received.size() == 1) {
+				// the document is edited while the buffered diagnostics are being flushed
+				publisher.publishNow(latest);
+			}
+		}, 60000) {
+			@Override
+			protected Set<String> getOpenDocuments() {
+				return Collections.singleton(OPEN_URI);
+			}
+		};
+		publisher.publish(newParams(OTHER_URI, 1));
+		publisher.publish(newParams(OPEN_URI, 1));
+		publisher.flush();
+		assertEquals(2, received.size());
+		assertEquals(OPEN_URI, received.get(0).getUri());
+		assertSame(latest, received.get(1));
+	}
+
+	@Test
+	public void testForget() {
+		publisher.publishNow(newParams(OPEN_URI, 1));
+		publisher.forget(OPEN_URI);
+		publisher.publishNow(newParams(OPEN_URI, 1));
+		assertEquals(2, sent.size());
+	}
+
+	@Test
+	public void testForgetAll() {
+		publisher.publishNow(newParams("file:///folder/A.java", 1));
+		publisher.publishNow(newParams("file:///folder2/B.java", 1));
+		publisher.forgetAll("file:///folder");
+		publisher.publishNow(newParams("file:///folder/A.java", 1));
+		publisher.publishNow(newParams("file:///folder2/B.java", 1));
+		assertEquals(3, sent.size());
+	}
+
+	@Test
+	public void testSendInOrder() {
+		List<PublishDiagnosticsParams> received = new ArrayList<>();
+		PublishDiagnosticsParams latest = newParams(OPEN_URI, 2);
+		publisher = new DiagnosticsPublisher(params -> {
+			received.add(params);
+			if (received.size() == 1) {
+				// sent once the diagnostics being sent are
+				publisher.publishNow(latest);
+				assertEquals(1, received.size());
+			}
+		}, 60000);
+		publisher.publishNow(newParams(OPEN_URI, 1));
+		assertEquals(2, received.size());
+		assertSame(latest, received.get(1));
+	}
+
+	private static PublishDiagnosticsParams newParams(String uri, String message) {
+		Range range = new Range(new Position(0, 0), new Position(0, 1));
+		Diagnostic diagnostic = new Diagnostic(range, message, DiagnosticSeverity.Error, JavaLanguageServerPlugin.SERVER_SOURCE_ID);
+		return new PublishDiagnosticsParams(uri, Collections.singletonList(diagnostic));
+	}
+
+	private static PublishDiagnosticsParams newParams(String uri, int problems) {
+		List<Diagnostic> diagnostics = new ArrayList<>();
+		for (int i = 0; i < problems; i++) {
+			Range range = new Range(new Position(i, 0), new Position(i, 1));
+			diagnostics.add(new Diagnostic(range, "Problem " + i, DiagnosticSeverity.Error, JavaLanguageServerPlugin.SERVER_SOURCE_ID));
+		}
+		return new PublishDiagnosticsParams(uri, diagnostics);
+	}
+}
@@ -15,6 +15,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.ls.core.internal.handlers.CompletionItemData;
+import org.eclipse.jdt.ls.core.internal.handlers.CompletionResolveHandler;
 import org.eclipse.lsp4j.Position;
 import org.junit.Test;
 
@@ -42,6 +47,30 @@ public class JSONUtilityTest {
 		assertSame(position,position2);
 	}
 
+	@Test
+	public void testMapToObject() {
+		Map<String, Object> map = new HashMap<>();
+		map.put("line", 5);
+		map.put("character", 3);
+		assertEquals(new Position(5, 3), JSONUtility.toModel(map, Position.class));
+	}
+
+	@Test
+	public void testCompletionItemData() {
+		Map<String, String> map = new HashMap<>();
+		map.put(CompletionResolveHandler.DATA_FIELD_URI, "file:///Foo.java");
+		map.put(CompletionResolveHandler.DATA_FIELD_REQUEST_ID, "12");
+		map.put(CompletionResolveHandler.DATA_FIELD_PROPOSAL_ID, "3");
+		map.put(CompletionResolveHandler.DATA_FIELD_NAME, "foo");
+		CompletionItemData data = JSONUtility.toModel(new Gson().toJsonTree(map), CompletionItemData.class);
+		assertEquals("file:///Foo.java", data.getUri());
+		assertEquals(Long.valueOf(12), data.getRequestId());
+		assertEquals(Integer.valueOf(3), data.getProposalId());
+		assertEquals("foo", data.getName());
+		assertNull(data.getDeclarationSignature());
+		assertNull(data.getSignature());
+	}
+
 	@Test(expected=IllegalArgumentException.class)
 	public void testNullClass(){
 		JSONUtility.toModel(new Object(), null);
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.Platform;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParentProcessWatcherTest {
+
+	private Process parent;
+	private LanguageServer server;
+
+	@Before
+	public void setUp() throws Exception {
+		assumeFalse(Platform.OS_WIN32.equals(Platform.getOS()));
+		parent = new ProcessBuilder("sleep", "60").start();
+		server = spy(new LanguageServer());
+		server.setParentProcessId(getPid(parent));
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (parent != null) {
+			parent.destroyForcibly().waitFor();
+		}
+	}
+
+	@Test
+	public void testExitWhenParentStops() throws Exception {
+		new ParentProcessWatcher(server, 100, TimeUnit.MILLISECONDS);
+		Thread.sleep(500);
+		verify(server, never()).exit();
+
+		parent.destroyForcibly().waitFor();
+		verify(server, timeout(10000)).exit();
+	}
+
+	@Test
+	public void testExitWhenParentIsGone() throws Exception {
+		parent.destroyForcibly().waitFor();
+		new ParentProcessWatcher(server, 100, TimeUnit.MILLISECONDS);
+		verify(server, timeout(10000)).exit();
+	}
+
+	@Test
+	public void testProcFs() throws Exception {
+		assumeTrue(Platform.OS_LINUX.equals(Platform.getOS()));
+		long pid = getPid(parent);
+		assertEquals(Boolean.TRUE, ParentProcessWatcher.isAliveInProcFs(pid));
+		parent.destroyForcibly().waitFor();
+		assertEquals(Boolean.FALSE, ParentProcessWatcher.isAliveInProcFs(pid));
+	}
+
+	private static long getPid(Process process) throws Exception {
+		try {
+			// Java 9 and later
+			return (Long) Process.class.getMethod("pid").invoke(process);
+		} catch (NoSuchMethodException e) {
+			Field pid = process.getClass().getDeclaredField("pid");
+			pid.setAccessible(true);
+			return pid.getLong(process);
+		}
+	}
+}
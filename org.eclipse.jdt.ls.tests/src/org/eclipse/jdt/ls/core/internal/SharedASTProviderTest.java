@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SharedASTProviderTest extends AbstractProjectsManagerBasedTest {
+
+	private IJavaProject project;
+	private SharedASTProvider provider;
+
+	@Before
+	public void setup() throws Exception {
+		importProjects("eclipse/hello");
+		project = JavaCore.create(WorkspaceHelper.getProject("hello"));
+		provider = new SharedASTProvider();
+		provider.start();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		provider.stop();
+		for (ICompilationUnit unit : JavaCore.getWorkingCopies(null)) {
+			unit.discardWorkingCopy();
+		}
+	}
+
+	@Test
+	public void testCache() throws Exception {
+		ICompilationUnit foo = getWorkingCopy("org.sample.Foo");
+		ICompilationUnit bar = getWorkingCopy("org.sample.Baz");
+
+		CompilationUnit fooAST = provider.getAST(foo, null);
+		assertNotNull(fooAST);
+		CompilationUnit barAST = provider.getAST(bar, null);
+		assertSame(fooAST, provider.getAST(foo, null));
+		assertSame(barAST, provider.getAST(bar, null));
+		assertEquals(2, provider.getHitCount());
+		assertEquals(2, provider.getMissCount());
+
+		CompilationUnit fooASTWithoutBindings = provider.getAST(foo, false, null);
+		assertNotSame(fooAST, fooASTWithoutBindings);
+		assertNull(fooASTWithoutBindings.getAST().resolveWellKnownType("java.lang.Object"));
+		assertEquals(3, provider.size());
+	}
+
+	@Test
+	public void testModifiedBuffer() throws Exception {
+		ICompilationUnit foo = getWorkingCopy("org.sample.Foo");
+		CompilationUnit ast = provider.getAST(foo, null);
+		foo.getBuffer().append("\n");
+		assertNotSame(ast, provider.getAST(foo, null));
+		assertEquals(2, provider.getMissCount());
+	}
+
+	@Test
+	public void testMaxEntries() throws Exception {
+		provider.stop();
+		provider = new SharedASTProvider(1);
+		provider.start();
+		ICompilationUnit foo = getWorkingCopy("org.sample.Foo");
+		ICompilationUnit bar = getWorkingCopy("org.sample.Baz");
+		CompilationUnit fooAST = provider.getAST(foo, null);
+		provider.getAST(bar, null);
+		// the least recently used AST is evicted
+		assertEquals(1, provider.size());
+		assertNotSame(fooAST, provider.getAST(foo, null));
+	}
+
+	private ICompilationUnit getWorkingCopy(String typeName) throws Exception {
+		ICompilationUnit unit = project.findType(typeName).getCompilationUnit();
+		unit.becomeWorkingCopy(null);
+		return unit;
+	}
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.eclipse.jdt.core.IClasspathAttribute;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.SourceFolderClassifier.SourceKind;
+import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SourceFolderClassifierTest extends AbstractProjectsManagerBasedTest {
+
+	private IJavaProject project;
+	private SourceFolderClassifier classifier;
+
+	@Before
+	public void setup() throws Exception {
+		importProjects("eclipse/hello");
+		project = JavaCore.create(WorkspaceHelper.getProject("hello"));
+		classifier = new SourceFolderClassifier();
+		classifier.start();
+	}
+
+	@After
+	public void tearDown() {
+		classifier.stop();
+	}
+
+	@Test
+	public void testGetKind() throws Exception {
+		assertEquals(SourceKind.MAIN, classifier.getKind(project.findType("org.sample.Foo").getCompilationUnit()));
+		assertEquals(SourceKind.TEST, classifier.getKind(project.findType("foo.bar.BaseTest").getCompilationUnit()));
+		assertNull(classifier.getKind(project));
+		assertNull(classifier.getKind(null));
+	}
+
+	@Test
+	public void testClasspathChange() throws Exception {
+		assertEquals(SourceKind.MAIN, classifier.getKind(project.findType("org.sample.Foo").getCompilationUnit()));
+		IClasspathEntry[] rawClasspath = project.getRawClasspath();
+		for (int i = 0; i < rawClasspath.length; i++) {
+			IClasspathEntry entry = rawClasspath[i];
+			if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE && !entry.isTest()) {
+				IClasspathAttribute generated = JavaCore.newClasspathAttribute(IClasspathAttribute.IGNORE_OPTIONAL_PROBLEMS, "true");
+				rawClasspath[i] = JavaCore.newSourceEntry(entry.getPath(), entry.getInclusionPatterns(), entry.getExclusionPatterns(), entry.getOutputLocation(), new IClasspathAttribute[] { generated });
+			}
+		}
+		project.setRawClasspath(rawClasspath, monitor);
+		assertEquals(SourceKind.GENERATED, classifier.getKind(project.findType("org.sample.Foo").getCompilationUnit()));
+		assertEquals(SourceKind.TEST, classifier.getKind(project.findType("foo.bar.BaseTest").getCompilationUnit()));
+	}
+}
@@ -16,12 +16,16 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Hashtable;
 import java.util.List;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
@@ -347,6 +351,68 @@ public class OrganizeImportsCommandTest extends AbstractProjectsManagerBasedTest
 		assertEquals(buf.toString(), getOrganizeImportResult(cu2, rootEdit));
 	}
 
+	@Test
+	public void testOrganizeImportsInProjectStreamed() throws CoreException, BadLocationException {
+		IPackageFragment pack1 = fSourceFolder.createPackageFragment("test1", false, null);
+		List<ICompilationUnit> units = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			StringBuilder buf = new StringBuilder();
+			buf.append("package test1;\n");
+			buf.append("\n");
+			buf.append("import java.util.ArrayList;\n");
+			buf.append("\n");
+			buf.append("public class E" + i + " {\n");
+			buf.append("}\n");
+			units.add(pack1.createCompilationUnit("E" + i + ".java", buf.toString(), false, null));
+		}
+
+		List<WorkspaceEdit> chunks = new ArrayList<>();
+		WorkspaceEdit rootEdit = command.organizeImportsInProject(pack1.getJavaProject().getProject(), chunks::add, new NullProgressMonitor());
+		assertTrue(rootEdit.getChanges().isEmpty());
+		assertTrue(chunks.size() > 1);
+
+		WorkspaceEdit streamed = new WorkspaceEdit();
+		chunks.forEach(chunk -> streamed.getChanges().putAll(chunk.getChanges()));
+		assertEquals(units.size(), streamed.getChanges().size());
+		for (int i = 0; i < units.size(); i++) {
+			StringBuilder buf = new StringBuilder();
+			buf.append("package test1;\n");
+			buf.append("\n");
+			buf.append("public class E" + i + " {\n");
+			buf.append("}\n");
+			assertEquals(buf.toString(), getOrganizeImportResult(units.get(i), streamed));
+		}
+	}
+
+	@Test(expected = OperationCanceledException.class)
+	public void testOrganizeImportsInProjectCanceled() throws CoreException {
+		IPackageFragment pack1 = fSourceFolder.createPackageFragment("test1", false, null);
+		pack1.createCompilationUnit("E.java", "package test1;\nimport java.util.ArrayList;\npublic class E {}\n", false, null);
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		command.organizeImportsInProject(pack1.getJavaProject().getProject(), null, monitor);
+	}
+
+	@Test(expected = LinkageError.class)
+	public void testOrganizeImportsInProjectFailed() throws CoreException {
+		IPackageFragment pack1 = fSourceFolder.createPackageFragment("test1", false, null);
+		for (int i = 0; i < 120; i++) {
+			pack1.createCompilationUnit("E" + i + ".java", "package test1;\nimport java.util.ArrayList;\npublic class E" + i + " {}\n", false, null);
+		}
+		OrganizeImportsCommand failingCommand = new OrganizeImportsCommand() {
+			@Override
+			protected WorkspaceEdit organizeImportsInBatch(List<ICompilationUnit> units, IProgressMonitor monitor) {
+				throw new LinkageError("test");
+			}
+		};
+		List<WorkspaceEdit> chunks = new ArrayList<>();
+		try {
+			failingCommand.organizeImportsInProject(pack1.getJavaProject().getProject(), chunks::add, new NullProgressMonitor());
+		} finally {
+			assertTrue(chunks.isEmpty());
+		}
+	}
+
 	private String getOrganizeImportResult(ICompilationUnit cu, WorkspaceEdit we) throws BadLocationException, CoreException {
 		List<TextEdit> change = we.getChanges().get(JDTUtils.toURI(cu));
 		Document doc = new Document();
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
+import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CodeLensCacheTest extends AbstractProjectsManagerBasedTest {
+
+	private IJavaProject project;
+	private CodeLensCache cache;
+
+	@Before
+	public void setup() throws Exception {
+		importProjects("eclipse/hello");
+		project = JavaCore.create(WorkspaceHelper.getProject("hello"));
+		cache = new CodeLensCache();
+		cache.start();
+	}
+
+	@After
+	public void tearDown() {
+		cache.stop();
+	}
+
+	@Test
+	public void testCache() throws Exception {
+		IType foo = project.findType("java.Foo");
+		assertNull(cache.get(foo, CodeLensHandler.REFERENCES_TYPE));
+		cache.put(foo, CodeLensHandler.REFERENCES_TYPE, Collections.emptyList(), cache.getStamp());
+		CodeLensCache.Entry entry = cache.get(foo, CodeLensHandler.REFERENCES_TYPE);
+		assertNotNull(entry);
+		assertFalse(entry.isStale());
+		assertNull(cache.get(foo, CodeLensHandler.IMPLEMENTATION_TYPE));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void testInvalidateOnChange() throws Exception {
+		IType foo = project.findType("java.Foo");
+		cache.put(foo, CodeLensHandler.REFERENCES_TYPE, Collections.emptyList(), cache.getStamp());
+		CodeLensCache.Entry entry = cache.get(foo, CodeLensHandler.REFERENCES_TYPE);
+
+		// Baz can't reference Foo without naming it
+		editAndReconcile(project.findType("java.Baz").getCompilationUnit(), "InternalBar", "InternalBar ");
+		assertFalse(entry.isStale());
+
+		editAndReconcile(project.findType("java.Bar").getCompilationUnit(), "extends Foo", "extends  Foo");
+		assertTrue(entry.isStale());
+	}
+
+	@Test
+	public void testSkipInvalidatedPut() throws Exception {
+		IType foo = project.findType("java.Foo");
+		cache.put(foo, CodeLensHandler.REFERENCES_TYPE, Collections.emptyList(), cache.getStamp());
+		long stamp = cache.getStamp();
+
+		// Foo is referenced while its references are searched
+		editAndReconcile(project.findType("java.Bar").getCompilationUnit(), "extends Foo", "extends  Foo");
+		assertFalse(cache.put(foo, CodeLensHandler.REFERENCES_TYPE, Collections.emptyList(), stamp));
+		assertTrue(cache.get(foo, CodeLensHandler.REFERENCES_TYPE).isStale());
+
+		assertTrue(cache.put(foo, CodeLensHandler.REFERENCES_TYPE, Collections.emptyList(), cache.getStamp()));
+		assertFalse(cache.get(foo, CodeLensHandler.REFERENCES_TYPE).isStale());
+	}
+
+	@Test
+	public void testSkipPutAfterChange() throws Exception {
+		IType foo = project.findType("java.Foo");
+		long stamp = cache.getStamp();
+		editAndReconcile(project.findType("java.Bar").getCompilationUnit(), "extends Foo", "extends  Foo");
+		assertFalse(cache.put(foo, CodeLensHandler.REFERENCES_TYPE, Collections.emptyList(), stamp));
+		assertNull(cache.get(foo, CodeLensHandler.REFERENCES_TYPE));
+	}
+
+	@Test
+	public void testPutAfterUnrelatedChange() throws Exception {
+		IType foo = project.findType("java.Foo");
+		long stamp = cache.getStamp();
+		// Baz can't reference Foo without naming it
+		editAndReconcile(project.findType("java.Baz").getCompilationUnit(), "InternalBar", "InternalBar ");
+		assertTrue(cache.put(foo, CodeLensHandler.REFERENCES_TYPE, Collections.emptyList(), stamp));
+		assertFalse(cache.get(foo, CodeLensHandler.REFERENCES_TYPE).isStale());
+	}
+
+	@Test
+	public void testInvalidateIndirectSupertypes() throws Exception {
+		IType iFoo = project.findType("java.IFoo");
+		cache.put(iFoo, CodeLensHandler.IMPLEMENTATION_TYPE, Collections.emptyList(), cache.getStamp());
+		CodeLensCache.Entry entry = cache.get(iFoo, CodeLensHandler.IMPLEMENTATION_TYPE);
+
+		// Baz implements IFoo through Foo3 and Foo2, without naming it
+		editAndReconcile(project.findType("java.Baz").getCompilationUnit(), "extends InternalBar", "extends Foo3");
+		assertTrue(entry.isStale());
+	}
+
+	private void editAndReconcile(ICompilationUnit unit, String text, String replacement) throws Exception {
+		ICompilationUnit workingCopy = unit.getWorkingCopy(null);
+		try {
+			workingCopy.getBuffer().setContents(workingCopy.getSource().replace(text, replacement));
+			workingCopy.reconcile(ICompilationUnit.NO_AST, false, null, null);
+		} finally {
+			workingCopy.discardWorkingCopy();
+		}
+	}
+}
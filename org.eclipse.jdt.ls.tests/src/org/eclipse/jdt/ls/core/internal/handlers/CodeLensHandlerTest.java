@@ -21,6 +21,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
@@ -334,6 +335,34 @@ public class CodeLensHandlerTest extends AbstractProjectsManagerBasedTest {
 		assertRange(5, 25, 28, loc.getRange());
 	}
 
+	@Test
+	public void testResolveCodeLensesOfSameUnit() throws Exception {
+		//@formatter:off
+		String content = "package java;\n" +
+				"\n" +
+				"public class Counts {\n" +
+				"	void foo() {\n" +
+				"		bar();\n" +
+				"		this.bar();\n" +
+				"		new Counts().bar();\n" +
+				"	}\n" +
+				"\n" +
+				"	void bar() {\n" +
+				"	}\n" +
+				"}\n";
+		//@formatter:on
+		String source = "src/java/Counts.java";
+		project.getFile(source).create(new ByteArrayInputStream(content.getBytes()), true, monitor);
+
+		// the elements of the unit are searched together, and each match is credited to the name it covers
+		CodeLens bar = handler.resolve(getParams(createCodeLensRequest(source, 9, 6, 9)), monitor);
+		assertEquals("3 references", bar.getCommand().getTitle());
+		CodeLens foo = handler.resolve(getParams(createCodeLensRequest(source, 3, 6, 9)), monitor);
+		assertEquals("0 references", foo.getCommand().getTitle());
+		CodeLens counts = handler.resolve(getParams(createCodeLensRequest(source, 2, 13, 19)), monitor);
+		assertEquals("1 reference", counts.getCommand().getTitle());
+	}
+
 	@Test
 	public void testResolveCodeLenseBoundaries() {
 		CodeLens result = handler.resolve(null, monitor);
@@ -248,6 +248,39 @@ public class CompletionHandlerTest extends AbstractCompilationUnitBasedTest {
 		}
 	}
 
+	@Test
+	public void testCompletion_maxResults() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+			"src/java/Foo.java",
+			"public class Foo {\n"+
+				"	void foo() {\n"+
+				"		Objec\n"+
+				"	}\n"+
+				"}\n");
+		int[] loc = findCompletionLocation(unit, "Objec");
+		CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		assertFalse(list.getIsIncomplete());
+		List<String> sortTexts = getSortTexts(list);
+		assertTrue(sortTexts.size() > 2);
+
+		int oldMaxResults = JavaLanguageServerPlugin.getPreferencesManager().getPreferences().getCompletionMaxResults();
+		try {
+			JavaLanguageServerPlugin.getPreferencesManager().getPreferences().setCompletionMaxResults(2);
+			list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+			assertTrue(list.getIsIncomplete());
+			// the most relevant proposals are kept
+			assertEquals(sortTexts.subList(0, 2), getSortTexts(list));
+			CompletionItem resolved = server.resolveCompletionItem(list.getItems().get(0)).join();
+			assertNotNull(resolved.getTextEdit());
+		} finally {
+			JavaLanguageServerPlugin.getPreferencesManager().getPreferences().setCompletionMaxResults(oldMaxResults);
+		}
+	}
+
+	private List<String> getSortTexts(CompletionList list) {
+		return list.getItems().stream().filter(item -> item.getKind() != CompletionItemKind.Snippet).map(CompletionItem::getSortText).sorted().collect(Collectors.toList());
+	}
+
 
 	@Test
 	public void testCompletion_constructor() throws Exception{
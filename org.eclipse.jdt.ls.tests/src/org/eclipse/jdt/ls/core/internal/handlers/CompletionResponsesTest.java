@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.core.CompletionProposal;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompletionResponsesTest {
+
+	@Before
+	@After
+	public void clear() {
+		CompletionResponses.clear();
+	}
+
+	@Test
+	public void testKeepsPreviousResponses() {
+		CompletionResponse first = newResponse(1);
+		CompletionResponse second = newResponse(1);
+		CompletionResponses.store(first);
+		CompletionResponses.store(second);
+		assertSame(first, CompletionResponses.get(first.getId()));
+		assertSame(second, CompletionResponses.get(second.getId()));
+	}
+
+	@Test
+	public void testEvictsByCount() {
+		long evictions = CompletionResponses.getEvictionCount();
+		List<CompletionResponse> responses = new ArrayList<>();
+		for (int i = 0; i <= CompletionResponses.MAX_RESPONSES; i++) {
+			CompletionResponse response = newResponse(1);
+			responses.add(response);
+			CompletionResponses.store(response);
+		}
+		assertEquals(CompletionResponses.MAX_RESPONSES, CompletionResponses.size());
+		assertEquals(evictions + 1, CompletionResponses.getEvictionCount());
+		long misses = CompletionResponses.getMissCount();
+		assertNull(CompletionResponses.get(responses.get(0).getId()));
+		assertEquals(misses + 1, CompletionResponses.getMissCount());
+	}
+
+	@Test
+	public void testEvictsBySize() {
+		CompletionResponse large = newResponse(CompletionResponses.MAX_PROPOSALS);
+		CompletionResponses.store(large);
+		assertSame(large, CompletionResponses.get(large.getId()));
+		CompletionResponse small = newResponse(1);
+		CompletionResponses.store(small);
+		assertNull(CompletionResponses.get(large.getId()));
+		long hits = CompletionResponses.getHitCount();
+		assertSame(small, CompletionResponses.get(small.getId()));
+		assertEquals(hits + 1, CompletionResponses.getHitCount());
+	}
+
+	private static CompletionResponse newResponse(int size) {
+		CompletionResponse response = new CompletionResponse();
+		response.setProposals(new ArrayList<>(Collections.nCopies(size, (CompletionProposal) null)));
+		return response;
+	}
+}
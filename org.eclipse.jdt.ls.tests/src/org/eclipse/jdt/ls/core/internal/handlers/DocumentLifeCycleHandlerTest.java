@@ -395,7 +395,8 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 		assertEquals(false, cu1.hasUnsavedChanges());
 		assertEquals(true, cu2.isWorkingCopy());
 		assertEquals(false, cu2.hasUnsavedChanges());
-		assertNewProblemReported(new ExpectedProblemReport(cu2, 1), new ExpectedProblemReport(cu1, 0));
+		// cu2 diagnostics are unchanged
+		assertNewProblemReported(new ExpectedProblemReport(cu1, 0));
 		assertEquals(1, getCacheSize());
 		assertNewASTsCreated(2);
 
@@ -411,7 +412,8 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 		assertEquals(true, cu1.hasUnsavedChanges());
 		assertEquals(true, cu2.isWorkingCopy());
 		assertEquals(false, cu2.hasUnsavedChanges());
-		assertNewProblemReported(new ExpectedProblemReport(cu2, 0), new ExpectedProblemReport(cu1, 0));
+		// cu1 diagnostics are unchanged
+		assertNewProblemReported(new ExpectedProblemReport(cu2, 0));
 		assertEquals(1, getCacheSize());
 		assertNewASTsCreated(2);
 
@@ -446,6 +448,136 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 		assertNewASTsCreated(0);
 	}
 
+	@Test
+	public void testBodyChangeSkipsDependents() throws Exception {
+		IJavaProject javaProject = newEmptyProject();
+		IPackageFragmentRoot sourceFolder = javaProject.getPackageFragmentRoot(javaProject.getProject().getFolder("src"));
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class F123 {\n");
+		buf.append("  public static void foo() {}\n");
+		buf.append("}\n");
+		ICompilationUnit cu1 = pack1.createCompilationUnit("F123.java", buf.toString(), false, null);
+
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class F456 {\n");
+		buf.append("  { F123.foo(); }\n");
+		buf.append("}\n");
+		ICompilationUnit cu2 = pack1.createCompilationUnit("F456.java", buf.toString(), false, null);
+
+		openDocument(cu2, cu2.getSource(), 1);
+		openDocument(cu1, cu1.getSource(), 1);
+		assertNewProblemReported(new ExpectedProblemReport(cu2, 0), new ExpectedProblemReport(cu1, 0));
+
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class F123 {\n");
+		buf.append("  public static void foo() { return; }\n");
+		buf.append("}\n");
+
+		changeDocumentFull(cu1, buf.toString(), 2);
+
+		// unchanged diagnostics aren't sent again
+		assertNewProblemReported();
+		assertEquals(1, lifeCycleHandler.getLastReconciledCount());
+		assertEquals(1, lifeCycleHandler.getLastSkippedCount());
+
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class F123 {\n");
+		buf.append("  public static void bar() {}\n");
+		buf.append("}\n");
+
+		changeDocumentFull(cu1, buf.toString(), 3);
+
+		assertNewProblemReported(new ExpectedProblemReport(cu2, 1));
+		assertEquals(1, lifeCycleHandler.getLastReconciledCount());
+		assertEquals(0, lifeCycleHandler.getLastSkippedCount());
+	}
+
+	@Test
+	public void testTypeRenameValidatesDependents() throws Exception {
+		IJavaProject javaProject = newEmptyProject();
+		IPackageFragmentRoot sourceFolder = javaProject.getPackageFragmentRoot(javaProject.getProject().getFolder("src"));
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class F123 {\n");
+		buf.append("  public static void foo() {}\n");
+		buf.append("}\n");
+		ICompilationUnit cu1 = pack1.createCompilationUnit("F123.java", buf.toString(), false, null);
+
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class F456 {\n");
+		buf.append("  { F123.foo(); }\n");
+		buf.append("}\n");
+		ICompilationUnit cu2 = pack1.createCompilationUnit("F456.java", buf.toString(), false, null);
+
+		openDocument(cu2, cu2.getSource(), 1);
+		openDocument(cu1, cu1.getSource(), 1);
+		assertNewProblemReported(new ExpectedProblemReport(cu2, 0), new ExpectedProblemReport(cu1, 0));
+
+		// F456 doesn't mention the new name, only the old one
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("class F789 {\n");
+		buf.append("  public static void foo() {}\n");
+		buf.append("}\n");
+
+		changeDocumentFull(cu1, buf.toString(), 2);
+
+		// the diagnostics of F123 are unchanged, so they aren't sent again
+		assertNewProblemReported(new ExpectedProblemReport(cu2, 1));
+		assertEquals(0, lifeCycleHandler.getLastSkippedCount());
+	}
+
+	@Test
+	public void testSuperTypeChangeValidatesIndirectSubtypes() throws Exception {
+		IJavaProject javaProject = newEmptyProject();
+		IPackageFragmentRoot sourceFolder = javaProject.getPackageFragmentRoot(javaProject.getProject().getFolder("src"));
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public abstract class F123 {\n");
+		buf.append("}\n");
+		ICompilationUnit cu1 = pack1.createCompilationUnit("F123.java", buf.toString(), false, null);
+
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public abstract class F456 extends F123 {\n");
+		buf.append("}\n");
+		ICompilationUnit cu2 = pack1.createCompilationUnit("F456.java", buf.toString(), false, null);
+
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class F789 extends F456 {\n");
+		buf.append("}\n");
+		ICompilationUnit cu3 = pack1.createCompilationUnit("F789.java", buf.toString(), false, null);
+
+		openDocument(cu3, cu3.getSource(), 1);
+		openDocument(cu2, cu2.getSource(), 1);
+		openDocument(cu1, cu1.getSource(), 1);
+		assertNewProblemReported(new ExpectedProblemReport(cu3, 0), new ExpectedProblemReport(cu2, 0), new ExpectedProblemReport(cu1, 0));
+
+		// F789 doesn't mention F123, it inherits the new abstract method
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public abstract class F123 {\n");
+		buf.append("  public abstract void foo();\n");
+		buf.append("}\n");
+
+		changeDocumentFull(cu1, buf.toString(), 2);
+
+		assertNewProblemReported(new ExpectedProblemReport(cu3, 1));
+		assertEquals(0, lifeCycleHandler.getLastSkippedCount());
+	}
+
 	@Test
 	public void testDidOpenStandaloneFile() throws Exception {
 		IJavaProject javaProject = newDefaultProject();
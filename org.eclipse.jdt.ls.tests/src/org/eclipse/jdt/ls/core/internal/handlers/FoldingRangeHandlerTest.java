@@ -11,12 +11,17 @@
 
 package org.eclipse.jdt.ls.core.internal.handlers;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
@@ -68,6 +73,28 @@ public class FoldingRangeHandlerTest extends AbstractProjectsManagerBasedTest {
 		assertHasFoldingRange(5, 7, null, symbols);
 	}
 
+	@Test
+	public void testConcurrentRequests() throws Exception {
+		List<String> classNames = Arrays.asList("org.apache.commons.lang3.text.WordUtils", "org.sample.TestFoldingRange");
+		List<List<FoldingRange>> expected = new ArrayList<>();
+		for (String className : classNames) {
+			expected.add(getFoldingRanges(className));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<List<FoldingRange>>> futures = new ArrayList<>();
+			for (int i = 0; i < 20; i++) {
+				String className = classNames.get(i % classNames.size());
+				futures.add(executor.submit(() -> getFoldingRanges(className)));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				assertEquals(expected.get(i % classNames.size()), futures.get(i).get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	private void testClass(String className) throws CoreException {
 		List<FoldingRange> foldingRanges = getFoldingRanges(className);
 		for (FoldingRange range : foldingRanges) {
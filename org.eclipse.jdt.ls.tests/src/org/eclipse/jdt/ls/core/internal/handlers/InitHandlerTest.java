@@ -201,16 +201,14 @@ public class InitHandlerTest extends AbstractProjectsManagerBasedTest {
 				return o1.getGlobPattern().compareTo(o2.getGlobPattern());
 			}
 		});
-		assertEquals("Unexpected watchers:\n" + toString(watchers), 5, watchers.size());
+		assertEquals("Unexpected watchers:\n" + toString(watchers), 3, watchers.size());
 		assertEquals(watchers.get(0).getGlobPattern(), getWorkingProjectDirectory().getAbsolutePath() + "/TestProject/src/**");
 		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject("simple-gradle");
 		String location = project.getLocation().toString();
-		assertEquals(watchers.get(1).getGlobPattern(), location + "/src/main/java/**");
-		assertEquals(watchers.get(2).getGlobPattern(), location + "/src/test/java/**");
+		assertEquals(watchers.get(1).getGlobPattern(), location + "/src/{main/java,test/java}/**");
 		project = ResourcesPlugin.getWorkspace().getRoot().getProject("salut");
 		location = project.getLocation().toString();
-		assertEquals(watchers.get(3).getGlobPattern(), location + "/src/main/java/**");
-		assertEquals(watchers.get(4).getGlobPattern(), location + "/src/main/resources/**");
+		assertEquals(watchers.get(2).getGlobPattern(), location + "/src/main/{java,resources}/**");
 		IJavaProject javaProject = JavaCore.create(project);
 		// for test purposes only
 		removeExclusionPattern(javaProject);
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.jdt.ls.core.internal.handlers.RequestScheduler.LatencyClass;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RequestSchedulerTest {
+
+	private RequestScheduler scheduler;
+
+	@Before
+	public void setUp() {
+		scheduler = new RequestScheduler();
+	}
+
+	@After
+	public void tearDown() {
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testComputeAsync() throws Exception {
+		CompletableFuture<String> result = scheduler.computeAsync(LatencyClass.INTERACTIVE, (cc) -> "done");
+		assertEquals("done", result.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testClassesDontStarveEachOther() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		List<CompletableFuture<Boolean>> blockers = new ArrayList<>();
+		for (int i = 0; i < LatencyClass.NAVIGATION.getThreads(); i++) {
+			blockers.add(scheduler.computeAsync(LatencyClass.NAVIGATION, (cc) -> await(release)));
+		}
+		CompletableFuture<String> hover = scheduler.computeAsync(LatencyClass.INTERACTIVE, (cc) -> "hover");
+		assertEquals("hover", hover.get(5, TimeUnit.SECONDS));
+		release.countDown();
+		for (CompletableFuture<Boolean> blocker : blockers) {
+			assertTrue(blocker.get(5, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	public void testStaleRequestDropped() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		List<CompletableFuture<Boolean>> blockers = new ArrayList<>();
+		for (int i = 0; i < LatencyClass.BACKGROUND.getThreads(); i++) {
+			blockers.add(scheduler.computeAsync(LatencyClass.BACKGROUND, (cc) -> await(release)));
+		}
+		AtomicBoolean staleRun = new AtomicBoolean();
+		CompletableFuture<String> stale = scheduler.computeAsync(LatencyClass.BACKGROUND, "codeLens:file:///Foo.java", (cc) -> {
+			staleRun.set(true);
+			return "stale";
+		});
+		assertEquals(1, scheduler.getQueueDepth(LatencyClass.BACKGROUND));
+		CompletableFuture<String> latest = scheduler.computeAsync(LatencyClass.BACKGROUND, "codeLens:file:///Foo.java", (cc) -> "latest");
+		assertTrue(stale.isCancelled());
+		release.countDown();
+		assertEquals("latest", latest.get(5, TimeUnit.SECONDS));
+		for (CompletableFuture<Boolean> blocker : blockers) {
+			blocker.get(5, TimeUnit.SECONDS);
+		}
+		long timeout = System.currentTimeMillis() + 5000;
+		while (scheduler.getDroppedCount(LatencyClass.BACKGROUND) == 0 && System.currentTimeMillis() < timeout) {
+			Thread.sleep(10);
+		}
+		assertFalse(staleRun.get());
+		assertEquals(1, scheduler.getDroppedCount(LatencyClass.BACKGROUND));
+	}
+
+	private static boolean await(CountDownLatch latch) {
+		try {
+			return latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			return false;
+		}
+	}
+}
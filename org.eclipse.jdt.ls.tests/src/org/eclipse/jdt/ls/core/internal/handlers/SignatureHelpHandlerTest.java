@@ -12,6 +12,7 @@ package org.eclipse.jdt.ls.core.internal.handlers;
 
 import static org.eclipse.jdt.ls.core.internal.JsonMessageHelper.getParams;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -25,11 +26,18 @@ import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
+import org.eclipse.jdt.ls.core.internal.preferences.ClientPreferences;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.CompletionParams;
+import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.SignatureHelp;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.TextDocumentPositionParams;
 import org.junit.Before;
 import org.junit.Test;
@@ -128,6 +136,32 @@ public class SignatureHelpHandlerTest extends AbstractCompilationUnitBasedTest {
 		assertTrue(help.getSignatures().get(help.getActiveSignature()).getLabel().matches("println\\(\\w+ \\w+\\) : void"));
 	}
 
+	@Test
+	public void testSignatureHelp_keepsCompletionResponses() throws JavaModelException {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class E {\n");
+		buf.append("   /** This is a method */\n");
+		buf.append("   public int foo(String s) { }\n");
+		buf.append("   public int bar(String s) { this.foo() }\n");
+		buf.append("}\n");
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", buf.toString(), false, null);
+
+		CompletionParams params = new CompletionParams();
+		params.setTextDocument(new TextDocumentIdentifier(JDTUtils.toURI(cu)));
+		params.setPosition(new Position(4, 35));
+		CompletionList list = new CompletionHandler().completion(params, monitor).getRight();
+		assertFalse(list.getItems().isEmpty());
+		// signature help while typing the arguments doesn't evict the completion response
+		for (int i = 0; i <= CompletionResponses.MAX_RESPONSES; i++) {
+			assertEquals(1, getSignatureHelp(cu, 4, 39).getSignatures().size());
+		}
+		when(preferenceManager.getClientPreferences()).thenReturn(mock(ClientPreferences.class));
+		CompletionItem resolved = new CompletionResolveHandler(preferenceManager).resolve(list.getItems().get(0), monitor);
+		assertNotNull(resolved.getTextEdit());
+	}
+
 	private SignatureHelp getSignatureHelp(ICompilationUnit cu, int line, int character) {
 		String payload = createSignatureHelpRequest(cu, line, character);
 		TextDocumentPositionParams position = getParams(payload);
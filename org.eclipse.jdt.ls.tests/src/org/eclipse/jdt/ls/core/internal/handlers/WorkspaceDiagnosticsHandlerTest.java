@@ -15,10 +15,13 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -117,6 +120,37 @@ public class WorkspaceDiagnosticsHandlerTest extends AbstractProjectsManagerBase
 
 	}
 
+	@Test
+	public void testToDiagnosticsArrayFromFile() throws Exception {
+		IFile file = mock(IFile.class);
+		when(file.getCharset()).thenReturn(StandardCharsets.UTF_8.name());
+		when(file.getContents(true)).thenReturn(new ByteArrayInputStream("a\r\nbc\rdef\nghi".getBytes(StandardCharsets.UTF_8)));
+
+		// markers without a character range don't need the file content
+		IMarker m1 = createMarker(IMarker.SEVERITY_ERROR, "line only", 3, -1, -1);
+		List<Diagnostic> diags = WorkspaceDiagnosticsHandler.toDiagnosticsArray(file, new IMarker[] { m1 });
+		assertEquals(1, diags.size());
+		Range r = diags.get(0).getRange();
+		assertEquals(2, r.getStart().getLine());
+		assertEquals(0, r.getStart().getCharacter());
+		assertEquals(2, r.getEnd().getLine());
+		assertEquals(0, r.getEnd().getCharacter());
+		verify(file, never()).getContents(true);
+
+		IMarker m2 = createMarker(IMarker.SEVERITY_ERROR, "after \\r\\n", 2, 4, 5);
+		IMarker m3 = createMarker(IMarker.SEVERITY_WARNING, "after \\n", 4, 11, 13);
+		diags = WorkspaceDiagnosticsHandler.toDiagnosticsArray(file, new IMarker[] { m2, m3 });
+		assertEquals(2, diags.size());
+		r = diags.get(0).getRange();
+		assertEquals(1, r.getStart().getLine());
+		assertEquals(1, r.getStart().getCharacter());
+		assertEquals(2, r.getEnd().getCharacter());
+		r = diags.get(1).getRange();
+		assertEquals(3, r.getStart().getLine());
+		assertEquals(1, r.getStart().getCharacter());
+		assertEquals(3, r.getEnd().getCharacter());
+	}
+
 	@Test
 	public void testTaskMarkers() throws Exception {
 		//import project
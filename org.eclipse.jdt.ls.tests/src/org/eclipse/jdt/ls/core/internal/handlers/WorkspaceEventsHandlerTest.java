@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager.CHANGE_TYPE;
+import org.eclipse.lsp4j.FileChangeType;
+import org.eclipse.lsp4j.FileEvent;
+import org.junit.Test;
+
+public class WorkspaceEventsHandlerTest {
+
+	@Test
+	public void testCollapse() {
+		//@formatter:off
+		Map<String, CHANGE_TYPE> changes = WorkspaceEventsHandler.collapse(Arrays.asList(
+				new FileEvent("file:///a", FileChangeType.Created),
+				new FileEvent("file:///b", FileChangeType.Deleted),
+				new FileEvent("file:///a", FileChangeType.Changed),
+				new FileEvent("file:///c", FileChangeType.Created),
+				new FileEvent("file:///b", FileChangeType.Created),
+				new FileEvent("file:///c", FileChangeType.Changed),
+				new FileEvent("file:///c", FileChangeType.Deleted),
+				new FileEvent("file:///d", FileChangeType.Changed),
+				new FileEvent("file:///d", FileChangeType.Changed)));
+		//@formatter:on
+		assertEquals(Arrays.asList("file:///a", "file:///b", "file:///c", "file:///d"), new ArrayList<>(changes.keySet()));
+		assertEquals(CHANGE_TYPE.CREATED, changes.get("file:///a"));
+		assertEquals(CHANGE_TYPE.CHANGED, changes.get("file:///b"));
+		assertEquals(CHANGE_TYPE.DELETED, changes.get("file:///c"));
+		assertEquals(CHANGE_TYPE.CHANGED, changes.get("file:///d"));
+	}
+}
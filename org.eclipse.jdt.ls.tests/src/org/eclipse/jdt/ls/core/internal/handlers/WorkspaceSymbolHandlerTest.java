@@ -11,15 +11,27 @@
 package org.eclipse.jdt.ls.core.internal.handlers;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.List;
 
+import org.apache.commons.io.FileUtils;
+
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
+import org.eclipse.jdt.ls.core.internal.PartialResult;
+import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
+import org.eclipse.jdt.ls.core.internal.search.SymbolIndex;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.SymbolInformation;
@@ -130,4 +142,98 @@ public class WorkspaceSymbolHandlerTest extends AbstractProjectsManagerBasedTest
 		assertTrue("Did not find "+className, foundClass);
 	}
 
+	@Test
+	public void testIndexedSearch() throws Exception {
+		File stateLocation = Files.createTempDirectory("symbol-index").toFile();
+		SymbolIndex index = new SymbolIndex(stateLocation, preferenceManager);
+		try {
+			index.start();
+			Job.getJobManager().join(index, monitor);
+			assertTrue(index.isReady());
+			WorkspaceSymbolHandler indexedHandler = new WorkspaceSymbolHandler(preferenceManager, index);
+
+			List<SymbolInformation> results = indexedHandler.search("IFoo", monitor);
+			assertEquals("IFoo", results.get(0).getName());
+			assertEquals(SymbolKind.Interface, results.get(0).getKind());
+			assertNotEquals("Range should not equal the default range", JDTUtils.newRange(), results.get(0).getLocation().getRange());
+
+			results = indexedHandler.search("NPE", monitor);
+			assertEquals("NullPointerException", results.get(0).getName());
+			assertTrue(results.size() <= WorkspaceSymbolHandler.MAX_INDEXED_RESULTS);
+
+			index.stop();
+			assertTrue(new File(stateLocation, ".symbol-index").isFile());
+			SymbolIndex persisted = new SymbolIndex(stateLocation, preferenceManager);
+			persisted.start();
+			// persisted entries are only served once validated
+			Job.getJobManager().join(persisted, monitor);
+			assertTrue(persisted.isReady());
+			results = new WorkspaceSymbolHandler(preferenceManager, persisted).search("IFoo", monitor);
+			assertEquals("IFoo", results.get(0).getName());
+			persisted.stop();
+		} finally {
+			index.stop();
+			FileUtils.deleteQuietly(stateLocation);
+		}
+	}
+
+	@Test
+	public void testIndexedWorkingCopy() throws Exception {
+		File stateLocation = Files.createTempDirectory("symbol-index").toFile();
+		SymbolIndex index = new SymbolIndex(stateLocation, preferenceManager);
+		ICompilationUnit unit = JavaCore.create(WorkspaceHelper.getProject("hello")).findType("java.Foo3").getCompilationUnit();
+		try {
+			index.start();
+			Job.getJobManager().join(index, monitor);
+			WorkspaceSymbolHandler indexedHandler = new WorkspaceSymbolHandler(preferenceManager, index);
+			assertTrue(indexedHandler.search("UnsavedFoo", monitor).isEmpty());
+
+			unit.becomeWorkingCopy(monitor);
+			unit.getBuffer().setContents(unit.getSource().replace("{", "{\n\tclass UnsavedFoo {}"));
+			unit.reconcile(ICompilationUnit.NO_AST, false, null, monitor);
+			Job.getJobManager().join(index, monitor);
+			List<SymbolInformation> results = indexedHandler.search("UnsavedFoo", monitor);
+			assertEquals(1, results.size());
+			assertEquals("java.Foo3", results.get(0).getContainerName());
+
+			unit.discardWorkingCopy();
+			Job.getJobManager().join(index, monitor);
+			assertTrue(indexedHandler.search("UnsavedFoo", monitor).isEmpty());
+		} finally {
+			if (unit.isWorkingCopy()) {
+				unit.discardWorkingCopy();
+			}
+			index.stop();
+			FileUtils.deleteQuietly(stateLocation);
+		}
+	}
+
+	@Test
+	public void testMaxResults() {
+		preferences.setSearchMaxResults(1);
+		List<SymbolInformation> results = handler.search("Array", monitor);
+		assertEquals(1, results.size());
+	}
+
+	@Test
+	public void testPartialResults() {
+		when(preferenceManager.isClientSupportsPartialResult()).thenReturn(true);
+		WorkspaceSymbolHandler streamingHandler = new WorkspaceSymbolHandler(preferenceManager, null, new JavaClientConnection(client));
+		List<SymbolInformation> results = streamingHandler.search("Array", monitor);
+		assertTrue("Results should have been streamed", results.isEmpty());
+
+		List<Object> partialResults = clientRequests.get("sendPartialResult");
+		assertNotNull(partialResults);
+		int count = 0;
+		for (int i = 0; i < partialResults.size(); i++) {
+			PartialResult partialResult = (PartialResult) partialResults.get(i);
+			assertEquals("workspace/symbol", partialResult.getMethod());
+			assertEquals("Array", partialResult.getId());
+			assertEquals(i == partialResults.size() - 1, partialResult.isDone());
+			assertTrue(partialResult.getItems().size() <= PartialResultCollector.BATCH_SIZE);
+			count += partialResult.getItems().size();
+		}
+		assertFalse(count == 0);
+	}
+
 }
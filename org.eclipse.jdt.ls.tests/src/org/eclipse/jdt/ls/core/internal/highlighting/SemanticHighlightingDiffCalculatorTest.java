@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.highlighting;
+
+import static java.util.Arrays.asList;
+import static org.eclipse.lsp4j.util.SemanticHighlightingTokens.decode;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.internal.ui.javaeditor.HighlightedPositionCore;
+import org.eclipse.jdt.ls.core.internal.highlighting.SemanticHighlightingService.HighlightedPositionDiffContext;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4j.SemanticHighlightingInformation;
+import org.eclipse.lsp4j.util.SemanticHighlightingTokens.Token;
+import org.junit.Test;
+
+/**
+ * Expected infos are the ones computed by the calculator before tokens were
+ * packed, which matched old and new positions through a map of line, column,
+ * text and scope.
+ */
+public class SemanticHighlightingDiffCalculatorTest {
+
+	//@formatter:off
+	private static final String CONTENT =
+			"class A {\n" +
+			"  int foo;\n" +
+			"  int bar;\n" +
+			"}";
+	//@formatter:on
+
+	private static final int TYPE = 0;
+	private static final int FIELD = 1;
+
+	private final SemanticHighlightingDiffCalculator calculator = new SemanticHighlightingDiffCalculator();
+
+	@Test
+	public void testNoChange() throws Exception {
+		List<SemanticHighlightingInformation> infos = diff(CONTENT, CONTENT.indexOf("int foo"), 0, "");
+		assertEquals(asList(), toStrings(infos));
+	}
+
+	@Test
+	public void testInsertLine() throws Exception {
+		int offset = CONTENT.indexOf("  int bar;");
+		List<SemanticHighlightingInformation> infos = diff(CONTENT, offset, 0, "  int baz;\n");
+		// bar moved to line 3 and is unchanged
+		assertEquals(asList("2:[6,3,1]"), toStrings(infos));
+	}
+
+	@Test
+	public void testDeleteLine() throws Exception {
+		int offset = CONTENT.indexOf("  int foo;");
+		List<SemanticHighlightingInformation> infos = diff(CONTENT, offset, "  int foo;\n".length(), "");
+		// bar moved to line 1 and is unchanged, the line of foo is cleared
+		assertEquals(asList("1:[]"), toStrings(infos));
+	}
+
+	@Test
+	public void testDeleteDuplicateLine() throws Exception {
+		String content = CONTENT.replace("bar", "foo");
+		int offset = content.indexOf("  int foo;");
+		List<SemanticHighlightingInformation> infos = diff(content, offset, "  int foo;\n".length(), "");
+		// each new token matches a single old token
+		assertEquals(asList("2:[]"), toStrings(infos));
+	}
+
+	@Test
+	public void testReplaceShiftingLines() throws Exception {
+		int offset = CONTENT.indexOf("foo");
+		List<SemanticHighlightingInformation> infos = diff(CONTENT, offset, "foo".length(), "x;\n  int y");
+		assertEquals(asList("1:[6,1,1]", "2:[6,1,1]"), toStrings(infos));
+	}
+
+	@Test
+	public void testChangeResendsLine() throws Exception {
+		String content = CONTENT.replace("int foo", "Foo foo");
+		int offset = content.indexOf("foo;");
+		List<SemanticHighlightingInformation> infos = diff(content, offset, "foo".length(), "baz");
+		// the unchanged type of the line is sent too
+		assertEquals(asList("1:[2,3,0, 6,3,1]"), toStrings(infos));
+	}
+
+	@Test
+	public void testScopeChange() throws Exception {
+		IDocument oldState = new Document(CONTENT);
+		IDocument newState = new Document(CONTENT);
+		SemanticTokens oldTokens = tokens(oldState);
+		SemanticTokens newTokens = SemanticTokens.of(newState, asList(position(newState, "A", TYPE), position(newState, "foo", TYPE), position(newState, "bar", FIELD)));
+		DocumentEvent event = new DocumentEvent(newState, 0, 0, "");
+		List<SemanticHighlightingInformation> infos = calculator.getDiffInfos(new HighlightedPositionDiffContext(oldState, event, oldTokens, newTokens));
+		assertEquals(asList("1:[6,3,0]"), toStrings(infos));
+	}
+
+	private List<SemanticHighlightingInformation> diff(String content, int offset, int length, String text) throws Exception {
+		IDocument oldState = new Document(content);
+		IDocument newState = new Document(content);
+		newState.replace(offset, length, text);
+		DocumentEvent event = new DocumentEvent(newState, offset, length, text);
+		return calculator.getDiffInfos(new HighlightedPositionDiffContext(oldState, event, tokens(oldState), tokens(newState)));
+	}
+
+	/**
+	 * @return the tokens of the type and of the field names in the document
+	 */
+	private static SemanticTokens tokens(IDocument document) throws Exception {
+		List<HighlightedPositionCore> positions = new ArrayList<>();
+		String content = document.get();
+		int index = content.indexOf("class ");
+		if (index >= 0) {
+			positions.add(new HighlightedPositionCore(index + "class ".length(), 1, SemanticHighlightingService.getScopes(TYPE), document));
+		}
+		for (index = content.indexOf("Foo "); index >= 0; index = content.indexOf("Foo ", index + 1)) {
+			positions.add(new HighlightedPositionCore(index, 3, SemanticHighlightingService.getScopes(TYPE), document));
+		}
+		for (index = content.indexOf(';'); index >= 0; index = content.indexOf(';', index + 1)) {
+			int start = content.lastIndexOf(' ', index) + 1;
+			positions.add(new HighlightedPositionCore(start, index - start, SemanticHighlightingService.getScopes(FIELD), document));
+		}
+		return SemanticTokens.of(document, positions);
+	}
+
+	private static HighlightedPositionCore position(IDocument document, String text, int scope) {
+		int offset = document.get().indexOf(text);
+		return new HighlightedPositionCore(offset, text.length(), SemanticHighlightingService.getScopes(scope), document);
+	}
+
+	private static List<String> toStrings(List<SemanticHighlightingInformation> infos) {
+		List<String> result = new ArrayList<>();
+		for (SemanticHighlightingInformation info : infos) {
+			StringBuilder builder = new StringBuilder();
+			builder.append(info.getLine()).append(":[");
+			if (info.getTokens() != null) {
+				List<Token> tokens = decode(info.getTokens());
+				for (int i = 0; i < tokens.size(); i++) {
+					Token token = tokens.get(i);
+					if (i > 0) {
+						builder.append(", ");
+					}
+					builder.append(token.character).append(',').append(token.length).append(',').append(token.scope);
+				}
+			}
+			result.add(builder.append(']').toString());
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.javadoc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache.Format;
+import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JavadocCacheTest extends AbstractProjectsManagerBasedTest {
+
+	private IJavaProject project;
+	private JavadocCache cache;
+
+	@Before
+	public void setup() throws Exception {
+		importProjects("eclipse/hello");
+		project = JavaCore.create(WorkspaceHelper.getProject("hello"));
+		cache = new JavadocCache();
+		cache.start();
+	}
+
+	@After
+	public void tearDown() {
+		cache.stop();
+	}
+
+	@Test
+	public void testCache() throws Exception {
+		IType type = project.findType("org.sample.TestJavadoc");
+		assertNotNull(type);
+		assertEquals("Test javadoc class", cache.getJavadoc(type, Format.MARKDOWN));
+		assertEquals(1, cache.getMissCount());
+		assertEquals("Test javadoc class", cache.getJavadoc(type, Format.MARKDOWN));
+		assertEquals("Test javadoc class", cache.getJavadoc(type, Format.MARKDOWN, 500));
+		assertEquals(2, cache.getHitCount());
+
+		cache.getJavadoc(type, Format.PLAIN_TEXT);
+		assertEquals(2, cache.getMissCount());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testInvalidateOnChange() throws Exception {
+		IType type = project.findType("org.sample.TestJavadoc");
+		assertEquals("Test javadoc class", cache.getJavadoc(type, Format.MARKDOWN));
+
+		ICompilationUnit workingCopy = type.getCompilationUnit().getWorkingCopy(null);
+		try {
+			String source = workingCopy.getSource();
+			workingCopy.getBuffer().setContents(source.replace("Test javadoc class", "Changed javadoc class"));
+			workingCopy.reconcile(ICompilationUnit.NO_AST, false, null, null);
+			assertEquals("Changed javadoc class", cache.getJavadoc(workingCopy.findPrimaryType(), Format.MARKDOWN));
+		} finally {
+			workingCopy.discardWorkingCopy();
+		}
+	}
+
+	@Test
+	public void testResolveDoesntWaitForPrefetches() throws Exception {
+		IType blocking = project.findType("org.sample.Foo");
+		IType type = project.findType("org.sample.TestJavadoc");
+		CountDownLatch release = new CountDownLatch(1);
+		cache.stop();
+		BlockingJavadocCache blockingCache = new BlockingJavadocCache(blocking, release);
+		cache = blockingCache;
+		try {
+			cache.prefetch(blocking, Format.MARKDOWN);
+			assertTrue(blockingCache.blocked.await(10, TimeUnit.SECONDS));
+			cache.prefetch(type, Format.MARKDOWN);
+			// queued behind the blocked prefetch, but rendered right away when resolved
+			assertEquals("Test javadoc class", cache.getJavadoc(type, Format.MARKDOWN, 5000));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	public void testCancelPrefetches() throws Exception {
+		IType blocking = project.findType("org.sample.Foo");
+		IType type = project.findType("org.sample.TestJavadoc");
+		CountDownLatch release = new CountDownLatch(1);
+		cache.stop();
+		BlockingJavadocCache blockingCache = new BlockingJavadocCache(blocking, release);
+		cache = blockingCache;
+		try {
+			cache.prefetch(blocking, Format.MARKDOWN);
+			assertTrue(blockingCache.blocked.await(10, TimeUnit.SECONDS));
+			cache.prefetch(type, Format.MARKDOWN);
+			assertEquals(2, cache.size());
+			cache.cancelPrefetches();
+			// only the prefetch being rendered is left
+			assertEquals(1, cache.size());
+		} finally {
+			release.countDown();
+		}
+		assertEquals("Test javadoc class", cache.getJavadoc(type, Format.MARKDOWN, 5000));
+	}
+
+	private static class BlockingJavadocCache extends JavadocCache {
+		private final IJavaElement blocking;
+		private final CountDownLatch release;
+		private final CountDownLatch blocked = new CountDownLatch(1);
+
+		BlockingJavadocCache(IJavaElement blocking, CountDownLatch release) {
+			this.blocking = blocking;
+			this.release = release;
+		}
+
+		@Override
+		protected String render(IJavaElement element, Format format) throws CoreException, IOException {
+			if (element.equals(blocking)) {
+				blocked.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return super.render(element, format);
+		}
+	}
+}
@@ -128,6 +128,35 @@ public class BasicFileDetectorTest {
 		}
 	}
 
+	@Test
+	public void testSharedScan() throws Exception {
+		File tempDirectory = new File(System.getProperty("java.io.tmpdir"), "/shared_scan_ws-" + new Random().nextInt(10000));
+		Path root = Paths.get(tempDirectory.getPath());
+		try {
+			FileUtils.copyDirectory(new File("projects/buildfiles"), tempDirectory);
+			BasicFileDetector.shareScan(root, "buildfile", "otherfile");
+			Collection<Path> nested = new BasicFileDetector(root, "buildfile").scan(null);
+			assertEquals("Found " + nested, 6, nested.size());
+			Collection<Path> notNested = new BasicFileDetector(root, "buildfile").includeNested(false).scan(null);
+			assertEquals("Found " + notNested, 1, notNested.size());
+			assertEquals(root, notNested.iterator().next());
+			Collection<Path> excluded = new BasicFileDetector(root, "buildfile").addExclusions("**/1_1").scan(null);
+			assertEquals("Found " + excluded, 3, excluded.size());
+
+			// served from the shared scan, not walked again
+			File newDir = new File(tempDirectory, "parent/new");
+			newDir.mkdirs();
+			new File(newDir, "buildfile").createNewFile();
+			assertEquals(6, new BasicFileDetector(root, "buildfile").scan(null).size());
+
+			BasicFileDetector.releaseSharedScan(root);
+			assertEquals(7, new BasicFileDetector(root, "buildfile").scan(null).size());
+		} finally {
+			BasicFileDetector.releaseSharedScan(root);
+			FileUtils.deleteDirectory(tempDirectory);
+		}
+	}
+
 	@SafeVarargs
 	private final <E> List<E> list(E... elements) {
 		return new ArrayList<>(Arrays.asList(elements));
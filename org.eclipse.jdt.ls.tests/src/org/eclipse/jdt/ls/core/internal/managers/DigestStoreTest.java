@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DigestStoreTest {
+
+	private File stateLocation;
+	private Path pom;
+
+	@Before
+	public void setUp() throws Exception {
+		stateLocation = Files.createTempDirectory("digest-store").toFile();
+		pom = new File(stateLocation, "pom.xml").toPath();
+		Files.write(pom, "<project/>".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.deleteQuietly(stateLocation);
+	}
+
+	@Test
+	public void testUpdateDigest() throws Exception {
+		DigestStore store = new DigestStore(stateLocation);
+		assertTrue(store.updateDigest(pom));
+		assertFalse(store.updateDigest(pom));
+
+		// same content, new modification time
+		Files.setLastModifiedTime(pom, FileTime.fromMillis(Files.getLastModifiedTime(pom).toMillis() - 10000));
+		assertFalse(store.updateDigest(pom));
+
+		Files.write(pom, "<project><modelVersion>4.0.0</modelVersion></project>".getBytes(StandardCharsets.UTF_8));
+		assertTrue(store.updateDigest(pom));
+		assertFalse(store.updateDigest(pom));
+	}
+
+	@Test
+	public void testPersistence() throws Exception {
+		DigestStore store = new DigestStore(stateLocation);
+		assertTrue(store.updateDigest(pom));
+		store.save();
+
+		store = new DigestStore(stateLocation);
+		assertFalse(store.updateDigest(pom));
+
+		Files.write(pom, "<project><modelVersion>4.0.0</modelVersion></project>".getBytes(StandardCharsets.UTF_8));
+		assertTrue(store.updateDigest(pom));
+		store.save();
+
+		// the latest appended digest wins
+		store = new DigestStore(stateLocation);
+		assertFalse(store.updateDigest(pom));
+	}
+
+	@Test
+	public void testLegacyFormat() throws Exception {
+		Map<String, String> digests = new HashMap<>();
+		digests.put(pom.toString(), Arrays.toString(MessageDigest.getInstance("MD5").digest(Files.readAllBytes(pom))));
+		try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(new File(stateLocation, ".file-digests")))) {
+			out.writeObject(digests);
+		}
+
+		DigestStore store = new DigestStore(stateLocation);
+		assertFalse(store.updateDigest(pom));
+		store.save();
+
+		store = new DigestStore(stateLocation);
+		assertFalse(store.updateDigest(pom));
+	}
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Arrays;
+
+import org.eclipse.core.runtime.Path;
+import org.junit.Test;
+
+public class FileWatcherPlannerTest {
+
+	@Test
+	public void testCollapseSourceFolders() {
+		FileWatcherPlanner planner = new FileWatcherPlanner();
+		planner.addFolder("foo", new Path("/work/foo/src/main/java"));
+		planner.addFolder("foo", new Path("/work/foo/src/test/java"));
+		planner.addFolder("bar", new Path("/work/bar/src"));
+		planner.addFile("/work/formatter.xml");
+		//@formatter:off
+		assertEquals(Arrays.asList(
+				"/work/bar/src/**",
+				"/work/foo/src/{main/java,test/java}/**",
+				"/work/formatter.xml"),
+				planner.getPatterns());
+		//@formatter:on
+	}
+
+	@Test
+	public void testSkipNestedFolders() {
+		FileWatcherPlanner planner = new FileWatcherPlanner();
+		planner.addFolder("invisible", new Path("/work/invisible"));
+		planner.addFolder("invisible", new Path("/work/invisible/lib"));
+		planner.addFolder("nested", new Path("/work/invisible/nested/src"));
+		assertEquals(Arrays.asList("/work/invisible/**"), planner.getPatterns());
+	}
+
+	@Test
+	public void testGlobCharacters() {
+		FileWatcherPlanner planner = new FileWatcherPlanner();
+		planner.addFolder("foo", new Path("/work/foo/src{1}"));
+		planner.addFolder("foo", new Path("/work/foo/src2"));
+		planner.addFolder("foo", new Path("/work/foo/src3"));
+		assertEquals(Arrays.asList("/work/foo/src{1}/**", "/work/foo/{src2,src3}/**"), planner.getPatterns());
+	}
+
+	@Test
+	public void testEquals() {
+		FileWatcherPlanner planner = new FileWatcherPlanner();
+		planner.addFolder("foo", new Path("/work/foo/src/main/java"));
+		planner.addFolder("foo", new Path("/work/foo/src/test/java"));
+		FileWatcherPlanner other = new FileWatcherPlanner();
+		other.addFolder("foo", new Path("/work/foo/src/test/java"));
+		other.addFolder("foo", new Path("/work/foo/src/main/java"));
+		assertEquals(planner, other);
+		other.addFolder("foo", new Path("/work/foo/src/it/java"));
+		assertNotEquals(planner, other);
+	}
+}
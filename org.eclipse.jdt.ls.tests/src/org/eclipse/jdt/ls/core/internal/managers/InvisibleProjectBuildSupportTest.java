@@ -12,6 +12,7 @@ package org.eclipse.jdt.ls.core.internal.managers;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.io.File;
 import java.nio.file.Files;
@@ -20,14 +21,18 @@ import java.util.List;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.IJobChangeListener;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElementDelta;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ls.core.internal.JavaProjectHelper;
+import org.eclipse.jdt.ls.core.internal.ProjectUtils;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager.CHANGE_TYPE;
 import org.junit.Test;
@@ -139,4 +144,43 @@ public class InvisibleProjectBuildSupportTest extends AbstractInvisibleProjectBa
 
 	}
 
+	@Test
+	public void testIncrementalLibUpdate() throws Exception {
+		File projectFolder = createSourceFolderWithMissingLibs("dynamicLibDetection");
+		IProject project = importRootFolder(projectFolder, "Test.java");
+		IJavaProject javaProject = JavaCore.create(project);
+		addLibs(projectFolder.toPath());
+		Path libPath = projectFolder.toPath().resolve(InvisibleProjectBuildSupport.LIB_FOLDER);
+		IPath libFolderPath = new org.eclipse.core.runtime.Path(libPath.toString());
+		ProjectUtils.updateBinaries(javaProject, libFolderPath, monitor);
+		IClasspathEntry fooEntry = javaProject.getRawClasspath()[2];
+		assertEquals("foo.jar", fooEntry.getPath().lastSegment());
+
+		int[] classpathChanges = new int[1];
+		IElementChangedListener listener = event -> {
+			for (IJavaElementDelta delta : event.getDelta().getAffectedChildren()) {
+				if (javaProject.equals(delta.getElement()) && (delta.getFlags() & IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED) != 0) {
+					classpathChanges[0]++;
+				}
+			}
+		};
+		JavaCore.addElementChangedListener(listener);
+		try {
+			//nothing changed
+			ProjectUtils.updateBinaries(javaProject, libFolderPath, monitor);
+			assertEquals("The classpath should not have been reset", 0, classpathChanges[0]);
+
+			//only the new jar is added
+			Files.copy(libPath.resolve("foo.jar"), libPath.resolve("bar.jar"));
+			ProjectUtils.updateBinaries(javaProject, libFolderPath, monitor);
+			IClasspathEntry[] classpath = javaProject.getRawClasspath();
+			assertEquals("Unexpected classpath:\n" + JavaProjectHelper.toString(classpath), 4, classpath.length);
+			assertSame(fooEntry, classpath[2]);
+			assertEquals("bar.jar", classpath[3].getPath().lastSegment());
+			assertNull(classpath[3].getSourceAttachmentPath());
+			assertEquals(1, classpathChanges[0]);
+		} finally {
+			JavaCore.removeElementChangedListener(listener);
+		}
+	}
 }
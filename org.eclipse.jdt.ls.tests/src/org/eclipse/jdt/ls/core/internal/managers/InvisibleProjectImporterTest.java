@@ -71,12 +71,10 @@ public class InvisibleProjectImporterTest extends AbstractInvisibleProjectBasedT
 		assertEquals("foo-sources.jar", classpath[2].getSourceAttachmentPath().lastSegment());
 
 		List<FileSystemWatcher> watchers = projectsManager.registerWatchers();
-		watchers.sort((a, b) -> a.getGlobPattern().compareTo(b.getGlobPattern()));
-		assertEquals(2, watchers.size());
+		// the lib folder is in the source folder
+		assertEquals(1, watchers.size());
 		String srcGlobPattern = watchers.get(0).getGlobPattern();
 		assertTrue("Unexpected source glob pattern: " + srcGlobPattern, srcGlobPattern.endsWith(projectFolder.getName() + "/**"));
-		String libGlobPattern = watchers.get(1).getGlobPattern();
-		assertTrue("Unexpected lib glob pattern: " + libGlobPattern, libGlobPattern.endsWith(projectFolder.getName() + "/lib/**"));
 	}
 
 	@Test
@@ -18,8 +18,11 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 
 import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -134,6 +137,34 @@ public class MavenBuildSupportTest extends AbstractMavenBasedTest {
 		}
 	}
 
+	@Test
+	public void testFilesChangedUpdatesProjectOnce() throws Exception {
+		IProject project = importSimpleJavaProject();
+		Map<String, CHANGE_TYPE> changes = new LinkedHashMap<>();
+		changes.put(project.getFile("pom.xml").getRawLocationURI().toString(), CHANGE_TYPE.CHANGED);
+		changes.put(project.getFile("src/main/java/java/Foo.java").getRawLocationURI().toString(), CHANGE_TYPE.CHANGED);
+		changes.put(project.getFile("src/main/java/java/Foo2.java").getRawLocationURI().toString(), CHANGE_TYPE.CHANGED);
+
+		preferences.setUpdateBuildConfigurationStatus(FeatureStatus.automatic);
+		AtomicInteger updates = new AtomicInteger();
+		IJobChangeListener listener = new JobChangeAdapter() {
+			@Override
+			public void scheduled(IJobChangeEvent event) {
+				if (event.getJob().getName().contains("Update project")) {
+					updates.incrementAndGet();
+				}
+			}
+		};
+		try {
+			Job.getJobManager().addJobChangeListener(listener);
+			projectsManager.filesChanged(changes);
+			waitForBackgroundJobs();
+			assertEquals(1, updates.get());
+		} finally {
+			Job.getJobManager().removeJobChangeListener(listener);
+		}
+	}
+
 	@Test
 	public void testBuildHelperSupport() throws Exception {
 		IProject project = importMavenProject("buildhelped");
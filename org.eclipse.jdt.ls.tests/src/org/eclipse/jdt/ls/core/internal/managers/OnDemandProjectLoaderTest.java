@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OnDemandProjectLoaderTest extends AbstractMavenBasedTest {
+
+	@Before
+	public void enableImportOnDemand() {
+		preferences.setImportOnDemandEnabled(true);
+	}
+
+	@After
+	public void disableImportOnDemand() {
+		preferences.setImportOnDemandEnabled(false);
+	}
+
+	@Test
+	public void testLoadModule() throws Exception {
+		List<IProject> projects = importProjects("maven/multimodule");
+		assertEquals(1, projects.size());//default project only
+		assertNull(WorkspaceHelper.getProject("module2"));
+
+		File file = new File(getWorkingProjectDirectory(), "maven/multimodule/module2/src/main/java/foo/Bar.java");
+		assertTrue(projectsManager.loadProjects(file.toURI().toString(), monitor));
+		waitForBackgroundJobs();
+		assertIsMavenProject(WorkspaceHelper.getProject("module2"));
+		// the parent is needed to build the module
+		assertIsMavenProject(WorkspaceHelper.getProject("multimodule"));
+		assertNull(WorkspaceHelper.getProject("module1"));
+		assertNull(WorkspaceHelper.getProject("childmodule"));
+
+		assertFalse(projectsManager.loadProjects(file.toURI().toString(), monitor));
+	}
+
+	@Test
+	public void testLoadDependents() throws Exception {
+		importProjects("maven/ondemand");
+		String uri = new File(getWorkingProjectDirectory(), "maven/ondemand/api/src/main/java/api/Api.java").toURI().toString();
+		assertTrue(projectsManager.needsLoading(uri));
+		assertTrue(projectsManager.loadProjects(uri, monitor));
+		waitForBackgroundJobs();
+		assertFalse(projectsManager.needsLoading(uri));
+		IProject api = WorkspaceHelper.getProject("api");
+		assertIsMavenProject(api);
+		assertIsMavenProject(WorkspaceHelper.getProject("ondemand"));
+		assertNull(WorkspaceHelper.getProject("impl"));
+		assertNull(WorkspaceHelper.getProject("other"));
+
+		// impl may reference the elements of api
+		assertTrue(projectsManager.loadDependentProjects(api, monitor));
+		waitForBackgroundJobs();
+		assertIsMavenProject(WorkspaceHelper.getProject("impl"));
+		assertNull(WorkspaceHelper.getProject("other"));
+
+		assertFalse(projectsManager.loadDependentProjects(api, monitor));
+	}
+}
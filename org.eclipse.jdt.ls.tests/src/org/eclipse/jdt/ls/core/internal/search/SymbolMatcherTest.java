@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.search;
+
+import static org.eclipse.jdt.ls.core.internal.search.SymbolMatcher.NO_MATCH;
+import static org.eclipse.jdt.ls.core.internal.search.SymbolMatcher.score;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SymbolMatcherTest {
+
+	@Test
+	public void testNoMatch() {
+		assertEquals(NO_MATCH, score("Foo", "Bar"));
+		assertEquals(NO_MATCH, score("Foo", "Fo"));
+		assertEquals(NO_MATCH, score("Fzz", "FooBar"));
+	}
+
+	@Test
+	public void testRanking() {
+		int exact = score("HashMap", "HashMap");
+		int exactIgnoreCase = score("hashmap", "HashMap");
+		int prefix = score("Hash", "HashMap");
+		int prefixIgnoreCase = score("hash", "HashMap");
+		int camelCase = score("HaMa", "HashMap");
+		int fuzzy = score("hmp", "HashMap");
+		assertTrue(exact > exactIgnoreCase);
+		assertTrue(exactIgnoreCase > prefix);
+		assertTrue(prefix > prefixIgnoreCase);
+		assertTrue(prefixIgnoreCase > camelCase);
+		assertTrue(camelCase > fuzzy);
+		assertNotEquals(NO_MATCH, fuzzy);
+	}
+
+	@Test
+	public void testShorterNamesFirst() {
+		assertTrue(score("List", "List") > score("List", "ListIterator"));
+		assertTrue(score("Lis", "List") > score("Lis", "ListIterator"));
+		assertTrue(score("NPE", "NullPointerException") > score("NPE", "NullPointerExceptionHandler"));
+	}
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.search.text;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
+import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LiteralFileFilterTest extends AbstractProjectsManagerBasedTest {
+
+	private static final String LITERAL = "java.Foo";
+
+	private IProject project;
+	private int mapThreshold;
+
+	@Before
+	public void setup() throws Exception {
+		importProjects("eclipse/hello");
+		project = WorkspaceHelper.getProject("hello");
+		mapThreshold = LiteralFileFilter.MAP_THRESHOLD;
+	}
+
+	@After
+	public void restoreMapThreshold() {
+		LiteralFileFilter.MAP_THRESHOLD = mapThreshold;
+	}
+
+	@Test
+	public void testIsSupported() {
+		assertTrue(LiteralFileFilter.isSupported(LITERAL));
+		assertFalse(LiteralFileFilter.isSupported(""));
+		assertFalse(LiteralFileFilter.isSupported(null));
+		assertFalse(LiteralFileFilter.isSupported("java.Fo\u00f4"));
+	}
+
+	@Test
+	public void testMayContain() throws Exception {
+		LiteralFileFilter filter = new LiteralFileFilter(LITERAL);
+		assertTrue(filter.mayContain(createFile("start.properties", "java.Foo=1", StandardCharsets.UTF_8)));
+		assertTrue(filter.mayContain(createFile("end.xml", "<class>java.Foo", StandardCharsets.ISO_8859_1)));
+		assertFalse(filter.mayContain(createFile("none.xml", "<class>java.Bar</class>", StandardCharsets.UTF_8)));
+		assertFalse(filter.mayContain(createFile("partial.xml", "<class>java.Fo</class>", StandardCharsets.UTF_8)));
+		assertFalse(filter.mayContain(createFile("empty.xml", "", StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void testUnsupportedCharset() throws Exception {
+		LiteralFileFilter filter = new LiteralFileFilter(LITERAL);
+		// can't be told without decoding
+		assertTrue(filter.mayContain(createFile("utf16.xml", "<class>java.Bar</class>", StandardCharsets.UTF_16)));
+	}
+
+	@Test
+	public void testMappedFile() throws Exception {
+		// mapped files can't be deleted on Windows until they're unmapped
+		assumeFalse(Platform.OS_WIN32.equals(Platform.getOS()));
+		LiteralFileFilter.MAP_THRESHOLD = 1;
+		LiteralFileFilter filter = new LiteralFileFilter(LITERAL);
+		assertTrue(filter.mayContain(createFile("mapped.properties", "foo=java.Foo", StandardCharsets.UTF_8)));
+		assertFalse(filter.mayContain(createFile("unmapped.properties", "foo=java.Bar", StandardCharsets.UTF_8)));
+	}
+
+	private IFile createFile(String name, String content, Charset charset) throws Exception {
+		IFile file = project.getFile(name);
+		file.create(new ByteArrayInputStream(content.getBytes(charset)), true, monitor);
+		file.setCharset(charset.name(), monitor);
+		return file;
+	}
+}